@@ -2,8 +2,10 @@ package org.satvik.moviebookingsystembackend;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class MovieBookingSystemBackendApplication {
 
     public static void main(String[] args) {
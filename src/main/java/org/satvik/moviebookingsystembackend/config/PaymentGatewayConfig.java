@@ -0,0 +1,19 @@
+package org.satvik.moviebookingsystembackend.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+@Configuration
+public class PaymentGatewayConfig {
+
+    // Gateway round trips run here, off the request thread and outside any DB transaction.
+    // One virtual thread per call: a blocked call costs no platform thread, and concurrency
+    // is bounded by the bulkhead in PaymentGatewayClient rather than by a pool size.
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService paymentGatewayExecutor() {
+        return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("payment-gateway-", 0).factory());
+    }
+}
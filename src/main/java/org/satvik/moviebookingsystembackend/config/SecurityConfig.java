@@ -1,9 +1,14 @@
 package org.satvik.moviebookingsystembackend.config;
 
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
 import org.satvik.moviebookingsystembackend.repository.UserRepository;
+import org.satvik.moviebookingsystembackend.security.AccountStatusCache;
 import org.satvik.moviebookingsystembackend.security.JwtAuthFilter;
 import org.satvik.moviebookingsystembackend.security.JwtService;
+import org.satvik.moviebookingsystembackend.security.RateLimitFilter;
+import org.satvik.moviebookingsystembackend.security.RateLimiter;
+import org.satvik.moviebookingsystembackend.security.TokenRevocationList;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -40,6 +45,9 @@ public class SecurityConfig {
     @Value("${app.cors.allowed-origins}")
     private String allowedOrigins;
 
+    @Value("${app.auth.bcrypt-strength:10}")
+    private int bcryptStrength;
+
     // ✅ UserDetailsService
     @Bean
     public UserDetailsService userDetailsService() {
@@ -49,25 +57,36 @@ public class SecurityConfig {
 
     // ✅ JwtAuthFilter Bean (NO @Component anymore)
     @Bean
-    public JwtAuthFilter jwtAuthFilter(UserDetailsService userDetailsService) {
-        return new JwtAuthFilter(jwtService, userDetailsService);
+    public JwtAuthFilter jwtAuthFilter(TokenRevocationList tokenRevocationList,
+                                       AccountStatusCache accountStatusCache) {
+        return new JwtAuthFilter(jwtService, tokenRevocationList, accountStatusCache);
+    }
+
+    @Bean
+    public RateLimitFilter rateLimitFilter(RateLimiter rateLimiter) {
+        return new RateLimitFilter(rateLimiter);
     }
 
     // ✅ Security Filter Chain
     @Bean
     public SecurityFilterChain securityFilterChain(
             HttpSecurity http,
-            JwtAuthFilter jwtAuthFilter
+            JwtAuthFilter jwtAuthFilter,
+            RateLimitFilter rateLimitFilter
     ) throws Exception {
 
         http
                 .csrf(csrf -> csrf.disable())
                 .cors(cors -> cors.configurationSource(corsConfigurationSource()))
                 .authorizeHttpRequests(auth -> auth
+                        // The CompletableFuture endpoints finish in an ASYNC re-dispatch; the request
+                        // was authorized on the way in, and the JWT context is not carried over
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC, DispatcherType.ERROR).permitAll()
                         .requestMatchers("/api/auth/**").permitAll()
                         .requestMatchers(HttpMethod.GET, "/api/movies/**").permitAll()
                         .requestMatchers(HttpMethod.GET, "/api/theatres/**").permitAll()
                         .requestMatchers(HttpMethod.GET, "/api/shows/**").permitAll()
+                        .requestMatchers(HttpMethod.GET, "/api/search/**").permitAll()
                         .requestMatchers("/api/admin/**").hasRole("ADMIN")
                         .anyRequest().authenticated()
                 )
@@ -75,7 +94,8 @@ public class SecurityConfig {
                         session.sessionCreationPolicy(SessionCreationPolicy.STATELESS)
                 )
                 .authenticationProvider(authenticationProvider())
-                .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class);
+                .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class)
+                .addFilterAfter(rateLimitFilter, JwtAuthFilter.class);
 
         return http.build();
     }
@@ -98,7 +118,7 @@ public class SecurityConfig {
 
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        return new BCryptPasswordEncoder(bcryptStrength);
     }
 
     // ✅ CORS
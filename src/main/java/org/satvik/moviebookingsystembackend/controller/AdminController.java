@@ -0,0 +1,78 @@
+package org.satvik.moviebookingsystembackend.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.satvik.moviebookingsystembackend.dto.WaitingRoomDTO;
+import org.satvik.moviebookingsystembackend.entity.User;
+import org.satvik.moviebookingsystembackend.gateway.GatewayStats;
+import org.satvik.moviebookingsystembackend.gateway.PaymentGatewayClient;
+import org.satvik.moviebookingsystembackend.security.PasswordHasher;
+import org.satvik.moviebookingsystembackend.security.PasswordHashingStats;
+import org.satvik.moviebookingsystembackend.service.AuthService;
+import org.satvik.moviebookingsystembackend.service.ShowReadCoalescer;
+import org.satvik.moviebookingsystembackend.service.SingleFlight;
+import org.satvik.moviebookingsystembackend.service.WaitingRoomService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * Operational endpoints. Everything under /api/admin is restricted to ADMIN in SecurityConfig.
+ */
+@RestController
+@RequestMapping("/api/admin")
+@RequiredArgsConstructor
+public class AdminController {
+
+    private final PaymentGatewayClient paymentGatewayClient;
+    private final AuthService authService;
+    private final PasswordHasher passwordHasher;
+    private final WaitingRoomService waitingRoomService;
+    private final ShowReadCoalescer showReadCoalescer;
+
+    @GetMapping("/payments/gateway")
+    public ResponseEntity<GatewayStats> getPaymentGatewayStats() {
+        return ResponseEntity.ok(paymentGatewayClient.stats());
+    }
+
+    @GetMapping("/auth/hashing")
+    public ResponseEntity<PasswordHashingStats> getPasswordHashingStats() {
+        return ResponseEntity.ok(passwordHasher.stats());
+    }
+
+    @GetMapping("/shows/read-coalescing")
+    public ResponseEntity<List<SingleFlight.Stats>> getShowReadCoalescingStats() {
+        return ResponseEntity.ok(showReadCoalescer.stats());
+    }
+
+    @PostMapping("/users/{id}/deactivate")
+    public ResponseEntity<Void> deactivateUser(@PathVariable Long id) {
+        authService.deactivateUser(id);
+        return ResponseEntity.noContent().build();
+    }
+
+    @PatchMapping("/users/{id}/role")
+    public ResponseEntity<Void> changeRole(@PathVariable Long id, @RequestParam User.Role role) {
+        authService.changeRole(id, role);
+        return ResponseEntity.noContent().build();
+    }
+
+    @GetMapping("/waiting-rooms")
+    public ResponseEntity<List<WaitingRoomDTO.RoomStats>> getWaitingRooms() {
+        return ResponseEntity.ok(waitingRoomService.stats());
+    }
+
+    @PutMapping("/shows/{showId}/waiting-room")
+    public ResponseEntity<WaitingRoomDTO.RoomStats> openWaitingRoom(
+            @PathVariable Long showId,
+            @RequestParam(defaultValue = "50") int admitPerSecond,
+            @RequestParam(defaultValue = "10") int admissionMinutes) {
+        return ResponseEntity.ok(waitingRoomService.open(showId, admitPerSecond, admissionMinutes));
+    }
+
+    @DeleteMapping("/shows/{showId}/waiting-room")
+    public ResponseEntity<Void> closeWaitingRoom(@PathVariable Long showId) {
+        waitingRoomService.close(showId);
+        return ResponseEntity.noContent().build();
+    }
+}
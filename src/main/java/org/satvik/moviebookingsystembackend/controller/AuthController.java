@@ -1,13 +1,13 @@
 package org.satvik.moviebookingsystembackend.controller;
 
 import org.satvik.moviebookingsystembackend.dto.AuthDTO;
+import org.satvik.moviebookingsystembackend.security.AuthenticatedUser;
 import org.satvik.moviebookingsystembackend.service.AuthService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 
 @RestController
@@ -29,12 +29,25 @@ public class AuthController {
         return ResponseEntity.ok(authService.login(request));
     }
 
+    @PostMapping("/refresh")
+    public ResponseEntity<AuthDTO.AuthResponse> refresh(
+            @Valid @RequestBody AuthDTO.RefreshTokenRequest request) {
+        return ResponseEntity.ok(authService.refresh(request.getRefreshToken()));
+    }
+
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(
+            @AuthenticationPrincipal AuthenticatedUser user,
+            @RequestBody(required = false) AuthDTO.RefreshTokenRequest request) {
+        authService.logout(request != null ? request.getRefreshToken() : null, user);
+        return ResponseEntity.noContent().build();
+    }
+
     @PostMapping("/change-password")
-    public ResponseEntity<Void> changePassword(
-            @AuthenticationPrincipal UserDetails userDetails,
+    public ResponseEntity<AuthDTO.AuthResponse> changePassword(
+            @AuthenticationPrincipal AuthenticatedUser user,
             @Valid @RequestBody AuthDTO.ChangePasswordRequest request) {
-        authService.changePassword(userDetails.getUsername(), request);
-        return ResponseEntity.ok().build();
+        return ResponseEntity.ok(authService.changePassword(user, request));
     }
 }
 
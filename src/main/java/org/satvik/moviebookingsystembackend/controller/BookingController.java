@@ -1,9 +1,12 @@
 package org.satvik.moviebookingsystembackend.controller;
 
 import org.satvik.moviebookingsystembackend.dto.BookingDTO;
-import org.satvik.moviebookingsystembackend.entity.User;
-import org.satvik.moviebookingsystembackend.service.BookingService;
+import org.satvik.moviebookingsystembackend.entity.Booking;
+import org.satvik.moviebookingsystembackend.security.AuthenticatedUser;
+import org.satvik.moviebookingsystembackend.service.BookingHistoryService;
+import org.satvik.moviebookingsystembackend.service.CheckoutService;
 import org.satvik.moviebookingsystembackend.service.TicketService;
+import org.satvik.moviebookingsystembackend.service.WaitingRoomService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
@@ -12,54 +15,86 @@ import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api/bookings")
 @RequiredArgsConstructor
 public class BookingController {
 
-    private final BookingService bookingService;
+    private final BookingHistoryService bookingHistoryService;
+    private final CheckoutService checkoutService;
     private final TicketService ticketService;
+    private final WaitingRoomService waitingRoomService;
 
+    // The checkout endpoints complete asynchronously: the request thread is released
+    // while the payment gateway is being called.
     @PostMapping("/initiate")
-    public ResponseEntity<BookingDTO.BookingResponse> initiateBooking(
-            @AuthenticationPrincipal User user,
+    public CompletableFuture<ResponseEntity<BookingDTO.BookingResponse>> initiateBooking(
+            @AuthenticationPrincipal AuthenticatedUser user,
+            @RequestHeader(value = "X-Admission-Token", required = false) String admissionToken,
             @RequestBody BookingDTO.BookingRequest request) {
-        return ResponseEntity.ok(bookingService.initiateBooking(user.getId(), request));
+        waitingRoomService.checkAdmission(request.getShowId(), user.id(), admissionToken);
+        return checkoutService.initiateBooking(user.id(), request).thenApply(ResponseEntity::ok);
+    }
+
+    // Several shows booked all together or not at all, paid with one payment
+    @PostMapping("/cart")
+    public CompletableFuture<ResponseEntity<BookingDTO.CartResponse>> initiateCart(
+            @AuthenticationPrincipal AuthenticatedUser user,
+            @RequestHeader(value = "X-Admission-Token", required = false) String admissionToken,
+            @RequestBody BookingDTO.CartRequest request) {
+        if (request.getItems() != null) {
+            // Each show has its own waiting room; the header still serves a cart with a single one
+            for (BookingDTO.BookingRequest item : request.getItems()) {
+                String token = item.getAdmissionToken() != null ? item.getAdmissionToken() : admissionToken;
+                waitingRoomService.checkAdmission(item.getShowId(), user.id(), token);
+            }
+        }
+        return checkoutService.initiateCart(user.id(), request).thenApply(ResponseEntity::ok);
+    }
+
+    @PostMapping("/cart/confirm")
+    public CompletableFuture<ResponseEntity<List<BookingDTO.BookingResponse>>> confirmCart(
+            @RequestBody BookingDTO.PaymentVerificationRequest request) {
+        return checkoutService.confirmCart(request).thenApply(ResponseEntity::ok);
     }
 
     @PostMapping("/confirm")
-    public ResponseEntity<BookingDTO.BookingResponse> confirmBooking(
+    public CompletableFuture<ResponseEntity<BookingDTO.BookingResponse>> confirmBooking(
             @RequestBody BookingDTO.PaymentVerificationRequest request) {
-        return ResponseEntity.ok(bookingService.confirmBooking(request));
+        return checkoutService.confirmBooking(request).thenApply(ResponseEntity::ok);
     }
 
     @PostMapping("/{bookingId}/cancel")
-    public ResponseEntity<Void> cancelBooking(
+    public CompletableFuture<ResponseEntity<Void>> cancelBooking(
             @PathVariable Long bookingId,
-            @AuthenticationPrincipal User user,
+            @AuthenticationPrincipal AuthenticatedUser user,
             @RequestBody BookingDTO.CancelBookingRequest request) {
-        bookingService.cancelBooking(bookingId, user.getId(), request.getReason());
-        return ResponseEntity.ok().build();
+        return checkoutService.cancelBooking(bookingId, user.id(), request.getReason())
+                .thenApply(done -> ResponseEntity.ok().<Void>build());
     }
 
     @GetMapping("/my-bookings")
-    public ResponseEntity<List<BookingDTO.BookingResponse>> getMyBookings(
-            @AuthenticationPrincipal User user) {
-        return ResponseEntity.ok(bookingService.getUserBookings(user.getId()));
+    public ResponseEntity<BookingDTO.BookingPage> getMyBookings(
+            @AuthenticationPrincipal AuthenticatedUser user,
+            @RequestParam(required = false) List<Booking.BookingStatus> status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(bookingHistoryService.getUserBookings(user.id(), status, cursor, limit));
     }
 
     @GetMapping("/reference/{reference}")
     public ResponseEntity<BookingDTO.BookingResponse> getBookingByReference(
             @PathVariable String reference) {
-        return ResponseEntity.ok(bookingService.getBookingByReference(reference));
+        return ResponseEntity.ok(bookingHistoryService.getBookingByReference(reference));
     }
 
     @GetMapping("/{bookingId}/ticket")
     public ResponseEntity<byte[]> downloadTicket(
             @PathVariable Long bookingId,
-            @AuthenticationPrincipal User user) {
-        byte[] ticketPdf = ticketService.generateTicketPdf(bookingId, user.getId());
+            @AuthenticationPrincipal AuthenticatedUser user) {
+        byte[] ticketPdf = ticketService.generateTicketPdf(bookingId, user.id());
         return ResponseEntity.ok()
                 .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=ticket-" + bookingId + ".pdf")
                 .contentType(MediaType.APPLICATION_PDF)
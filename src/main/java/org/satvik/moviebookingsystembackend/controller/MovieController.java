@@ -2,6 +2,8 @@ package org.satvik.moviebookingsystembackend.controller;
 
 
 import org.satvik.moviebookingsystembackend.dto.MovieDTO;
+import org.satvik.moviebookingsystembackend.entity.Movie;
+import org.satvik.moviebookingsystembackend.service.MovieCatalog;
 import org.satvik.moviebookingsystembackend.service.MovieService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -9,8 +11,11 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.time.LocalDate;
 import java.util.List;
+import java.util.function.Function;
 
 @RestController
 @RequestMapping("/api/movies")
@@ -20,13 +25,13 @@ public class MovieController {
     private final MovieService movieService;
 
     @GetMapping
-    public ResponseEntity<List<MovieDTO.MovieResponse>> getAllMovies() {
-        return ResponseEntity.ok(movieService.getAllActiveMovies());
+    public ResponseEntity<List<MovieDTO.MovieResponse>> getAllMovies(WebRequest webRequest) {
+        return fromCatalog(webRequest, MovieCatalog.Snapshot::active);
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<MovieDTO.MovieResponse> getMovieById(@PathVariable Long id) {
-        return ResponseEntity.ok(movieService.getMovieById(id));
+    public ResponseEntity<MovieDTO.MovieResponse> getMovieById(@PathVariable Long id, WebRequest webRequest) {
+        return fromCatalog(webRequest, catalog -> movieService.movieById(catalog, id));
     }
 
     @GetMapping("/search")
@@ -35,8 +40,21 @@ public class MovieController {
     }
 
     @GetMapping("/genre/{genre}")
-    public ResponseEntity<List<MovieDTO.MovieResponse>> getMoviesByGenre(@PathVariable String genre) {
-        return ResponseEntity.ok(movieService.getMoviesByGenre(genre));
+    public ResponseEntity<List<MovieDTO.MovieResponse>> getMoviesByGenre(@PathVariable String genre,
+                                                                         WebRequest webRequest) {
+        return fromCatalog(webRequest, catalog -> catalog.byGenre(genre));
+    }
+
+    @GetMapping("/language/{language}")
+    public ResponseEntity<List<MovieDTO.MovieResponse>> getMoviesByLanguage(@PathVariable String language,
+                                                                            WebRequest webRequest) {
+        return fromCatalog(webRequest, catalog -> catalog.byLanguage(language));
+    }
+
+    @GetMapping("/certificate/{certificate}")
+    public ResponseEntity<List<MovieDTO.MovieResponse>> getMoviesByCertificate(
+            @PathVariable Movie.Certificate certificate, WebRequest webRequest) {
+        return fromCatalog(webRequest, catalog -> catalog.byCertificate(certificate));
     }
 
     @GetMapping("/now-playing")
@@ -45,19 +63,27 @@ public class MovieController {
     }
 
     @GetMapping("/upcoming")
-    public ResponseEntity<List<MovieDTO.MovieResponse>> getUpcoming() {
-        return ResponseEntity.ok(movieService.getUpcomingMovies());
+    public ResponseEntity<List<MovieDTO.MovieResponse>> getUpcoming(WebRequest webRequest) {
+        // Also depends on the day, not only on the catalog content
+        LocalDate today = LocalDate.now();
+        return fromCatalog(webRequest, "-" + today, catalog -> catalog.releasedAfter(today));
     }
 
     @GetMapping("/top-rated")
     public ResponseEntity<List<MovieDTO.MovieResponse>> getTopRated(
+            @RequestParam(defaultValue = "10") int limit, WebRequest webRequest) {
+        return fromCatalog(webRequest, catalog -> catalog.topRated(limit));
+    }
+
+    @GetMapping("/trending")
+    public ResponseEntity<List<MovieDTO.MovieResponse>> getTrending(
             @RequestParam(defaultValue = "10") int limit) {
-        return ResponseEntity.ok(movieService.getTopRatedMovies(limit));
+        return ResponseEntity.ok(movieService.getTrendingMovies(Math.clamp(limit, 1, 50)));
     }
 
     @GetMapping("/genres")
-    public ResponseEntity<List<String>> getAllGenres() {
-        return ResponseEntity.ok(movieService.getAllGenres());
+    public ResponseEntity<List<String>> getAllGenres(WebRequest webRequest) {
+        return fromCatalog(webRequest, MovieCatalog.Snapshot::genres);
     }
 
     @PostMapping
@@ -81,5 +107,23 @@ public class MovieController {
         movieService.deleteMovie(id);
         return ResponseEntity.noContent().build();
     }
+
+    /**
+     * Serves a read from one catalog snapshot, tagged with its content hash. A client that
+     * already holds that content gets 304 Not Modified without a body, whichever node it asks.
+     */
+    private <T> ResponseEntity<T> fromCatalog(WebRequest webRequest, Function<MovieCatalog.Snapshot, T> read) {
+        return fromCatalog(webRequest, "", read);
+    }
+
+    private <T> ResponseEntity<T> fromCatalog(WebRequest webRequest, String tagSuffix,
+                                              Function<MovieCatalog.Snapshot, T> read) {
+        MovieCatalog.Snapshot catalog = movieService.catalog();
+        String etag = "\"catalog-" + catalog.contentHash() + tagSuffix + "\"";
+        if (webRequest.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        return ResponseEntity.ok().eTag(etag).body(read.apply(catalog));
+    }
 }
 
@@ -0,0 +1,32 @@
+package org.satvik.moviebookingsystembackend.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.satvik.moviebookingsystembackend.dto.SearchDTO;
+import org.satvik.moviebookingsystembackend.service.SearchService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/search")
+@RequiredArgsConstructor
+public class SearchController {
+
+    private final SearchService searchService;
+
+    @GetMapping
+    public ResponseEntity<SearchDTO.SearchResponse> search(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(searchService.search(q, limit));
+    }
+
+    @GetMapping("/suggest")
+    public ResponseEntity<SearchDTO.SearchResponse> suggest(
+            @RequestParam String prefix,
+            @RequestParam(defaultValue = "8") int limit) {
+        return ResponseEntity.ok(searchService.suggest(prefix, limit));
+    }
+}
@@ -2,13 +2,21 @@ package org.satvik.moviebookingsystembackend.controller;
 
 
 import org.satvik.moviebookingsystembackend.dto.MovieDTO;
+import org.satvik.moviebookingsystembackend.entity.Show;
+import org.satvik.moviebookingsystembackend.service.CompactSeatLayoutService;
+import org.satvik.moviebookingsystembackend.service.SeatMapBroadcaster;
 import org.satvik.moviebookingsystembackend.service.ShowService;
+import org.satvik.moviebookingsystembackend.service.WaitingRoomService;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -19,6 +27,9 @@ import java.util.List;
 public class ShowController {
 
     private final ShowService showService;
+    private final WaitingRoomService waitingRoomService;
+    private final SeatMapBroadcaster seatMapBroadcaster;
+    private final CompactSeatLayoutService compactSeatLayoutService;
 
     @GetMapping("/movie/{movieId}")
     public ResponseEntity<List<MovieDTO.ShowResponse>> getShowsByMovie(
@@ -40,21 +51,67 @@ public class ShowController {
                 date != null ? date : LocalDate.now()));
     }
 
+    @GetMapping("/search")
+    public ResponseEntity<MovieDTO.ShowSearchResponse> searchShows(
+            MovieDTO.ShowFilter filter,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(showService.findShows(filter, page, size));
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<MovieDTO.ShowResponse> getShow(@PathVariable Long id) {
         return ResponseEntity.ok(showService.getShowById(id));
     }
 
+    // While the show has a waiting room, the layout is only served to admitted clients.
+    // JSON by default; clients accepting the compact type get seat states against the
+    // screen geometry, and only the changes when they pass a recent version as since.
     @GetMapping("/{showId}/seats")
-    public ResponseEntity<List<MovieDTO.SeatLayoutResponse>> getSeatLayout(@PathVariable Long showId) {
+    public ResponseEntity<?> getSeatLayout(
+            @PathVariable Long showId,
+            @RequestParam(required = false) Long since,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            @RequestHeader(value = "X-Admission-Token", required = false) String admissionToken) {
+        waitingRoomService.checkAdmission(showId, null, admissionToken);
+        if (accept != null && accept.contains(MovieDTO.CompactSeatLayout.MEDIA_TYPE)) {
+            return ResponseEntity.ok()
+                    .contentType(MediaType.parseMediaType(MovieDTO.CompactSeatLayout.MEDIA_TYPE))
+                    .body(compactSeatLayoutService.getLayout(showId, since));
+        }
         return ResponseEntity.ok(showService.getSeatLayout(showId));
     }
 
+    // Full layout once, then seat status changes as they happen. EventSource cannot set
+    // headers, so the admission token may also come as a query parameter.
+    @GetMapping(value = "/{showId}/seats/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamSeatLayout(
+            @PathVariable Long showId,
+            @RequestHeader(value = "X-Admission-Token", required = false) String admissionToken,
+            @RequestParam(value = "admission", required = false) String admissionParam) {
+        waitingRoomService.checkAdmission(showId, null, admissionToken != null ? admissionToken : admissionParam);
+        return seatMapBroadcaster.subscribe(showId);
+    }
+
     @PostMapping
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<MovieDTO.ShowResponse> createShow(
             @RequestBody MovieDTO.ShowRequest request) {
         return ResponseEntity.status(HttpStatus.CREATED).body(showService.createShow(request));
     }
-}
 
+    @PatchMapping("/{id}/status")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<MovieDTO.ShowResponse> updateShowStatus(
+            @PathVariable Long id,
+            @RequestParam Show.ShowStatus status) {
+        return ResponseEntity.ok(showService.updateShowStatus(id, status));
+    }
+
+    @PostMapping("/bulk")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<MovieDTO.BulkShowResponse> scheduleShows(
+            @Valid @RequestBody MovieDTO.BulkShowRequest request) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(showService.scheduleShows(request));
+    }
+}
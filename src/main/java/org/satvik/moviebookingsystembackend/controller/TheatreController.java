@@ -1,19 +1,27 @@
 package org.satvik.moviebookingsystembackend.controller;
 
 
+import org.satvik.moviebookingsystembackend.dto.MovieDTO;
 import org.satvik.moviebookingsystembackend.dto.TheatreRequest;
 import org.satvik.moviebookingsystembackend.entity.Screen;
 import org.satvik.moviebookingsystembackend.entity.Seat;
 import org.satvik.moviebookingsystembackend.entity.Theatre;
+import org.satvik.moviebookingsystembackend.event.TheatreChangedEvent;
 import org.satvik.moviebookingsystembackend.repository.ScreenRepository;
 import org.satvik.moviebookingsystembackend.repository.SeatRepository;
 import org.satvik.moviebookingsystembackend.repository.TheatreRepository;
+import org.satvik.moviebookingsystembackend.service.CompactSeatLayoutService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -25,6 +33,8 @@ public class TheatreController {
     private final TheatreRepository theatreRepository;
     private final ScreenRepository screenRepository;
     private final SeatRepository seatRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CompactSeatLayoutService compactSeatLayoutService;
 
     @GetMapping
     public ResponseEntity<List<Theatre>> getAllTheatres() {
@@ -51,6 +61,25 @@ public class TheatreController {
         return ResponseEntity.ok(theatreRepository.findTheatresByMovie(movieId));
     }
 
+    /**
+     * A screen's seats rarely change, so clients may cache the geometry for a day and then
+     * revalidate it; the tag is derived from the seats, so it only changes when they do.
+     */
+    @GetMapping("/screens/{screenId}/geometry")
+    public ResponseEntity<MovieDTO.ScreenGeometry> getScreenGeometry(@PathVariable Long screenId,
+                                                                     WebRequest webRequest) {
+        MovieDTO.ScreenGeometry geometry = compactSeatLayoutService.getGeometry(screenId);
+        String etag = "\"screen-" + screenId + "-" + geometry.getContentHash() + "\"";
+        CacheControl cacheControl = CacheControl.maxAge(Duration.ofDays(1)).cachePublic();
+        if (webRequest.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(cacheControl).eTag(etag).build();
+        }
+        return ResponseEntity.ok()
+                .cacheControl(cacheControl)
+                .eTag(etag)
+                .body(geometry);
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<Theatre> getTheatreById(@PathVariable Long id) {
         return ResponseEntity.of(theatreRepository.findById(id));
@@ -90,6 +119,7 @@ public class TheatreController {
                 generateSeats(savedScreen, sr);
             }
         }
+        eventPublisher.publishEvent(new TheatreChangedEvent(savedTheatre.getId()));
 
         return ResponseEntity.ok(
                 theatreRepository.findById(savedTheatre.getId()).orElse(savedTheatre)
@@ -0,0 +1,32 @@
+package org.satvik.moviebookingsystembackend.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.satvik.moviebookingsystembackend.dto.WaitingRoomDTO;
+import org.satvik.moviebookingsystembackend.security.AuthenticatedUser;
+import org.satvik.moviebookingsystembackend.service.WaitingRoomService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/waiting-room")
+@RequiredArgsConstructor
+public class WaitingRoomController {
+
+    private final WaitingRoomService waitingRoomService;
+
+    @PostMapping("/{showId}/join")
+    public ResponseEntity<WaitingRoomDTO.TicketResponse> join(
+            @PathVariable Long showId,
+            @AuthenticationPrincipal AuthenticatedUser user) {
+        return ResponseEntity.ok(waitingRoomService.join(showId, user.id()));
+    }
+
+    @GetMapping("/{showId}/status")
+    public ResponseEntity<WaitingRoomDTO.TicketResponse> status(
+            @PathVariable Long showId,
+            @AuthenticationPrincipal AuthenticatedUser user,
+            @RequestHeader("X-Queue-Ticket") String ticket) {
+        return ResponseEntity.ok(waitingRoomService.status(showId, user.id(), ticket));
+    }
+}
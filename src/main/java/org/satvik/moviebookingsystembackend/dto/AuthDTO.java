@@ -41,6 +41,8 @@ public class AuthDTO {
     public static class AuthResponse {
         private String token;
         private String tokenType = "Bearer";
+        private long expiresIn;
+        private String refreshToken;
         private Long userId;
         private String name;
         private String email;
@@ -56,5 +58,10 @@ public class AuthDTO {
         @NotBlank
         private String newPassword;
     }
-}
 
+    @Data
+    public static class RefreshTokenRequest {
+        @NotBlank
+        private String refreshToken;
+    }
+}
@@ -2,6 +2,7 @@ package org.satvik.moviebookingsystembackend.dto;
 
 import org.satvik.moviebookingsystembackend.entity.Booking;
 import org.satvik.moviebookingsystembackend.entity.Payment;
+import org.satvik.moviebookingsystembackend.entity.Seat;
 import lombok.Data;
 
 import java.time.LocalDateTime;
@@ -13,6 +14,30 @@ public class BookingDTO {
     public static class BookingRequest {
         private Long showId;
         private List<Long> seatIds;
+        // Without seatIds: the server picks the best seatCount adjacent seats of seatType
+        private Seat.SeatType seatType;
+        private Integer seatCount;
+        // Cart items only: the waiting-room token for this item's show, when it has a room
+        private String admissionToken;
+    }
+
+    @Data
+    public static class CartRequest {
+        // One item per show; booked all together or not at all
+        private List<BookingRequest> items;
+    }
+
+    @Data
+    public static class CartResponse {
+        private String cartReference;
+        // Confirm the cart with this booking id and the cart's payment intent
+        private Long leadBookingId;
+        private List<BookingResponse> bookings;
+        private Double finalAmount;
+
+        private String stripePaymentIntentId;
+        private String stripeClientSecret;
+        private String stripePublishableKey;
     }
 
     @Data
@@ -29,6 +54,7 @@ public class BookingDTO {
         private Double finalAmount;
         private Booking.BookingStatus status;
         private LocalDateTime bookedAt;
+        private String cartReference;
 
         // Stripe fields (replaces razorpayOrderId / razorpayKeyId)
         private String stripePaymentIntentId;
@@ -36,6 +62,13 @@ public class BookingDTO {
         private String stripePublishableKey; // frontend uses this to init Stripe.js
     }
 
+    @Data
+    public static class BookingPage {
+        private List<BookingResponse> bookings;
+        // Opaque; pass back as ?cursor= for the next page. Null on the last page.
+        private String nextCursor;
+    }
+
     @Data
     public static class PaymentVerificationRequest {
         // Frontend sends back the PaymentIntent ID after Stripe confirms payment
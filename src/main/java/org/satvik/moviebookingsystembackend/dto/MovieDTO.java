@@ -1,5 +1,9 @@
 package org.satvik.moviebookingsystembackend.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
 import org.satvik.moviebookingsystembackend.entity.Movie;
 import org.satvik.moviebookingsystembackend.entity.Show;
 import lombok.Data;
@@ -7,6 +11,7 @@ import lombok.Data;
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.util.List;
+import java.util.Map;
 
 public class MovieDTO {
 
@@ -57,6 +62,63 @@ public class MovieDTO {
         private Double reclinerPrice;
     }
 
+    /**
+     * Schedules one show for every screen x date x start time combination.
+     */
+    @Data
+    public static class BulkShowRequest {
+        @NotNull(message = "Movie is required")
+        private Long movieId;
+        @NotNull(message = "Theatre is required")
+        private Long theatreId;
+        @NotEmpty(message = "At least one screen is required")
+        @Size(max = 50)
+        private List<Long> screenIds;
+        @NotEmpty(message = "At least one date is required")
+        @Size(max = 366)
+        private List<LocalDate> showDates;
+        @NotEmpty(message = "At least one start time is required")
+        @Size(max = 24)
+        private List<LocalTime> startTimes;
+        private Double silverPrice;
+        private Double goldPrice;
+        private Double platinumPrice;
+        private Double reclinerPrice;
+    }
+
+    @Data
+    public static class BulkShowResponse {
+        private int showsCreated;
+        private long seatsScheduled;
+        private long elapsedMillis;
+        private double showsPerSecond;
+        private double seatsPerSecond;
+        private List<Long> showIds;
+    }
+
+    /**
+     * Facet filters for show search; a show must match one of the values of every
+     * non-empty filter. Dates are ISO-8601, enums by name.
+     */
+    @Data
+    public static class ShowFilter {
+        private List<String> city;
+        private List<String> date;
+        private List<String> language;
+        private List<String> genre;
+        private List<String> certificate;
+        private List<String> screenType;
+        private List<String> timeOfDay;
+        private List<String> priceBand;
+    }
+
+    @Data
+    public static class ShowSearchResponse {
+        private List<ShowResponse> shows;
+        private int total;
+        private Map<String, Map<String, Integer>> facets;
+    }
+
     @Data
     public static class ShowResponse {
         private Long id;
@@ -82,6 +144,7 @@ public class MovieDTO {
 
     @Data
     public static class SeatLayoutResponse {
+        // Only set for seats that have a show_seats row (locked or booked)
         private Long showSeatId;
         private Long seatId;
         private String seatNumber;
@@ -90,5 +153,49 @@ public class MovieDTO {
         private String status;
         private Double price;
     }
-}
 
+    /**
+     * Seats of a screen in seat-map order, grouped into runs of one row and seat type.
+     * A seat's index in the map is its position across all runs.
+     */
+    @Data
+    public static class ScreenGeometry {
+        private Long screenId;
+        private Integer seatCount;
+        // Status codes used by CompactSeatLayout, by code
+        private List<String> statuses;
+        private List<SeatRun> runs;
+        // Digest of everything above, for the entity tag; not part of the body
+        @JsonIgnore
+        private String contentHash;
+    }
+
+    @Data
+    public static class SeatRun {
+        private String row;
+        private String seatType;
+        private long[] seatIds;
+        private String[] seatNumbers;
+    }
+
+    /**
+     * Seat states of a show against its screen's geometry. A full layout carries every
+     * state, packed two bits per seat and four seats per byte, lowest bits first. A delta
+     * (full = false) lists only {@code [index, status, ...]} pairs for the seats changed
+     * since the requested version.
+     */
+    @Data
+    public static class CompactSeatLayout {
+        public static final String MEDIA_TYPE = "application/vnd.moviebooking.seatmap+json";
+
+        private Long showId;
+        private Long version;
+        private boolean full;
+        private Integer seatCount;
+        private byte[] states;
+        private int[] changes;
+        private Map<String, Double> prices;
+        // Seats priced differently from their type, by index
+        private Map<Integer, Double> priceOverrides;
+    }
+}
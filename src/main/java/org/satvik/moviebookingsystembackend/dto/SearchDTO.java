@@ -0,0 +1,24 @@
+package org.satvik.moviebookingsystembackend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+public class SearchDTO {
+
+    @Data
+    @AllArgsConstructor
+    public static class SearchHit {
+        private Long id;
+        private String label;
+        private double score;
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class SearchResponse {
+        private List<SearchHit> movies;
+        private List<SearchHit> theatres;
+    }
+}
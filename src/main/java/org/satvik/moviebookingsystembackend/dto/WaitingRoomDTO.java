@@ -0,0 +1,33 @@
+package org.satvik.moviebookingsystembackend.dto;
+
+import lombok.Data;
+
+public class WaitingRoomDTO {
+
+    /**
+     * A client's place in a show's waiting room. While waiting, the client polls with the
+     * ticket; once admitted, the admission token goes in the {@code X-Admission-Token}
+     * header of the seat layout and booking requests.
+     */
+    @Data
+    public static class TicketResponse {
+        private Long showId;
+        // False when the show has no waiting room; the booking flow is then open to all
+        private boolean active;
+        private boolean admitted;
+        private String ticket;
+        private long position;
+        private long queueLength;
+        private long estimatedWaitSeconds;
+        private String admissionToken;
+    }
+
+    public record RoomStats(
+            Long showId,
+            int admitPerSecond,
+            long admissionSeconds,
+            long joined,
+            long admitted,
+            long waiting
+    ) {}
+}
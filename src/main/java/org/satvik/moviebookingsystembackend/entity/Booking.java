@@ -9,7 +9,12 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
-@Table(name = "bookings")
+@Table(name = "bookings", indexes = {
+        // Keyset pagination of a user's history, unfiltered and filtered by status
+        @Index(name = "idx_bookings_user_booked_at", columnList = "user_id, booked_at, id"),
+        @Index(name = "idx_bookings_user_status_booked_at", columnList = "user_id, status, booked_at, id"),
+        @Index(name = "idx_bookings_cart_reference", columnList = "cart_reference")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -50,6 +55,10 @@ public class Booking{
     @OneToOne(mappedBy = "booking", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private Payment payment;
 
+    // Set on every booking of a multi-show cart; the cart's one payment hangs off its first booking
+    @Column(name = "cart_reference")
+    private String cartReference;
+
     @Column(name = "booked_at")
     @Builder.Default
     private LocalDateTime bookedAt = LocalDateTime.now();
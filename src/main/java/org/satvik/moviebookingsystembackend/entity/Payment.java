@@ -43,6 +43,11 @@ public class Payment {
     @Column(nullable = false)
     private PaymentStatus status = PaymentStatus.PENDING;
 
+    // Position in the checkout flow; persisted so a flow interrupted between phases can be resumed
+    @Enumerated(EnumType.STRING)
+    @Column(name = "gateway_stage")
+    private GatewayStage gatewayStage;
+
     @Enumerated(EnumType.STRING)
     @Column(name = "payment_method")
     private PaymentMethod paymentMethod;
@@ -59,6 +64,14 @@ public class Payment {
         PENDING, SUCCESS, FAILED, REFUNDED
     }
 
+    /**
+     * INTENT_REQUESTED -> AWAITING_PAYMENT -> SETTLED -> REFUND_REQUESTED -> REFUNDED,
+     * with CLOSED as the end state for intents that failed or were never paid.
+     */
+    public enum GatewayStage {
+        INTENT_REQUESTED, AWAITING_PAYMENT, SETTLED, CLOSED, REFUND_REQUESTED, REFUNDED
+    }
+
     public enum PaymentMethod {
         CARD, UPI, NET_BANKING, WALLET
     }
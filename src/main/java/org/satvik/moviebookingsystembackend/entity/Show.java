@@ -64,6 +64,15 @@ public class Show {
     @OneToMany(mappedBy = "show", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<Booking> bookings;
 
+    public Double priceFor(Seat.SeatType seatType) {
+        return switch (seatType) {
+            case SILVER -> silverPrice;
+            case GOLD -> goldPrice;
+            case PLATINUM -> platinumPrice;
+            case RECLINER -> reclinerPrice;
+        };
+    }
+
     public enum ShowStatus {
         UPCOMING, RUNNING, COMPLETED, CANCELLED
     }
@@ -5,7 +5,8 @@ import jakarta.persistence.*;
 import lombok.*;
 
 @Entity
-@Table(name = "show_seats")
+@Table(name = "show_seats",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"show_id", "seat_id"}))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -34,6 +35,12 @@ public class ShowSeat {
     @JoinColumn(name = "booking_id")
     private Booking booking;
 
+    // Bumped by every status change, including the bulk claim/release updates
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    @Builder.Default
+    private Long version = 0L;
+
     public enum SeatStatus {
         AVAILABLE, LOCKED, BOOKED, CANCELLED
     }
@@ -0,0 +1,33 @@
+package org.satvik.moviebookingsystembackend.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * One shard of a show's pending available-seat delta. Bookings add to a random shard
+ * instead of updating the single {@code shows} row; the deltas are folded into
+ * {@link Show#getAvailableSeats()} periodically.
+ */
+@Entity
+@Table(name = "show_seat_counters",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"show_id", "shard"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ShowSeatCounter {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "show_id", nullable = false)
+    private Long showId;
+
+    @Column(nullable = false)
+    private Integer shard;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Integer delta = 0;
+}
@@ -43,6 +43,11 @@ public class User implements UserDetails {
     @Builder.Default
     private boolean active = true;
 
+    // Bumped whenever issued tokens must stop working (deactivation, role change)
+    @Column(name = "token_version", nullable = false, columnDefinition = "integer default 0")
+    @Builder.Default
+    private int tokenVersion = 0;
+
     @Column(name = "created_at")
     @Builder.Default
     private LocalDateTime createdAt = LocalDateTime.now();
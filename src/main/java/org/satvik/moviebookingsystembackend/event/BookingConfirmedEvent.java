@@ -0,0 +1,9 @@
+package org.satvik.moviebookingsystembackend.event;
+
+import java.time.LocalDateTime;
+
+/**
+ * A booking for the given number of seats was paid for and confirmed.
+ */
+public record BookingConfirmedEvent(Long bookingId, Long movieId, int seats, LocalDateTime confirmedAt) {
+}
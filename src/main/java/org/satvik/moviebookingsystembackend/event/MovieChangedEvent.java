@@ -0,0 +1,7 @@
+package org.satvik.moviebookingsystembackend.event;
+
+/**
+ * A movie was created, its details were edited or it was deactivated.
+ */
+public record MovieChangedEvent(Long movieId) {
+}
@@ -0,0 +1,12 @@
+package org.satvik.moviebookingsystembackend.event;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The given shows of one movie at one theatre were created or changed status on the given dates.
+ */
+public record ShowsChangedEvent(List<Long> showIds, Long movieId, Long theatreId, String city,
+                                Set<LocalDate> showDates) {
+}
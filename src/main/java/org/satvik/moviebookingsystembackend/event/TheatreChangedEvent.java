@@ -0,0 +1,7 @@
+package org.satvik.moviebookingsystembackend.event;
+
+/**
+ * A theatre was created or its details changed.
+ */
+public record TheatreChangedEvent(Long theatreId) {
+}
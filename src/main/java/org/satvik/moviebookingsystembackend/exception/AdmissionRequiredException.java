@@ -0,0 +1,10 @@
+package org.satvik.moviebookingsystembackend.exception;
+
+/**
+ * The show has an active waiting room and the request carries no valid admission token.
+ */
+public class AdmissionRequiredException extends RuntimeException {
+    public AdmissionRequiredException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,9 @@
+package org.satvik.moviebookingsystembackend.exception;
+
+/**
+ * The payment gateway could not be reached in time (timeout, connection error, circuit open,
+ * bulkhead full) — as opposed to the gateway answering that a payment failed.
+ */
+public class PaymentGatewayUnavailableException extends PaymentException {
+    public PaymentGatewayUnavailableException(String message) { super(message); }
+}
@@ -0,0 +1,11 @@
+package org.satvik.moviebookingsystembackend.exception;
+
+/**
+ * The request was turned away by admission control because a bounded resource is
+ * saturated. The client should retry shortly.
+ */
+public class ServiceBusyException extends RuntimeException {
+    public ServiceBusyException(String message) {
+        super(message);
+    }
+}
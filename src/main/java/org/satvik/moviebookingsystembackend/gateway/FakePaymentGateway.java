@@ -0,0 +1,91 @@
+package org.satvik.moviebookingsystembackend.gateway;
+
+import lombok.extern.slf4j.Slf4j;
+import org.satvik.moviebookingsystembackend.exception.PaymentException;
+import org.satvik.moviebookingsystembackend.exception.PaymentGatewayUnavailableException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Local stand-in for Stripe (app.payment.gateway=fake) for offline load tests.
+ * Every intent is reported as paid when retrieved, after a configurable round-trip latency.
+ * Faults can be injected to exercise the client's timeouts and circuit breaker: a share of
+ * calls fails as if the gateway were down, and a share hangs for {@code stall-ms}.
+ */
+@Component
+@ConditionalOnProperty(name = "app.payment.gateway", havingValue = "fake")
+@Slf4j
+public class FakePaymentGateway implements PaymentGateway {
+
+    private final Map<String, GatewayIntent> intentsByKey = new ConcurrentHashMap<>();
+    private final Map<String, GatewayIntent> intentsById = new ConcurrentHashMap<>();
+    private final Map<String, GatewayRefund> refundsByKey = new ConcurrentHashMap<>();
+
+    @Value("${app.payment.fake.latency-ms:150}")
+    private long latencyMillis;
+
+    @Value("${app.payment.fake.latency-jitter-ms:0}")
+    private long latencyJitterMillis;
+
+    @Value("${app.payment.fake.failure-rate:0}")
+    private double failureRate;
+
+    @Value("${app.payment.fake.stall-rate:0}")
+    private double stallRate;
+
+    @Value("${app.payment.fake.stall-ms:30000}")
+    private long stallMillis;
+
+    @Override
+    public GatewayIntent createIntent(IntentRequest request) {
+        simulateRoundTrip();
+        return intentsByKey.computeIfAbsent(request.idempotencyKey(), key -> {
+            String id = "pi_fake_" + UUID.randomUUID().toString().replace("-", "");
+            GatewayIntent intent = new GatewayIntent(id, id + "_secret", "succeeded", "ch_fake_" + id.substring(8));
+            intentsById.put(id, intent);
+            return intent;
+        });
+    }
+
+    @Override
+    public GatewayIntent retrieveIntent(String intentId) {
+        simulateRoundTrip();
+        GatewayIntent intent = intentsById.get(intentId);
+        if (intent == null) {
+            throw new PaymentException("Payment verification failed: no such intent " + intentId);
+        }
+        return intent;
+    }
+
+    @Override
+    public GatewayRefund refund(RefundRequest request) {
+        simulateRoundTrip();
+        return refundsByKey.computeIfAbsent(request.idempotencyKey(),
+                key -> new GatewayRefund("re_fake_" + UUID.randomUUID().toString().replace("-", ""), "succeeded"));
+    }
+
+    private void simulateRoundTrip() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long delay = latencyMillis + (latencyJitterMillis > 0 ? random.nextLong(latencyJitterMillis + 1) : 0);
+        if (random.nextDouble() < stallRate) {
+            delay = stallMillis;
+        }
+        try {
+            if (delay > 0) {
+                Thread.sleep(delay);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PaymentException("Payment gateway call interrupted");
+        }
+        if (random.nextDouble() < failureRate) {
+            throw new PaymentGatewayUnavailableException("Injected payment gateway failure");
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package org.satvik.moviebookingsystembackend.gateway;
+
+public record GatewayIntent(String id, String clientSecret, String status, String latestCharge) {
+
+    public boolean succeeded() {
+        return "succeeded".equals(status);
+    }
+}
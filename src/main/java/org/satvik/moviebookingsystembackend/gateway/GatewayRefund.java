@@ -0,0 +1,8 @@
+package org.satvik.moviebookingsystembackend.gateway;
+
+public record GatewayRefund(String id, String status) {
+
+    public boolean succeeded() {
+        return "succeeded".equals(status);
+    }
+}
@@ -0,0 +1,17 @@
+package org.satvik.moviebookingsystembackend.gateway;
+
+import java.util.Map;
+
+/**
+ * Point-in-time view of the payment gateway client, served on the admin API.
+ */
+public record GatewayStats(
+        String circuitState,
+        int queueDepth,
+        int inFlight,
+        int maxConcurrent,
+        long rejected,
+        Map<String, OperationStats> operations
+) {
+    public record OperationStats(long calls, long failures, long timeouts, double avgMillis, double maxMillis) {}
+}
@@ -0,0 +1,14 @@
+package org.satvik.moviebookingsystembackend.gateway;
+
+import java.util.Map;
+
+/**
+ * @param amountInPaise  amount in the smallest currency unit
+ * @param idempotencyKey lets a retried or recovered request return the intent created the first time
+ */
+public record IntentRequest(long amountInPaise,
+                            String currency,
+                            String description,
+                            Map<String, String> metadata,
+                            String idempotencyKey) {
+}
@@ -0,0 +1,15 @@
+package org.satvik.moviebookingsystembackend.gateway;
+
+/**
+ * Blocking client for the external payment gateway.
+ * Implementations throw {@link org.satvik.moviebookingsystembackend.exception.PaymentException}
+ * on gateway errors and must never be called while a database transaction is open.
+ */
+public interface PaymentGateway {
+
+    GatewayIntent createIntent(IntentRequest request);
+
+    GatewayIntent retrieveIntent(String intentId);
+
+    GatewayRefund refund(RefundRequest request);
+}
@@ -0,0 +1,205 @@
+package org.satvik.moviebookingsystembackend.gateway;
+
+import lombok.extern.slf4j.Slf4j;
+import org.satvik.moviebookingsystembackend.exception.PaymentException;
+import org.satvik.moviebookingsystembackend.exception.PaymentGatewayUnavailableException;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Calls the {@link PaymentGateway} on virtual threads, guarded by a bulkhead (at most
+ * {@code max-concurrent} calls in flight, at most {@code max-queue} waiting for a slot),
+ * a per-operation timeout and a {@link CircuitBreaker}. Callers get a future right away;
+ * a slow or dead gateway shows up as a {@link PaymentGatewayUnavailableException}
+ * instead of piling up blocked threads.
+ */
+@Component
+@Slf4j
+public class PaymentGatewayClient {
+
+    private final PaymentGateway paymentGateway;
+    private final ExecutorService gatewayExecutor;
+    private final CircuitBreaker circuitBreaker;
+    private final Semaphore bulkhead;
+    private final int maxConcurrent;
+    private final int maxQueue;
+    private final long maxWaitMillis;
+    private final Map<Operation, Long> timeoutMillis;
+
+    private final AtomicInteger queueDepth = new AtomicInteger();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder rejected = new LongAdder();
+    private final Map<Operation, OperationMetrics> metrics = new ConcurrentHashMap<>();
+
+    enum Operation { CREATE_INTENT, RETRIEVE_INTENT, REFUND }
+
+    public PaymentGatewayClient(PaymentGateway paymentGateway,
+                                @Qualifier("paymentGatewayExecutor") ExecutorService gatewayExecutor,
+                                @Value("${app.payment.bulkhead.max-concurrent:50}") int maxConcurrent,
+                                @Value("${app.payment.bulkhead.max-queue:500}") int maxQueue,
+                                @Value("${app.payment.bulkhead.max-wait-ms:2000}") long maxWaitMillis,
+                                @Value("${app.payment.timeout.create-ms:10000}") long createTimeoutMillis,
+                                @Value("${app.payment.timeout.retrieve-ms:5000}") long retrieveTimeoutMillis,
+                                @Value("${app.payment.timeout.refund-ms:10000}") long refundTimeoutMillis,
+                                @Value("${app.payment.circuit.failure-threshold:5}") int failureThreshold,
+                                @Value("${app.payment.circuit.open-ms:30000}") long openMillis) {
+        this.paymentGateway = paymentGateway;
+        this.gatewayExecutor = gatewayExecutor;
+        this.maxConcurrent = maxConcurrent;
+        this.maxQueue = maxQueue;
+        this.maxWaitMillis = maxWaitMillis;
+        this.bulkhead = new Semaphore(maxConcurrent, true);
+        this.circuitBreaker = new CircuitBreaker(failureThreshold, openMillis);
+        this.timeoutMillis = Map.of(
+                Operation.CREATE_INTENT, createTimeoutMillis,
+                Operation.RETRIEVE_INTENT, retrieveTimeoutMillis,
+                Operation.REFUND, refundTimeoutMillis);
+        for (Operation operation : Operation.values()) {
+            metrics.put(operation, new OperationMetrics());
+        }
+    }
+
+    public CompletableFuture<GatewayIntent> createIntent(IntentRequest request) {
+        return call(Operation.CREATE_INTENT, () -> paymentGateway.createIntent(request));
+    }
+
+    public CompletableFuture<GatewayIntent> retrieveIntent(String intentId) {
+        return call(Operation.RETRIEVE_INTENT, () -> paymentGateway.retrieveIntent(intentId));
+    }
+
+    public CompletableFuture<GatewayRefund> refund(RefundRequest request) {
+        return call(Operation.REFUND, () -> paymentGateway.refund(request));
+    }
+
+    public GatewayStats stats() {
+        Map<String, GatewayStats.OperationStats> operations = new LinkedHashMap<>();
+        metrics.forEach((operation, m) -> operations.put(operation.name(), m.snapshot()));
+        return new GatewayStats(circuitBreaker.getState().name(), queueDepth.get(), inFlight.get(),
+                maxConcurrent, rejected.sum(), operations);
+    }
+
+    private <T> CompletableFuture<T> call(Operation operation, Supplier<T> gatewayCall) {
+        if (queueDepth.incrementAndGet() > maxQueue) {
+            queueDepth.decrementAndGet();
+            rejected.increment();
+            return CompletableFuture.failedFuture(
+                    new PaymentGatewayUnavailableException("Payment gateway is busy, please retry shortly"));
+        }
+        if (!circuitBreaker.allowRequest()) {
+            queueDepth.decrementAndGet();
+            rejected.increment();
+            return CompletableFuture.failedFuture(
+                    new PaymentGatewayUnavailableException("Payment gateway is unavailable, please retry shortly"));
+        }
+
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Future<?> task = gatewayExecutor.submit(() -> run(operation, gatewayCall, result));
+        // Interrupt the virtual thread if the caller has already been answered with a timeout
+        result.whenComplete((value, error) -> {
+            if (error instanceof TimeoutException) {
+                task.cancel(true);
+            }
+        });
+        // A timeout completes the future on the JDK's single delay thread; failures are handed
+        // to the gateway executor so callers' stages (e.g. a rollback transaction) never run there
+        return result.exceptionallyComposeAsync(
+                error -> CompletableFuture.failedFuture(translate(operation, error)), gatewayExecutor);
+    }
+
+    private <T> void run(Operation operation, Supplier<T> gatewayCall, CompletableFuture<T> result) {
+        OperationMetrics m = metrics.get(operation);
+        try {
+            boolean acquired;
+            try {
+                acquired = bulkhead.tryAcquire(maxWaitMillis, TimeUnit.MILLISECONDS);
+            } finally {
+                queueDepth.decrementAndGet();
+            }
+            if (!acquired) {
+                rejected.increment();
+                circuitBreaker.onAbandoned();
+                result.completeExceptionally(
+                        new PaymentGatewayUnavailableException("Payment gateway is busy, please retry shortly"));
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            circuitBreaker.onAbandoned();
+            result.completeExceptionally(new PaymentGatewayUnavailableException("Payment gateway call interrupted"));
+            return;
+        }
+
+        // The timeout covers the gateway round trip only, not the wait for a bulkhead slot
+        result.orTimeout(timeoutMillis.get(operation), TimeUnit.MILLISECONDS);
+        inFlight.incrementAndGet();
+        long start = System.nanoTime();
+        try {
+            T value = gatewayCall.get();
+            m.record(System.nanoTime() - start, false);
+            // A late answer after the timeout fired was already counted as a failure
+            if (result.complete(value)) {
+                circuitBreaker.onSuccess();
+            }
+        } catch (PaymentGatewayUnavailableException e) {
+            m.record(System.nanoTime() - start, true);
+            if (result.completeExceptionally(e)) {
+                circuitBreaker.onFailure();
+            }
+        } catch (RuntimeException e) {
+            // The gateway answered (e.g. card declined): a payment failure, not a gateway failure
+            m.record(System.nanoTime() - start, true);
+            if (result.completeExceptionally(e)) {
+                circuitBreaker.onSuccess();
+            }
+        } finally {
+            inFlight.decrementAndGet();
+            bulkhead.release();
+        }
+    }
+
+    private Throwable translate(Operation operation, Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (cause instanceof TimeoutException) {
+            metrics.get(operation).timeouts.increment();
+            circuitBreaker.onFailure();
+            log.warn("Payment gateway {} timed out after {} ms", operation, timeoutMillis.get(operation));
+            return new PaymentGatewayUnavailableException("Payment gateway timed out, please retry shortly");
+        }
+        if (cause instanceof PaymentException) {
+            return cause;
+        }
+        return new PaymentException("Payment gateway error: " + cause.getMessage());
+    }
+
+    private static final class OperationMetrics {
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+        private final LongAdder timeouts = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+        void record(long nanos, boolean failed) {
+            calls.increment();
+            if (failed) {
+                failures.increment();
+            }
+            totalNanos.add(nanos);
+            maxNanos.accumulate(nanos);
+        }
+
+        GatewayStats.OperationStats snapshot() {
+            long count = calls.sum();
+            double avgMillis = count == 0 ? 0 : totalNanos.sum() / 1e6 / count;
+            return new GatewayStats.OperationStats(count, failures.sum(), timeouts.sum(), avgMillis, maxNanos.get() / 1e6);
+        }
+    }
+}
@@ -0,0 +1,4 @@
+package org.satvik.moviebookingsystembackend.gateway;
+
+public record RefundRequest(String intentId, long amountInPaise, String idempotencyKey) {
+}
@@ -0,0 +1,109 @@
+package org.satvik.moviebookingsystembackend.gateway;
+
+import com.stripe.exception.ApiConnectionException;
+import com.stripe.exception.ApiException;
+import com.stripe.exception.RateLimitException;
+import com.stripe.exception.StripeException;
+import com.stripe.model.PaymentIntent;
+import com.stripe.model.Refund;
+import com.stripe.net.RequestOptions;
+import com.stripe.param.PaymentIntentCreateParams;
+import com.stripe.param.RefundCreateParams;
+import lombok.extern.slf4j.Slf4j;
+import org.satvik.moviebookingsystembackend.exception.PaymentException;
+import org.satvik.moviebookingsystembackend.exception.PaymentGatewayUnavailableException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConditionalOnProperty(name = "app.payment.gateway", havingValue = "stripe", matchIfMissing = true)
+@Slf4j
+public class StripePaymentGateway implements PaymentGateway {
+
+    @Value("${stripe.api.key}")
+    private String stripeSecretKey;
+
+    @Value("${app.payment.stripe.connect-timeout-ms:3000}")
+    private int connectTimeoutMillis;
+
+    @Value("${app.payment.stripe.read-timeout-ms:10000}")
+    private int readTimeoutMillis;
+
+    @Override
+    public GatewayIntent createIntent(IntentRequest request) {
+        try {
+            PaymentIntentCreateParams params = PaymentIntentCreateParams.builder()
+                    .setAmount(request.amountInPaise())
+                    .setCurrency(request.currency())
+                    .setDescription(request.description())
+                    .putAllMetadata(request.metadata())
+                    // automatic_payment_methods lets Stripe show all enabled methods
+                    // including Google Pay, Apple Pay, cards — based on user's browser/device
+                    .setAutomaticPaymentMethods(
+                            PaymentIntentCreateParams.AutomaticPaymentMethods.builder()
+                                    .setEnabled(true)
+                                    .setAllowRedirects(PaymentIntentCreateParams.AutomaticPaymentMethods.AllowRedirects.NEVER)
+                                    .build()
+                    )
+                    .build();
+
+            PaymentIntent paymentIntent = PaymentIntent.create(params, options(request.idempotencyKey()));
+            return toIntent(paymentIntent);
+
+        } catch (StripeException e) {
+            log.error("Failed to create Stripe PaymentIntent: {}", e.getMessage());
+            throw translate("Failed to create payment: ", e);
+        }
+    }
+
+    @Override
+    public GatewayIntent retrieveIntent(String intentId) {
+        try {
+            return toIntent(PaymentIntent.retrieve(intentId, options(null)));
+        } catch (StripeException e) {
+            log.error("Stripe payment verification error: {}", e.getMessage());
+            throw translate("Payment verification failed: ", e);
+        }
+    }
+
+    @Override
+    public GatewayRefund refund(RefundRequest request) {
+        try {
+            RefundCreateParams params = RefundCreateParams.builder()
+                    .setPaymentIntent(request.intentId())
+                    .setAmount(request.amountInPaise())
+                    .build();
+
+            Refund refund = Refund.create(params, options(request.idempotencyKey()));
+            return new GatewayRefund(refund.getId(), refund.getStatus());
+
+        } catch (StripeException e) {
+            log.error("Stripe refund failed: {}", e.getMessage());
+            throw translate("Refund failed: ", e);
+        }
+    }
+
+    // Per-request key and timeouts instead of the process-wide static Stripe.apiKey
+    private RequestOptions options(String idempotencyKey) {
+        return RequestOptions.builder()
+                .setApiKey(stripeSecretKey)
+                .setIdempotencyKey(idempotencyKey)
+                .setConnectTimeout(connectTimeoutMillis)
+                .setReadTimeout(readTimeoutMillis)
+                .build();
+    }
+
+    // Connection problems, 5xx and rate limiting say nothing about the payment itself
+    private PaymentException translate(String prefix, StripeException e) {
+        if (e instanceof ApiConnectionException || e instanceof ApiException || e instanceof RateLimitException) {
+            return new PaymentGatewayUnavailableException(prefix + e.getMessage());
+        }
+        return new PaymentException(prefix + e.getMessage());
+    }
+
+    private GatewayIntent toIntent(PaymentIntent paymentIntent) {
+        return new GatewayIntent(paymentIntent.getId(), paymentIntent.getClientSecret(),
+                paymentIntent.getStatus(), paymentIntent.getLatestCharge());
+    }
+}
@@ -1,10 +1,15 @@
 package org.satvik.moviebookingsystembackend.repository;
 
+import jakarta.persistence.LockModeType;
 import org.satvik.moviebookingsystembackend.entity.Booking;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -19,21 +24,78 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
     @Query("SELECT b FROM Booking b WHERE b.bookingReference = :ref")
     Optional<Booking> findByBookingReference(@Param("ref") String bookingReference);
 
+    // Booking detail: the show, movie, theatre and payment a BookingResponse needs, in one query
+    @Query("SELECT b FROM Booking b JOIN FETCH b.show s JOIN FETCH s.movie JOIN FETCH s.theatre " +
+            "LEFT JOIN FETCH b.payment WHERE b.bookingReference = :ref")
+    Optional<Booking> findHistoryByBookingReference(@Param("ref") String bookingReference);
+
+    @Query("SELECT b FROM Booking b WHERE b.cartReference = :cartReference ORDER BY b.id")
+    List<Booking> findByCartReference(@Param("cartReference") String cartReference);
+
+    // The booking and the rest of its cart, row-locked in id order: settling a payment and
+    // expiring its hold then take turns instead of both acting on the same PENDING status
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM Booking b WHERE b.id = :bookingId OR b.cartReference = " +
+            "(SELECT c.cartReference FROM Booking c WHERE c.id = :bookingId) ORDER BY b.id")
+    List<Booking> lockCartOf(@Param("bookingId") Long bookingId);
+
     @Query("SELECT b FROM Booking b WHERE b.show.id = :showId AND b.status != 'CANCELLED'")
     List<Booking> findConfirmedBookingsByShow(@Param("showId") Long showId);
 
     @Query("SELECT b FROM Booking b WHERE b.user.id = :userId AND b.status = :status ORDER BY b.bookedAt DESC")
     List<Booking> findByUserIdAndStatus(@Param("userId") Long userId, @Param("status") Booking.BookingStatus status);
 
+    // Keyset pages of a user's history, newest first: the bookings strictly after the
+    // (bookedAt, id) cursor, read straight off the (user_id, [status,] booked_at, id) index
+    @Query("SELECT b FROM Booking b JOIN FETCH b.show s JOIN FETCH s.movie JOIN FETCH s.theatre " +
+            "LEFT JOIN FETCH b.payment WHERE b.user.id = :userId " +
+            "AND (b.bookedAt < :bookedAt OR (b.bookedAt = :bookedAt AND b.id < :id)) " +
+            "ORDER BY b.bookedAt DESC, b.id DESC")
+    List<Booking> findHistoryPage(@Param("userId") Long userId,
+                                  @Param("bookedAt") LocalDateTime bookedAt,
+                                  @Param("id") Long id,
+                                  Limit limit);
+
+    @Query("SELECT b FROM Booking b JOIN FETCH b.show s JOIN FETCH s.movie JOIN FETCH s.theatre " +
+            "LEFT JOIN FETCH b.payment WHERE b.user.id = :userId AND b.status IN :statuses " +
+            "AND (b.bookedAt < :bookedAt OR (b.bookedAt = :bookedAt AND b.id < :id)) " +
+            "ORDER BY b.bookedAt DESC, b.id DESC")
+    List<Booking> findHistoryPageByUserIdAndStatus(@Param("userId") Long userId,
+                                                   @Param("statuses") List<Booking.BookingStatus> statuses,
+                                                   @Param("bookedAt") LocalDateTime bookedAt,
+                                                   @Param("id") Long id,
+                                                   Limit limit);
+
     @Query("SELECT b FROM Booking b WHERE b.status = 'PENDING' AND b.bookedAt < :cutoffTime")
     List<Booking> findExpiredPendingBookings(@Param("cutoffTime") LocalDateTime cutoffTime);
 
+    @Query("SELECT b.id, b.bookedAt FROM Booking b WHERE b.status = 'PENDING'")
+    List<Object[]> findPendingBookingHolds();
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE Booking b SET b.status = 'FAILED', b.cancelledAt = :now, b.cancellationReason = :reason " +
+            "WHERE b.id = :bookingId AND b.status = 'PENDING'")
+    int failPendingBooking(@Param("bookingId") Long bookingId,
+                             @Param("now") LocalDateTime now,
+                             @Param("reason") String reason);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE Booking b SET b.status = 'CONFIRMED' WHERE b.id IN :bookingIds AND b.status = 'PENDING'")
+    int confirmPendingBookings(@Param("bookingIds") List<Long> bookingIds);
+
     @Query("SELECT SUM(b.finalAmount) FROM Booking b WHERE b.status = 'CONFIRMED' AND b.bookedAt BETWEEN :start AND :end")
     Double getTotalRevenue(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
 
     @Query("SELECT COUNT(b) FROM Booking b WHERE b.show.movie.id = :movieId AND b.status = 'CONFIRMED'")
     Long countConfirmedBookingsByMovie(@Param("movieId") Long movieId);
 
+    // Movie id, booking time and seat count of every confirmed booking since the given time
+    @Query("SELECT b.show.movie.id, b.bookedAt, COUNT(ss) FROM Booking b JOIN b.showSeats ss " +
+           "WHERE b.status = 'CONFIRMED' AND b.bookedAt >= :since GROUP BY b.id, b.show.movie.id, b.bookedAt")
+    List<Object[]> findConfirmedSeatCountsSince(@Param("since") LocalDateTime since);
+
     @Query("SELECT b FROM Booking b WHERE b.show.movie.id = :movieId AND b.status = 'CONFIRMED' ORDER BY b.bookedAt DESC")
     List<Booking> findByMovieId(@Param("movieId") Long movieId);
 
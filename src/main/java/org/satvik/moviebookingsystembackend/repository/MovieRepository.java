@@ -42,7 +42,7 @@ public interface MovieRepository extends JpaRepository<Movie, Long> {
     @Query("SELECT COUNT(m) FROM Movie m WHERE m.active = true")
     Long countActiveMovies();
 
-    @Query(value = "SELECT * FROM movies ORDER BY rating DESC LIMIT :limit", nativeQuery = true)
+    @Query(value = "SELECT * FROM movies WHERE is_active = true ORDER BY rating DESC NULLS LAST LIMIT :limit", nativeQuery = true)
     List<Movie> findTopRatedMovies(@Param("limit") int limit);
 
     @Query("SELECT DISTINCT m.genre FROM Movie m WHERE m.active = true")
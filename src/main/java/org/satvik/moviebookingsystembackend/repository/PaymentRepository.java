@@ -8,6 +8,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -33,6 +34,32 @@ public interface PaymentRepository extends JpaRepository<Payment, Long> {
                              @Param("status") Payment.PaymentStatus status,
                              @Param("chargeId") String chargeId);
 
+    @Modifying
+    @Transactional
+    @Query("UPDATE Payment p SET p.stripePaymentIntentId = :intentId, p.stripeClientSecret = :clientSecret, " +
+            "p.gatewayStage = 'AWAITING_PAYMENT', p.updatedAt = CURRENT_TIMESTAMP " +
+            "WHERE p.booking.id = :bookingId AND p.gatewayStage = 'INTENT_REQUESTED'")
+    int recordIntent(@Param("bookingId") Long bookingId,
+                     @Param("intentId") String intentId,
+                     @Param("clientSecret") String clientSecret);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE Payment p SET p.status = 'SUCCESS', p.gatewayStage = 'SETTLED', p.stripeChargeId = :chargeId, " +
+            "p.updatedAt = CURRENT_TIMESTAMP WHERE p.id = :paymentId AND p.gatewayStage = 'AWAITING_PAYMENT'")
+    int settleAwaitingPayment(@Param("paymentId") Long paymentId, @Param("chargeId") String chargeId);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE Payment p SET p.status = 'FAILED', p.gatewayStage = 'CLOSED', p.updatedAt = CURRENT_TIMESTAMP " +
+            "WHERE p.booking.id = :bookingId AND p.gatewayStage IN ('INTENT_REQUESTED', 'AWAITING_PAYMENT')")
+    int closeOpenPayment(@Param("bookingId") Long bookingId);
+
+    @Query("SELECT p FROM Payment p JOIN FETCH p.booking b JOIN FETCH b.user " +
+            "WHERE p.gatewayStage = :stage AND p.updatedAt < :before")
+    List<Payment> findInStageSince(@Param("stage") Payment.GatewayStage stage,
+                                   @Param("before") LocalDateTime before);
+
     @Query("SELECT SUM(p.amount) FROM Payment p WHERE p.status = 'SUCCESS'")
     Double getTotalSuccessfulPayments();
 
@@ -11,7 +11,8 @@ import java.util.List;
 @Repository
 public interface SeatRepository extends JpaRepository<Seat, Long> {
 
-    @Query("SELECT s FROM Seat s WHERE s.screen.id = :screenId ORDER BY s.rowNumber, s.seatNumber")
+    // Seat-map order: show seat maps and cached screen geometry both index seats by it
+    @Query("SELECT s FROM Seat s WHERE s.screen.id = :screenId ORDER BY s.rowNumber, s.seatNumber, s.id")
     List<Seat> findByScreenId(@Param("screenId") Long screenId);
 
     @Query("SELECT s FROM Seat s WHERE s.screen.id = :screenId AND s.seatType = :type ORDER BY s.rowNumber, s.seatNumber")
@@ -0,0 +1,94 @@
+package org.satvik.moviebookingsystembackend.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.satvik.moviebookingsystembackend.entity.Show;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Array;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.Time;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Set-based statements for scheduling and maintaining many shows at once. Shows go in as
+ * multi-row INSERT ... RETURNING statements rather than one round trip per row, as they
+ * would with IDENTITY ids through Hibernate.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ShowBulkRepository {
+
+    // 12 parameters per row keeps a full chunk well under the 65535 bind parameter limit
+    private static final int CHUNK_SIZE = 1000;
+
+    private static final String INSERT_SHOWS = "INSERT INTO shows (movie_id, theatre_id, screen_id, show_date, start_time, " +
+            "end_time, silver_price, gold_price, platinum_price, recliner_price, status, available_seats) VALUES ";
+
+    // Rows a booking is claiming right now are skipped, and the outer condition is checked
+    // again against the row actually deleted, so a seat claimed in between is never lost
+    private static final String DELETE_AVAILABLE_SHOW_SEATS = """
+            DELETE FROM show_seats WHERE status = 'AVAILABLE' AND booking_id IS NULL AND id IN (
+                SELECT id FROM show_seats WHERE status = 'AVAILABLE' AND booking_id IS NULL
+                LIMIT ? FOR UPDATE SKIP LOCKED)
+            """;
+
+    private static final String INSERT_COUNTER_SHARDS = """
+            INSERT INTO show_seat_counters (show_id, shard, delta)
+            SELECT id, shard, 0 FROM unnest(?) AS id CROSS JOIN generate_series(0, ? - 1) AS shard
+            ON CONFLICT (show_id, shard) DO NOTHING
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Inserts the shows and returns their generated ids.
+     */
+    public List<Long> insertShows(List<Show> shows) {
+        List<Long> ids = new ArrayList<>(shows.size());
+        for (int from = 0; from < shows.size(); from += CHUNK_SIZE) {
+            List<Show> chunk = shows.subList(from, Math.min(from + CHUNK_SIZE, shows.size()));
+            StringBuilder sql = new StringBuilder(INSERT_SHOWS);
+            List<Object> args = new ArrayList<>(chunk.size() * 12);
+            for (int i = 0; i < chunk.size(); i++) {
+                Show show = chunk.get(i);
+                sql.append(i == 0 ? "" : ",").append("(?,?,?,?,?,?,?,?,?,?,?,?)");
+                args.add(show.getMovie().getId());
+                args.add(show.getTheatre().getId());
+                args.add(show.getScreen().getId());
+                args.add(Date.valueOf(show.getShowDate()));
+                args.add(Time.valueOf(show.getStartTime()));
+                args.add(Time.valueOf(show.getEndTime()));
+                args.add(show.getSilverPrice());
+                args.add(show.getGoldPrice());
+                args.add(show.getPlatinumPrice());
+                args.add(show.getReclinerPrice());
+                args.add(show.getStatus().name());
+                args.add(show.getAvailableSeats());
+            }
+            sql.append(" RETURNING id");
+            ids.addAll(jdbcTemplate.queryForList(sql.toString(), Long.class, args.toArray()));
+        }
+        return ids;
+    }
+
+    /**
+     * Deletes up to {@code limit} show_seats rows that carry no state (AVAILABLE, unbooked).
+     * Rows locked by a concurrent booking are left for a later run.
+     */
+    public int deleteAvailableShowSeats(int limit) {
+        return jdbcTemplate.update(DELETE_AVAILABLE_SHOW_SEATS, limit);
+    }
+
+    public void insertCounterShards(List<Long> showIds, int shards) {
+        jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement(INSERT_COUNTER_SHARDS);
+            Array ids = con.createArrayOf("bigint", showIds.toArray(Long[]::new));
+            ps.setArray(1, ids);
+            ps.setInt(2, shards);
+            return ps;
+        });
+    }
+}
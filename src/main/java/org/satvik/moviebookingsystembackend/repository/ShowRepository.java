@@ -31,18 +31,32 @@ public interface ShowRepository extends JpaRepository<Show, Long> {
     @Query("SELECT s FROM Show s WHERE s.movie.id = :movieId AND s.theatre.city = :city AND s.showDate >= :date ORDER BY s.showDate, s.startTime")
     List<Show> findByMovieAndCityFromDate(@Param("movieId") Long movieId, @Param("city") String city, @Param("date") LocalDate date);
 
+    @Query("SELECT s.id FROM Show s WHERE s.showDate >= :date AND s.status IN ('UPCOMING', 'RUNNING')")
+    List<Long> findBookableShowIds(@Param("date") LocalDate date);
+
+    @Query("SELECT s FROM Show s JOIN FETCH s.movie JOIN FETCH s.theatre JOIN FETCH s.screen " +
+           "WHERE s.showDate >= :date AND s.status IN ('UPCOMING', 'RUNNING')")
+    List<Show> findBookableWithDetails(@Param("date") LocalDate date);
+
+    @Query("SELECT s FROM Show s JOIN FETCH s.movie JOIN FETCH s.theatre JOIN FETCH s.screen WHERE s.id IN :showIds")
+    List<Show> findWithDetailsByIds(@Param("showIds") List<Long> showIds);
+
+    @Query("SELECT s.id, s.availableSeats FROM Show s WHERE s.id IN :showIds")
+    List<Object[]> findAvailableSeats(@Param("showIds") List<Long> showIds);
+
     @Query("SELECT s FROM Show s WHERE s.showDate < CURRENT_DATE AND s.status = 'UPCOMING'")
     List<Show> findShowsToMarkCompleted();
 
+    // Bookings go through AvailableSeatCounter; these are only used to fold and reconcile it
     @Modifying
     @Transactional
-    @Query("UPDATE Show s SET s.availableSeats = s.availableSeats - :count WHERE s.id = :showId AND s.availableSeats >= :count")
-    int decreaseAvailableSeats(@Param("showId") Long showId, @Param("count") int count);
+    @Query("UPDATE Show s SET s.availableSeats = s.availableSeats + :delta WHERE s.id = :showId")
+    void adjustAvailableSeats(@Param("showId") Long showId, @Param("delta") int delta);
 
     @Modifying
     @Transactional
-    @Query("UPDATE Show s SET s.availableSeats = s.availableSeats + :count WHERE s.id = :showId")
-    void increaseAvailableSeats(@Param("showId") Long showId, @Param("count") int count);
+    @Query("UPDATE Show s SET s.availableSeats = :count WHERE s.id = :showId AND s.availableSeats <> :count")
+    int setAvailableSeats(@Param("showId") Long showId, @Param("count") int count);
 
     @Query("SELECT s FROM Show s WHERE s.screen.id = :screenId AND s.showDate = :date ORDER BY s.startTime ASC")
     List<Show> findByScreenAndDate(@Param("screenId") Long screenId, @Param("date") LocalDate date);
@@ -0,0 +1,35 @@
+package org.satvik.moviebookingsystembackend.repository;
+
+import jakarta.persistence.LockModeType;
+import org.satvik.moviebookingsystembackend.entity.ShowSeatCounter;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ShowSeatCounterRepository extends JpaRepository<ShowSeatCounter, Long> {
+
+    @Modifying
+    @Query(value = "INSERT INTO show_seat_counters (show_id, shard, delta) VALUES (:showId, :shard, :delta) " +
+            "ON CONFLICT (show_id, shard) DO UPDATE SET delta = show_seat_counters.delta + EXCLUDED.delta",
+            nativeQuery = true)
+    void addDelta(@Param("showId") Long showId, @Param("shard") int shard, @Param("delta") int delta);
+
+    @Modifying
+    @Query(value = "INSERT INTO show_seat_counters (show_id, shard, delta) " +
+            "SELECT :showId, s, 0 FROM generate_series(0, :shards - 1) s ON CONFLICT (show_id, shard) DO NOTHING",
+            nativeQuery = true)
+    void createShards(@Param("showId") Long showId, @Param("shards") int shards);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM ShowSeatCounter c WHERE c.showId = :showId")
+    List<ShowSeatCounter> lockShards(@Param("showId") Long showId);
+
+    @Query("SELECT DISTINCT c.showId FROM ShowSeatCounter c WHERE c.delta <> 0")
+    List<Long> findShowIdsWithPendingDelta();
+}
@@ -19,6 +19,9 @@ public interface ShowSeatRepository extends JpaRepository<ShowSeat, Long> {
     @Query("SELECT ss FROM ShowSeat ss WHERE ss.show.id = :showId ORDER BY ss.seat.rowNumber, ss.seat.seatNumber")
     List<ShowSeat> findByShowId(@Param("showId") Long showId);
 
+    @Query("SELECT ss FROM ShowSeat ss JOIN FETCH ss.seat WHERE ss.show.id = :showId ORDER BY ss.seat.rowNumber, ss.seat.seatNumber")
+    List<ShowSeat> findByShowIdWithSeat(@Param("showId") Long showId);
+
     @Query("SELECT ss FROM ShowSeat ss WHERE ss.show.id = :showId AND ss.status = :status")
     List<ShowSeat> findByShowIdAndStatus(@Param("showId") Long showId, @Param("status") ShowSeat.SeatStatus status);
 
@@ -28,22 +31,64 @@ public interface ShowSeatRepository extends JpaRepository<ShowSeat, Long> {
     @Query("SELECT ss FROM ShowSeat ss WHERE ss.show.id = :showId AND ss.seat.id IN :seatIds")
     List<ShowSeat> findByShowIdAndSeatIds(@Param("showId") Long showId, @Param("seatIds") List<Long> seatIds);
 
-    @Query("SELECT COUNT(ss) FROM ShowSeat ss WHERE ss.show.id = :showId AND ss.status = 'AVAILABLE'")
+    // Seats of the show's screen that have no row, or a row still marked AVAILABLE
+    @Query("SELECT COUNT(st) FROM Seat st WHERE st.screen.id = (SELECT sh.screen.id FROM Show sh WHERE sh.id = :showId) " +
+            "AND NOT EXISTS (SELECT ss.id FROM ShowSeat ss WHERE ss.show.id = :showId AND ss.seat = st AND ss.status <> 'AVAILABLE')")
     Long countAvailableSeats(@Param("showId") Long showId);
 
     @Modifying
     @Transactional
-    @Query("UPDATE ShowSeat ss SET ss.status = :status WHERE ss.show.id = :showId AND ss.seat.id IN :seatIds")
+    @Query("UPDATE ShowSeat ss SET ss.status = :status, ss.version = ss.version + 1 WHERE ss.show.id = :showId AND ss.seat.id IN :seatIds")
     int updateSeatStatus(@Param("showId") Long showId, @Param("seatIds") List<Long> seatIds, @Param("status") ShowSeat.SeatStatus status);
 
+    // Only the seats this booking still holds; a hold that was released and re-claimed stays put
     @Modifying
     @Transactional
-    @Query("UPDATE ShowSeat ss SET ss.status = 'AVAILABLE', ss.booking = null WHERE ss.booking.id = :bookingId")
+    @Query("UPDATE ShowSeat ss SET ss.status = 'BOOKED', ss.version = ss.version + 1 " +
+            "WHERE ss.booking.id = :bookingId AND ss.status = 'LOCKED'")
+    int bookLockedSeats(@Param("bookingId") Long bookingId);
+
+    /**
+     * Creates LOCKED rows for the seats, or takes over rows still marked AVAILABLE.
+     * A seat that already has a LOCKED or BOOKED row is left alone, so a short count
+     * means another booking got there first. Rows are written in seat id order, so two
+     * transactions claiming overlapping seats wait on each other instead of deadlocking.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = """
+            INSERT INTO show_seats (show_id, seat_id, status, price, booking_id, version)
+            SELECT sh.id, st.id, 'LOCKED',
+                   CASE st.seat_type WHEN 'SILVER' THEN sh.silver_price
+                                     WHEN 'GOLD' THEN sh.gold_price
+                                     WHEN 'PLATINUM' THEN sh.platinum_price
+                                     ELSE sh.recliner_price END,
+                   :bookingId, 0
+            FROM shows sh JOIN seats st ON st.screen_id = sh.screen_id
+            WHERE sh.id = :showId AND st.id IN (:seatIds)
+            ORDER BY st.id
+            ON CONFLICT (show_id, seat_id) DO UPDATE
+                SET status = 'LOCKED', booking_id = EXCLUDED.booking_id, version = show_seats.version + 1
+                WHERE show_seats.status = 'AVAILABLE'
+            """, nativeQuery = true)
+    int claimSeatsForBooking(@Param("showId") Long showId, @Param("seatIds") List<Long> seatIds, @Param("bookingId") Long bookingId);
+
+    // A seat without a row is AVAILABLE, so releasing a seat drops its row
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM ShowSeat ss WHERE ss.booking.id = :bookingId")
     void releaseSeatsByBookingId(@Param("bookingId") Long bookingId);
 
     @Query("SELECT ss FROM ShowSeat ss WHERE ss.booking.id = :bookingId")
     List<ShowSeat> findByBookingId(@Param("bookingId") Long bookingId);
 
+    @Query("SELECT ss.booking.id, st.rowNumber, st.seatNumber FROM ShowSeat ss JOIN ss.seat st " +
+            "WHERE ss.booking.id IN :bookingIds ORDER BY st.rowNumber, st.seatNumber")
+    List<Object[]> findSeatLabelsByBookingIds(@Param("bookingIds") List<Long> bookingIds);
+
+    @Query("SELECT ss.booking.id, ss.show.id, ss.seat.id FROM ShowSeat ss WHERE ss.booking.id IN :bookingIds")
+    List<Object[]> findSeatRefsByBookingIds(@Param("bookingIds") List<Long> bookingIds);
+
     @Query("SELECT ss FROM ShowSeat ss WHERE ss.show.id = :showId AND ss.seat.seatType = :type")
     List<ShowSeat> findByShowIdAndSeatType(@Param("showId") Long showId, @Param("type") org.satvik.moviebookingsystembackend.entity.Seat.SeatType type);
 }
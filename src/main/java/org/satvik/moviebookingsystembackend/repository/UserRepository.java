@@ -34,16 +34,30 @@ public interface UserRepository extends JpaRepository<User, Long> {
     @Query("SELECT COUNT(u) FROM User u WHERE u.active = true")
     Long countActiveUsers();
 
-    @Modifying
+    @Query("SELECT u.active, u.role, u.tokenVersion FROM User u WHERE u.id = :id")
+    List<Object[]> findAccountStatus(@Param("id") Long id);
+
+    @Modifying(clearAutomatically = true)
     @Transactional
-    @Query("UPDATE User u SET u.active = false WHERE u.id = :id")
+    @Query("UPDATE User u SET u.active = false, u.tokenVersion = u.tokenVersion + 1 WHERE u.id = :id")
     void deactivateUser(@Param("id") Long id);
 
-    @Modifying
+    @Modifying(clearAutomatically = true)
+    @Transactional
+    @Query("UPDATE User u SET u.role = :role, u.tokenVersion = u.tokenVersion + 1 WHERE u.id = :id")
+    int updateRole(@Param("id") Long id, @Param("role") User.Role role);
+
+    @Modifying(clearAutomatically = true)
     @Transactional
-    @Query("UPDATE User u SET u.password = :password WHERE u.email = :email")
+    @Query("UPDATE User u SET u.password = :password, u.tokenVersion = u.tokenVersion + 1 WHERE u.email = :email")
     void updatePassword(@Param("email") String email, @Param("password") String password);
 
+    // Conditional on the old hash, so a concurrent password change is never overwritten
+    @Modifying
+    @Transactional
+    @Query("UPDATE User u SET u.password = :newHash WHERE u.id = :id AND u.password = :oldHash")
+    int rehashPassword(@Param("id") Long id, @Param("oldHash") String oldHash, @Param("newHash") String newHash);
+
     @Query("SELECT u FROM User u WHERE u.phone = :phone")
     Optional<User> findByPhone(@Param("phone") String phone);
 }
@@ -0,0 +1,87 @@
+package org.satvik.moviebookingsystembackend.security;
+
+import org.satvik.moviebookingsystembackend.entity.User;
+import org.satvik.moviebookingsystembackend.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded cache of each user's account state, so a token can be checked against
+ * deactivation and role changes without a database read per request.
+ * <p>
+ * Deactivating a user or changing their role bumps the user's token version, which
+ * invalidates every token issued before. Changes made on this node evict the entry at once.
+ * Other nodes see them when the entry expires.
+ */
+@Component
+public class AccountStatusCache {
+
+    record Status(boolean active, User.Role role, int tokenVersion, long loadedAt) {}
+
+    private final UserRepository userRepository;
+    private final long ttlNanos;
+    private final int maxSize;
+    private final ConcurrentHashMap<Long, Status> statuses = new ConcurrentHashMap<>();
+
+    public AccountStatusCache(UserRepository userRepository,
+                              @Value("${app.jwt.account-cache-ttl-seconds:30}") long ttlSeconds,
+                              @Value("${app.jwt.account-cache-size:10000}") int maxSize) {
+        this.userRepository = userRepository;
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Whether the token's claims still match the account: active, same role and not
+     * issued before the last revocation.
+     */
+    public boolean isCurrent(AuthenticatedUser principal) {
+        Status status = status(principal.id());
+        return status.active()
+                && status.role() == principal.role()
+                && status.tokenVersion() == principal.tokenVersion();
+    }
+
+    public void evict(Long userId) {
+        statuses.remove(userId);
+    }
+
+    private Status status(Long userId) {
+        long now = System.nanoTime();
+        Status status = statuses.get(userId);
+        if (status != null && now - status.loadedAt() < ttlNanos) {
+            return status;
+        }
+        if (status == null && statuses.size() >= maxSize) {
+            evictOne();
+        }
+        // Concurrent misses for one user wait on a single load
+        return statuses.compute(userId, (id, current) ->
+                current != null && now - current.loadedAt() < ttlNanos ? current : load(id, now));
+    }
+
+    private Status load(Long userId, long now) {
+        List<Object[]> rows = userRepository.findAccountStatus(userId);
+        if (rows.isEmpty()) {
+            return new Status(false, null, -1, now);
+        }
+        Object[] row = rows.get(0);
+        return new Status((Boolean) row[0], (User.Role) row[1], (Integer) row[2], now);
+    }
+
+    /**
+     * Drops an arbitrary entry. Hot users are reloaded on their next request, which is
+     * cheaper than keeping an access order on every read.
+     */
+    private void evictOne() {
+        Iterator<Long> it = statuses.keySet().iterator();
+        if (it.hasNext()) {
+            statuses.remove(it.next());
+        }
+    }
+}
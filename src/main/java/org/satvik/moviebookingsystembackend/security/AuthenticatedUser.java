@@ -0,0 +1,19 @@
+package org.satvik.moviebookingsystembackend.security;
+
+import org.satvik.moviebookingsystembackend.entity.User;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.List;
+
+/**
+ * Principal of a JWT-authenticated request, built from the token's signed claims alone.
+ * The token id and expiry identify the access token itself, for revoking it on logout.
+ */
+public record AuthenticatedUser(Long id, String email, User.Role role, int tokenVersion,
+                                String tokenId, long expiresAtMillis) {
+
+    public List<GrantedAuthority> authorities() {
+        return List.of(new SimpleGrantedAuthority("ROLE_" + role.name()));
+    }
+}
@@ -0,0 +1,73 @@
+package org.satvik.moviebookingsystembackend.security;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-size Bloom filter over 64-bit keys. Lookups read a few words and never allocate.
+ * Adds must be serialised by the caller; lookups may run concurrently with them.
+ */
+final class BloomFilter {
+
+    private final AtomicLongArray bits;
+    private final int bitCount;
+    private final int hashCount;
+    private final int capacity;
+
+    /**
+     * Sized so that holding {@code capacity} keys gives about the given false-positive rate.
+     */
+    BloomFilter(int capacity, double falsePositiveRate) {
+        double bitsPerKey = -Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2));
+        int words = Math.max(1, (int) Math.ceil(capacity * bitsPerKey / 64));
+        this.bits = new AtomicLongArray(words);
+        this.bitCount = words * 64;
+        this.hashCount = Math.max(1, (int) Math.round(bitsPerKey * Math.log(2)));
+        this.capacity = capacity;
+    }
+
+    int capacity() {
+        return capacity;
+    }
+
+    void add(long key) {
+        long hash = mix(key);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < hashCount; i++) {
+            int bit = Math.floorMod(h1 + i * h2, bitCount);
+            bits.set(bit >>> 6, bits.get(bit >>> 6) | (1L << bit));
+        }
+    }
+
+    boolean mightContain(long key) {
+        long hash = mix(key);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < hashCount; i++) {
+            int bit = Math.floorMod(h1 + i * h2, bitCount);
+            if ((bits.get(bit >>> 6) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 64-bit hash of a string, computed without allocating.
+     */
+    static long hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash = (hash ^ value.charAt(i)) * 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    // SplitMix64 finaliser, so sequential keys spread over the whole filter
+    private static long mix(long key) {
+        long z = key + 0x9e3779b97f4a7c15L;
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
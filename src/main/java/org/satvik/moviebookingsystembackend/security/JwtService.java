@@ -3,6 +3,7 @@ package org.satvik.moviebookingsystembackend.security;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import org.satvik.moviebookingsystembackend.entity.User;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
@@ -11,16 +12,40 @@ import java.security.Key;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
 import java.util.function.Function;
 
 @Service
 public class JwtService {
 
-    @Value("${app.jwt.secret}")
-    private String secretKey;
+    private static final String USER_ID_CLAIM = "uid";
+    private static final String ROLE_CLAIM = "role";
+    private static final String TOKEN_VERSION_CLAIM = "ver";
+    private static final String GRANT_TYPE_CLAIM = "typ";
 
-    @Value("${app.jwt.expiration}")
-    private long jwtExpiration;
+    private final long jwtExpiration;
+    // The key and parser are immutable and thread-safe, so they are built once
+    private final Key signInKey;
+    private final JwtParser parser;
+
+    public JwtService(@Value("${app.jwt.secret}") String secretKey,
+                      @Value("${app.jwt.expiration}") long jwtExpiration) {
+        this.jwtExpiration = jwtExpiration;
+        byte[] keyBytes = Decoders.BASE64.decode(
+                java.util.Base64.getEncoder().encodeToString(secretKey.getBytes())
+        );
+        this.signInKey = Keys.hmacShaKeyFor(keyBytes);
+        this.parser = Jwts.parserBuilder()
+                .setSigningKey(signInKey)
+                .build();
+    }
+
+    /**
+     * Lifetime of an access token in seconds.
+     */
+    public long getExpiresIn() {
+        return jwtExpiration / 1000;
+    }
 
     public String extractUsername(String token) {
         return extractClaim(token, Claims::getSubject);
@@ -31,20 +56,71 @@ public class JwtService {
         return claimsResolver.apply(claims);
     }
 
-    public String generateToken(UserDetails userDetails) {
-        return generateToken(new HashMap<>(), userDetails);
+    /**
+     * Token carrying the user's id, role and token version, so requests can be
+     * authenticated without loading the user.
+     */
+    public String generateToken(User user) {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put(USER_ID_CLAIM, user.getId());
+        claims.put(ROLE_CLAIM, user.getRole().name());
+        claims.put(TOKEN_VERSION_CLAIM, user.getTokenVersion());
+        return generateToken(claims, user);
     }
 
     public String generateToken(Map<String, Object> extraClaims, UserDetails userDetails) {
         return Jwts.builder()
                 .setClaims(extraClaims)
+                .setId(UUID.randomUUID().toString())
                 .setSubject(userDetails.getUsername())
                 .setIssuedAt(new Date(System.currentTimeMillis()))
                 .setExpiration(new Date(System.currentTimeMillis() + jwtExpiration))
-                .signWith(getSignInKey(), SignatureAlgorithm.HS256)
+                .signWith(signInKey, SignatureAlgorithm.HS256)
+                .compact();
+    }
+
+    /**
+     * Verifies the signature and expiry and builds the principal from the claims.
+     *
+     * @throws JwtException if the token is invalid, expired or predates the user id claims
+     */
+    public AuthenticatedUser parsePrincipal(String token) {
+        Claims claims = extractAllClaims(token);
+        Number userId = claims.get(USER_ID_CLAIM, Number.class);
+        String role = claims.get(ROLE_CLAIM, String.class);
+        Number tokenVersion = claims.get(TOKEN_VERSION_CLAIM, Number.class);
+        if (userId == null || role == null || tokenVersion == null) {
+            throw new MalformedJwtException("Token is missing user claims");
+        }
+        return new AuthenticatedUser(userId.longValue(), claims.getSubject(), User.Role.valueOf(role),
+                tokenVersion.intValue(), claims.getId(), claims.getExpiration().getTime());
+    }
+
+    /**
+     * Short-lived signed grant of the given type, such as a waiting-room ticket. Grants
+     * carry no user claims, so they are never accepted as access tokens.
+     */
+    public String signGrant(String type, Map<String, Object> claims, long ttlMillis) {
+        return Jwts.builder()
+                .setClaims(claims)
+                .claim(GRANT_TYPE_CLAIM, type)
+                .setIssuedAt(new Date(System.currentTimeMillis()))
+                .setExpiration(new Date(System.currentTimeMillis() + ttlMillis))
+                .signWith(signInKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
+    /**
+     * @throws JwtException if the grant is invalid, expired or of another type
+     */
+    public Claims verifyGrant(String type, String token) {
+        Claims claims = extractAllClaims(token);
+        if (!type.equals(claims.get(GRANT_TYPE_CLAIM, String.class))) {
+            throw new MalformedJwtException("Not a " + type + " grant");
+        }
+        return claims;
+    }
+
     public boolean isTokenValid(String token, UserDetails userDetails) {
         final String username = extractUsername(token);
         return (username.equals(userDetails.getUsername())) && !isTokenExpired(token);
@@ -59,18 +135,6 @@ public class JwtService {
     }
 
     private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSignInKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-    }
-
-    private Key getSignInKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(
-                java.util.Base64.getEncoder().encodeToString(secretKey.getBytes())
-        );
-        return Keys.hmacShaKeyFor(keyBytes);
+        return parser.parseClaimsJws(token).getBody();
     }
 }
-
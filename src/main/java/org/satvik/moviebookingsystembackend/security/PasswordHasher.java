@@ -0,0 +1,142 @@
+package org.satvik.moviebookingsystembackend.security;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.satvik.moviebookingsystembackend.exception.ServiceBusyException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Runs password hashing on a small fixed pool instead of on request threads, so a login
+ * burst can use at most {@code threads} cores and leaves the rest to other endpoints.
+ * <p>
+ * Admission is bounded twice. At most {@code max-queue} hashes wait for a thread, and
+ * further callers get a {@link ServiceBusyException} at once. A hash that waited longer
+ * than {@code max-wait-ms} is dropped unrun, because its client has likely given up.
+ */
+@Component
+@Slf4j
+public class PasswordHasher {
+
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolExecutor executor;
+    private final int maxQueue;
+    private final long maxWaitNanos;
+    // Compared against when the user does not exist, so unknown emails take as long as wrong passwords
+    private volatile String unknownUserHash;
+
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder expired = new LongAdder();
+    private final LongAdder queueNanos = new LongAdder();
+    private final LongAccumulator maxQueueNanos = new LongAccumulator(Long::max, 0);
+    private final LongAdder hashNanos = new LongAdder();
+    private final LongAccumulator maxHashNanos = new LongAccumulator(Long::max, 0);
+
+    public PasswordHasher(PasswordEncoder passwordEncoder,
+                          @Value("${app.auth.hashing.threads:0}") int threads,
+                          @Value("${app.auth.hashing.max-queue:100}") int maxQueue,
+                          @Value("${app.auth.hashing.max-wait-ms:3000}") long maxWaitMillis) {
+        this.passwordEncoder = passwordEncoder;
+        // Hashing is pure CPU; by default leave half the cores to everything else
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(maxQueue),
+                r -> {
+                    Thread thread = new Thread(r, "password-hasher-" + counter.getAndIncrement());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.maxQueue = maxQueue;
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+    }
+
+    public String encode(String rawPassword) {
+        return run(() -> passwordEncoder.encode(rawPassword));
+    }
+
+    /**
+     * Whether the password matches the hash. A null hash, for a user that does not
+     * exist, still costs one full comparison and never matches.
+     */
+    public boolean matches(String rawPassword, String encodedPassword) {
+        if (encodedPassword == null) {
+            String dummy = unknownUserHash;
+            if (dummy == null) {
+                dummy = unknownUserHash = encode("unknown-user-password");
+            }
+            String hash = dummy;
+            run(() -> passwordEncoder.matches(rawPassword, hash));
+            return false;
+        }
+        return run(() -> passwordEncoder.matches(rawPassword, encodedPassword));
+    }
+
+    /**
+     * Whether the hash was made with weaker settings than the current ones and should be
+     * replaced on the user's next successful login.
+     */
+    public boolean upgradeEncoding(String encodedPassword) {
+        return passwordEncoder.upgradeEncoding(encodedPassword);
+    }
+
+    public PasswordHashingStats stats() {
+        long count = Math.max(1, completed.sum());
+        return new PasswordHashingStats(executor.getMaximumPoolSize(), executor.getActiveCount(),
+                executor.getQueue().size(), maxQueue, completed.sum(), rejected.sum(), expired.sum(),
+                queueNanos.sum() / 1e6 / count, maxQueueNanos.get() / 1e6,
+                hashNanos.sum() / 1e6 / count, maxHashNanos.get() / 1e6);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private <T> T run(Supplier<T> hash) {
+        long submitted = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                long started = System.nanoTime();
+                long waited = started - submitted;
+                queueNanos.add(waited);
+                maxQueueNanos.accumulate(waited);
+                if (waited > maxWaitNanos) {
+                    expired.increment();
+                    throw new ServiceBusyException("Too many sign-in attempts, please retry shortly");
+                }
+                T result = hash.get();
+                long took = System.nanoTime() - started;
+                hashNanos.add(took);
+                maxHashNanos.accumulate(took);
+                completed.increment();
+                return result;
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new ServiceBusyException("Too many sign-in attempts, please retry shortly");
+        }
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            throw new ServiceBusyException("Password check interrupted");
+        }
+    }
+}
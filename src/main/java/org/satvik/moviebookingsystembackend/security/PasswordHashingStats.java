@@ -0,0 +1,18 @@
+package org.satvik.moviebookingsystembackend.security;
+
+/**
+ * Point-in-time view of the password hashing executor, served on the admin API.
+ */
+public record PasswordHashingStats(
+        int threads,
+        int active,
+        int queueDepth,
+        int maxQueue,
+        long completed,
+        long rejected,
+        long expired,
+        double avgQueueMillis,
+        double maxQueueMillis,
+        double avgHashMillis,
+        double maxHashMillis
+) {}
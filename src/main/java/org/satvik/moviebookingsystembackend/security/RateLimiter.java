@@ -0,0 +1,175 @@
+package org.satvik.moviebookingsystembackend.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-endpoint token buckets keyed by user id and by client IP.
+ * <p>
+ * Each bucket is one {@code AtomicLong} holding the time at which it will next be full
+ * (the generic cell rate algorithm). Taking a token is a single compare-and-set: the bucket
+ * admits a request while that time is at most {@code capacity - 1} refill intervals ahead of
+ * now, and each admission pushes it one interval further. A bucket whose time has passed is
+ * full, so dropping it changes nothing. The idle sweep relies on that.
+ * <p>
+ * Rules come from {@code app.ratelimit.rules}, separated by {@code ;}. Each rule has the
+ * form {@code METHOD /path/pattern user=10/1m ip=30/1m}, and either limit may be left out.
+ */
+@Component
+@Slf4j
+public class RateLimiter {
+
+    record Limit(long intervalNanos, long toleranceNanos) {
+
+        static Limit parse(String spec) {
+            String[] parts = spec.split("/");
+            long capacity = Long.parseLong(parts[0]);
+            long interval = DurationStyle.detectAndParse(parts[1]).toNanos() / capacity;
+            return new Limit(interval, (capacity - 1) * interval);
+        }
+
+        /**
+         * Takes a token and returns 0, or returns how long until one is available.
+         */
+        long acquire(AtomicLong fullAt, long now) {
+            while (true) {
+                long current = fullAt.get();
+                long base = Math.max(current, now);
+                long wait = base - now - toleranceNanos;
+                if (wait > 0) {
+                    return wait;
+                }
+                if (fullAt.compareAndSet(current, base + intervalNanos)) {
+                    return 0;
+                }
+            }
+        }
+
+        /**
+         * How long until a token is available, without taking one.
+         */
+        long waitTime(AtomicLong fullAt, long now) {
+            return Math.max(0, Math.max(fullAt.get(), now) - now - toleranceNanos);
+        }
+
+        /**
+         * Gives back a token taken by {@link #acquire}.
+         */
+        void refund(AtomicLong fullAt) {
+            fullAt.addAndGet(-intervalNanos);
+        }
+    }
+
+    private record Charge(Limit limit, AtomicLong fullAt) {}
+
+    record Rule(String method, String pattern, Limit perUser, Limit perIp,
+                Map<Long, AtomicLong> userBuckets, Map<String, AtomicLong> ipBuckets) {}
+
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final boolean enabled;
+    private final List<Rule> rules;
+
+    public RateLimiter(@Value("${app.ratelimit.enabled:true}") boolean enabled,
+                       @Value("${app.ratelimit.rules:}") String rules) {
+        this.enabled = enabled;
+        this.rules = parse(rules);
+        log.info("Rate limiting {} with {} rules", enabled ? "enabled" : "disabled", this.rules.size());
+    }
+
+    /**
+     * Takes a token from every bucket the request falls under, or from none of them: a
+     * request turned away by one bucket gives back what it took from the others, so a
+     * user's rejected attempts do not use up their address's allowance or the reverse.
+     * A concurrent request may see such a bucket one token short until it is refunded.
+     *
+     * @param userId the authenticated user, or null
+     * @return 0 if admitted, otherwise the nanoseconds until the request would be admitted
+     */
+    public long acquire(String method, String path, Long userId, String clientIp) {
+        if (!enabled) {
+            return 0;
+        }
+        long now = System.nanoTime();
+        List<Charge> charges = new ArrayList<>(2);
+        for (Rule rule : rules) {
+            if (!rule.method().equals(method) || !pathMatcher.match(rule.pattern(), path)) {
+                continue;
+            }
+            if (rule.perUser() != null && userId != null) {
+                charges.add(new Charge(rule.perUser(), rule.userBuckets().computeIfAbsent(userId, id -> new AtomicLong(now))));
+            }
+            if (rule.perIp() != null && clientIp != null) {
+                charges.add(new Charge(rule.perIp(), rule.ipBuckets().computeIfAbsent(clientIp, ip -> new AtomicLong(now))));
+            }
+        }
+
+        for (int taken = 0; taken < charges.size(); taken++) {
+            Charge charge = charges.get(taken);
+            long wait = charge.limit().acquire(charge.fullAt(), now);
+            if (wait > 0) {
+                for (int i = 0; i < taken; i++) {
+                    charges.get(i).limit().refund(charges.get(i).fullAt());
+                }
+                // Report the longest wait, so a retry at that time is not turned away by another bucket
+                for (int i = taken + 1; i < charges.size(); i++) {
+                    wait = Math.max(wait, charges.get(i).limit().waitTime(charges.get(i).fullAt(), now));
+                }
+                return wait;
+            }
+        }
+        return 0;
+    }
+
+    int bucketCount() {
+        return rules.stream().mapToInt(rule -> rule.userBuckets().size() + rule.ipBuckets().size()).sum();
+    }
+
+    /**
+     * Drops full buckets. A request racing with the removal may get one token for free.
+     */
+    @Scheduled(fixedDelayString = "${app.ratelimit.sweep-ms:60000}")
+    public void evictIdle() {
+        long now = System.nanoTime();
+        for (Rule rule : rules) {
+            rule.userBuckets().values().removeIf(fullAt -> fullAt.get() - now <= 0);
+            rule.ipBuckets().values().removeIf(fullAt -> fullAt.get() - now <= 0);
+        }
+    }
+
+    private static List<Rule> parse(String spec) {
+        List<Rule> rules = new ArrayList<>();
+        for (String ruleSpec : spec.split(";")) {
+            String[] tokens = ruleSpec.trim().split("\\s+");
+            if (tokens.length < 3) {
+                if (!ruleSpec.isBlank()) {
+                    throw new IllegalArgumentException("Invalid rate limit rule: " + ruleSpec);
+                }
+                continue;
+            }
+            Limit perUser = null;
+            Limit perIp = null;
+            for (int i = 2; i < tokens.length; i++) {
+                String[] keyAndLimit = tokens[i].split("=", 2);
+                switch (keyAndLimit[0]) {
+                    case "user" -> perUser = Limit.parse(keyAndLimit[1]);
+                    case "ip" -> perIp = Limit.parse(keyAndLimit[1]);
+                    default -> throw new IllegalArgumentException("Invalid rate limit key in rule: " + ruleSpec);
+                }
+            }
+            rules.add(new Rule(tokens[0].toUpperCase(), tokens[1], perUser, perIp,
+                    new ConcurrentHashMap<>(), new ConcurrentHashMap<>()));
+        }
+        return List.copyOf(rules);
+    }
+}
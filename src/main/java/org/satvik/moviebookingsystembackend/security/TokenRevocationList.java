@@ -0,0 +1,103 @@
+package org.satvik.moviebookingsystembackend.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Revoked access tokens, checked on every authenticated request. A Bloom filter answers
+ * the common "not revoked" case from a few words of memory without allocating; only a
+ * filter hit consults the exact maps behind it.
+ * <p>
+ * Two kinds of revocation are held. Logging out revokes one token by its id. Ending all of
+ * a user's sessions revokes every token below the user's new token version. Either entry is
+ * only needed until the tokens it covers expire, which is one access token lifetime, so the
+ * maps stay small. A periodic sweep drops expired entries and rebuilds the filter from the
+ * rest.
+ */
+@Component
+@Slf4j
+public class TokenRevocationList {
+
+    private record UserRevocation(int minTokenVersion, long until) {}
+
+    private static final int MIN_CAPACITY = 1024;
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+
+    private final long accessTokenLifetimeMillis;
+    private final Map<Long, UserRevocation> users = new ConcurrentHashMap<>();
+    private final Map<String, Long> tokens = new ConcurrentHashMap<>();
+    private volatile BloomFilter filter = new BloomFilter(MIN_CAPACITY, FALSE_POSITIVE_RATE);
+
+    public TokenRevocationList(@Value("${app.jwt.expiration}") long accessTokenLifetimeMillis) {
+        this.accessTokenLifetimeMillis = accessTokenLifetimeMillis;
+    }
+
+    public boolean isRevoked(AuthenticatedUser principal) {
+        BloomFilter current = filter;
+        if (current.mightContain(userKey(principal.id()))) {
+            UserRevocation revocation = users.get(principal.id());
+            if (revocation != null && principal.tokenVersion() < revocation.minTokenVersion()) {
+                return true;
+            }
+        }
+        return principal.tokenId() != null
+                && current.mightContain(BloomFilter.hash(principal.tokenId()))
+                && tokens.containsKey(principal.tokenId());
+    }
+
+    /**
+     * Revokes one access token until it expires.
+     */
+    public synchronized void revokeToken(String tokenId, long expiresAtMillis) {
+        tokens.put(tokenId, expiresAtMillis);
+        add(BloomFilter.hash(tokenId));
+    }
+
+    /**
+     * Revokes every token of the user issued with a version below the given one.
+     */
+    public synchronized void revokeUserTokens(Long userId, int minTokenVersion) {
+        users.merge(userId, new UserRevocation(minTokenVersion, System.currentTimeMillis() + accessTokenLifetimeMillis),
+                (old, next) -> new UserRevocation(Math.max(old.minTokenVersion(), next.minTokenVersion()), next.until()));
+        add(userKey(userId));
+    }
+
+    @Scheduled(fixedDelayString = "${app.jwt.revocation-sweep-ms:60000}")
+    public synchronized void sweep() {
+        long now = System.currentTimeMillis();
+        int before = users.size() + tokens.size();
+        users.values().removeIf(revocation -> revocation.until() < now);
+        tokens.values().removeIf(expiresAt -> expiresAt < now);
+        if (users.size() + tokens.size() < before) {
+            rebuild();
+            log.debug("Revocation list swept to {} users and {} tokens", users.size(), tokens.size());
+        }
+    }
+
+    // Entries are put in the exact maps first, so a reader that sees the new bits finds them
+    private void add(long key) {
+        if (users.size() + tokens.size() > filter.capacity()) {
+            rebuild();
+        } else {
+            filter.add(key);
+        }
+    }
+
+    private void rebuild() {
+        BloomFilter rebuilt = new BloomFilter(Math.max(MIN_CAPACITY, 2 * (users.size() + tokens.size())),
+                FALSE_POSITIVE_RATE);
+        users.keySet().forEach(userId -> rebuilt.add(userKey(userId)));
+        tokens.keySet().forEach(tokenId -> rebuilt.add(BloomFilter.hash(tokenId)));
+        filter = rebuilt;
+    }
+
+    // Keeps user ids apart from token id hashes in the shared filter
+    private static long userKey(long userId) {
+        return ~userId;
+    }
+}
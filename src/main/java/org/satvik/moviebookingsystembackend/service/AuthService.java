@@ -1,25 +1,34 @@
 package org.satvik.moviebookingsystembackend.service;
 
 import org.satvik.moviebookingsystembackend.dto.AuthDTO;
+import org.satvik.moviebookingsystembackend.entity.RefreshToken;
 import org.satvik.moviebookingsystembackend.entity.User;
+import org.satvik.moviebookingsystembackend.exception.InvalidTokenException;
 import org.satvik.moviebookingsystembackend.exception.ResourceAlreadyExistsException;
 import org.satvik.moviebookingsystembackend.exception.ResourceNotFoundException;
+import org.satvik.moviebookingsystembackend.exception.ServiceBusyException;
 import org.satvik.moviebookingsystembackend.repository.UserRepository;
+import org.satvik.moviebookingsystembackend.security.AccountStatusCache;
+import org.satvik.moviebookingsystembackend.security.AuthenticatedUser;
 import org.satvik.moviebookingsystembackend.security.JwtService;
+import org.satvik.moviebookingsystembackend.security.PasswordHasher;
+import org.satvik.moviebookingsystembackend.security.TokenRevocationList;
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.stereotype.Service;
 
 @Service
 @RequiredArgsConstructor
+@Slf4j
 public class AuthService {
 
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHasher passwordHasher;
     private final JwtService jwtService;
-    private final AuthenticationManager authenticationManager;
+    private final AccountStatusCache accountStatusCache;
+    private final RefreshTokenService refreshTokenService;
+    private final TokenRevocationList tokenRevocationList;
 
     public AuthDTO.AuthResponse register(AuthDTO.RegisterRequest request) {
         if (userRepository.existsByEmail(request.getEmail())) {
@@ -29,40 +38,125 @@ public class AuthService {
         User user = User.builder()
                 .name(request.getName())
                 .email(request.getEmail())
-                .password(passwordEncoder.encode(request.getPassword()))
+                .password(passwordHasher.encode(request.getPassword()))
                 .phone(request.getPhone())
                 .role(User.Role.USER)
                 .build();
 
         userRepository.save(user);
 
-        String token = jwtService.generateToken(user);
-        return buildAuthResponse(token, user);
+        return buildAuthResponse(user, refreshTokenService.issue(user));
     }
 
     public AuthDTO.AuthResponse login(AuthDTO.LoginRequest request) {
-        authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(request.getEmail(), request.getPassword())
-        );
+        User user = userRepository.findByEmail(request.getEmail()).orElse(null);
+        if (!passwordHasher.matches(request.getPassword(), user != null ? user.getPassword() : null)
+                || !user.isActive()) {
+            throw new BadCredentialsException("Invalid email or password");
+        }
 
-        User user = userRepository.findByEmail(request.getEmail())
-                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+        rehashIfOutdated(user, request.getPassword());
+        return buildAuthResponse(user, refreshTokenService.issue(user));
+    }
 
-        String token = jwtService.generateToken(user);
-        return buildAuthResponse(token, user);
+    /**
+     * Exchanges a refresh token for a new access token and the refresh token's successor.
+     */
+    public AuthDTO.AuthResponse refresh(String refreshToken) {
+        RefreshToken consumed = refreshTokenService.consume(refreshToken);
+        User user = consumed.getUser();
+        if (!user.isActive()) {
+            throw new InvalidTokenException("Account is disabled");
+        }
+        return buildAuthResponse(user, refreshTokenService.rotate(consumed));
     }
 
-    public void changePassword(String email, AuthDTO.ChangePasswordRequest request) {
-        authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(email, request.getCurrentPassword())
-        );
+    /**
+     * Ends the refresh token's session and revokes the caller's access token, if any.
+     */
+    public void logout(String refreshToken, AuthenticatedUser principal) {
+        if (refreshToken != null) {
+            refreshTokenService.revokeSession(refreshToken);
+        }
+        if (principal != null && principal.tokenId() != null) {
+            tokenRevocationList.revokeToken(principal.tokenId(), principal.expiresAtMillis());
+        }
+    }
 
-        userRepository.updatePassword(email, passwordEncoder.encode(request.getNewPassword()));
+    /**
+     * Changes the password and ends every session of the user, including the caller's,
+     * which continues with the returned tokens.
+     */
+    public AuthDTO.AuthResponse changePassword(AuthenticatedUser principal, AuthDTO.ChangePasswordRequest request) {
+        User current = userRepository.findById(principal.id())
+                .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + principal.id()));
+        if (!passwordHasher.matches(request.getCurrentPassword(), current.getPassword())) {
+            throw new BadCredentialsException("Invalid email or password");
+        }
+
+        userRepository.updatePassword(principal.email(), passwordHasher.encode(request.getNewPassword()));
+        User user = endSessions(principal.id(), true);
+        return buildAuthResponse(user, refreshTokenService.issue(user));
+    }
+
+    /**
+     * Deactivates the account and ends all of its sessions.
+     */
+    public void deactivateUser(Long userId) {
+        if (!userRepository.existsById(userId)) {
+            throw new ResourceNotFoundException("User not found with id: " + userId);
+        }
+        userRepository.deactivateUser(userId);
+        endSessions(userId, true);
+    }
+
+    /**
+     * Changes the user's role and revokes its access tokens. Sessions stay open, and the
+     * next refresh picks up the new role.
+     */
+    public void changeRole(Long userId, User.Role role) {
+        if (userRepository.updateRole(userId, role) == 0) {
+            throw new ResourceNotFoundException("User not found with id: " + userId);
+        }
+        endSessions(userId, false);
+    }
+
+    /**
+     * Replaces a hash made with a lower BCrypt cost than the configured one. The update is
+     * skipped if the password changed meanwhile, and when hashing is saturated the upgrade
+     * waits for the next login.
+     */
+    private void rehashIfOutdated(User user, String rawPassword) {
+        if (!passwordHasher.upgradeEncoding(user.getPassword())) {
+            return;
+        }
+        try {
+            userRepository.rehashPassword(user.getId(), user.getPassword(), passwordHasher.encode(rawPassword));
+        } catch (ServiceBusyException e) {
+            log.debug("Skipped password rehash for user {}: {}", user.getId(), e.getMessage());
+        }
+    }
+
+    /**
+     * Revokes access tokens issued before the user's token version was bumped and,
+     * optionally, every refresh token.
+     */
+    private User endSessions(Long userId, boolean revokeRefreshTokens) {
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + userId));
+        if (revokeRefreshTokens) {
+            refreshTokenService.revokeAll(userId);
+        }
+        tokenRevocationList.revokeUserTokens(userId, user.getTokenVersion());
+        accountStatusCache.evict(userId);
+        return user;
     }
 
-    private AuthDTO.AuthResponse buildAuthResponse(String token, User user) {
+    private AuthDTO.AuthResponse buildAuthResponse(User user, String refreshToken) {
         AuthDTO.AuthResponse response = new AuthDTO.AuthResponse();
-        response.setToken(token);
+        response.setToken(jwtService.generateToken(user));
+        response.setExpiresIn(jwtService.getExpiresIn());
+        response.setRefreshToken(refreshToken);
         response.setUserId(user.getId());
         response.setName(user.getName());
         response.setEmail(user.getEmail());
@@ -0,0 +1,88 @@
+package org.satvik.moviebookingsystembackend.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.satvik.moviebookingsystembackend.entity.Show;
+import org.satvik.moviebookingsystembackend.entity.ShowSeatCounter;
+import org.satvik.moviebookingsystembackend.repository.ShowBulkRepository;
+import org.satvik.moviebookingsystembackend.repository.ShowRepository;
+import org.satvik.moviebookingsystembackend.repository.ShowSeatCounterRepository;
+import org.satvik.moviebookingsystembackend.repository.ShowSeatRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Sharded counter behind {@code Show.availableSeats}. Seat changes add a delta to one of
+ * {@code shards} counter rows in the caller's transaction, so concurrent bookings for a
+ * popular show spread over several rows instead of queueing on the {@code shows} row.
+ * {@link SeatCounterScheduler} folds the shards back into the show and reconciles it
+ * against the show's seat rows.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AvailableSeatCounter {
+
+    private final ShowSeatCounterRepository counterRepository;
+    private final ShowRepository showRepository;
+    private final ShowSeatRepository showSeatRepository;
+    private final ShowBulkRepository showBulkRepository;
+
+    @Value("${app.booking.seat-counter-shards:16}")
+    private int shards;
+
+    @Transactional
+    public void add(Long showId, int delta) {
+        counterRepository.addDelta(showId, ThreadLocalRandom.current().nextInt(shards), delta);
+    }
+
+    @Transactional
+    public void createShards(Long showId) {
+        counterRepository.createShards(showId, shards);
+    }
+
+    @Transactional
+    public void createShards(List<Long> showIds) {
+        showBulkRepository.insertCounterShards(showIds, shards);
+    }
+
+    /**
+     * Moves the pending deltas of a show into {@code shows.available_seats}.
+     */
+    @Transactional
+    public void fold(Long showId) {
+        List<ShowSeatCounter> counters = counterRepository.lockShards(showId);
+        int delta = 0;
+        for (ShowSeatCounter counter : counters) {
+            delta += counter.getDelta();
+            counter.setDelta(0);
+        }
+        if (delta != 0) {
+            showRepository.adjustAvailableSeats(showId, delta);
+        }
+    }
+
+    /**
+     * Resets {@code shows.available_seats} to the number of AVAILABLE seat rows and drops
+     * the pending deltas. With every shard locked, bookings for the show wait until this
+     * commits, so none is counted both in the seat rows and in a delta.
+     */
+    @Transactional
+    public void reconcile(Long showId) {
+        int delta = 0;
+        for (ShowSeatCounter counter : counterRepository.lockShards(showId)) {
+            delta += counter.getDelta();
+            counter.setDelta(0);
+        }
+        int available = Math.toIntExact(showSeatRepository.countAvailableSeats(showId));
+        Integer recorded = showRepository.findById(showId).map(Show::getAvailableSeats).orElse(null);
+        showRepository.setAvailableSeats(showId, available);
+        if (recorded != null && recorded + delta != available) {
+            log.warn("Corrected available seats of show {} from {} to {}", showId, recorded + delta, available);
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package org.satvik.moviebookingsystembackend.service;
+
+import lombok.RequiredArgsConstructor;
+import org.satvik.moviebookingsystembackend.dto.BookingDTO;
+import org.satvik.moviebookingsystembackend.entity.Booking;
+import org.satvik.moviebookingsystembackend.entity.Payment;
+import org.satvik.moviebookingsystembackend.exception.BookingException;
+import org.satvik.moviebookingsystembackend.exception.ResourceNotFoundException;
+import org.satvik.moviebookingsystembackend.repository.BookingRepository;
+import org.satvik.moviebookingsystembackend.repository.ShowSeatRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Read side of bookings. A page of a user's history is built from two queries, however
+ * large the page: the bookings with their show, movie, theatre and payment fetched in,
+ * and the seat labels of all of them at once. Pages are keyset-paginated on
+ * (bookedAt, id), so a deep page costs the same as the first.
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class BookingHistoryService {
+
+    private final BookingRepository bookingRepository;
+    private final ShowSeatRepository showSeatRepository;
+
+    private static final int MAX_PAGE_SIZE = 100;
+    // Sorts after every real booking, so the first page needs no separate query
+    private static final LocalDateTime FIRST_PAGE_BOOKED_AT = LocalDateTime.of(9999, 12, 31, 0, 0);
+
+    @Value("${stripe.publishable.key}")
+    private String stripePublishableKey;
+
+    /**
+     * Returns the user's bookings newest first, optionally only those in the given statuses.
+     */
+    public BookingDTO.BookingPage getUserBookings(Long userId, List<Booking.BookingStatus> statuses,
+                                                  String cursor, int limit) {
+        int pageSize = Math.clamp(limit, 1, MAX_PAGE_SIZE);
+        Cursor after = cursor == null || cursor.isBlank()
+                ? new Cursor(FIRST_PAGE_BOOKED_AT, Long.MAX_VALUE)
+                : Cursor.decode(cursor);
+
+        // One extra row tells whether there is a next page
+        Limit fetch = Limit.of(pageSize + 1);
+        List<Booking> bookings = statuses == null || statuses.isEmpty()
+                ? bookingRepository.findHistoryPage(userId, after.bookedAt(), after.id(), fetch)
+                : bookingRepository.findHistoryPageByUserIdAndStatus(userId, statuses, after.bookedAt(), after.id(), fetch);
+        boolean hasMore = bookings.size() > pageSize;
+        if (hasMore) {
+            bookings = bookings.subList(0, pageSize);
+        }
+
+        BookingDTO.BookingPage page = new BookingDTO.BookingPage();
+        page.setBookings(toResponses(bookings));
+        if (hasMore) {
+            Booking last = bookings.get(bookings.size() - 1);
+            page.setNextCursor(new Cursor(last.getBookedAt(), last.getId()).encode());
+        }
+        return page;
+    }
+
+    public BookingDTO.BookingResponse getBookingByReference(String reference) {
+        Booking booking = bookingRepository.findHistoryByBookingReference(reference)
+                .orElseThrow(() -> new ResourceNotFoundException("Booking not found: " + reference));
+        List<String> seatLabels = seatLabelsOf(List.of(booking.getId())).getOrDefault(booking.getId(), List.of());
+        return buildBookingResponse(booking, seatLabels, booking.getPayment());
+    }
+
+    /**
+     * Maps a booking whose show, movie and theatre are loaded (or loadable) to its response.
+     */
+    public BookingDTO.BookingResponse buildBookingResponse(Booking booking, List<String> seatLabels, Payment payment) {
+        BookingDTO.BookingResponse response = new BookingDTO.BookingResponse();
+        response.setId(booking.getId());
+        response.setBookingReference(booking.getBookingReference());
+        response.setMovieTitle(booking.getShow().getMovie().getTitle());
+        response.setTheatreName(booking.getShow().getTheatre().getName());
+        response.setShowDate(booking.getShow().getShowDate().toString());
+        response.setShowTime(booking.getShow().getStartTime().toString());
+        response.setSeats(seatLabels);
+        response.setTotalAmount(booking.getTotalAmount());
+        response.setConvenienceFee(booking.getConvenienceFee());
+        response.setFinalAmount(booking.getFinalAmount());
+        response.setStatus(booking.getStatus());
+        response.setBookedAt(booking.getBookedAt());
+        response.setCartReference(booking.getCartReference());
+        if (payment != null) {
+            response.setStripePaymentIntentId(payment.getStripePaymentIntentId());
+            response.setStripeClientSecret(payment.getStripeClientSecret());
+            response.setStripePublishableKey(stripePublishableKey);
+        }
+        return response;
+    }
+
+    private List<BookingDTO.BookingResponse> toResponses(List<Booking> bookings) {
+        if (bookings.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, List<String>> seatLabels = seatLabelsOf(bookings.stream().map(Booking::getId).toList());
+
+        List<BookingDTO.BookingResponse> responses = new ArrayList<>(bookings.size());
+        for (Booking booking : bookings) {
+            responses.add(buildBookingResponse(booking,
+                    seatLabels.getOrDefault(booking.getId(), List.of()), booking.getPayment()));
+        }
+        return responses;
+    }
+
+    private Map<Long, List<String>> seatLabelsOf(List<Long> bookingIds) {
+        Map<Long, List<String>> labels = new HashMap<>();
+        for (Object[] row : showSeatRepository.findSeatLabelsByBookingIds(bookingIds)) {
+            labels.computeIfAbsent((Long) row[0], id -> new ArrayList<>()).add((String) row[1] + row[2]);
+        }
+        return labels;
+    }
+
+    // Position of the last booking on a page, sent to clients as an opaque token
+    private record Cursor(LocalDateTime bookedAt, Long id) {
+
+        String encode() {
+            String position = bookedAt + "|" + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static Cursor decode(String token) {
+            try {
+                String[] position = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split("\\|");
+                if (position.length != 2) {
+                    throw new BookingException("Invalid cursor");
+                }
+                return new Cursor(LocalDateTime.parse(position[0]), Long.valueOf(position[1]));
+            } catch (IllegalArgumentException | DateTimeParseException e) {
+                throw new BookingException("Invalid cursor");
+            }
+        }
+    }
+}
@@ -2,15 +2,23 @@ package org.satvik.moviebookingsystembackend.service;
 
 import org.satvik.moviebookingsystembackend.dto.BookingDTO;
 import org.satvik.moviebookingsystembackend.entity.*;
+import org.satvik.moviebookingsystembackend.event.BookingConfirmedEvent;
 import org.satvik.moviebookingsystembackend.exception.BookingException;
+import org.satvik.moviebookingsystembackend.exception.PaymentException;
 import org.satvik.moviebookingsystembackend.exception.ResourceNotFoundException;
+import org.satvik.moviebookingsystembackend.gateway.GatewayIntent;
+import org.satvik.moviebookingsystembackend.gateway.IntentRequest;
+import org.satvik.moviebookingsystembackend.gateway.RefundRequest;
 import org.satvik.moviebookingsystembackend.repository.*;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.UUID;
 import java.util.stream.Collectors;
@@ -25,41 +33,292 @@ public class BookingService {
     private final ShowSeatRepository showSeatRepository;
     private final UserRepository userRepository;
     private final PaymentService paymentService;
+    private final SeatStateEngine seatStateEngine;
+    private final SeatHoldScheduler seatHoldScheduler;
+    private final AvailableSeatCounter availableSeatCounter;
+    private final BookingHistoryService bookingHistoryService;
+    private final ApplicationEventPublisher eventPublisher;
 
     private static final double CONVENIENCE_FEE_PERCENT = 0.02; // 2%
+    private static final int MAX_BEST_SEATS = 10;
+    private static final int MAX_CART_SHOWS = 5;
+    private static final String PAYMENT_FAILED_REASON = "Payment failed";
+
+    /**
+     * Outcome of the reservation phase: seats are LOCKED, the booking is PENDING and the
+     * payment is waiting for its gateway intent.
+     */
+    public record Reservation(Long bookingId, IntentRequest intentRequest, BookingDTO.BookingResponse response) {}
+
+    /**
+     * Reservation of a cart: one PENDING booking per show, and one payment, on the lead
+     * booking, for all of them.
+     */
+    public record CartReservation(String cartReference, Long leadBookingId, IntentRequest intentRequest,
+                                  List<BookingDTO.BookingResponse> responses) {}
+
+    /**
+     * Outcome of settling a payment; the responses, one per booking the payment covers,
+     * are only set when the payment succeeded. A charge that arrived after its booking
+     * expired is not applied; {@code lateRefund} is then the refund to send after commit.
+     */
+    public record Settlement(boolean paid, List<BookingDTO.BookingResponse> responses, RefundRequest lateRefund) {}
+
+    /**
+     * Phase 1 of a booking: claims the seats and persists the PENDING booking and its
+     * payment record. No payment gateway call happens inside this transaction.
+     */
+    @Transactional
+    public Reservation reserveSeats(Long userId, BookingDTO.BookingRequest request) {
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+        Show show = bookableShow(request.getShowId());
+        requireSeatChoice(request);
+
+        // Check and lock seats in memory — no show_seats read on the hot path
+        List<Long> seatIds = request.getSeatIds();
+        ShowSeatMap seatMap;
+        if (seatIds != null && !seatIds.isEmpty()) {
+            seatMap = seatStateEngine.lockSeats(request.getShowId(), seatIds);
+        } else {
+            seatIds = seatStateEngine.lockBestSeats(request.getShowId(), request.getSeatType(), request.getSeatCount());
+            seatMap = seatStateEngine.get(request.getShowId());
+        }
+
+        Booking savedBooking = openBooking(user, show, seatMap, seatIds, null, LocalDateTime.now());
+
+        // Payment record only; the gateway intent is created after this transaction commits
+        IntentRequest intentRequest = paymentService.openPayment(savedBooking);
 
+        return new Reservation(savedBooking.getId(), intentRequest,
+                bookingHistoryService.buildBookingResponse(savedBooking, seatLabelsOf(seatMap, seatIds), null));
+    }
+
+    /**
+     * Phase 1 of a cart: claims seats on every show or on none, then persists a PENDING
+     * booking per show and a single payment for the cart's total. Shows are claimed in show
+     * id order, and their rows in seat id order, so concurrent carts cannot deadlock.
+     */
     @Transactional
-    public BookingDTO.BookingResponse initiateBooking(Long userId, BookingDTO.BookingRequest request) {
+    public CartReservation reserveCart(Long userId, BookingDTO.CartRequest request) {
+        List<BookingDTO.BookingRequest> items = request.getItems();
+        if (items == null || items.isEmpty() || items.size() > MAX_CART_SHOWS) {
+            throw new BookingException("A cart holds between 1 and " + MAX_CART_SHOWS + " shows");
+        }
+        items = items.stream()
+                .sorted(Comparator.comparing(BookingDTO.BookingRequest::getShowId,
+                        Comparator.nullsFirst(Comparator.naturalOrder())))
+                .toList();
+        for (int i = 0; i < items.size(); i++) {
+            if (items.get(i).getShowId() == null) {
+                throw new BookingException("Every cart item needs a show");
+            }
+            if (i > 0 && items.get(i).getShowId().equals(items.get(i - 1).getShowId())) {
+                throw new BookingException("Each show can appear only once in a cart");
+            }
+            requireSeatChoice(items.get(i));
+        }
+
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+        List<Show> shows = new ArrayList<>(items.size());
+        List<SeatStateEngine.SeatRequest> seatRequests = new ArrayList<>(items.size());
+        for (BookingDTO.BookingRequest item : items) {
+            shows.add(bookableShow(item.getShowId()));
+            seatRequests.add(new SeatStateEngine.SeatRequest(item.getShowId(), item.getSeatIds(), item.getSeatType(),
+                    item.getSeatCount() != null ? item.getSeatCount() : 0));
+        }
 
-        Show show = showRepository.findById(request.getShowId())
-                .orElseThrow(() -> new ResourceNotFoundException("Show not found"));
+        List<List<Long>> seatIds = seatStateEngine.lockAll(seatRequests);
+
+        String cartReference = "CRT-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
+        // One booking time for the whole cart, so every show's hold expires together
+        LocalDateTime bookedAt = LocalDateTime.now();
+        List<Booking> bookings = new ArrayList<>(items.size());
+        List<BookingDTO.BookingResponse> responses = new ArrayList<>(items.size());
+        double cartAmount = 0;
+        for (int i = 0; i < items.size(); i++) {
+            ShowSeatMap seatMap = seatStateEngine.get(shows.get(i).getId());
+            Booking booking = openBooking(user, shows.get(i), seatMap, seatIds.get(i), cartReference, bookedAt);
+            bookings.add(booking);
+            responses.add(bookingHistoryService.buildBookingResponse(booking, seatLabelsOf(seatMap, seatIds.get(i)), null));
+            cartAmount += booking.getFinalAmount();
+        }
 
-        if (show.getStatus() == Show.ShowStatus.CANCELLED || show.getStatus() == Show.ShowStatus.COMPLETED) {
-            throw new BookingException("Show is not available for booking");
+        Booking lead = bookings.get(0);
+        IntentRequest intentRequest = paymentService.openPayment(lead, cartAmount);
+        return new CartReservation(cartReference, lead.getId(), intentRequest, responses);
+    }
+
+    /**
+     * Fails a PENDING booking whose payment could not be started and gives its seats back,
+     * together with the rest of its cart.
+     */
+    @Transactional
+    public void abandonReservation(Long bookingId, String reason) {
+        Booking booking = bookingRepository.findById(bookingId)
+                .orElseThrow(() -> new ResourceNotFoundException("Booking not found"));
+        for (Booking member : bookingsOf(booking)) {
+            if (bookingRepository.failPendingBooking(member.getId(), LocalDateTime.now(), reason) == 0) {
+                continue;
+            }
+            releaseSeats(member);
+            paymentService.closePayment(member.getId());
+            seatHoldScheduler.release(member.getId());
         }
+    }
 
-        // Check and lock seats
-        List<ShowSeat> showSeats = showSeatRepository.findByShowIdAndSeatIds(
-                request.getShowId(), request.getSeatIds());
+    /**
+     * Read-only check made before the gateway is asked about a payment. FAILED bookings
+     * still go through: the hold may have expired while the customer was paying, and a
+     * charge captured after that has to be refunded.
+     */
+    public void requireAwaitingPayment(Long bookingId) {
+        Booking booking = bookingRepository.findById(bookingId)
+                .orElseThrow(() -> new ResourceNotFoundException("Booking not found"));
+        if (booking.getStatus() != Booking.BookingStatus.PENDING && booking.getStatus() != Booking.BookingStatus.FAILED) {
+            throw new BookingException("Booking is no longer awaiting payment: " + booking.getStatus());
+        }
+    }
 
-        if (showSeats.size() != request.getSeatIds().size()) {
-            throw new BookingException("Some seats are not available");
+    /**
+     * Applies a gateway-verified payment to its booking, or to every booking of its cart:
+     * CONFIRMED with seats BOOKED on success, FAILED with seats released otherwise.
+     * The cart's rows are locked before their status is read, so a hold expiring at the same
+     * time either finished before the check (and the charge is refunded) or waits for this one.
+     */
+    @Transactional
+    public Settlement settlePayment(Long bookingId, GatewayIntent intent) {
+        List<Booking> bookings = bookingRepository.lockCartOf(bookingId);
+        if (bookings.isEmpty()) {
+            throw new ResourceNotFoundException("Booking not found");
+        }
+        Payment payment = paymentOf(bookings);
+        if (payment == null || !intent.id().equals(payment.getStripePaymentIntentId())) {
+            throw new PaymentException("Payment does not belong to this booking");
         }
 
-        boolean anyNotAvailable = showSeats.stream()
-                .anyMatch(ss -> ss.getStatus() != ShowSeat.SeatStatus.AVAILABLE);
-        if (anyNotAvailable) {
-            throw new BookingException("One or more selected seats are already booked");
+        for (Booking member : bookings) {
+            if (member.getStatus() == Booking.BookingStatus.PENDING) {
+                continue;
+            }
+            // e.g. the seat hold expired and the seats may already belong to someone else
+            if (intent.succeeded() && payment.getGatewayStage() == Payment.GatewayStage.CLOSED) {
+                return new Settlement(false, null, paymentService.refundLateCharge(payment, intent));
+            }
+            throw new BookingException("Booking is no longer awaiting payment: " + member.getStatus());
+        }
+        bookings.forEach(member -> seatHoldScheduler.release(member.getId()));
+
+        // The transitions below only apply to rows still PENDING / LOCKED; with the cart
+        // locked a shortfall cannot happen, and if it does the whole settlement rolls back
+        if (!paymentService.settle(payment, intent)) {
+            LocalDateTime now = LocalDateTime.now();
+            for (Booking member : bookings) {
+                if (bookingRepository.failPendingBooking(member.getId(), now, PAYMENT_FAILED_REASON) == 0) {
+                    throw new BookingException("Booking is no longer awaiting payment: " + member.getBookingReference());
+                }
+                member.setStatus(Booking.BookingStatus.FAILED);
+                member.setCancelledAt(now);
+                member.setCancellationReason(PAYMENT_FAILED_REASON);
+                releaseSeats(member);
+            }
+            return new Settlement(false, null, null);
         }
 
-        // Lock seats
-        showSeatRepository.updateSeatStatus(request.getShowId(), request.getSeatIds(),
-                ShowSeat.SeatStatus.LOCKED);
+        List<Long> bookingIds = bookings.stream().map(Booking::getId).toList();
+        if (bookingRepository.confirmPendingBookings(bookingIds) != bookings.size()) {
+            throw new BookingException("Booking is no longer awaiting payment: " + bookingId);
+        }
+        List<BookingDTO.BookingResponse> responses = new ArrayList<>(bookings.size());
+        for (Booking member : bookings) {
+            member.setStatus(Booking.BookingStatus.CONFIRMED);
+
+            // Update seat status to BOOKED
+            List<Long> seatIds = seatIdsOf(member);
+            if (showSeatRepository.bookLockedSeats(member.getId()) != seatIds.size()) {
+                throw new BookingException("Seat hold of booking " + member.getBookingReference() + " was lost");
+            }
+            seatStateEngine.markBooked(member.getShow().getId(), seatIds);
+            eventPublisher.publishEvent(new BookingConfirmedEvent(member.getId(), member.getShow().getMovie().getId(),
+                    seatIds.size(), LocalDateTime.now()));
+
+            List<ShowSeat> showSeats = showSeatRepository.findByBookingId(member.getId());
+            responses.add(bookingHistoryService.buildBookingResponse(member, seatLabelsOf(showSeats), payment));
+        }
+        // The booking asked about first, then the rest of its cart
+        responses.sort(Comparator.comparing((BookingDTO.BookingResponse response) -> !response.getId().equals(bookingId)));
+        return new Settlement(true, responses, null);
+    }
+
+    /**
+     * Cancels a confirmed booking, with the rest of its cart, and marks its payment for
+     * refund. The refund itself is sent to the gateway after this transaction commits.
+     */
+    @Transactional
+    public RefundRequest cancelBooking(Long bookingId, Long userId, String reason) {
+        Booking booking = bookingRepository.findById(bookingId)
+                .orElseThrow(() -> new ResourceNotFoundException("Booking not found"));
+
+        if (!booking.getUser().getId().equals(userId)) {
+            throw new BookingException("Unauthorized to cancel this booking");
+        }
+
+        List<Booking> bookings = bookingsOf(booking);
+        for (Booking member : bookings) {
+            if (member.getStatus() != Booking.BookingStatus.CONFIRMED) {
+                throw new BookingException("Only confirmed bookings can be cancelled");
+            }
+        }
 
+        Payment payment = paymentOf(bookings);
+        if (payment == null) {
+            throw new ResourceNotFoundException("Payment not found for booking: " + bookingId);
+        }
+        RefundRequest refundRequest = paymentService.requestRefund(payment);
+
+        for (Booking member : bookings) {
+            member.setStatus(Booking.BookingStatus.CANCELLED);
+            member.setCancelledAt(LocalDateTime.now());
+            member.setCancellationReason(reason);
+            bookingRepository.save(member);
+            releaseSeats(member);
+        }
+        return refundRequest;
+    }
+
+    private Show bookableShow(Long showId) {
+        Show show = showRepository.findById(showId)
+                .orElseThrow(() -> new ResourceNotFoundException("Show not found"));
+        if (show.getStatus() == Show.ShowStatus.CANCELLED || show.getStatus() == Show.ShowStatus.COMPLETED) {
+            throw new BookingException("Show is not available for booking");
+        }
+        return show;
+    }
+
+    private static void requireSeatChoice(BookingDTO.BookingRequest request) {
+        if (request.getSeatIds() != null && !request.getSeatIds().isEmpty()) {
+            return;
+        }
+        if (request.getSeatCount() == null) {
+            throw new BookingException("No seats selected");
+        }
+        if (request.getSeatType() == null || request.getSeatCount() < 1 || request.getSeatCount() > MAX_BEST_SEATS) {
+            throw new BookingException("Choose a seat type and between 1 and " + MAX_BEST_SEATS + " seats");
+        }
+    }
+
+    /**
+     * Persists a PENDING booking for seats already LOCKED in the seat map and writes the
+     * lock through to show_seats. The booking's payment is opened by the caller.
+     */
+    private Booking openBooking(User user, Show show, ShowSeatMap seatMap, List<Long> seatIds, String cartReference,
+                                LocalDateTime bookedAt) {
         // Calculate amounts
-        double totalAmount = showSeats.stream().mapToDouble(ShowSeat::getPrice).sum();
+        double totalAmount = 0;
+        for (int index : seatMap.indexesOf(seatIds)) {
+            totalAmount += seatMap.priceAt(index);
+        }
         double convenienceFee = Math.ceil(totalAmount * CONVENIENCE_FEE_PERCENT);
         double finalAmount = totalAmount + convenienceFee;
 
@@ -72,115 +331,67 @@ public class BookingService {
                 .convenienceFee(convenienceFee)
                 .finalAmount(finalAmount)
                 .status(Booking.BookingStatus.PENDING)
+                .cartReference(cartReference)
+                .bookedAt(bookedAt)
                 .build();
 
         Booking savedBooking = bookingRepository.save(booking);
 
-        // Link seats to booking
-        showSeats.forEach(ss -> ss.setBooking(savedBooking));
-        showSeatRepository.saveAll(showSeats);
-
-        // Create Stripe PaymentIntent
-        Payment payment = paymentService.createPaymentIntent(savedBooking.getId());
-
-        // Decrease available seats
-        showRepository.decreaseAvailableSeats(show.getId(), request.getSeatIds().size());
-
-        return buildBookingResponse(savedBooking, showSeats, payment);
-    }
-
-    @Transactional
-    public BookingDTO.BookingResponse confirmBooking(BookingDTO.PaymentVerificationRequest request) {
-        // Verify payment with Stripe (server-side retrieval — no signature needed)
-        boolean paymentSuccess = paymentService.verifyAndUpdatePayment(
-                request.getStripePaymentIntentId()
-        );
-
-        Booking booking = bookingRepository.findById(request.getBookingId())
-                .orElseThrow(() -> new ResourceNotFoundException("Booking not found"));
-
-        if (!paymentSuccess) {
-            booking.setStatus(Booking.BookingStatus.FAILED);
-            bookingRepository.save(booking);
-            // Release seats
-            showSeatRepository.releaseSeatsByBookingId(booking.getId());
-            showRepository.increaseAvailableSeats(booking.getShow().getId(),
-                    booking.getShowSeats().size());
-            throw new BookingException("Payment verification failed");
+        // Write the lock through to show_seats and link seats to booking. Seats that are
+        // already LOCKED or BOOKED are skipped, so a short count means another request won.
+        int claimed = showSeatRepository.claimSeatsForBooking(show.getId(), seatIds, savedBooking.getId());
+        if (claimed != seatIds.size()) {
+            throw new BookingException("One or more selected seats are already booked");
         }
 
-        // Update seat status to BOOKED
-        List<Long> seatIds = booking.getShowSeats().stream()
-                .map(ss -> ss.getSeat().getId())
-                .collect(Collectors.toList());
-        showSeatRepository.updateSeatStatus(booking.getShow().getId(), seatIds,
-                ShowSeat.SeatStatus.BOOKED);
+        // Seats are released automatically if payment is not confirmed in time
+        seatHoldScheduler.hold(savedBooking.getId(), bookedAt);
 
-        List<ShowSeat> showSeats = showSeatRepository.findByBookingId(booking.getId());
-        return buildBookingResponse(booking, showSeats, booking.getPayment());
+        availableSeatCounter.add(show.getId(), -seatIds.size());
+        return savedBooking;
     }
 
-    @Transactional
-    public void cancelBooking(Long bookingId, Long userId, String reason) {
-        Booking booking = bookingRepository.findById(bookingId)
-                .orElseThrow(() -> new ResourceNotFoundException("Booking not found"));
-
-        if (!booking.getUser().getId().equals(userId)) {
-            throw new BookingException("Unauthorized to cancel this booking");
-        }
+    private List<Booking> bookingsOf(Booking booking) {
+        return booking.getCartReference() != null
+                ? bookingRepository.findByCartReference(booking.getCartReference())
+                : List.of(booking);
+    }
 
-        if (booking.getStatus() != Booking.BookingStatus.CONFIRMED) {
-            throw new BookingException("Only confirmed bookings can be cancelled");
+    // A cart's payment belongs to its lead booking
+    private static Payment paymentOf(List<Booking> bookings) {
+        for (Booking booking : bookings) {
+            if (booking.getPayment() != null) {
+                return booking.getPayment();
+            }
         }
+        return null;
+    }
 
-        booking.setStatus(Booking.BookingStatus.CANCELLED);
-        booking.setCancelledAt(LocalDateTime.now());
-        booking.setCancellationReason(reason);
-        bookingRepository.save(booking);
-
-        // Release seats
-        showSeatRepository.releaseSeatsByBookingId(bookingId);
-        showRepository.increaseAvailableSeats(booking.getShow().getId(),
-                booking.getShowSeats().size());
-
-        // Process Stripe refund
-        paymentService.processRefund(bookingId);
+    private void releaseSeats(Booking booking) {
+        List<Long> seatIds = seatIdsOf(booking);
+        showSeatRepository.releaseSeatsByBookingId(booking.getId());
+        seatStateEngine.release(booking.getShow().getId(), seatIds);
+        availableSeatCounter.add(booking.getShow().getId(), seatIds.size());
     }
 
-    public List<BookingDTO.BookingResponse> getUserBookings(Long userId) {
-        return bookingRepository.findByUserId(userId).stream()
-                .map(b -> buildBookingResponse(b, showSeatRepository.findByBookingId(b.getId()), b.getPayment()))
+    private List<Long> seatIdsOf(Booking booking) {
+        return booking.getShowSeats().stream()
+                .map(ss -> ss.getSeat().getId())
                 .collect(Collectors.toList());
     }
 
-    public BookingDTO.BookingResponse getBookingByReference(String reference) {
-        Booking booking = bookingRepository.findByBookingReference(reference)
-                .orElseThrow(() -> new ResourceNotFoundException("Booking not found: " + reference));
-        List<ShowSeat> showSeats = showSeatRepository.findByBookingId(booking.getId());
-        return buildBookingResponse(booking, showSeats, booking.getPayment());
+    private static List<String> seatLabelsOf(ShowSeatMap seatMap, List<Long> seatIds) {
+        int[] seatIndexes = seatMap.indexesOf(seatIds);
+        List<String> seatLabels = new ArrayList<>(seatIndexes.length);
+        for (int index : seatIndexes) {
+            seatLabels.add(seatMap.labelAt(index));
+        }
+        return seatLabels;
     }
 
-    private BookingDTO.BookingResponse buildBookingResponse(Booking booking, List<ShowSeat> showSeats, Payment payment) {
-        BookingDTO.BookingResponse response = new BookingDTO.BookingResponse();
-        response.setId(booking.getId());
-        response.setBookingReference(booking.getBookingReference());
-        response.setMovieTitle(booking.getShow().getMovie().getTitle());
-        response.setTheatreName(booking.getShow().getTheatre().getName());
-        response.setShowDate(booking.getShow().getShowDate().toString());
-        response.setShowTime(booking.getShow().getStartTime().toString());
-        response.setSeats(showSeats.stream()
+    private List<String> seatLabelsOf(List<ShowSeat> showSeats) {
+        return showSeats.stream()
                 .map(ss -> ss.getSeat().getRowNumber() + ss.getSeat().getSeatNumber())
-                .collect(Collectors.toList()));
-        response.setTotalAmount(booking.getTotalAmount());
-        response.setConvenienceFee(booking.getConvenienceFee());
-        response.setFinalAmount(booking.getFinalAmount());
-        response.setStatus(booking.getStatus());
-        response.setBookedAt(booking.getBookedAt());
-        if (payment != null) {
-            response.setStripePaymentIntentId(payment.getStripePaymentIntentId());
-            response.setStripeClientSecret(payment.getStripeClientSecret());
-            response.setStripePublishableKey(paymentService.getStripePublishableKey());
-        }
-        return response;
+                .collect(Collectors.toList());
     }
-}
\ No newline at end of file
+}
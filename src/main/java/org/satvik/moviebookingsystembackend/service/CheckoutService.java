@@ -0,0 +1,127 @@
+package org.satvik.moviebookingsystembackend.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.satvik.moviebookingsystembackend.dto.BookingDTO;
+import org.satvik.moviebookingsystembackend.exception.BookingException;
+import org.satvik.moviebookingsystembackend.exception.PaymentException;
+import org.satvik.moviebookingsystembackend.gateway.RefundRequest;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Runs the booking flow as short database phases (in {@link BookingService}) around an
+ * asynchronous payment gateway stage (in {@link PaymentService}). No transaction, row lock
+ * or pooled connection is held while the gateway is being called, and the request thread
+ * is released until the gateway answers.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CheckoutService {
+
+    private final BookingService bookingService;
+    private final PaymentService paymentService;
+
+    public CompletableFuture<BookingDTO.BookingResponse> initiateBooking(Long userId, BookingDTO.BookingRequest request) {
+        BookingService.Reservation reservation = bookingService.reserveSeats(userId, request);
+
+        return paymentService.createIntent(reservation.intentRequest())
+                .handle((intent, error) -> {
+                    if (error != null) {
+                        bookingService.abandonReservation(reservation.bookingId(), "Payment could not be started");
+                        throw asPaymentException(error);
+                    }
+                    paymentService.recordIntent(reservation.bookingId(), intent);
+
+                    BookingDTO.BookingResponse response = reservation.response();
+                    response.setStripePaymentIntentId(intent.id());
+                    response.setStripeClientSecret(intent.clientSecret());
+                    response.setStripePublishableKey(paymentService.getStripePublishableKey());
+                    return response;
+                });
+    }
+
+    /**
+     * Reserves every show of the cart in one transaction, then starts a single payment
+     * for the cart's total.
+     */
+    public CompletableFuture<BookingDTO.CartResponse> initiateCart(Long userId, BookingDTO.CartRequest request) {
+        BookingService.CartReservation reservation = bookingService.reserveCart(userId, request);
+
+        return paymentService.createIntent(reservation.intentRequest())
+                .handle((intent, error) -> {
+                    if (error != null) {
+                        bookingService.abandonReservation(reservation.leadBookingId(), "Payment could not be started");
+                        throw asPaymentException(error);
+                    }
+                    paymentService.recordIntent(reservation.leadBookingId(), intent);
+
+                    BookingDTO.CartResponse response = new BookingDTO.CartResponse();
+                    response.setCartReference(reservation.cartReference());
+                    response.setLeadBookingId(reservation.leadBookingId());
+                    response.setBookings(reservation.responses());
+                    response.setFinalAmount(reservation.responses().stream()
+                            .mapToDouble(BookingDTO.BookingResponse::getFinalAmount).sum());
+                    response.setStripePaymentIntentId(intent.id());
+                    response.setStripeClientSecret(intent.clientSecret());
+                    response.setStripePublishableKey(paymentService.getStripePublishableKey());
+                    return response;
+                });
+    }
+
+    public CompletableFuture<BookingDTO.BookingResponse> confirmBooking(BookingDTO.PaymentVerificationRequest request) {
+        return settle(request).thenApply(responses -> responses.get(0));
+    }
+
+    /**
+     * Confirms every booking of a cart; any of its booking ids identifies the cart.
+     */
+    public CompletableFuture<List<BookingDTO.BookingResponse>> confirmCart(BookingDTO.PaymentVerificationRequest request) {
+        return settle(request);
+    }
+
+    public CompletableFuture<Void> cancelBooking(Long bookingId, Long userId, String reason) {
+        RefundRequest refundRequest = bookingService.cancelBooking(bookingId, userId, reason);
+        return sendRefund(refundRequest, bookingId);
+    }
+
+    private CompletableFuture<Void> sendRefund(RefundRequest refundRequest, Long bookingId) {
+        return paymentService.refund(refundRequest)
+                .thenAccept(refund -> paymentService.completeRefund(refundRequest.intentId(), refund))
+                .exceptionally(error -> {
+                    // The refund request is committed; it stays REFUND_REQUESTED and is retried
+                    log.error("Refund for booking {} deferred: {}", bookingId, error.getMessage());
+                    return null;
+                });
+    }
+
+    private CompletableFuture<List<BookingDTO.BookingResponse>> settle(BookingDTO.PaymentVerificationRequest request) {
+        bookingService.requireAwaitingPayment(request.getBookingId());
+
+        // Verify payment with Stripe (server-side retrieval — no signature needed)
+        return paymentService.retrieveIntent(request.getStripePaymentIntentId())
+                .thenApply(intent -> {
+                    BookingService.Settlement settlement = bookingService.settlePayment(request.getBookingId(), intent);
+                    if (settlement.lateRefund() != null) {
+                        sendRefund(settlement.lateRefund(), request.getBookingId());
+                        throw new BookingException("Booking expired before the payment arrived; the payment will be refunded");
+                    }
+                    if (!settlement.paid()) {
+                        throw new BookingException("Payment verification failed");
+                    }
+                    return settlement.responses();
+                });
+    }
+
+    private RuntimeException asPaymentException(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (cause instanceof PaymentException paymentException) {
+            return paymentException;
+        }
+        return new PaymentException("Failed to create payment: " + cause.getMessage());
+    }
+}
@@ -0,0 +1,144 @@
+package org.satvik.moviebookingsystembackend.service;
+
+import org.satvik.moviebookingsystembackend.dto.MovieDTO;
+import org.satvik.moviebookingsystembackend.entity.Seat;
+import org.satvik.moviebookingsystembackend.entity.ShowSeat;
+import org.satvik.moviebookingsystembackend.exception.ResourceNotFoundException;
+import org.satvik.moviebookingsystembackend.repository.SeatRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Compact seat layouts. A screen's seats never change once it is created, so their geometry
+ * (ids, rows, numbers and types) is served separately and cached per screen. A show then
+ * only adds its packed seat states and a price per seat type, or, given a recent version,
+ * just the seats changed since.
+ */
+@Service
+public class CompactSeatLayoutService {
+
+    private static final List<String> STATUSES = Arrays.stream(ShowSeat.SeatStatus.values())
+            .map(Enum::name).toList();
+
+    private final SeatRepository seatRepository;
+    private final SeatStateEngine seatStateEngine;
+    private final int maxScreens;
+    private final ConcurrentHashMap<Long, MovieDTO.ScreenGeometry> geometries = new ConcurrentHashMap<>();
+
+    public CompactSeatLayoutService(SeatRepository seatRepository,
+                                    SeatStateEngine seatStateEngine,
+                                    @Value("${app.shows.geometry-cache-size:2000}") int maxScreens) {
+        this.seatRepository = seatRepository;
+        this.seatStateEngine = seatStateEngine;
+        this.maxScreens = maxScreens;
+    }
+
+    public MovieDTO.ScreenGeometry getGeometry(Long screenId) {
+        MovieDTO.ScreenGeometry geometry = geometries.get(screenId);
+        if (geometry != null) {
+            return geometry;
+        }
+        if (geometries.size() >= maxScreens) {
+            // Arbitrary victim; a screen is only re-read when a client without it asks again
+            Iterator<Long> it = geometries.keySet().iterator();
+            if (it.hasNext()) {
+                geometries.remove(it.next());
+            }
+        }
+        return geometries.computeIfAbsent(screenId, this::loadGeometry);
+    }
+
+    /**
+     * The show's seat states, as a delta when {@code since} is a version the show can still
+     * diff against, otherwise in full.
+     */
+    public MovieDTO.CompactSeatLayout getLayout(Long showId, Long since) {
+        ShowSeatMap seatMap = seatStateEngine.get(showId);
+        if (seatMap == null) {
+            throw new ResourceNotFoundException("Show not found with id: " + showId);
+        }
+        long version = seatMap.version();
+        int[] changed = since != null ? seatMap.changedSince(since, version) : null;
+
+        MovieDTO.CompactSeatLayout layout = new MovieDTO.CompactSeatLayout();
+        layout.setShowId(showId);
+        layout.setVersion(version);
+        layout.setSeatCount(seatMap.size());
+        if (changed != null) {
+            int[] changes = new int[changed.length * 2];
+            for (int i = 0; i < changed.length; i++) {
+                changes[2 * i] = changed[i];
+                changes[2 * i + 1] = seatMap.statusAt(changed[i]).ordinal();
+            }
+            layout.setChanges(changes);
+            return layout;
+        }
+
+        layout.setFull(true);
+        layout.setStates(seatMap.packedStates());
+        Map<String, Double> prices = new TreeMap<>();
+        Map<Integer, Double> overrides = new TreeMap<>();
+        for (int i = 0; i < seatMap.size(); i++) {
+            Double typePrice = prices.putIfAbsent(seatMap.seatTypeAt(i).name(), seatMap.priceAt(i));
+            if (typePrice != null && typePrice != seatMap.priceAt(i)) {
+                overrides.put(i, seatMap.priceAt(i));
+            }
+        }
+        layout.setPrices(prices);
+        layout.setPriceOverrides(overrides);
+        return layout;
+    }
+
+    // Same order as the show seat maps, which are built from the same query
+    private MovieDTO.ScreenGeometry loadGeometry(Long screenId) {
+        List<Seat> seats = seatRepository.findByScreenId(screenId);
+        if (seats.isEmpty()) {
+            throw new ResourceNotFoundException("Screen not found with id: " + screenId);
+        }
+        List<MovieDTO.SeatRun> runs = new ArrayList<>();
+        int from = 0;
+        for (int i = 1; i <= seats.size(); i++) {
+            if (i < seats.size()
+                    && seats.get(i).getRowNumber().equals(seats.get(from).getRowNumber())
+                    && seats.get(i).getSeatType() == seats.get(from).getSeatType()) {
+                continue;
+            }
+            List<Seat> run = seats.subList(from, i);
+            MovieDTO.SeatRun seatRun = new MovieDTO.SeatRun();
+            seatRun.setRow(run.get(0).getRowNumber());
+            seatRun.setSeatType(run.get(0).getSeatType().name());
+            seatRun.setSeatIds(run.stream().mapToLong(Seat::getId).toArray());
+            seatRun.setSeatNumbers(run.stream().map(Seat::getSeatNumber).toArray(String[]::new));
+            runs.add(seatRun);
+            from = i;
+        }
+        MovieDTO.ScreenGeometry geometry = new MovieDTO.ScreenGeometry();
+        geometry.setScreenId(screenId);
+        geometry.setSeatCount(seats.size());
+        geometry.setStatuses(STATUSES);
+        geometry.setRuns(runs);
+        geometry.setContentHash(hash(geometry));
+        return geometry;
+    }
+
+    private static String hash(MovieDTO.ScreenGeometry geometry) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            StringBuilder content = new StringBuilder().append(geometry.getStatuses());
+            for (MovieDTO.SeatRun run : geometry.getRuns()) {
+                content.append('\n').append(run.getRow()).append('|').append(run.getSeatType())
+                        .append('|').append(Arrays.toString(run.getSeatIds()))
+                        .append('|').append(Arrays.toString(run.getSeatNumbers()));
+            }
+            return HexFormat.of().formatHex(digest.digest(content.toString().getBytes(StandardCharsets.UTF_8)), 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
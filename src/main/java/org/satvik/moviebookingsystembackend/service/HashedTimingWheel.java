@@ -0,0 +1,136 @@
+package org.satvik.moviebookingsystembackend.service;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hashed timing wheel: deadlines are hashed into a fixed ring of buckets by tick, so
+ * scheduling is O(1) and each tick only looks at one bucket instead of every timer.
+ * Deadlines are rounded up to the next tick, so a timer fires up to one tick late but
+ * never early. Any thread may schedule or cancel; {@link #advance(long)} must be called
+ * from a single thread.
+ */
+final class HashedTimingWheel<T> {
+
+    private final long tickMillis;
+    private final long startMillis;
+    private final List<Entry>[] buckets;
+    private final int mask;
+    private final Queue<Entry> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size = new AtomicInteger();
+
+    private long currentTick;
+
+    @SuppressWarnings("unchecked")
+    HashedTimingWheel(long tickMillis, int wheelSize, long startMillis) {
+        if (Integer.bitCount(wheelSize) != 1) {
+            throw new IllegalArgumentException("Wheel size must be a power of two: " + wheelSize);
+        }
+        this.tickMillis = tickMillis;
+        this.startMillis = startMillis;
+        this.buckets = new List[wheelSize];
+        for (int i = 0; i < wheelSize; i++) {
+            buckets[i] = new ArrayList<>();
+        }
+        this.mask = wheelSize - 1;
+    }
+
+    Timeout schedule(T payload, long deadlineMillis) {
+        long delay = Math.max(0, deadlineMillis - startMillis);
+        Entry entry = new Entry(payload, (delay + tickMillis - 1) / tickMillis);
+        pending.add(entry);
+        size.incrementAndGet();
+        return entry;
+    }
+
+    /**
+     * Moves the wheel up to {@code nowMillis} and returns every payload whose deadline has passed.
+     */
+    List<T> advance(long nowMillis) {
+        long targetTick = (nowMillis - startMillis) / tickMillis;
+        transferPending();
+
+        List<T> expired = new ArrayList<>();
+        if (targetTick < currentTick) {
+            return expired;
+        }
+        // After a long pause one sweep over the whole ring is enough
+        long ticks = Math.min(targetTick - currentTick + 1, buckets.length);
+        for (long t = 0; t < ticks; t++) {
+            Iterator<Entry> it = buckets[(int) ((currentTick + t) & mask)].iterator();
+            while (it.hasNext()) {
+                Entry entry = it.next();
+                if (entry.cancelled()) {
+                    it.remove();
+                } else if (entry.deadlineTick <= targetTick && entry.expire()) {
+                    expired.add(entry.payload);
+                    it.remove();
+                }
+            }
+        }
+        currentTick = targetTick + 1;
+        size.addAndGet(-expired.size());
+        return expired;
+    }
+
+    int size() {
+        return size.get();
+    }
+
+    private void transferPending() {
+        Entry entry;
+        while ((entry = pending.poll()) != null) {
+            if (entry.cancelled()) {
+                continue;
+            }
+            // Deadlines already behind the wheel fire on the current tick
+            entry.deadlineTick = Math.max(entry.deadlineTick, currentTick);
+            buckets[(int) (entry.deadlineTick & mask)].add(entry);
+        }
+    }
+
+    /**
+     * Handle of a scheduled timer.
+     */
+    interface Timeout {
+        /**
+         * Stops the timer from firing. Returns false if it already fired or was cancelled.
+         */
+        boolean cancel();
+    }
+
+    private final class Entry implements Timeout {
+        private static final int SCHEDULED = 0, EXPIRED = 1, CANCELLED = 2;
+
+        final T payload;
+        long deadlineTick;
+        // Expiry and cancellation race; whichever moves the state first wins
+        private final AtomicInteger state = new AtomicInteger(SCHEDULED);
+
+        Entry(T payload, long deadlineTick) {
+            this.payload = payload;
+            this.deadlineTick = deadlineTick;
+        }
+
+        boolean cancelled() {
+            return state.get() == CANCELLED;
+        }
+
+        boolean expire() {
+            return state.compareAndSet(SCHEDULED, EXPIRED);
+        }
+
+        @Override
+        public boolean cancel() {
+            if (!state.compareAndSet(SCHEDULED, CANCELLED)) {
+                return false;
+            }
+            size.decrementAndGet();
+            return true;
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package org.satvik.moviebookingsystembackend.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.satvik.moviebookingsystembackend.dto.MovieDTO;
+import org.satvik.moviebookingsystembackend.entity.Movie;
+import org.satvik.moviebookingsystembackend.event.MovieChangedEvent;
+import org.satvik.moviebookingsystembackend.repository.MovieRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Holds the current {@link Snapshot} of the movie catalog. A new snapshot is built from the
+ * database after every committed movie write and swapped in whole, so readers never see a
+ * half-applied change and never query the database themselves.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class MovieCatalog {
+
+    private static final Comparator<MovieDTO.MovieResponse> BY_RELEASE_DATE =
+            Comparator.comparing(MovieDTO.MovieResponse::getReleaseDate, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+    private final MovieRepository movieRepository;
+
+    private volatile Snapshot current;
+
+    public Snapshot current() {
+        Snapshot snapshot = current;
+        return snapshot != null ? snapshot : rebuild();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMovieChanged(MovieChangedEvent event) {
+        rebuild();
+    }
+
+    private synchronized Snapshot rebuild() {
+        long version = current != null ? current.version() + 1 : 1;
+        Snapshot snapshot = new Snapshot(version, movieRepository.findAll().stream()
+                .map(MovieService::mapToResponse)
+                .toList());
+        current = snapshot;
+        log.debug("Movie catalog snapshot {} built with {} movies", version, snapshot.byId.size());
+        return snapshot;
+    }
+
+    /**
+     * Immutable catalog view with every index the read endpoints need. The responses are
+     * shared between requests and must not be modified.
+     */
+    public static final class Snapshot {
+
+        private final long version;
+        private final String contentHash;
+        private final Map<Long, MovieDTO.MovieResponse> byId;
+        private final List<MovieDTO.MovieResponse> active;
+        // Active movies ordered by release date ascending, undated ones first
+        private final List<MovieDTO.MovieResponse> byReleaseDate;
+        private final List<MovieDTO.MovieResponse> byRating;
+        private final Map<String, List<MovieDTO.MovieResponse>> byGenre;
+        private final Map<String, List<MovieDTO.MovieResponse>> byLanguage;
+        private final Map<Movie.Certificate, List<MovieDTO.MovieResponse>> byCertificate;
+        private final List<String> genres;
+
+        Snapshot(long version, List<MovieDTO.MovieResponse> movies) {
+            this.version = version;
+            this.contentHash = hash(movies);
+            this.byId = movies.stream()
+                    .collect(Collectors.toUnmodifiableMap(MovieDTO.MovieResponse::getId, Function.identity()));
+
+            List<MovieDTO.MovieResponse> activeMovies = movies.stream().filter(MovieDTO.MovieResponse::isActive).toList();
+            this.byReleaseDate = activeMovies.stream().sorted(BY_RELEASE_DATE).toList();
+            this.active = activeMovies.stream().sorted(BY_RELEASE_DATE.reversed()).toList();
+            this.byRating = activeMovies.stream()
+                    .sorted(Comparator.comparing(MovieDTO.MovieResponse::getRating,
+                            Comparator.nullsLast(Comparator.reverseOrder())))
+                    .toList();
+            this.byGenre = index(activeMovies, MovieDTO.MovieResponse::getGenre);
+            this.byLanguage = index(activeMovies, MovieDTO.MovieResponse::getLanguage);
+            this.byCertificate = index(activeMovies, MovieDTO.MovieResponse::getCertificate);
+            this.genres = byGenre.keySet().stream().sorted().toList();
+        }
+
+        // Same movies, same hash, on every node and across restarts, unlike the version
+        private static String hash(List<MovieDTO.MovieResponse> movies) {
+            try {
+                MessageDigest digest = MessageDigest.getInstance("SHA-256");
+                movies.stream()
+                        .sorted(Comparator.comparing(MovieDTO.MovieResponse::getId))
+                        .forEach(movie -> digest.update((movie + "\n").getBytes(StandardCharsets.UTF_8)));
+                return HexFormat.of().formatHex(digest.digest(), 0, 16);
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 not available", e);
+            }
+        }
+
+        private static <K> Map<K, List<MovieDTO.MovieResponse>> index(List<MovieDTO.MovieResponse> movies,
+                                                                    Function<MovieDTO.MovieResponse, K> key) {
+            return movies.stream()
+                    .filter(movie -> key.apply(movie) != null)
+                    .collect(Collectors.collectingAndThen(
+                            Collectors.groupingBy(key, Collectors.toUnmodifiableList()),
+                            Map::copyOf));
+        }
+
+        public long version() {
+            return version;
+        }
+
+        /**
+         * Digest of every movie in the snapshot, for entity tags that must hold across nodes.
+         */
+        public String contentHash() {
+            return contentHash;
+        }
+
+        public Optional<MovieDTO.MovieResponse> movie(Long id) {
+            return Optional.ofNullable(byId.get(id));
+        }
+
+        public List<MovieDTO.MovieResponse> active() {
+            return active;
+        }
+
+        public List<MovieDTO.MovieResponse> byGenre(String genre) {
+            return byGenre.getOrDefault(genre, List.of());
+        }
+
+        public List<MovieDTO.MovieResponse> byLanguage(String language) {
+            return byLanguage.getOrDefault(language, List.of());
+        }
+
+        public List<MovieDTO.MovieResponse> byCertificate(Movie.Certificate certificate) {
+            return byCertificate.getOrDefault(certificate, List.of());
+        }
+
+        /**
+         * Active movies released after the given day, soonest first; a view, not a copy.
+         */
+        public List<MovieDTO.MovieResponse> releasedAfter(LocalDate date) {
+            int low = 0;
+            int high = byReleaseDate.size();
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                LocalDate releaseDate = byReleaseDate.get(mid).getReleaseDate();
+                if (releaseDate == null || !releaseDate.isAfter(date)) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return byReleaseDate.subList(low, byReleaseDate.size());
+        }
+
+        public List<MovieDTO.MovieResponse> topRated(int limit) {
+            return byRating.subList(0, Math.clamp(limit, 0, byRating.size()));
+        }
+
+        public List<String> genres() {
+            return genres;
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package org.satvik.moviebookingsystembackend.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.satvik.moviebookingsystembackend.event.BookingConfirmedEvent;
+import org.satvik.moviebookingsystembackend.repository.BookingRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.*;
+
+/**
+ * Trending movies by booking velocity: every confirmed seat adds 1 to its movie's score and
+ * scores halve every half-life.
+ * <p>
+ * Scores are kept in forward-decay form, scaled to a fixed landmark time instead of decayed
+ * in place. All movies decay at the same rate, so their order only changes when a booking
+ * raises one score. Each booking re-ranks that one movie and republishes the top ids, so a
+ * read only returns that list.
+ */
+@Service
+@Slf4j
+public class MovieRankingService {
+
+    private record Ranked(long movieId, double score) {}
+
+    private static final Comparator<Ranked> BY_SCORE_DESC = Comparator
+            .comparingDouble(Ranked::score).reversed()
+            .thenComparingLong(Ranked::movieId);
+    // Rescale before the forward-decay weights can overflow a double
+    private static final double MAX_EXPONENT = 512;
+    // Decayed score below which a movie is dropped; about one seat ten half-lives ago
+    private static final double MIN_SCORE = 0.001;
+
+    private final BookingRepository bookingRepository;
+    private final double halfLifeSeconds;
+    private final int capacity;
+
+    private final Map<Long, Ranked> byMovie = new HashMap<>();
+    private final TreeSet<Ranked> ranking = new TreeSet<>(BY_SCORE_DESC);
+    private long landmark;
+    private volatile List<Long> top = List.of();
+
+    public MovieRankingService(BookingRepository bookingRepository,
+                               @Value("${app.movies.trending-half-life-hours:24}") double halfLifeHours,
+                               @Value("${app.movies.trending-capacity:100}") int capacity) {
+        this.bookingRepository = bookingRepository;
+        this.halfLifeSeconds = halfLifeHours * 3600;
+        this.capacity = capacity;
+        this.landmark = epochSecond(LocalDateTime.now());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        LocalDateTime since = LocalDateTime.now().minusSeconds((long) (halfLifeSeconds * 10));
+        List<Object[]> rows = bookingRepository.findConfirmedSeatCountsSince(since);
+        for (Object[] row : rows) {
+            record((Long) row[0], ((Long) row[2]).intValue(), (LocalDateTime) row[1]);
+        }
+        log.info("Trending ranking warmed up from {} bookings", rows.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookingConfirmed(BookingConfirmedEvent event) {
+        record(event.movieId(), event.seats(), event.confirmedAt());
+    }
+
+    /**
+     * Movie ids by current trending score, best first.
+     */
+    public List<Long> trending() {
+        return top;
+    }
+
+    synchronized void record(Long movieId, int seats, LocalDateTime at) {
+        long now = epochSecond(at);
+        if ((now - landmark) / halfLifeSeconds > MAX_EXPONENT) {
+            rescale(now);
+        }
+        Ranked previous = byMovie.get(movieId);
+        double score = (previous != null ? previous.score() : 0) + seats * Math.pow(2, (now - landmark) / halfLifeSeconds);
+        Ranked ranked = new Ranked(movieId, score);
+        if (previous != null) {
+            ranking.remove(previous);
+        }
+        ranking.add(ranked);
+        byMovie.put(movieId, ranked);
+        publish();
+    }
+
+    /**
+     * Moves the landmark to now, which divides every score by the same factor, and drops
+     * movies that have decayed to nothing.
+     */
+    private void rescale(long now) {
+        double factor = Math.pow(2, -(now - landmark) / halfLifeSeconds);
+        List<Ranked> rescaled = new ArrayList<>(ranking.size());
+        for (Ranked ranked : ranking) {
+            double score = ranked.score() * factor;
+            if (score >= MIN_SCORE) {
+                rescaled.add(new Ranked(ranked.movieId(), score));
+            }
+        }
+        ranking.clear();
+        byMovie.clear();
+        for (Ranked ranked : rescaled) {
+            ranking.add(ranked);
+            byMovie.put(ranked.movieId(), ranked);
+        }
+        landmark = now;
+    }
+
+    private void publish() {
+        List<Long> movieIds = new ArrayList<>(Math.min(capacity, ranking.size()));
+        for (Ranked ranked : ranking) {
+            if (movieIds.size() == capacity) {
+                break;
+            }
+            movieIds.add(ranked.movieId());
+        }
+        top = List.copyOf(movieIds);
+    }
+
+    private static long epochSecond(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toEpochSecond();
+    }
+}
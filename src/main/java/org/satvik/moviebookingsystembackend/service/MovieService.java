@@ -1,13 +1,16 @@
 package org.satvik.moviebookingsystembackend.service;
 import org.satvik.moviebookingsystembackend.dto.MovieDTO;
 import org.satvik.moviebookingsystembackend.entity.Movie;
+import org.satvik.moviebookingsystembackend.event.MovieChangedEvent;
 import org.satvik.moviebookingsystembackend.exception.ResourceNotFoundException;
 import org.satvik.moviebookingsystembackend.repository.MovieRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -16,51 +19,69 @@ import java.util.stream.Collectors;
 public class MovieService {
 
     private final MovieRepository movieRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final MovieCatalog movieCatalog;
+    private final MovieRankingService movieRankingService;
+
+    /**
+     * The current catalog snapshot; callers that tag responses with its content hash should
+     * read from the snapshot they tagged with.
+     */
+    public MovieCatalog.Snapshot catalog() {
+        return movieCatalog.current();
+    }
 
     public List<MovieDTO.MovieResponse> getAllActiveMovies() {
-        return movieRepository.findAllActiveMovies().stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+        return catalog().active();
     }
 
     public MovieDTO.MovieResponse getMovieById(Long id) {
-        Movie movie = movieRepository.findById(id)
+        return movieById(catalog(), id);
+    }
+
+    public MovieDTO.MovieResponse movieById(MovieCatalog.Snapshot catalog, Long id) {
+        return catalog.movie(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Movie not found with id: " + id));
-        return mapToResponse(movie);
     }
 
     public List<MovieDTO.MovieResponse> searchMovies(String title) {
         return movieRepository.searchByTitle(title).stream()
-                .map(this::mapToResponse)
+                .map(MovieService::mapToResponse)
                 .collect(Collectors.toList());
     }
 
     public List<MovieDTO.MovieResponse> getMoviesByGenre(String genre) {
-        return movieRepository.findByGenre(genre).stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+        return catalog().byGenre(genre);
     }
 
     public List<MovieDTO.MovieResponse> getNowPlayingInCity(String city) {
         return movieRepository.findNowPlayingInCity(city, LocalDate.now()).stream()
-                .map(this::mapToResponse)
+                .map(MovieService::mapToResponse)
                 .collect(Collectors.toList());
     }
 
     public List<MovieDTO.MovieResponse> getUpcomingMovies() {
-        return movieRepository.findUpcomingMovies().stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+        return catalog().releasedAfter(LocalDate.now());
     }
 
     public List<MovieDTO.MovieResponse> getTopRatedMovies(int limit) {
-        return movieRepository.findTopRatedMovies(limit).stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+        return catalog().topRated(limit);
+    }
+
+    public List<MovieDTO.MovieResponse> getTrendingMovies(int limit) {
+        MovieCatalog.Snapshot catalog = catalog();
+        List<MovieDTO.MovieResponse> trending = new ArrayList<>(limit);
+        for (Long movieId : movieRankingService.trending()) {
+            if (trending.size() == limit) {
+                break;
+            }
+            catalog.movie(movieId).filter(MovieDTO.MovieResponse::isActive).ifPresent(trending::add);
+        }
+        return trending;
     }
 
     public List<String> getAllGenres() {
-        return movieRepository.findAllDistinctGenres();
+        return catalog().genres();
     }
 
     @Transactional
@@ -79,7 +100,9 @@ public class MovieService {
                 .rating(request.getRating())
                 .certificate(request.getCertificate())
                 .build();
-        return mapToResponse(movieRepository.save(movie));
+        Movie savedMovie = movieRepository.save(movie);
+        eventPublisher.publishEvent(new MovieChangedEvent(savedMovie.getId()));
+        return mapToResponse(savedMovie);
     }
 
     @Transactional
@@ -100,7 +123,9 @@ public class MovieService {
         movie.setRating(request.getRating());
         movie.setCertificate(request.getCertificate());
 
-        return mapToResponse(movieRepository.save(movie));
+        Movie savedMovie = movieRepository.save(movie);
+        eventPublisher.publishEvent(new MovieChangedEvent(id));
+        return mapToResponse(savedMovie);
     }
 
     @Transactional
@@ -109,9 +134,10 @@ public class MovieService {
                 .orElseThrow(() -> new ResourceNotFoundException("Movie not found with id: " + id));
         movie.setActive(false);
         movieRepository.save(movie);
+        eventPublisher.publishEvent(new MovieChangedEvent(id));
     }
 
-    private MovieDTO.MovieResponse mapToResponse(Movie movie) {
+    static MovieDTO.MovieResponse mapToResponse(Movie movie) {
         MovieDTO.MovieResponse response = new MovieDTO.MovieResponse();
         response.setId(movie.getId());
         response.setTitle(movie.getTitle());
@@ -0,0 +1,72 @@
+package org.satvik.moviebookingsystembackend.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.satvik.moviebookingsystembackend.entity.Booking;
+import org.satvik.moviebookingsystembackend.entity.Payment;
+import org.satvik.moviebookingsystembackend.gateway.GatewayIntent;
+import org.satvik.moviebookingsystembackend.gateway.GatewayRefund;
+import org.satvik.moviebookingsystembackend.gateway.RefundRequest;
+import org.satvik.moviebookingsystembackend.repository.PaymentRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+
+/**
+ * Resumes checkout flows that stopped between phases, e.g. because the node crashed
+ * after a phase committed but before the gateway answered. Gateway requests carry
+ * idempotency keys, so replaying one returns the original intent or refund.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PaymentRecoveryService {
+
+    private final PaymentRepository paymentRepository;
+    private final PaymentService paymentService;
+    private final BookingService bookingService;
+
+    @Value("${app.payment.recovery-grace-seconds:120}")
+    private long graceSeconds;
+
+    @Scheduled(fixedDelayString = "${app.payment.recovery-interval-ms:60000}")
+    public void recoverInterruptedPayments() {
+        // Flows younger than the grace period may still be in flight on this node
+        LocalDateTime before = LocalDateTime.now().minusSeconds(graceSeconds);
+
+        for (Payment payment : paymentRepository.findInStageSince(Payment.GatewayStage.INTENT_REQUESTED, before)) {
+            resumeIntent(payment);
+        }
+        for (Payment payment : paymentRepository.findInStageSince(Payment.GatewayStage.REFUND_REQUESTED, before)) {
+            resumeRefund(payment);
+        }
+    }
+
+    private void resumeIntent(Payment payment) {
+        Booking booking = payment.getBooking();
+        try {
+            if (booking.getStatus() != Booking.BookingStatus.PENDING) {
+                paymentService.closePayment(booking.getId());
+                return;
+            }
+            GatewayIntent intent = paymentService.createIntent(paymentService.intentRequestFor(payment)).join();
+            paymentService.recordIntent(booking.getId(), intent);
+            log.info("Recovered payment intent {} for booking {}", intent.id(), booking.getBookingReference());
+        } catch (Exception e) {
+            log.warn("Could not recover payment intent for booking {}: {}", booking.getBookingReference(), e.getMessage());
+            bookingService.abandonReservation(booking.getId(), "Payment could not be started");
+        }
+    }
+
+    private void resumeRefund(Payment payment) {
+        RefundRequest request = paymentService.refundRequestFor(payment);
+        try {
+            GatewayRefund refund = paymentService.refund(request).join();
+            paymentService.completeRefund(request.intentId(), refund);
+        } catch (Exception e) {
+            log.warn("Refund for intent {} still pending: {}", request.intentId(), e.getMessage());
+        }
+    }
+}
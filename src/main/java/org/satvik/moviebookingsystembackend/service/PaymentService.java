@@ -1,167 +1,187 @@
 package org.satvik.moviebookingsystembackend.service;
 
-import com.stripe.Stripe;
-import com.stripe.exception.StripeException;
-import com.stripe.model.PaymentIntent;
-import com.stripe.model.Refund;
-import com.stripe.param.PaymentIntentCreateParams;
-import com.stripe.param.RefundCreateParams;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.satvik.moviebookingsystembackend.entity.Booking;
 import org.satvik.moviebookingsystembackend.entity.Payment;
+import org.satvik.moviebookingsystembackend.exception.BookingException;
 import org.satvik.moviebookingsystembackend.exception.PaymentException;
-import org.satvik.moviebookingsystembackend.exception.ResourceNotFoundException;
-import org.satvik.moviebookingsystembackend.repository.BookingRepository;
+import org.satvik.moviebookingsystembackend.gateway.*;
 import org.satvik.moviebookingsystembackend.repository.PaymentRepository;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
-
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Owns the payment record and its {@link Payment.GatewayStage} transitions.
+ * Gateway round trips are only ever made through the async methods, which go through
+ * {@link PaymentGatewayClient} with no transaction or pooled connection held.
+ */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class PaymentService {
 
     private final PaymentRepository paymentRepository;
-    private final BookingRepository bookingRepository;
-
-    @Value("${stripe.api.key}")
-    private String stripeSecretKey;
+    private final PaymentGatewayClient gatewayClient;
 
     @Value("${stripe.publishable.key}")
     private String stripePublishableKey;
 
     /**
-     * Creates a Stripe PaymentIntent and saves a PENDING payment record.
-     * Returns the Payment with stripeClientSecret so the frontend can complete payment.
+     * Saves a PENDING payment in stage INTENT_REQUESTED, in the caller's transaction,
+     * and returns the gateway request to send once that transaction has committed.
      */
     @Transactional
-    public Payment createPaymentIntent(Long bookingId) {
-        Booking booking = bookingRepository.findById(bookingId)
-                .orElseThrow(() -> new ResourceNotFoundException("Booking not found: " + bookingId));
-
-        try {
-            Stripe.apiKey = stripeSecretKey;
-
-            // Amount must be in smallest currency unit (paise for INR)
-            long amountInPaise = Math.round(booking.getFinalAmount() * 100);
-
-            PaymentIntentCreateParams params = PaymentIntentCreateParams.builder()
-                    .setAmount(amountInPaise)
-                    .setCurrency("inr")
-                    .setDescription("Movie ticket booking - " + booking.getBookingReference())
-                    .putMetadata("bookingId", bookingId.toString())
-                    .putMetadata("bookingReference", booking.getBookingReference())
-                    .putMetadata("userId", booking.getUser().getId().toString())
-                    // automatic_payment_methods lets Stripe show all enabled methods
-                    // including Google Pay, Apple Pay, cards — based on user's browser/device
-                    .setAutomaticPaymentMethods(
-                            PaymentIntentCreateParams.AutomaticPaymentMethods.builder()
-                                    .setEnabled(true)
-                                    .setAllowRedirects(PaymentIntentCreateParams.AutomaticPaymentMethods.AllowRedirects.NEVER)
-                                    .build()
-                    )
-                    .build();
-
-            PaymentIntent paymentIntent = PaymentIntent.create(params);
-
-            Payment payment = Payment.builder()
-                    .booking(booking)
-                    .stripePaymentIntentId(paymentIntent.getId())
-                    .stripeClientSecret(paymentIntent.getClientSecret())
-                    .amount(booking.getFinalAmount())
-                    .currency("INR")
-                    .status(Payment.PaymentStatus.PENDING)
-                    .build();
-
-            return paymentRepository.save(payment);
-
-        } catch (StripeException e) {
-            log.error("Failed to create Stripe PaymentIntent: {}", e.getMessage());
-            throw new PaymentException("Failed to create payment: " + e.getMessage());
-        }
+    public IntentRequest openPayment(Booking booking) {
+        return openPayment(booking, booking.getFinalAmount());
     }
 
     /**
-     * Verifies a PaymentIntent server-side by retrieving it from Stripe.
-     * Only succeeds if Stripe reports status = "succeeded".
-     * This is safe — no signature to spoof, Stripe is the source of truth.
+     * Like {@link #openPayment(Booking)}, for an amount covering more than the booking,
+     * e.g. a whole cart whose payment hangs off its lead booking.
      */
     @Transactional
-    public boolean verifyAndUpdatePayment(String paymentIntentId) {
-        try {
-            Stripe.apiKey = stripeSecretKey;
-
-            PaymentIntent paymentIntent = PaymentIntent.retrieve(paymentIntentId);
+    public IntentRequest openPayment(Booking booking, double amount) {
+        Payment payment = Payment.builder()
+                .booking(booking)
+                .amount(amount)
+                .currency("INR")
+                .status(Payment.PaymentStatus.PENDING)
+                .gatewayStage(Payment.GatewayStage.INTENT_REQUESTED)
+                .build();
+        paymentRepository.save(payment);
+        return intentRequestFor(payment);
+    }
 
-            Payment payment = paymentRepository.findByStripePaymentIntentId(paymentIntentId)
-                    .orElseThrow(() -> new ResourceNotFoundException("Payment not found for intent: " + paymentIntentId));
+    public IntentRequest intentRequestFor(Payment payment) {
+        Booking booking = payment.getBooking();
+        String reference = booking.getCartReference() != null ? booking.getCartReference() : booking.getBookingReference();
+        Map<String, String> metadata = new HashMap<>();
+        metadata.put("bookingId", booking.getId().toString());
+        metadata.put("bookingReference", booking.getBookingReference());
+        metadata.put("userId", booking.getUser().getId().toString());
+        if (booking.getCartReference() != null) {
+            metadata.put("cartReference", booking.getCartReference());
+        }
+        // Amount must be in smallest currency unit (paise for INR)
+        long amountInPaise = Math.round(payment.getAmount() * 100);
+        return new IntentRequest(
+                amountInPaise,
+                "inr",
+                "Movie ticket booking - " + reference,
+                metadata,
+                // The same key on a recovered request returns the intent created the first time
+                "intent-" + reference);
+    }
 
-            if (!"succeeded".equals(paymentIntent.getStatus())) {
-                log.warn("PaymentIntent {} has status: {}", paymentIntentId, paymentIntent.getStatus());
-                paymentRepository.updatePaymentStatus(paymentIntentId, Payment.PaymentStatus.FAILED, null);
-                return false;
-            }
+    public CompletableFuture<GatewayIntent> createIntent(IntentRequest request) {
+        return gatewayClient.createIntent(request);
+    }
 
-            // Extract charge ID from the PaymentIntent (the actual charge)
-            String chargeId = paymentIntent.getLatestCharge();
+    public CompletableFuture<GatewayIntent> retrieveIntent(String intentId) {
+        return gatewayClient.retrieveIntent(intentId);
+    }
 
-            paymentRepository.updatePaymentStatus(paymentIntentId, Payment.PaymentStatus.SUCCESS, chargeId);
+    public CompletableFuture<GatewayRefund> refund(RefundRequest request) {
+        return gatewayClient.refund(request);
+    }
 
-            // Confirm booking
-            Booking booking = payment.getBooking();
-            booking.setStatus(Booking.BookingStatus.CONFIRMED);
-            bookingRepository.save(booking);
+    /**
+     * INTENT_REQUESTED -> AWAITING_PAYMENT. Fails if the booking was abandoned or
+     * expired while the gateway call was in flight.
+     */
+    @Transactional
+    public void recordIntent(Long bookingId, GatewayIntent intent) {
+        int updated = paymentRepository.recordIntent(bookingId, intent.id(), intent.clientSecret());
+        if (updated == 0) {
+            throw new BookingException("Booking expired before payment could be started");
+        }
+    }
 
-            log.info("Stripe payment verified and booking confirmed: {}", booking.getBookingReference());
-            return true;
+    /**
+     * Ends a payment that never completed (INTENT_REQUESTED or AWAITING_PAYMENT -> CLOSED).
+     */
+    @Transactional
+    public void closePayment(Long bookingId) {
+        paymentRepository.closeOpenPayment(bookingId);
+    }
 
-        } catch (StripeException e) {
-            log.error("Stripe payment verification error: {}", e.getMessage());
-            throw new PaymentException("Payment verification failed: " + e.getMessage());
+    /**
+     * AWAITING_PAYMENT -> SETTLED or CLOSED depending on what the gateway reported.
+     * Returns whether the payment succeeded. Both transitions only apply to a payment still
+     * AWAITING_PAYMENT, so one that was closed or settled meanwhile fails the settlement.
+     */
+    @Transactional
+    public boolean settle(Payment payment, GatewayIntent intent) {
+        if (!intent.succeeded()) {
+            log.warn("PaymentIntent {} has status: {}", intent.id(), intent.status());
+            if (paymentRepository.closeOpenPayment(payment.getBooking().getId()) == 0) {
+                throw new PaymentException("Payment is no longer awaiting the gateway: " + intent.id());
+            }
+            applied(payment, Payment.PaymentStatus.FAILED, Payment.GatewayStage.CLOSED);
+            return false;
+        }
+        if (paymentRepository.settleAwaitingPayment(payment.getId(), intent.latestCharge()) == 0) {
+            throw new PaymentException("Payment is no longer awaiting the gateway: " + intent.id());
         }
+        payment.setStripeChargeId(intent.latestCharge());
+        applied(payment, Payment.PaymentStatus.SUCCESS, Payment.GatewayStage.SETTLED);
+        log.info("Payment {} verified for booking {}", intent.id(), payment.getBooking().getBookingReference());
+        return true;
     }
 
     /**
-     * Processes a refund via Stripe using the stored charge ID.
+     * CLOSED -> REFUND_REQUESTED for a charge that succeeded after its booking had already
+     * expired. The seats may be gone, so the charge is recorded and goes straight back;
+     * {@link PaymentRecoveryService} retries the refund if sending it fails.
      */
     @Transactional
-    public boolean processRefund(Long bookingId) {
-        Payment payment = paymentRepository.findByBookingId(bookingId)
-                .orElseThrow(() -> new ResourceNotFoundException("Payment not found for booking: " + bookingId));
+    public RefundRequest refundLateCharge(Payment payment, GatewayIntent intent) {
+        log.warn("PaymentIntent {} succeeded after booking {} expired; refunding", intent.id(),
+                payment.getBooking().getBookingReference());
+        payment.setStripeChargeId(intent.latestCharge());
+        transition(payment, Payment.PaymentStatus.SUCCESS, Payment.GatewayStage.REFUND_REQUESTED);
+        return refundRequestFor(payment);
+    }
 
+    /**
+     * SETTLED -> REFUND_REQUESTED, returning the gateway request to send after commit.
+     */
+    @Transactional
+    public RefundRequest requestRefund(Payment payment) {
         if (payment.getStatus() != Payment.PaymentStatus.SUCCESS) {
             throw new PaymentException("Cannot refund payment with status: " + payment.getStatus());
         }
+        payment.setGatewayStage(Payment.GatewayStage.REFUND_REQUESTED);
+        payment.setUpdatedAt(LocalDateTime.now());
+        paymentRepository.save(payment);
+        return refundRequestFor(payment);
+    }
 
-        try {
-            Stripe.apiKey = stripeSecretKey;
-
-            RefundCreateParams params = RefundCreateParams.builder()
-                    .setPaymentIntent(payment.getStripePaymentIntentId())
-                    .setAmount(Math.round(payment.getAmount() * 100)) // paise
-                    .build();
-
-            Refund refund = Refund.create(params);
-
-            if (!"succeeded".equals(refund.getStatus())) {
-                throw new PaymentException("Refund was not successful: " + refund.getStatus());
-            }
-
-            payment.setStatus(Payment.PaymentStatus.REFUNDED);
-            payment.setUpdatedAt(LocalDateTime.now());
-            paymentRepository.save(payment);
-
-            log.info("Refund processed for booking {}: refund ID {}", bookingId, refund.getId());
-            return true;
+    public RefundRequest refundRequestFor(Payment payment) {
+        return new RefundRequest(payment.getStripePaymentIntentId(),
+                Math.round(payment.getAmount() * 100), // paise
+                "refund-" + payment.getStripePaymentIntentId());
+    }
 
-        } catch (StripeException e) {
-            log.error("Stripe refund failed: {}", e.getMessage());
-            throw new PaymentException("Refund failed: " + e.getMessage());
+    /**
+     * REFUND_REQUESTED -> REFUNDED.
+     */
+    @Transactional
+    public void completeRefund(String intentId, GatewayRefund refund) {
+        if (!refund.succeeded()) {
+            throw new PaymentException("Refund was not successful: " + refund.status());
         }
+        Payment payment = paymentRepository.findByStripePaymentIntentId(intentId)
+                .orElseThrow(() -> new PaymentException("Payment not found for intent: " + intentId));
+        transition(payment, Payment.PaymentStatus.REFUNDED, Payment.GatewayStage.REFUNDED);
+        log.info("Refund processed for intent {}: refund ID {}", intentId, refund.id());
     }
 
     /**
@@ -170,4 +190,16 @@ public class PaymentService {
     public String getStripePublishableKey() {
         return stripePublishableKey;
     }
-}
\ No newline at end of file
+
+    private void transition(Payment payment, Payment.PaymentStatus status, Payment.GatewayStage stage) {
+        applied(payment, status, stage);
+        paymentRepository.save(payment);
+    }
+
+    // Mirrors a transition already written to the row onto the loaded entity
+    private static void applied(Payment payment, Payment.PaymentStatus status, Payment.GatewayStage stage) {
+        payment.setStatus(status);
+        payment.setGatewayStage(stage);
+        payment.setUpdatedAt(LocalDateTime.now());
+    }
+}
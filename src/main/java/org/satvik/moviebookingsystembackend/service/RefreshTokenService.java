@@ -0,0 +1,116 @@
+package org.satvik.moviebookingsystembackend.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.satvik.moviebookingsystembackend.entity.RefreshToken;
+import org.satvik.moviebookingsystembackend.entity.User;
+import org.satvik.moviebookingsystembackend.exception.InvalidTokenException;
+import org.satvik.moviebookingsystembackend.repository.RefreshTokenRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.UUID;
+
+/**
+ * Opaque, single-use refresh tokens. Each refresh consumes the presented token and issues
+ * its successor in the same family. Presenting a consumed token means it was copied, so
+ * the whole family is revoked and both holders have to log in again.
+ */
+@Service
+@Slf4j
+public class RefreshTokenService {
+
+    private static final int TOKEN_BYTES = 32;
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final long refreshExpiration;
+    private final SecureRandom random = new SecureRandom();
+
+    public RefreshTokenService(RefreshTokenRepository refreshTokenRepository,
+                               @Value("${app.jwt.refresh-expiration}") long refreshExpiration) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.refreshExpiration = refreshExpiration;
+    }
+
+    /**
+     * Starts a new session for the user and returns its first refresh token.
+     */
+    public String issue(User user) {
+        return issue(user, UUID.randomUUID().toString());
+    }
+
+    /**
+     * Consumes the token and returns it, with its user loaded, for issuing the successor.
+     */
+    public RefreshToken consume(String token) {
+        RefreshToken refreshToken = refreshTokenRepository.findByTokenHash(hash(token))
+                .orElseThrow(() -> new InvalidTokenException("Invalid refresh token"));
+        if (refreshToken.isRevoked()) {
+            throw new InvalidTokenException("Refresh token has been revoked");
+        }
+        if (refreshTokenRepository.markUsed(refreshToken.getId(), LocalDateTime.now()) == 0) {
+            log.warn("Refresh token reuse for user {}, revoking session {}",
+                    refreshToken.getUser().getId(), refreshToken.getFamilyId());
+            refreshTokenRepository.revokeFamily(refreshToken.getFamilyId());
+            throw new InvalidTokenException("Refresh token has already been used");
+        }
+        if (refreshToken.getExpiresAt().isBefore(LocalDateTime.now())) {
+            throw new InvalidTokenException("Refresh token has expired");
+        }
+        return refreshToken;
+    }
+
+    /**
+     * Successor of a consumed token, in the same session.
+     */
+    public String rotate(RefreshToken consumed) {
+        return issue(consumed.getUser(), consumed.getFamilyId());
+    }
+
+    /**
+     * Ends the session the token belongs to. Unknown tokens are ignored.
+     */
+    public void revokeSession(String token) {
+        refreshTokenRepository.findByTokenHash(hash(token))
+                .ifPresent(refreshToken -> refreshTokenRepository.revokeFamily(refreshToken.getFamilyId()));
+    }
+
+    public void revokeAll(Long userId) {
+        refreshTokenRepository.revokeAllForUser(userId);
+    }
+
+    @Scheduled(cron = "${app.jwt.refresh-cleanup-cron:0 30 3 * * *}")
+    public void deleteExpired() {
+        int deleted = refreshTokenRepository.deleteExpired(LocalDateTime.now());
+        log.info("Deleted {} expired refresh tokens", deleted);
+    }
+
+    private String issue(User user, String familyId) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        refreshTokenRepository.save(RefreshToken.builder()
+                .user(user)
+                .tokenHash(hash(token))
+                .familyId(familyId)
+                .expiresAt(LocalDateTime.now().plusNanos(refreshExpiration * 1_000_000))
+                .build());
+        return token;
+    }
+
+    private static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package org.satvik.moviebookingsystembackend.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.satvik.moviebookingsystembackend.dto.SearchDTO;
+import org.satvik.moviebookingsystembackend.entity.Movie;
+import org.satvik.moviebookingsystembackend.entity.Theatre;
+import org.satvik.moviebookingsystembackend.event.MovieChangedEvent;
+import org.satvik.moviebookingsystembackend.event.TheatreChangedEvent;
+import org.satvik.moviebookingsystembackend.repository.MovieRepository;
+import org.satvik.moviebookingsystembackend.repository.TheatreRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Movie and theatre search over in-memory {@link TrigramIndex}es, built at startup and
+ * updated one document at a time after each committed catalog write.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SearchService {
+
+    private static final int MAX_LIMIT = 50;
+
+    private final MovieRepository movieRepository;
+    private final TheatreRepository theatreRepository;
+
+    private final TrigramIndex movieIndex = new TrigramIndex();
+    private final TrigramIndex theatreIndex = new TrigramIndex();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildIndexes() {
+        movieRepository.findAllActiveMovies().forEach(this::index);
+        theatreRepository.findAll().forEach(this::index);
+        log.info("Search indexes built: {} movies, {} theatres", movieIndex.size(), theatreIndex.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMovieChanged(MovieChangedEvent event) {
+        movieRepository.findById(event.movieId())
+                .ifPresentOrElse(this::index, () -> movieIndex.remove(event.movieId()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTheatreChanged(TheatreChangedEvent event) {
+        theatreRepository.findById(event.theatreId())
+                .ifPresentOrElse(this::index, () -> theatreIndex.remove(event.theatreId()));
+    }
+
+    public SearchDTO.SearchResponse search(String query, int limit) {
+        int capped = Math.clamp(limit, 1, MAX_LIMIT);
+        return new SearchDTO.SearchResponse(
+                toHits(movieIndex.search(query, capped)),
+                toHits(theatreIndex.search(query, capped)));
+    }
+
+    public SearchDTO.SearchResponse suggest(String prefix, int limit) {
+        int capped = Math.clamp(limit, 1, MAX_LIMIT);
+        return new SearchDTO.SearchResponse(
+                toHits(movieIndex.suggest(prefix, capped)),
+                toHits(theatreIndex.suggest(prefix, capped)));
+    }
+
+    private void index(Movie movie) {
+        if (!movie.isActive()) {
+            movieIndex.remove(movie.getId());
+            return;
+        }
+        movieIndex.put(movie.getId(), movie.getTitle(),
+                Objects.toString(movie.getDirector(), ""),
+                Objects.toString(movie.getCast(), ""),
+                movie.getGenre());
+    }
+
+    private void index(Theatre theatre) {
+        if (!theatre.isActive()) {
+            theatreIndex.remove(theatre.getId());
+            return;
+        }
+        theatreIndex.put(theatre.getId(), theatre.getName(), theatre.getCity());
+    }
+
+    private List<SearchDTO.SearchHit> toHits(List<TrigramIndex.Hit> hits) {
+        return hits.stream()
+                .map(hit -> new SearchDTO.SearchHit(hit.id(), hit.label(), hit.score()))
+                .toList();
+    }
+}
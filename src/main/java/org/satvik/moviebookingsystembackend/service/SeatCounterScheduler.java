@@ -0,0 +1,47 @@
+package org.satvik.moviebookingsystembackend.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.satvik.moviebookingsystembackend.repository.ShowRepository;
+import org.satvik.moviebookingsystembackend.repository.ShowSeatCounterRepository;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+
+/**
+ * Keeps {@code Show.availableSeats} within one fold interval of the sharded counter.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SeatCounterScheduler {
+
+    private final AvailableSeatCounter availableSeatCounter;
+    private final ShowSeatCounterRepository counterRepository;
+    private final ShowRepository showRepository;
+
+    @Scheduled(fixedDelayString = "${app.booking.seat-counter-fold-ms:2000}")
+    public void foldPendingDeltas() {
+        for (Long showId : counterRepository.findShowIdsWithPendingDelta()) {
+            try {
+                availableSeatCounter.fold(showId);
+            } catch (Exception e) {
+                log.warn("Could not fold seat counter of show {}: {}", showId, e.getMessage());
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.booking.seat-counter-reconcile-ms:300000}")
+    public void reconcileBookableShows() {
+        for (Long showId : showRepository.findBookableShowIds(LocalDate.now())) {
+            try {
+                // Shard rows must exist before reconcile can lock all of them
+                availableSeatCounter.createShards(showId);
+                availableSeatCounter.reconcile(showId);
+            } catch (Exception e) {
+                log.warn("Could not reconcile seat counter of show {}: {}", showId, e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package org.satvik.moviebookingsystembackend.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.satvik.moviebookingsystembackend.repository.BookingRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tracks the expiry deadline of every PENDING booking's seat hold in a
+ * {@link HashedTimingWheel} and hands expired holds to {@link SeatHoldService} in batches.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SeatHoldScheduler {
+
+    private static final int WHEEL_SIZE = 512;
+    private static final long RETRY_DELAY_MILLIS = 30_000;
+
+    private final BookingRepository bookingRepository;
+    private final SeatHoldService seatHoldService;
+
+    @Value("${app.booking.hold-minutes:10}")
+    private long holdMinutes;
+
+    @Value("${app.booking.hold-tick-ms:1000}")
+    private long tickMillis;
+
+    @Value("${app.booking.hold-release-batch-size:100}")
+    private int batchSize;
+
+    private final ConcurrentHashMap<Long, HashedTimingWheel.Timeout> holds = new ConcurrentHashMap<>();
+    private HashedTimingWheel<Long> wheel;
+    private ScheduledExecutorService ticker;
+
+    @PostConstruct
+    void start() {
+        wheel = new HashedTimingWheel<>(tickMillis, WHEEL_SIZE, System.currentTimeMillis());
+        ticker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "seat-hold-wheel");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ticker.scheduleWithFixedDelay(this::tick, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        ticker.shutdownNow();
+    }
+
+    /**
+     * Re-registers the holds of all PENDING bookings after a restart.
+     * Holds that expired while the node was down are released on the first tick.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void restorePendingHolds() {
+        List<Object[]> holds = bookingRepository.findPendingBookingHolds();
+        for (Object[] hold : holds) {
+            hold((Long) hold[0], (LocalDateTime) hold[1]);
+        }
+        log.info("Restored {} pending seat holds", holds.size());
+    }
+
+    public void hold(Long bookingId, LocalDateTime bookedAt) {
+        long deadline = bookedAt.plusMinutes(holdMinutes)
+                .atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        schedule(bookingId, deadline);
+    }
+
+    /**
+     * Drops the hold of a booking that left PENDING, once the surrounding transaction
+     * commits. A hold that fires anyway is harmless: only PENDING bookings are released.
+     */
+    public void release(Long bookingId) {
+        Runnable cancel = () -> {
+            HashedTimingWheel.Timeout timeout = holds.remove(bookingId);
+            if (timeout != null) {
+                timeout.cancel();
+            }
+        };
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            cancel.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                cancel.run();
+            }
+        });
+    }
+
+    public int pendingHolds() {
+        return wheel.size();
+    }
+
+    private void schedule(Long bookingId, long deadline) {
+        HashedTimingWheel.Timeout previous = holds.put(bookingId, wheel.schedule(bookingId, deadline));
+        if (previous != null) {
+            previous.cancel();
+        }
+    }
+
+    void tick() {
+        List<Long> expired = wheel.advance(System.currentTimeMillis());
+        expired.forEach(holds::remove);
+        for (int from = 0; from < expired.size(); from += batchSize) {
+            List<Long> batch = expired.subList(from, Math.min(from + batchSize, expired.size()));
+            try {
+                seatHoldService.releaseExpiredHolds(batch);
+            } catch (Exception e) {
+                log.error("Failed to release {} expired seat holds, retrying later: {}", batch.size(), e.getMessage());
+                long retryAt = System.currentTimeMillis() + RETRY_DELAY_MILLIS;
+                batch.forEach(bookingId -> schedule(bookingId, retryAt));
+            }
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package org.satvik.moviebookingsystembackend.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.satvik.moviebookingsystembackend.repository.BookingRepository;
+import org.satvik.moviebookingsystembackend.repository.ShowSeatRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SeatHoldService {
+
+    private static final String HOLD_EXPIRED_REASON = "Seat hold expired";
+
+    private final BookingRepository bookingRepository;
+    private final ShowSeatRepository showSeatRepository;
+    private final SeatStateEngine seatStateEngine;
+    private final PaymentService paymentService;
+    private final AvailableSeatCounter availableSeatCounter;
+
+    /**
+     * Fails the given bookings if they are still PENDING and gives their seats back.
+     * Bookings confirmed or cancelled in the meantime are left untouched. They are taken
+     * in id order, the order a settling cart locks its rows in, so the two never deadlock.
+     */
+    @Transactional
+    public void releaseExpiredHolds(List<Long> bookingIds) {
+        Map<Long, Long> showByBooking = new HashMap<>();
+        Map<Long, List<Long>> seatsByBooking = new HashMap<>();
+        for (Object[] row : showSeatRepository.findSeatRefsByBookingIds(bookingIds)) {
+            Long bookingId = (Long) row[0];
+            showByBooking.put(bookingId, (Long) row[1]);
+            seatsByBooking.computeIfAbsent(bookingId, id -> new ArrayList<>()).add((Long) row[2]);
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        int released = 0;
+        for (Long bookingId : bookingIds.stream().sorted().toList()) {
+            if (bookingRepository.failPendingBooking(bookingId, now, HOLD_EXPIRED_REASON) == 0) {
+                continue;
+            }
+            paymentService.closePayment(bookingId);
+            List<Long> seatIds = seatsByBooking.get(bookingId);
+            if (seatIds == null) {
+                continue;
+            }
+            Long showId = showByBooking.get(bookingId);
+            showSeatRepository.releaseSeatsByBookingId(bookingId);
+            seatStateEngine.release(showId, seatIds);
+            availableSeatCounter.add(showId, seatIds.size());
+            released++;
+        }
+        if (released > 0) {
+            log.info("Released seat holds of {} expired bookings", released);
+        }
+    }
+}
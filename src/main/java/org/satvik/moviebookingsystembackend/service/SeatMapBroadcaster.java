@@ -0,0 +1,250 @@
+package org.satvik.moviebookingsystembackend.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.satvik.moviebookingsystembackend.exception.ResourceNotFoundException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.*;
+
+/**
+ * Streams seat-map changes to viewers over Server-Sent Events. A new viewer gets the full
+ * layout once, as a {@code layout} event, from the in-memory {@link SeatStateEngine}.
+ * After that it only gets {@code seats} events listing the seats whose status changed.
+ * <p>
+ * Changes are not pushed as they happen. Every tick, each watched show's packed seat states
+ * are compared with the states at the previous tick. That catches every path that changes a
+ * seat (claims, confirmations, cancellations and hold expiry) without hooks in them. It also
+ * coalesces bursts, so a seat locked and released within one tick is not sent at all.
+ * <p>
+ * Each show's delta is serialised once per tick and written to its viewers in chunks on
+ * virtual threads. The next tick starts only once every chunk is written, so viewers
+ * always get deltas in order. A chunk still blocked after {@code send-timeout-ms} is
+ * abandoned and its unserved viewers are disconnected. They reconnect and start again
+ * from a fresh layout.
+ * <p>
+ * Ticks run on their own thread rather than as a {@code @Scheduled} task: a tick can wait
+ * up to {@code send-timeout-ms} on slow clients, and must not hold up the application's
+ * shared scheduler thread while it does.
+ */
+@Service
+@Slf4j
+public class SeatMapBroadcaster {
+
+    private static final int FAN_OUT_CHUNK = 250;
+
+    private static final class Channel {
+        final Set<SseEmitter> viewers = ConcurrentHashMap.newKeySet();
+        ShowSeatMap seatMap;
+        long[] baseline;
+
+        Channel(ShowSeatMap seatMap) {
+            this.seatMap = seatMap;
+            this.baseline = seatMap.snapshotStates();
+        }
+    }
+
+    private static final class Chunk implements Callable<Void> {
+        final Channel channel;
+        final List<SseEmitter> viewers;
+        final Set<ResponseBodyEmitter.DataWithMediaType> payload;
+        volatile int served;
+
+        Chunk(Channel channel, List<SseEmitter> viewers, Set<ResponseBodyEmitter.DataWithMediaType> payload) {
+            this.channel = channel;
+            this.viewers = viewers;
+            this.payload = payload;
+        }
+
+        @Override
+        public Void call() {
+            for (SseEmitter viewer : viewers) {
+                try {
+                    viewer.send(payload);
+                } catch (IOException | IllegalStateException e) {
+                    channel.viewers.remove(viewer);
+                }
+                served++;
+            }
+            return null;
+        }
+    }
+
+    private final SeatStateEngine seatStateEngine;
+    private final long streamTimeoutMillis;
+    private final long tickMillis;
+    private final long sendTimeoutMillis;
+    private final int heartbeatTicks;
+    private final Map<Long, Channel> channels = new ConcurrentHashMap<>();
+    private final ExecutorService fanOut = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("seat-stream-", 0).factory());
+    private ScheduledExecutorService ticker;
+    private long ticks;
+
+    public SeatMapBroadcaster(SeatStateEngine seatStateEngine,
+                              @Value("${app.seats.stream-timeout-minutes:30}") long streamTimeoutMinutes,
+                              @Value("${app.seats.stream-tick-ms:250}") long tickMillis,
+                              @Value("${app.seats.stream-send-timeout-ms:2000}") long sendTimeoutMillis,
+                              @Value("${app.seats.stream-heartbeat-seconds:15}") long heartbeatSeconds) {
+        this.seatStateEngine = seatStateEngine;
+        this.streamTimeoutMillis = TimeUnit.MINUTES.toMillis(streamTimeoutMinutes);
+        this.tickMillis = tickMillis;
+        this.sendTimeoutMillis = sendTimeoutMillis;
+        this.heartbeatTicks = (int) Math.max(1, TimeUnit.SECONDS.toMillis(heartbeatSeconds) / tickMillis);
+    }
+
+    @PostConstruct
+    void start() {
+        ticker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "seat-map-ticker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ticker.scheduleWithFixedDelay(() -> {
+            try {
+                tick();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException e) {
+                // An exception would cancel every later tick
+                log.warn("Seat-map tick failed: {}", e.getMessage());
+            }
+        }, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public SseEmitter subscribe(Long showId) {
+        return subscribe(showId, new SseEmitter(streamTimeoutMillis));
+    }
+
+    SseEmitter subscribe(Long showId, SseEmitter emitter) {
+        ShowSeatMap seatMap = seatStateEngine.get(showId);
+        if (seatMap == null) {
+            throw new ResourceNotFoundException("Show not found with id: " + showId);
+        }
+        // Under the channel's lock, so no tick diffs the show between the layout and the
+        // viewer joining. The send is buffered until the response starts, so it does not block.
+        channels.compute(showId, (id, channel) -> {
+            Channel joined = channel != null ? channel : new Channel(seatMap);
+            try {
+                emitter.send(SseEmitter.event().name("layout")
+                        .data(joined.seatMap.toLayout(), MediaType.APPLICATION_JSON));
+                joined.viewers.add(emitter);
+            } catch (IOException e) {
+                emitter.completeWithError(e);
+            }
+            return joined;
+        });
+        Runnable leave = () -> {
+            Channel channel = channels.get(showId);
+            if (channel != null) {
+                channel.viewers.remove(emitter);
+            }
+        };
+        emitter.onCompletion(leave);
+        emitter.onTimeout(leave);
+        emitter.onError(error -> leave.run());
+        return emitter;
+    }
+
+    public int viewerCount() {
+        return channels.values().stream().mapToInt(channel -> channel.viewers.size()).sum();
+    }
+
+    void tick() throws InterruptedException {
+        boolean heartbeat = ++ticks % heartbeatTicks == 0;
+        List<Chunk> chunks = new ArrayList<>();
+        for (Long showId : channels.keySet()) {
+            channels.computeIfPresent(showId, (id, channel) -> {
+                if (channel.viewers.isEmpty()) {
+                    return null;
+                }
+                ShowSeatMap current = seatStateEngine.resident(id);
+                if (current == null) {
+                    // Evicted: the show was completed or cancelled and its seats no longer change
+                    channel.viewers.forEach(SseEmitter::complete);
+                    return null;
+                }
+                SseEmitter.SseEventBuilder event = next(current, channel);
+                if (event == null && heartbeat) {
+                    event = SseEmitter.event().comment("heartbeat");
+                }
+                if (event != null) {
+                    // Every viewer of a show gets the same event, so the payload is built once
+                    Set<ResponseBodyEmitter.DataWithMediaType> payload = event.build();
+                    List<SseEmitter> viewers = new ArrayList<>(channel.viewers);
+                    for (int from = 0; from < viewers.size(); from += FAN_OUT_CHUNK) {
+                        chunks.add(new Chunk(channel,
+                                viewers.subList(from, Math.min(from + FAN_OUT_CHUNK, viewers.size())), payload));
+                    }
+                }
+                return channel;
+            });
+        }
+        if (chunks.isEmpty()) {
+            return;
+        }
+        List<Future<Void>> results = fanOut.invokeAll(chunks, sendTimeoutMillis, TimeUnit.MILLISECONDS);
+        for (int i = 0; i < chunks.size(); i++) {
+            if (results.get(i).isCancelled()) {
+                abandon(chunks.get(i));
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (ticker != null) {
+            ticker.shutdownNow();
+        }
+        fanOut.shutdownNow();
+        channels.values().forEach(channel -> channel.viewers.forEach(SseEmitter::complete));
+    }
+
+    /**
+     * The event that brings the show's viewers up to date, or null if nothing changed.
+     */
+    private SseEmitter.SseEventBuilder next(ShowSeatMap current, Channel channel) {
+        if (current != channel.seatMap) {
+            // Reloaded from the database, so seat positions may differ: start over from a full layout
+            channel.seatMap = current;
+            channel.baseline = current.snapshotStates();
+            return SseEmitter.event().name("layout").data(current.toLayout(), MediaType.APPLICATION_JSON);
+        }
+        String delta = delta(current, channel.baseline);
+        return delta != null ? SseEmitter.event().name("seats").data(delta, MediaType.APPLICATION_JSON) : null;
+    }
+
+    /**
+     * JSON array of the seats that changed since the baseline, or null if none did.
+     */
+    private static String delta(ShowSeatMap seatMap, long[] baseline) {
+        StringBuilder json = new StringBuilder();
+        seatMap.forEachChange(baseline, index -> json
+                .append(json.isEmpty() ? "[" : ",")
+                .append("{\"seatId\":").append(seatMap.seatIdAt(index))
+                .append(",\"status\":\"").append(seatMap.statusAt(index).name()).append("\"}"));
+        return json.isEmpty() ? null : json.append(']').toString();
+    }
+
+    // The viewer being written to is the slow one, but the rest of the chunk missed the
+    // event too, so all of them resynchronise by reconnecting
+    private void abandon(Chunk chunk) {
+        List<SseEmitter> unserved = chunk.viewers.subList(Math.min(chunk.served, chunk.viewers.size()),
+                chunk.viewers.size());
+        log.debug("Disconnecting {} seat-map viewers behind a slow client", unserved.size());
+        for (SseEmitter viewer : unserved) {
+            chunk.channel.viewers.remove(viewer);
+            viewer.complete();
+        }
+    }
+}
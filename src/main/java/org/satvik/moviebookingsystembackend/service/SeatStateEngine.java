@@ -0,0 +1,309 @@
+package org.satvik.moviebookingsystembackend.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.satvik.moviebookingsystembackend.dto.MovieDTO;
+import org.satvik.moviebookingsystembackend.entity.Seat;
+import org.satvik.moviebookingsystembackend.entity.Show;
+import org.satvik.moviebookingsystembackend.entity.ShowSeat;
+import org.satvik.moviebookingsystembackend.exception.BookingException;
+import org.satvik.moviebookingsystembackend.repository.SeatRepository;
+import org.satvik.moviebookingsystembackend.repository.ShowRepository;
+import org.satvik.moviebookingsystembackend.repository.ShowSeatRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps the seat state of every active show in memory (see {@link ShowSeatMap}).
+ * Availability checks and seat-map reads are answered from here; every state change
+ * is also written to show_seats by the caller's transaction, and the in-memory
+ * change is rolled back or deferred so it never diverges from what was committed.
+ * <p>
+ * show_seats is sparse: only seats that are LOCKED or BOOKED have a row. A show's
+ * map is its screen's seats, priced from the show, with those rows laid over it.
+ * <p>
+ * Only shows that can still be booked stay resident. A show is evicted when it is
+ * completed or cancelled, and the map of such a show is built per read and not kept.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SeatStateEngine {
+
+    private final ShowRepository showRepository;
+    private final ShowSeatRepository showSeatRepository;
+    private final SeatRepository seatRepository;
+
+    private final ConcurrentMap<Long, ShowSeatMap> shows = new ConcurrentHashMap<>();
+    private final SingleFlight<Long, ShowSeatMap> loads = new SingleFlight<>("seat-maps", 0);
+
+    /**
+     * Rebuilds the seat maps of all bookable shows on startup.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        List<Long> showIds = showRepository.findBookableShowIds(LocalDate.now());
+        showIds.forEach(this::get);
+        log.info("Seat state engine loaded {} shows", shows.size());
+    }
+
+    /**
+     * Returns the seat map for a show, loading it on first access.
+     * Returns null when the show has no seats.
+     */
+    public ShowSeatMap get(Long showId) {
+        ShowSeatMap seatMap = shows.get(showId);
+        if (seatMap != null) {
+            return seatMap;
+        }
+        // Loaded outside the map, so the queries do not block other shows in the same bin,
+        // and once per show: threads missing it together share one load
+        return loads.get(showId, () -> loadResident(showId));
+    }
+
+    private ShowSeatMap loadResident(Long showId) {
+        ShowSeatMap resident = shows.get(showId);
+        if (resident != null) {
+            return resident;
+        }
+        Show show = showRepository.findById(showId).orElse(null);
+        ShowSeatMap loaded = show != null ? load(show) : null;
+        if (loaded == null || !isBookable(show)) {
+            return loaded;
+        }
+        ShowSeatMap raced = shows.putIfAbsent(showId, loaded);
+        return raced != null ? raced : loaded;
+    }
+
+    /**
+     * The show's seat map if it is resident, without loading it.
+     */
+    public ShowSeatMap resident(Long showId) {
+        return shows.get(showId);
+    }
+
+    /**
+     * Live available-seat count of a resident show, or null if it is not loaded.
+     */
+    public Integer availableCount(Long showId) {
+        ShowSeatMap seatMap = shows.get(showId);
+        return seatMap != null ? seatMap.availableCount() : null;
+    }
+
+    public List<MovieDTO.SeatLayoutResponse> getLayout(Long showId) {
+        ShowSeatMap seatMap = get(showId);
+        return seatMap != null ? seatMap.toLayout() : Collections.emptyList();
+    }
+
+    /**
+     * Registers a freshly created show, all seats AVAILABLE, once its transaction commits.
+     */
+    public void register(Show show, List<Seat> seats) {
+        List<ShowSeat> showSeats = seats.stream().map(seat -> availableSeat(show, seat)).toList();
+        afterCommit(() -> shows.put(show.getId(), new ShowSeatMap(show.getId(), showSeats)));
+    }
+
+    /**
+     * Drops the seat map of a show that can no longer be booked, once the surrounding
+     * transaction commits.
+     */
+    public void evict(Long showId) {
+        afterCommit(() -> shows.remove(showId));
+    }
+
+    /**
+     * Seats wanted on one show: the given seat ids or, without them, the best {@code count}
+     * adjacent seats of the type.
+     */
+    public record SeatRequest(Long showId, List<Long> seatIds, Seat.SeatType seatType, int count) {}
+
+    /**
+     * Claims the given seats (AVAILABLE -> LOCKED) without touching the database.
+     * If the surrounding transaction does not commit, the seats are handed back.
+     */
+    public ShowSeatMap lockSeats(Long showId, List<Long> seatIds) {
+        ShowSeatMap seatMap = get(showId);
+        releaseOnRollback(seatMap, claim(seatMap, seatIds));
+        return seatMap;
+    }
+
+    /**
+     * Claims the best block of adjacent AVAILABLE seats of the type, nearest the middle of
+     * its section, and returns their seat ids. Handed back like {@link #lockSeats} if the
+     * surrounding transaction does not commit.
+     */
+    public List<Long> lockBestSeats(Long showId, Seat.SeatType seatType, int count) {
+        ShowSeatMap seatMap = get(showId);
+        int[] indexes = claimBest(seatMap, seatType, count);
+        releaseOnRollback(seatMap, indexes);
+        return seatIdsAt(seatMap, indexes);
+    }
+
+    /**
+     * Claims seats on several shows, all or nothing, and returns the claimed seat ids in
+     * request order. Shows are claimed in show id order. If one cannot be claimed, the seats
+     * already claimed are handed back before the exception propagates, so a losing cart
+     * holds nothing while its transaction rolls back.
+     */
+    public List<List<Long>> lockAll(List<SeatRequest> requests) {
+        List<SeatRequest> ordered = requests.stream().sorted(Comparator.comparing(SeatRequest::showId)).toList();
+        Map<Long, ShowSeatMap> seatMaps = new HashMap<>();
+        Map<Long, int[]> claimed = new HashMap<>();
+        try {
+            for (SeatRequest request : ordered) {
+                ShowSeatMap seatMap = get(request.showId());
+                int[] indexes = request.seatIds() != null && !request.seatIds().isEmpty()
+                        ? claim(seatMap, request.seatIds())
+                        : claimBest(seatMap, request.seatType(), request.count());
+                seatMaps.put(request.showId(), seatMap);
+                claimed.put(request.showId(), indexes);
+            }
+        } catch (BookingException e) {
+            claimed.forEach((showId, indexes) -> handBack(seatMaps.get(showId), indexes));
+            throw e;
+        }
+        List<List<Long>> seatIds = new ArrayList<>(requests.size());
+        for (SeatRequest request : requests) {
+            ShowSeatMap seatMap = seatMaps.get(request.showId());
+            releaseOnRollback(seatMap, claimed.get(request.showId()));
+            seatIds.add(seatIdsAt(seatMap, claimed.get(request.showId())));
+        }
+        return seatIds;
+    }
+
+    private int[] claim(ShowSeatMap seatMap, List<Long> seatIds) {
+        int[] indexes = seatMap != null ? seatMap.indexesOf(seatIds) : null;
+        if (indexes == null) {
+            throw new BookingException("Some seats are not available");
+        }
+        if (!seatMap.tryClaim(indexes)) {
+            throw new BookingException("One or more selected seats are already booked");
+        }
+        return indexes;
+    }
+
+    private int[] claimBest(ShowSeatMap seatMap, Seat.SeatType seatType, int count) {
+        int[] indexes = seatMap != null ? seatMap.claimBest(seatType, count) : null;
+        if (indexes == null) {
+            throw new BookingException("No " + count + " adjacent " + seatType + " seats available");
+        }
+        return indexes;
+    }
+
+    private static List<Long> seatIdsAt(ShowSeatMap seatMap, int[] indexes) {
+        List<Long> seatIds = new ArrayList<>(indexes.length);
+        for (int index : indexes) {
+            seatIds.add(seatMap.seatIdAt(index));
+        }
+        return seatIds;
+    }
+
+    /**
+     * Marks seats BOOKED once the surrounding transaction commits.
+     */
+    public void markBooked(Long showId, List<Long> seatIds) {
+        afterCommit(() -> apply(showId, seatIds, ShowSeat.SeatStatus.BOOKED));
+    }
+
+    /**
+     * Makes seats AVAILABLE again once the surrounding transaction commits.
+     */
+    public void release(Long showId, List<Long> seatIds) {
+        afterCommit(() -> apply(showId, seatIds, ShowSeat.SeatStatus.AVAILABLE));
+    }
+
+    private void apply(Long showId, List<Long> seatIds, ShowSeat.SeatStatus status) {
+        ShowSeatMap seatMap = shows.get(showId);
+        if (seatMap == null) {
+            // Not resident; it will be loaded from the committed rows on next access
+            return;
+        }
+        for (Long seatId : seatIds) {
+            int index = seatMap.indexOf(seatId);
+            if (index >= 0) {
+                seatMap.set(index, status);
+            }
+        }
+    }
+
+    private ShowSeatMap load(Show show) {
+        Long showId = show.getId();
+        List<Seat> seats = seatRepository.findByScreenId(show.getScreen().getId());
+        if (seats.isEmpty()) {
+            return null;
+        }
+        Map<Long, ShowSeat> persisted = showSeatRepository.findByShowIdWithSeat(showId).stream()
+                .collect(Collectors.toMap(ss -> ss.getSeat().getId(), Function.identity()));
+        List<ShowSeat> showSeats = new ArrayList<>(seats.size());
+        for (Seat seat : seats) {
+            ShowSeat showSeat = persisted.get(seat.getId());
+            showSeats.add(showSeat != null ? showSeat : availableSeat(show, seat));
+        }
+        return new ShowSeatMap(showId, showSeats);
+    }
+
+    private static boolean isBookable(Show show) {
+        return show.getStatus() != Show.ShowStatus.COMPLETED && show.getStatus() != Show.ShowStatus.CANCELLED;
+    }
+
+    // Transient stand-in for a seat that has no show_seats row
+    private ShowSeat availableSeat(Show show, Seat seat) {
+        return ShowSeat.builder()
+                .seat(seat)
+                .status(ShowSeat.SeatStatus.AVAILABLE)
+                .price(show.priceFor(seat.getSeatType()))
+                .build();
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private void releaseOnRollback(ShowSeatMap seatMap, int[] indexes) {
+        onRollback(() -> handBack(seatMap, indexes));
+    }
+
+    private static void handBack(ShowSeatMap seatMap, int[] indexes) {
+        for (int index : indexes) {
+            seatMap.compareAndSet(index, ShowSeat.SeatStatus.LOCKED, ShowSeat.SeatStatus.AVAILABLE);
+        }
+    }
+
+    private void onRollback(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    action.run();
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,295 @@
+package org.satvik.moviebookingsystembackend.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.satvik.moviebookingsystembackend.entity.Show;
+import org.satvik.moviebookingsystembackend.event.MovieChangedEvent;
+import org.satvik.moviebookingsystembackend.event.ShowsChangedEvent;
+import org.satvik.moviebookingsystembackend.repository.ShowRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Bitmap index over bookable shows for faceted discovery. Every bookable show holds a
+ * slot, and each facet value keeps a bitmap of the slots that have it. A query ORs the
+ * bitmaps of the selected values within a facet and ANDs the facets together.
+ * <p>
+ * Freed slots are reused, so bitmaps stay as dense as the number of bookable shows.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ShowFacetIndex {
+
+    public enum Facet { CITY, DATE, LANGUAGE, GENRE, CERTIFICATE, SCREEN_TYPE, TIME_OF_DAY, PRICE_BAND }
+
+    public enum TimeOfDay {
+        MORNING, AFTERNOON, EVENING, NIGHT;
+
+        static TimeOfDay of(LocalTime time) {
+            if (time.getHour() < 12) return MORNING;
+            if (time.getHour() < 17) return AFTERNOON;
+            if (time.getHour() < 21) return EVENING;
+            return NIGHT;
+        }
+    }
+
+    /**
+     * Band of the cheapest (silver) ticket.
+     */
+    public enum PriceBand {
+        BUDGET, STANDARD, PREMIUM;
+
+        static PriceBand of(Double price) {
+            if (price == null || price < 200) return BUDGET;
+            if (price <= 400) return STANDARD;
+            return PREMIUM;
+        }
+    }
+
+    /**
+     * One page of matching show ids in show time order, the total number of matches and,
+     * per facet, how many shows each value would match given the other facets' filters.
+     */
+    public record Result(List<Long> showIds, int total, Map<Facet, Map<String, Integer>> counts) {}
+
+    private static final Facet[] FACETS = Facet.values();
+    private static final int SLOT_BITS = 24;
+    private static final int LOAD_BATCH_SIZE = 1000;
+
+    private final ShowRepository showRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Integer> slotByShow = new HashMap<>();
+    private final BitSet live = new BitSet();
+    private final EnumMap<Facet, Map<String, BitSet>> bitmaps = new EnumMap<>(Facet.class);
+    private long[] showBySlot = new long[1024];
+    private long[] movieBySlot = new long[1024];
+    private long[] sortKeyBySlot = new long[1024];
+    private String[][] valuesBySlot = new String[1024][];
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        List<Show> shows = showRepository.findBookableWithDetails(LocalDate.now());
+        lock.writeLock().lock();
+        try {
+            shows.forEach(this::put);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Show facet index built with {} shows", shows.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onShowsChanged(ShowsChangedEvent event) {
+        reload(event.showIds());
+    }
+
+    /**
+     * Language, genre and certificate come from the movie, so its shows are re-read.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMovieChanged(MovieChangedEvent event) {
+        List<Long> showIds = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            for (int slot = live.nextSetBit(0); slot >= 0; slot = live.nextSetBit(slot + 1)) {
+                if (movieBySlot[slot] == event.movieId()) {
+                    showIds.add(showBySlot[slot]);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        reload(showIds);
+    }
+
+    /**
+     * Drops shows whose date has passed, whether or not they were marked completed.
+     */
+    @Scheduled(cron = "${app.shows.facet-sweep-cron:0 1 0 * * *}")
+    public void dropPastShows() {
+        LocalDate today = LocalDate.now();
+        lock.writeLock().lock();
+        try {
+            Map<String, BitSet> dates = bitmaps.getOrDefault(Facet.DATE, Map.of());
+            BitSet past = new BitSet();
+            dates.forEach((date, slots) -> {
+                if (LocalDate.parse(date).isBefore(today)) {
+                    past.or(slots);
+                }
+            });
+            for (int slot = past.nextSetBit(0); slot >= 0; slot = past.nextSetBit(slot + 1)) {
+                remove(showBySlot[slot]);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public Result find(Map<Facet, ? extends Collection<String>> filters, int offset, int limit) {
+        lock.readLock().lock();
+        try {
+            EnumMap<Facet, BitSet> selected = new EnumMap<>(Facet.class);
+            filters.forEach((facet, values) -> {
+                if (values != null && !values.isEmpty()) {
+                    selected.put(facet, union(facet, values));
+                }
+            });
+
+            BitSet matches = intersect(selected, null);
+            Map<Facet, Map<String, Integer>> counts = new EnumMap<>(Facet.class);
+            for (Facet facet : FACETS) {
+                // A facet's own selection does not narrow its counts, so other values stay visible
+                BitSet base = selected.containsKey(facet) ? intersect(selected, facet) : matches;
+                Map<String, Integer> valueCounts = new TreeMap<>();
+                bitmaps.getOrDefault(facet, Map.of()).forEach((value, slots) -> {
+                    BitSet both = (BitSet) slots.clone();
+                    both.and(base);
+                    int count = both.cardinality();
+                    if (count > 0) {
+                        valueCounts.put(value, count);
+                    }
+                });
+                counts.put(facet, valueCounts);
+            }
+            return new Result(page(matches, offset, limit), matches.cardinality(), counts);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void reload(Collection<Long> showIds) {
+        List<Long> ids = new ArrayList<>(showIds);
+        LocalDate today = LocalDate.now();
+        for (int from = 0; from < ids.size(); from += LOAD_BATCH_SIZE) {
+            List<Long> batch = ids.subList(from, Math.min(from + LOAD_BATCH_SIZE, ids.size()));
+            List<Show> shows = showRepository.findWithDetailsByIds(batch);
+            lock.writeLock().lock();
+            try {
+                batch.forEach(this::remove);
+                for (Show show : shows) {
+                    if (isBookable(show, today)) {
+                        put(show);
+                    }
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    private static boolean isBookable(Show show, LocalDate today) {
+        return (show.getStatus() == Show.ShowStatus.UPCOMING || show.getStatus() == Show.ShowStatus.RUNNING)
+                && !show.getShowDate().isBefore(today);
+    }
+
+    private void put(Show show) {
+        remove(show.getId());
+        int slot = live.nextClearBit(0);
+        if (slot == showBySlot.length) {
+            int capacity = slot * 2;
+            showBySlot = Arrays.copyOf(showBySlot, capacity);
+            movieBySlot = Arrays.copyOf(movieBySlot, capacity);
+            sortKeyBySlot = Arrays.copyOf(sortKeyBySlot, capacity);
+            valuesBySlot = Arrays.copyOf(valuesBySlot, capacity);
+        }
+        String[] values = new String[FACETS.length];
+        values[Facet.CITY.ordinal()] = show.getTheatre().getCity();
+        values[Facet.DATE.ordinal()] = show.getShowDate().toString();
+        values[Facet.LANGUAGE.ordinal()] = show.getMovie().getLanguage();
+        values[Facet.GENRE.ordinal()] = show.getMovie().getGenre();
+        values[Facet.CERTIFICATE.ordinal()] = show.getMovie().getCertificate() != null
+                ? show.getMovie().getCertificate().name() : null;
+        values[Facet.SCREEN_TYPE.ordinal()] = show.getScreen().getType() != null
+                ? show.getScreen().getType().name() : "STANDARD";
+        values[Facet.TIME_OF_DAY.ordinal()] = TimeOfDay.of(show.getStartTime()).name();
+        values[Facet.PRICE_BAND.ordinal()] = PriceBand.of(show.getSilverPrice()).name();
+
+        for (Facet facet : FACETS) {
+            String value = values[facet.ordinal()];
+            if (value != null) {
+                bitmaps.computeIfAbsent(facet, f -> new HashMap<>())
+                        .computeIfAbsent(value, v -> new BitSet())
+                        .set(slot);
+            }
+        }
+        live.set(slot);
+        slotByShow.put(show.getId(), slot);
+        showBySlot[slot] = show.getId();
+        movieBySlot[slot] = show.getMovie().getId();
+        sortKeyBySlot[slot] = show.getShowDate().toEpochDay() * 1440 + show.getStartTime().getHour() * 60
+                + show.getStartTime().getMinute();
+        valuesBySlot[slot] = values;
+    }
+
+    private void remove(Long showId) {
+        Integer slot = slotByShow.remove(showId);
+        if (slot == null) {
+            return;
+        }
+        String[] values = valuesBySlot[slot];
+        for (Facet facet : FACETS) {
+            String value = values[facet.ordinal()];
+            if (value == null) {
+                continue;
+            }
+            Map<String, BitSet> facetBitmaps = bitmaps.get(facet);
+            BitSet slots = facetBitmaps.get(value);
+            slots.clear(slot);
+            if (slots.isEmpty()) {
+                facetBitmaps.remove(value);
+            }
+        }
+        live.clear(slot);
+        valuesBySlot[slot] = null;
+    }
+
+    private BitSet union(Facet facet, Collection<String> values) {
+        BitSet union = new BitSet();
+        Map<String, BitSet> facetBitmaps = bitmaps.getOrDefault(facet, Map.of());
+        for (String value : values) {
+            BitSet slots = facetBitmaps.get(value);
+            if (slots != null) {
+                union.or(slots);
+            }
+        }
+        return union;
+    }
+
+    private BitSet intersect(EnumMap<Facet, BitSet> selected, Facet except) {
+        BitSet result = (BitSet) live.clone();
+        selected.forEach((facet, slots) -> {
+            if (facet != except) {
+                result.and(slots);
+            }
+        });
+        return result;
+    }
+
+    private List<Long> page(BitSet matches, int offset, int limit) {
+        // Sort key and slot packed into one long, so the sort is over primitives
+        long[] keys = new long[matches.cardinality()];
+        int n = 0;
+        for (int slot = matches.nextSetBit(0); slot >= 0; slot = matches.nextSetBit(slot + 1)) {
+            keys[n++] = (sortKeyBySlot[slot] << SLOT_BITS) | slot;
+        }
+        Arrays.sort(keys);
+        List<Long> showIds = new ArrayList<>();
+        // In long arithmetic: offset + limit may not fit an int for a page far past the end
+        int end = (int) Math.min(keys.length, (long) offset + limit);
+        for (int i = offset; i < end; i++) {
+            showIds.add(showBySlot[(int) (keys[i] & ((1L << SLOT_BITS) - 1))]);
+        }
+        return showIds;
+    }
+}
@@ -0,0 +1,80 @@
+package org.satvik.moviebookingsystembackend.service;
+
+import org.satvik.moviebookingsystembackend.dto.MovieDTO;
+import org.satvik.moviebookingsystembackend.event.MovieChangedEvent;
+import org.satvik.moviebookingsystembackend.event.ShowsChangedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.function.BiPredicate;
+import java.util.function.Supplier;
+
+/**
+ * Read-through LRU cache of show listings. Entries are dropped after the transaction that
+ * changed their shows or movie commits; seat availability is not cached at all and is laid
+ * over every read by {@link ShowService}.
+ */
+@Service
+public class ShowListingCache {
+
+    enum Kind { MOVIE_DATE, MOVIE_CITY, THEATRE_DATE }
+
+    record Key(Kind kind, Long movieId, Long theatreId, String city, LocalDate date) {}
+
+    private final Map<Key, List<MovieDTO.ShowResponse>> entries;
+    // Bumped by every eviction; a load that overlapped one is not cached, as it may be stale
+    private long generation;
+
+    public ShowListingCache(@Value("${app.shows.listing-cache-size:1000}") int maxEntries) {
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, List<MovieDTO.ShowResponse>> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    List<MovieDTO.ShowResponse> get(Key key, Supplier<List<MovieDTO.ShowResponse>> loader) {
+        long loadGeneration;
+        synchronized (this) {
+            List<MovieDTO.ShowResponse> cached = entries.get(key);
+            if (cached != null) {
+                return cached;
+            }
+            loadGeneration = generation;
+        }
+        List<MovieDTO.ShowResponse> loaded = List.copyOf(loader.get());
+        synchronized (this) {
+            if (generation == loadGeneration) {
+                entries.put(key, loaded);
+            }
+        }
+        return loaded;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onShowsChanged(ShowsChangedEvent event) {
+        LocalDate lastDate = Collections.max(event.showDates());
+        evictIf((key, shows) -> switch (key.kind()) {
+            case MOVIE_DATE -> key.movieId().equals(event.movieId()) && event.showDates().contains(key.date());
+            // City listings cover every show from their date onwards
+            case MOVIE_CITY -> key.movieId().equals(event.movieId()) && key.city().equals(event.city())
+                    && !key.date().isAfter(lastDate);
+            case THEATRE_DATE -> key.theatreId().equals(event.theatreId()) && event.showDates().contains(key.date());
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMovieChanged(MovieChangedEvent event) {
+        evictIf((key, shows) -> event.movieId().equals(key.movieId())
+                || shows.stream().anyMatch(show -> event.movieId().equals(show.getMovieId())));
+    }
+
+    private synchronized void evictIf(BiPredicate<Key, List<MovieDTO.ShowResponse>> stale) {
+        generation++;
+        entries.entrySet().removeIf(entry -> stale.test(entry.getKey(), entry.getValue()));
+    }
+}
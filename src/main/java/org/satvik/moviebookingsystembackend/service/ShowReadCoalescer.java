@@ -0,0 +1,55 @@
+package org.satvik.moviebookingsystembackend.service;
+
+import org.satvik.moviebookingsystembackend.dto.MovieDTO;
+import org.satvik.moviebookingsystembackend.event.MovieChangedEvent;
+import org.satvik.moviebookingsystembackend.event.ShowsChangedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Single-flight reads of a show and of its seat layout, for the bursts of identical
+ * requests when a show goes on sale. Each read has its own micro-TTL. A show's results are
+ * dropped once a transaction that changed it commits.
+ */
+@Service
+public class ShowReadCoalescer {
+
+    private final SingleFlight<Long, MovieDTO.ShowResponse> shows;
+    private final SingleFlight<Long, List<MovieDTO.SeatLayoutResponse>> seatLayouts;
+
+    public ShowReadCoalescer(@Value("${app.shows.coalesce.show-ttl-ms:1000}") long showTtlMillis,
+                             @Value("${app.shows.coalesce.seat-layout-ttl-ms:100}") long seatLayoutTtlMillis) {
+        this.shows = new SingleFlight<>("show", showTtlMillis);
+        this.seatLayouts = new SingleFlight<>("seat-layout", seatLayoutTtlMillis);
+    }
+
+    public MovieDTO.ShowResponse show(Long showId, Supplier<MovieDTO.ShowResponse> loader) {
+        return shows.get(showId, loader);
+    }
+
+    public List<MovieDTO.SeatLayoutResponse> seatLayout(Long showId, Supplier<List<MovieDTO.SeatLayoutResponse>> loader) {
+        return seatLayouts.get(showId, loader);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onShowsChanged(ShowsChangedEvent event) {
+        event.showIds().forEach(showId -> {
+            shows.forget(showId);
+            seatLayouts.forget(showId);
+        });
+    }
+
+    // The response carries the movie's title and poster
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMovieChanged(MovieChangedEvent event) {
+        shows.forgetAll();
+    }
+
+    public List<SingleFlight.Stats> stats() {
+        return List.of(shows.stats(), seatLayouts.stats());
+    }
+}
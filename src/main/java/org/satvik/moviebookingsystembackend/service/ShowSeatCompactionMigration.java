@@ -0,0 +1,46 @@
+package org.satvik.moviebookingsystembackend.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.satvik.moviebookingsystembackend.repository.ShowBulkRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+/**
+ * One-off migration to sparse show_seats: deletes the AVAILABLE rows that shows created
+ * before sparse storage still carry. Runs in small batches, each in its own transaction,
+ * so bookings are never blocked for long; once nothing is left it is a single cheap query.
+ * Seat maps already treat a missing row and an AVAILABLE row alike, so it is safe to run
+ * while the application serves traffic.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ShowSeatCompactionMigration {
+
+    private final ShowBulkRepository showBulkRepository;
+
+    @Value("${app.shows.compact-seats-on-startup:true}")
+    private boolean enabled;
+
+    @Value("${app.shows.compact-seats-batch-size:10000}")
+    private int batchSize;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void compact() {
+        if (!enabled) {
+            return;
+        }
+        long deleted = 0;
+        int batch;
+        do {
+            batch = showBulkRepository.deleteAvailableShowSeats(batchSize);
+            deleted += batch;
+        } while (batch == batchSize);
+        if (deleted > 0) {
+            log.info("Compacted show_seats: removed {} AVAILABLE rows", deleted);
+        }
+    }
+}
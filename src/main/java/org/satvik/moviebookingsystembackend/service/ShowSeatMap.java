@@ -0,0 +1,447 @@
+package org.satvik.moviebookingsystembackend.service;
+
+import org.satvik.moviebookingsystembackend.dto.MovieDTO;
+import org.satvik.moviebookingsystembackend.entity.Seat;
+import org.satvik.moviebookingsystembackend.entity.ShowSeat;
+
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.IntConsumer;
+
+/**
+ * Resident seat state of a single show.
+ * Static seat data lives in parallel arrays (same order as the seat layout) and the
+ * status of every seat is packed two bits per seat into an {@link AtomicLongArray},
+ * so a seat claim is a single compare-and-set on the word that holds it.
+ * <p>
+ * Every status change also bumps the map's version and records the seat in a small ring,
+ * so a client holding a recent version can be sent only the seats changed since.
+ */
+public final class ShowSeatMap {
+
+    private static final int SEATS_PER_WORD = 32;
+    private static final long STATUS_MASK = 0b11L;
+    private static final ShowSeat.SeatStatus[] STATUSES = ShowSeat.SeatStatus.values();
+    private static final int CHANGE_LOG_SIZE = 512;
+    // One row further from the centre costs as much as a block two seats off-centre
+    private static final double ROW_WEIGHT = 2.0;
+    private static final int CLAIM_ATTEMPTS = 8;
+
+    /**
+     * Rows holding a seat type, nearest the middle of that section first, with each row's
+     * distance from the middle.
+     */
+    private record Section(int[] rows, double[] distances) {}
+
+    private final Long showId;
+    private final long[] seatIds;
+    private final long[] showSeatIds;
+    private final String[] rowNumbers;
+    private final String[] seatNumbers;
+    private final Seat.SeatType[] seatTypes;
+    private final double[] prices;
+    private final Map<Long, Integer> indexBySeatId;
+    // Per row, the seat index at each position along the row; -1 where numbering skips
+    private final int[][] rowPositions;
+    private final EnumMap<Seat.SeatType, Section> sections = new EnumMap<>(Seat.SeatType.class);
+
+    private final AtomicLongArray states;
+    private final AtomicInteger available = new AtomicInteger();
+    // High half of the version; a map reloaded from the database starts a new epoch
+    private final int epoch = ThreadLocalRandom.current().nextInt(1, Integer.MAX_VALUE);
+    private final AtomicInteger changes = new AtomicInteger();
+    // Change n is stored at n % size as (n << 32 | seat index)
+    private final AtomicLongArray changeLog = new AtomicLongArray(CHANGE_LOG_SIZE);
+
+    ShowSeatMap(Long showId, List<ShowSeat> showSeats) {
+        int size = showSeats.size();
+        this.showId = showId;
+        this.seatIds = new long[size];
+        this.showSeatIds = new long[size];
+        this.rowNumbers = new String[size];
+        this.seatNumbers = new String[size];
+        this.seatTypes = new Seat.SeatType[size];
+        this.prices = new double[size];
+        this.indexBySeatId = new HashMap<>(size * 2);
+        this.states = new AtomicLongArray((size + SEATS_PER_WORD - 1) / SEATS_PER_WORD);
+
+        // All-zero words mean every seat starts AVAILABLE
+        available.set(size);
+        for (int i = 0; i < size; i++) {
+            ShowSeat ss = showSeats.get(i);
+            Seat seat = ss.getSeat();
+            seatIds[i] = seat.getId();
+            // Seats without a show_seats row (sparse storage) have no show seat id
+            showSeatIds[i] = ss.getId() != null ? ss.getId() : 0L;
+            rowNumbers[i] = seat.getRowNumber();
+            seatNumbers[i] = seat.getSeatNumber();
+            seatTypes[i] = seat.getSeatType();
+            prices[i] = ss.getPrice() != null ? ss.getPrice() : 0.0;
+            indexBySeatId.put(seat.getId(), i);
+            set(i, ss.getStatus() != null ? ss.getStatus() : ShowSeat.SeatStatus.AVAILABLE);
+        }
+        this.rowPositions = layOutRows();
+        buildSections();
+    }
+
+    public Long getShowId() {
+        return showId;
+    }
+
+    public int size() {
+        return seatIds.length;
+    }
+
+    public int availableCount() {
+        return available.get();
+    }
+
+    public ShowSeat.SeatStatus statusAt(int index) {
+        int shift = (index & (SEATS_PER_WORD - 1)) << 1;
+        return STATUSES[(int) ((states.get(index / SEATS_PER_WORD) >>> shift) & STATUS_MASK)];
+    }
+
+    public long seatIdAt(int index) {
+        return seatIds[index];
+    }
+
+    public Seat.SeatType seatTypeAt(int index) {
+        return seatTypes[index];
+    }
+
+    public double priceAt(int index) {
+        return prices[index];
+    }
+
+    public String labelAt(int index) {
+        return rowNumbers[index] + seatNumbers[index];
+    }
+
+    public int indexOf(Long seatId) {
+        Integer index = indexBySeatId.get(seatId);
+        return index != null ? index : -1;
+    }
+
+    /**
+     * Resolves seat ids to positions in this map.
+     * Returns null when any id is unknown for this show or requested twice.
+     */
+    int[] indexesOf(List<Long> requestedSeatIds) {
+        int[] indexes = new int[requestedSeatIds.size()];
+        for (int i = 0; i < indexes.length; i++) {
+            int index = indexOf(requestedSeatIds.get(i));
+            if (index < 0) {
+                return null;
+            }
+            for (int j = 0; j < i; j++) {
+                if (indexes[j] == index) {
+                    return null;
+                }
+            }
+            indexes[i] = index;
+        }
+        return indexes;
+    }
+
+    /**
+     * All-or-nothing AVAILABLE -> LOCKED claim. Seats claimed before a conflicting one
+     * are handed back, so a losing request leaves no trace.
+     */
+    boolean tryClaim(int[] indexes) {
+        for (int i = 0; i < indexes.length; i++) {
+            if (!compareAndSet(indexes[i], ShowSeat.SeatStatus.AVAILABLE, ShowSeat.SeatStatus.LOCKED)) {
+                for (int j = 0; j < i; j++) {
+                    compareAndSet(indexes[j], ShowSeat.SeatStatus.LOCKED, ShowSeat.SeatStatus.AVAILABLE);
+                }
+                return false;
+            }
+        }
+        return true;
+    }
+
+    boolean compareAndSet(int index, ShowSeat.SeatStatus expect, ShowSeat.SeatStatus update) {
+        int word = index / SEATS_PER_WORD;
+        int shift = (index & (SEATS_PER_WORD - 1)) << 1;
+        while (true) {
+            long current = states.get(word);
+            if (((current >>> shift) & STATUS_MASK) != expect.ordinal()) {
+                return false;
+            }
+            long next = (current & ~(STATUS_MASK << shift)) | ((long) update.ordinal() << shift);
+            if (states.compareAndSet(word, current, next)) {
+                adjustAvailable(expect, update);
+                logChange(index, expect, update);
+                return true;
+            }
+        }
+    }
+
+    void set(int index, ShowSeat.SeatStatus status) {
+        int word = index / SEATS_PER_WORD;
+        int shift = (index & (SEATS_PER_WORD - 1)) << 1;
+        while (true) {
+            long current = states.get(word);
+            ShowSeat.SeatStatus previous = STATUSES[(int) ((current >>> shift) & STATUS_MASK)];
+            long next = (current & ~(STATUS_MASK << shift)) | ((long) status.ordinal() << shift);
+            if (states.compareAndSet(word, current, next)) {
+                adjustAvailable(previous, status);
+                logChange(index, previous, status);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Copy of the packed seat states, as a baseline for {@link #forEachChange}.
+     */
+    long[] snapshotStates() {
+        long[] snapshot = new long[states.length()];
+        for (int word = 0; word < snapshot.length; word++) {
+            snapshot[word] = states.get(word);
+        }
+        return snapshot;
+    }
+
+    /**
+     * Calls back with the index of every seat whose status differs from the baseline and
+     * moves the baseline to the current states. Changes that were undone in between are
+     * not reported.
+     */
+    void forEachChange(long[] baseline, IntConsumer changedIndex) {
+        for (int word = 0; word < baseline.length; word++) {
+            long current = states.get(word);
+            long changed = current ^ baseline[word];
+            baseline[word] = current;
+            while (changed != 0) {
+                int shift = Long.numberOfTrailingZeros(changed) & ~1;
+                changedIndex.accept(word * SEATS_PER_WORD + (shift >>> 1));
+                changed &= ~(STATUS_MASK << shift);
+            }
+        }
+    }
+
+    /**
+     * Claims the best block of {@code count} adjacent AVAILABLE seats of the type and
+     * returns their indexes, or null when no row has such a block. Blocks are scored by
+     * their row's distance from the middle of the type's section and by their own distance
+     * from the middle of the row. A block taken by a concurrent claim is searched again.
+     */
+    int[] claimBest(Seat.SeatType type, int count) {
+        for (int attempt = 0; attempt < CLAIM_ATTEMPTS; attempt++) {
+            int[] block = findBest(type, count);
+            if (block == null || tryClaim(block)) {
+                return block;
+            }
+        }
+        return null;
+    }
+
+    private int[] findBest(Seat.SeatType type, int count) {
+        Section section = sections.get(type);
+        if (section == null || count <= 0) {
+            return null;
+        }
+        long[] snapshot = snapshotStates();
+        BitSet free = new BitSet();
+        double bestScore = Double.MAX_VALUE;
+        int bestRow = -1;
+        int bestStart = -1;
+        for (int k = 0; k < section.rows().length; k++) {
+            double rowScore = section.distances()[k] * ROW_WEIGHT;
+            if (rowScore >= bestScore) {
+                // Rows are in centre-out order, so no later row can do better
+                break;
+            }
+            int[] positions = rowPositions[section.rows()[k]];
+            free.clear();
+            for (int p = 0; p < positions.length; p++) {
+                int index = positions[p];
+                if (index >= 0 && seatTypes[index] == type && statusOf(snapshot, index) == ShowSeat.SeatStatus.AVAILABLE) {
+                    free.set(p);
+                }
+            }
+            // Start of a block centred in the row
+            double centre = (positions.length - count) / 2.0;
+            for (int start = free.nextSetBit(0); start >= 0; ) {
+                int end = free.nextClearBit(start);
+                if (end - start >= count) {
+                    int candidate = (int) Math.round(Math.clamp(centre, start, end - count));
+                    double score = rowScore + Math.abs(candidate - centre);
+                    if (score < bestScore) {
+                        bestScore = score;
+                        bestRow = section.rows()[k];
+                        bestStart = candidate;
+                    }
+                }
+                start = free.nextSetBit(end);
+            }
+        }
+        if (bestRow < 0) {
+            return null;
+        }
+        return Arrays.copyOfRange(rowPositions[bestRow], bestStart, bestStart + count);
+    }
+
+    private static ShowSeat.SeatStatus statusOf(long[] snapshot, int index) {
+        int shift = (index & (SEATS_PER_WORD - 1)) << 1;
+        return STATUSES[(int) ((snapshot[index / SEATS_PER_WORD] >>> shift) & STATUS_MASK)];
+    }
+
+    /**
+     * Groups seats by row and orders each row by seat number. Gaps in the numbering, such as
+     * aisles, get an empty position so blocks do not span them. Rows not numbered 1, 2, ...
+     * keep their layout order.
+     */
+    private int[][] layOutRows() {
+        Map<String, List<Integer>> byRow = new LinkedHashMap<>();
+        for (int i = 0; i < seatIds.length; i++) {
+            byRow.computeIfAbsent(rowNumbers[i], row -> new ArrayList<>()).add(i);
+        }
+        int[][] rows = new int[byRow.size()][];
+        int r = 0;
+        for (List<Integer> seats : byRow.values()) {
+            rows[r++] = positionsOf(seats);
+        }
+        return rows;
+    }
+
+    private int[] positionsOf(List<Integer> seats) {
+        int[] numbers = new int[seats.size()];
+        int min = Integer.MAX_VALUE;
+        int max = Integer.MIN_VALUE;
+        for (int i = 0; i < numbers.length; i++) {
+            try {
+                numbers[i] = Integer.parseInt(seatNumbers[seats.get(i)]);
+            } catch (NumberFormatException e) {
+                return seats.stream().mapToInt(Integer::intValue).toArray();
+            }
+            min = Math.min(min, numbers[i]);
+            max = Math.max(max, numbers[i]);
+        }
+        if (max - min + 1 > numbers.length * 2) {
+            return seats.stream().mapToInt(Integer::intValue).toArray();
+        }
+        int[] positions = new int[max - min + 1];
+        Arrays.fill(positions, -1);
+        for (int i = 0; i < numbers.length; i++) {
+            if (positions[numbers[i] - min] >= 0) {
+                // Duplicate seat numbers: fall back to layout order
+                return seats.stream().mapToInt(Integer::intValue).toArray();
+            }
+            positions[numbers[i] - min] = seats.get(i);
+        }
+        return positions;
+    }
+
+    private void buildSections() {
+        EnumMap<Seat.SeatType, List<Integer>> rowsByType = new EnumMap<>(Seat.SeatType.class);
+        for (int r = 0; r < rowPositions.length; r++) {
+            EnumSet<Seat.SeatType> types = EnumSet.noneOf(Seat.SeatType.class);
+            for (int index : rowPositions[r]) {
+                if (index >= 0) {
+                    types.add(seatTypes[index]);
+                }
+            }
+            for (Seat.SeatType type : types) {
+                rowsByType.computeIfAbsent(type, t -> new ArrayList<>()).add(r);
+            }
+        }
+        rowsByType.forEach((type, rows) -> {
+            double middle = (rows.size() - 1) / 2.0;
+            Integer[] order = new Integer[rows.size()];
+            for (int k = 0; k < order.length; k++) {
+                order[k] = k;
+            }
+            Arrays.sort(order, Comparator.comparingDouble(k -> Math.abs(k - middle)));
+            int[] sorted = new int[order.length];
+            double[] distances = new double[order.length];
+            for (int k = 0; k < order.length; k++) {
+                sorted[k] = rows.get(order[k]);
+                distances[k] = Math.abs(order[k] - middle);
+            }
+            sections.put(type, new Section(sorted, distances));
+        });
+    }
+
+    /**
+     * Version of the seat states, for {@link #changedSince}. States read after this call
+     * include every change up to it.
+     */
+    public long version() {
+        return ((long) epoch << 32) | Integer.toUnsignedLong(changes.get());
+    }
+
+    /**
+     * Indexes of the seats changed after {@code since} up to {@code until}, both versions
+     * of this map, or null when {@code since} is from another map or too old for the log.
+     */
+    int[] changedSince(long since, long until) {
+        if ((int) (since >>> 32) != epoch || (int) (until >>> 32) != epoch) {
+            return null;
+        }
+        int from = (int) since;
+        int to = (int) until;
+        if (to - from < 0 || to - from > CHANGE_LOG_SIZE) {
+            return null;
+        }
+        BitSet changed = new BitSet();
+        for (int n = from + 1; n - to <= 0; n++) {
+            long entry = changeLog.get(n & (CHANGE_LOG_SIZE - 1));
+            if ((int) (entry >>> 32) != n) {
+                // Overwritten by a later change, or not written yet
+                return null;
+            }
+            changed.set((int) entry);
+        }
+        return changed.stream().toArray();
+    }
+
+    /**
+     * Seat states two bits per seat, four seats per byte, lowest bits first.
+     */
+    byte[] packedStates() {
+        byte[] packed = new byte[(seatIds.length + 3) / 4];
+        for (int i = 0; i < packed.length; i++) {
+            packed[i] = (byte) (states.get(i / 8) >>> ((i & 7) << 3));
+        }
+        return packed;
+    }
+
+    // After the state's CAS, so a reader of the version already sees the change
+    private void logChange(int index, ShowSeat.SeatStatus from, ShowSeat.SeatStatus to) {
+        if (from == to) {
+            return;
+        }
+        int n = changes.incrementAndGet();
+        changeLog.set(n & (CHANGE_LOG_SIZE - 1), ((long) n << 32) | index);
+    }
+
+    private void adjustAvailable(ShowSeat.SeatStatus from, ShowSeat.SeatStatus to) {
+        if (from == to) {
+            return;
+        }
+        if (to == ShowSeat.SeatStatus.AVAILABLE) {
+            available.incrementAndGet();
+        } else if (from == ShowSeat.SeatStatus.AVAILABLE) {
+            available.decrementAndGet();
+        }
+    }
+
+    List<MovieDTO.SeatLayoutResponse> toLayout() {
+        List<MovieDTO.SeatLayoutResponse> layout = new ArrayList<>(seatIds.length);
+        for (int i = 0; i < seatIds.length; i++) {
+            MovieDTO.SeatLayoutResponse resp = new MovieDTO.SeatLayoutResponse();
+            resp.setShowSeatId(showSeatIds[i] != 0L ? showSeatIds[i] : null);
+            resp.setSeatId(seatIds[i]);
+            resp.setSeatNumber(seatNumbers[i]);
+            resp.setRowNumber(rowNumbers[i]);
+            resp.setSeatType(seatTypes[i].name());
+            resp.setStatus(statusAt(i).name());
+            resp.setPrice(prices[i]);
+            layout.add(resp);
+        }
+        return layout;
+    }
+}
@@ -4,19 +4,32 @@ package org.satvik.moviebookingsystembackend.service;
 
 import org.satvik.moviebookingsystembackend.dto.MovieDTO;
 import org.satvik.moviebookingsystembackend.entity.*;
+import org.satvik.moviebookingsystembackend.event.ShowsChangedEvent;
 import org.satvik.moviebookingsystembackend.exception.ResourceNotFoundException;
 import org.satvik.moviebookingsystembackend.repository.*;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeanUtils;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.time.LocalTime;
 import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
+@Slf4j
 public class ShowService {
 
     private final ShowRepository showRepository;
@@ -24,46 +37,84 @@ public class ShowService {
     private final TheatreRepository theatreRepository;
     private final ScreenRepository screenRepository;
     private final SeatRepository seatRepository;
-    private final ShowSeatRepository showSeatRepository;
+    private final ShowBulkRepository showBulkRepository;
+    private final SeatStateEngine seatStateEngine;
+    private final AvailableSeatCounter availableSeatCounter;
+    private final ShowListingCache showListingCache;
+    private final ShowReadCoalescer showReadCoalescer;
+    private final ShowFacetIndex showFacetIndex;
+    private final ApplicationEventPublisher eventPublisher;
 
     public List<MovieDTO.ShowResponse> getShowsByMovieAndDate(Long movieId, LocalDate date) {
-        return showRepository.findByMovieAndDate(movieId, date).stream()
+        ShowListingCache.Key key = new ShowListingCache.Key(ShowListingCache.Kind.MOVIE_DATE, movieId, null, null, date);
+        return withLiveAvailability(showListingCache.get(key, () -> showRepository.findByMovieAndDate(movieId, date).stream()
                 .map(this::mapToResponse)
-                .collect(Collectors.toList());
+                .collect(Collectors.toList())));
     }
 
     public List<MovieDTO.ShowResponse> getShowsByMovieAndCity(Long movieId, String city) {
-        return showRepository.findByMovieAndCityFromDate(movieId, city, LocalDate.now()).stream()
+        LocalDate today = LocalDate.now();
+        ShowListingCache.Key key = new ShowListingCache.Key(ShowListingCache.Kind.MOVIE_CITY, movieId, null, city, today);
+        return withLiveAvailability(showListingCache.get(key, () -> showRepository.findByMovieAndCityFromDate(movieId, city, today).stream()
                 .map(this::mapToResponse)
-                .collect(Collectors.toList());
+                .collect(Collectors.toList())));
     }
 
     public List<MovieDTO.ShowResponse> getShowsByTheatreAndDate(Long theatreId, LocalDate date) {
-        return showRepository.findByTheatreAndDate(theatreId, date).stream()
+        ShowListingCache.Key key = new ShowListingCache.Key(ShowListingCache.Kind.THEATRE_DATE, null, theatreId, null, date);
+        return withLiveAvailability(showListingCache.get(key, () -> showRepository.findByTheatreAndDate(theatreId, date).stream()
                 .map(this::mapToResponse)
-                .collect(Collectors.toList());
+                .collect(Collectors.toList())));
+    }
+
+    /**
+     * Bookable shows matching any of the given values of every filtered facet, in show time
+     * order, with per-value counts for refining the search.
+     */
+    public MovieDTO.ShowSearchResponse findShows(MovieDTO.ShowFilter filter, int page, int size) {
+        Map<ShowFacetIndex.Facet, List<String>> filters = new EnumMap<>(ShowFacetIndex.Facet.class);
+        filters.put(ShowFacetIndex.Facet.CITY, filter.getCity());
+        filters.put(ShowFacetIndex.Facet.DATE, filter.getDate());
+        filters.put(ShowFacetIndex.Facet.LANGUAGE, filter.getLanguage());
+        filters.put(ShowFacetIndex.Facet.GENRE, filter.getGenre());
+        filters.put(ShowFacetIndex.Facet.CERTIFICATE, filter.getCertificate());
+        filters.put(ShowFacetIndex.Facet.SCREEN_TYPE, filter.getScreenType());
+        filters.put(ShowFacetIndex.Facet.TIME_OF_DAY, filter.getTimeOfDay());
+        filters.put(ShowFacetIndex.Facet.PRICE_BAND, filter.getPriceBand());
+
+        int pageSize = Math.clamp(size, 1, 100);
+        // A page past Integer.MAX_VALUE rows is past the end anyway; it comes back empty
+        long offset = (long) Math.max(page, 0) * pageSize;
+        ShowFacetIndex.Result result = showFacetIndex.find(filters, (int) Math.min(offset, Integer.MAX_VALUE), pageSize);
+
+        Map<Long, Show> shows = new HashMap<>();
+        if (!result.showIds().isEmpty()) {
+            showRepository.findWithDetailsByIds(result.showIds()).forEach(show -> shows.put(show.getId(), show));
+        }
+        List<MovieDTO.ShowResponse> responses = result.showIds().stream()
+                .filter(shows::containsKey)
+                .map(showId -> mapToResponse(shows.get(showId)))
+                .toList();
+
+        MovieDTO.ShowSearchResponse response = new MovieDTO.ShowSearchResponse();
+        response.setShows(withLiveAvailability(responses));
+        response.setTotal(result.total());
+        Map<String, Map<String, Integer>> facets = new LinkedHashMap<>();
+        result.counts().forEach((facet, counts) -> facets.put(facet.name(), counts));
+        response.setFacets(facets);
+        return response;
     }
 
     public MovieDTO.ShowResponse getShowById(Long id) {
-        Show show = showRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Show not found with id: " + id));
-        return mapToResponse(show);
+        return showReadCoalescer.show(id, () -> {
+            Show show = showRepository.findById(id)
+                    .orElseThrow(() -> new ResourceNotFoundException("Show not found with id: " + id));
+            return mapToResponse(show);
+        });
     }
 
     public List<MovieDTO.SeatLayoutResponse> getSeatLayout(Long showId) {
-        return showSeatRepository.findByShowId(showId).stream()
-                .map(ss -> {
-                    MovieDTO.SeatLayoutResponse resp = new MovieDTO.SeatLayoutResponse();
-                    resp.setShowSeatId(ss.getId());
-                    resp.setSeatId(ss.getSeat().getId());
-                    resp.setSeatNumber(ss.getSeat().getSeatNumber());
-                    resp.setRowNumber(ss.getSeat().getRowNumber());
-                    resp.setSeatType(ss.getSeat().getSeatType().name());
-                    resp.setStatus(ss.getStatus().name());
-                    resp.setPrice(ss.getPrice());
-                    return resp;
-                })
-                .collect(Collectors.toList());
+        return showReadCoalescer.seatLayout(showId, () -> seatStateEngine.getLayout(showId));
     }
 
     @Transactional
@@ -94,30 +145,134 @@ public class ShowService {
 
         Show savedShow = showRepository.save(show);
 
-        // Create ShowSeat entries
-        List<ShowSeat> showSeats = new ArrayList<>();
-        for (Seat seat : seats) {
-            Double price = getPriceForSeatType(seat.getSeatType(), request);
-            ShowSeat showSeat = ShowSeat.builder()
-                    .show(savedShow)
-                    .seat(seat)
-                    .status(ShowSeat.SeatStatus.AVAILABLE)
-                    .price(price)
-                    .build();
-            showSeats.add(showSeat);
+        // No show_seats rows: every seat starts AVAILABLE and gets a row when it is claimed
+        seatStateEngine.register(savedShow, seats);
+        availableSeatCounter.createShards(savedShow.getId());
+        eventPublisher.publishEvent(new ShowsChangedEvent(List.of(savedShow.getId()), movie.getId(),
+                theatre.getId(), theatre.getCity(), Set.of(savedShow.getShowDate())));
+
+        return mapToResponse(savedShow);
+    }
+
+    /**
+     * Schedules a screens x dates x start times matrix in one transaction. Shows are written
+     * with set-based inserts; seat maps are loaded on first use.
+     */
+    @Transactional
+    public MovieDTO.BulkShowResponse scheduleShows(MovieDTO.BulkShowRequest request) {
+        long start = System.nanoTime();
+        Movie movie = movieRepository.findById(request.getMovieId())
+                .orElseThrow(() -> new ResourceNotFoundException("Movie not found"));
+        Theatre theatre = theatreRepository.findById(request.getTheatreId())
+                .orElseThrow(() -> new ResourceNotFoundException("Theatre not found"));
+
+        Map<Long, Screen> screens = new LinkedHashMap<>();
+        Map<Long, Integer> seatCounts = new HashMap<>();
+        for (Long screenId : request.getScreenIds()) {
+            Screen screen = screenRepository.findById(screenId)
+                    .filter(s -> s.getTheatre().getId().equals(theatre.getId()))
+                    .orElseThrow(() -> new ResourceNotFoundException("Screen not found in theatre: " + screenId));
+            screens.put(screenId, screen);
+            seatCounts.put(screenId, Math.toIntExact(seatRepository.countByScreenId(screenId)));
         }
-        showSeatRepository.saveAll(showSeats);
 
+        List<Show> shows = new ArrayList<>();
+        for (Long screenId : screens.keySet()) {
+            for (LocalDate date : request.getShowDates()) {
+                for (LocalTime startTime : request.getStartTimes()) {
+                    shows.add(Show.builder()
+                            .movie(movie)
+                            .theatre(theatre)
+                            .screen(screens.get(screenId))
+                            .showDate(date)
+                            .startTime(startTime)
+                            .endTime(startTime.plusMinutes(movie.getDurationMinutes() + 15))
+                            .silverPrice(request.getSilverPrice())
+                            .goldPrice(request.getGoldPrice())
+                            .platinumPrice(request.getPlatinumPrice())
+                            .reclinerPrice(request.getReclinerPrice())
+                            .availableSeats(seatCounts.get(screenId))
+                            .status(Show.ShowStatus.UPCOMING)
+                            .build());
+                }
+            }
+        }
+
+        List<Long> showIds = showBulkRepository.insertShows(shows);
+        availableSeatCounter.createShards(showIds);
+        eventPublisher.publishEvent(new ShowsChangedEvent(showIds, movie.getId(), theatre.getId(),
+                theatre.getCity(), new TreeSet<>(request.getShowDates())));
+        long seatsScheduled = shows.stream().mapToLong(Show::getAvailableSeats).sum();
+
+        long elapsedNanos = System.nanoTime() - start;
+        double seconds = Math.max(elapsedNanos, 1) / 1e9;
+        MovieDTO.BulkShowResponse response = new MovieDTO.BulkShowResponse();
+        response.setShowsCreated(showIds.size());
+        response.setSeatsScheduled(seatsScheduled);
+        response.setElapsedMillis(elapsedNanos / 1_000_000);
+        response.setShowsPerSecond(showIds.size() / seconds);
+        response.setSeatsPerSecond(seatsScheduled / seconds);
+        response.setShowIds(showIds);
+        log.info("Scheduled {} shows with {} seats in {} ms", showIds.size(), seatsScheduled, response.getElapsedMillis());
+        return response;
+    }
+
+    @Transactional
+    public MovieDTO.ShowResponse updateShowStatus(Long showId, Show.ShowStatus status) {
+        Show show = showRepository.findById(showId)
+                .orElseThrow(() -> new ResourceNotFoundException("Show not found with id: " + showId));
+        show.setStatus(status);
+        Show savedShow = showRepository.save(show);
+        if (status == Show.ShowStatus.COMPLETED || status == Show.ShowStatus.CANCELLED) {
+            seatStateEngine.evict(showId);
+        }
+        publishStatusChange(savedShow);
         return mapToResponse(savedShow);
     }
 
-    private Double getPriceForSeatType(Seat.SeatType type, MovieDTO.ShowRequest request) {
-        return switch (type) {
-            case SILVER -> request.getSilverPrice();
-            case GOLD -> request.getGoldPrice();
-            case PLATINUM -> request.getPlatinumPrice();
-            case RECLINER -> request.getReclinerPrice();
-        };
+    @Scheduled(cron = "${app.shows.complete-cron:0 0 0 * * *}")
+    @Transactional
+    public void markPastShowsCompleted() {
+        List<Show> shows = showRepository.findShowsToMarkCompleted();
+        for (Show show : shows) {
+            show.setStatus(Show.ShowStatus.COMPLETED);
+            seatStateEngine.evict(show.getId());
+            publishStatusChange(show);
+        }
+        if (!shows.isEmpty()) {
+            log.info("Marked {} past shows completed", shows.size());
+        }
+    }
+
+    private void publishStatusChange(Show show) {
+        eventPublisher.publishEvent(new ShowsChangedEvent(List.of(show.getId()), show.getMovie().getId(),
+                show.getTheatre().getId(), show.getTheatre().getCity(), Set.of(show.getShowDate())));
+    }
+
+    /**
+     * Copies cached listings with the current seat counts: from the seat state engine where
+     * the show is resident, otherwise from shows.available_seats in one query.
+     */
+    private List<MovieDTO.ShowResponse> withLiveAvailability(List<MovieDTO.ShowResponse> cached) {
+        List<MovieDTO.ShowResponse> responses = new ArrayList<>(cached.size());
+        Map<Long, MovieDTO.ShowResponse> notResident = new HashMap<>();
+        for (MovieDTO.ShowResponse source : cached) {
+            MovieDTO.ShowResponse response = new MovieDTO.ShowResponse();
+            BeanUtils.copyProperties(source, response);
+            Integer available = seatStateEngine.availableCount(response.getId());
+            if (available != null) {
+                response.setAvailableSeats(available);
+            } else {
+                notResident.put(response.getId(), response);
+            }
+            responses.add(response);
+        }
+        if (!notResident.isEmpty()) {
+            for (Object[] row : showRepository.findAvailableSeats(new ArrayList<>(notResident.keySet()))) {
+                notResident.get((Long) row[0]).setAvailableSeats((Integer) row[1]);
+            }
+        }
+        return responses;
     }
 
     private MovieDTO.ShowResponse mapToResponse(Show show) {
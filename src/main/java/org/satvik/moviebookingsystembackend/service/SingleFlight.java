@@ -0,0 +1,121 @@
+package org.satvik.moviebookingsystembackend.service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Collapses concurrent identical reads into one load. The first caller for a key runs the
+ * loader, and callers arriving while it runs wait for and share its result, or its
+ * exception. A result is also reused for a short TTL after it completes. With a TTL of
+ * zero, only overlapping calls share a load.
+ */
+public final class SingleFlight<K, V> {
+
+    /**
+     * Counters since startup: calls answered from a completed result, calls that joined a
+     * load in flight, and calls that ran the loader.
+     */
+    public record Stats(String name, long ttlMillis, long hits, long coalesced, long misses, int entries) {}
+
+    private static final int SWEEP_THRESHOLD = 10_000;
+
+    private static final class Flight<V> {
+        final CompletableFuture<V> result = new CompletableFuture<>();
+        volatile long completedAt;
+    }
+
+    private final String name;
+    private final long ttlNanos;
+    private final ConcurrentHashMap<K, Flight<V>> flights = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public SingleFlight(String name, long ttlMillis) {
+        this.name = name;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+    }
+
+    public V get(K key, Supplier<V> loader) {
+        while (true) {
+            Flight<V> flight = flights.get(key);
+            if (flight != null) {
+                if (!flight.result.isDone()) {
+                    coalesced.increment();
+                    return await(flight);
+                }
+                if (System.nanoTime() - flight.completedAt < ttlNanos && !flight.result.isCompletedExceptionally()) {
+                    hits.increment();
+                    return flight.result.join();
+                }
+                flights.remove(key, flight);
+            }
+            Flight<V> mine = new Flight<>();
+            if (flights.putIfAbsent(key, mine) != null) {
+                continue;
+            }
+            misses.increment();
+            return load(key, mine, loader);
+        }
+    }
+
+    /**
+     * Drops the key's result, so the next call loads again. A load already in flight still
+     * answers the callers waiting on it, but it started before the change being forgotten,
+     * so it is unmapped now and its result is never kept for later calls.
+     */
+    public void forget(K key) {
+        flights.remove(key);
+    }
+
+    public void forgetAll() {
+        flights.clear();
+    }
+
+    public Stats stats() {
+        return new Stats(name, TimeUnit.NANOSECONDS.toMillis(ttlNanos), hits.sum(), coalesced.sum(), misses.sum(),
+                flights.size());
+    }
+
+    private V load(K key, Flight<V> flight, Supplier<V> loader) {
+        try {
+            V value = loader.get();
+            flight.completedAt = System.nanoTime();
+            flight.result.complete(value);
+            if (ttlNanos == 0) {
+                flights.remove(key, flight);
+            } else if (flights.size() > SWEEP_THRESHOLD) {
+                sweep();
+            }
+            return value;
+        } catch (RuntimeException | Error e) {
+            // Failures are shared with the waiters but never reused
+            flights.remove(key, flight);
+            flight.result.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private V await(Flight<V> flight) {
+        try {
+            return flight.result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private void sweep() {
+        long now = System.nanoTime();
+        flights.values().removeIf(flight -> flight.result.isDone() && now - flight.completedAt >= ttlNanos);
+    }
+}
@@ -0,0 +1,399 @@
+package org.satvik.moviebookingsystembackend.service;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory trigram inverted index for typo-tolerant, ranked search plus prefix
+ * autocomplete. Each document has a label (the title or name, weighted highest and used
+ * for autocomplete) and any number of secondary fields.
+ * <p>
+ * Documents get dense internal numbers in insertion order, so postings stay sorted by
+ * appending. Updates and removals tombstone the old number; the index is rebuilt once
+ * tombstones outnumber live documents.
+ */
+public final class TrigramIndex {
+
+    public record Hit(long id, String label, double score) {}
+
+    private static final int LABEL_WEIGHT = 3;
+    private static final int FIELD_WEIGHT = 1;
+    private static final int MAX_QUERY_LENGTH = 100;
+    // Share of query trigrams a document must contain; low enough to survive a typo per word
+    private static final double MIN_MATCH = 0.4;
+    private static final int SUGGEST_CANDIDATES_PER_HIT = 20;
+    // Bounds the work of queries made only of very common trigrams, such as "the"
+    private static final int MAX_GENERATED_POSTINGS = 20_000;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ThreadLocal<Scratch> scratch = ThreadLocal.withInitial(Scratch::new);
+
+    private final Map<Long, Integer> docById = new HashMap<>();
+    private final Map<Long, Posting> postings = new HashMap<>();
+    private final TreeMap<String, Posting> labelTokens = new TreeMap<>();
+    private final BitSet removed = new BitSet();
+    private long[] ids = new long[64];
+    private String[][] texts = new String[64][];
+    private String[] paddedLabels = new String[64];
+    private int[] labelTrigramCounts = new int[64];
+    private int docCount;
+
+    /**
+     * Adds the document or replaces the previous version with the same id.
+     */
+    public void put(long id, String label, String... fields) {
+        lock.writeLock().lock();
+        try {
+            tombstone(id);
+            append(id, label, fields);
+            if (removed.cardinality() > 1024 && removed.cardinality() > docById.size()) {
+                compact();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            tombstone(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Documents sharing enough trigrams with the query, best first. The score is the
+     * field-weighted share of query trigrams found, nudged towards labels of similar length.
+     */
+    public List<Hit> search(String query, int limit) {
+        String normalized = normalize(query);
+        long[] grams = trigrams(normalized.length() > MAX_QUERY_LENGTH ? normalized.substring(0, MAX_QUERY_LENGTH) : normalized);
+        if (grams.length == 0 || limit <= 0) {
+            return List.of();
+        }
+        int minMatches = (int) Math.ceil(grams.length * MIN_MATCH);
+        lock.readLock().lock();
+        try {
+            List<Posting> lists = new ArrayList<>(grams.length);
+            for (long gram : grams) {
+                Posting posting = postings.get(gram);
+                if (posting != null) {
+                    lists.add(posting);
+                }
+            }
+            lists.sort(Comparator.comparingInt(posting -> posting.size));
+
+            // A document in at least minMatches lists is in one of the shortest (n - minMatches + 1),
+            // so only those produce candidates; the longer ones only add to existing candidates
+            int generators = lists.size() - minMatches + 1;
+            int generated = 0;
+            Scratch s = scratch.get().reset(docCount);
+            for (int l = 0; l < lists.size(); l++) {
+                Posting posting = lists.get(l);
+                if (l < generators && (l == 0 || generated + posting.size <= MAX_GENERATED_POSTINGS)) {
+                    generated += posting.size;
+                    for (int i = 0; i < posting.size; i++) {
+                        // Matched trigram count in the high bits, weight sum in the low 16
+                        s.add(posting.docs[i], (1 << 16) + posting.weights[i]);
+                    }
+                } else if (s.touchedCount * 16L < posting.size) {
+                    for (int i = 0; i < s.touchedCount; i++) {
+                        int at = Arrays.binarySearch(posting.docs, 0, posting.size, s.touched[i]);
+                        if (at >= 0) {
+                            s.values[s.touched[i]] += (1 << 16) + posting.weights[at];
+                        }
+                    }
+                } else {
+                    for (int i = 0; i < posting.size; i++) {
+                        if (s.values[posting.docs[i]] != 0) {
+                            s.values[posting.docs[i]] += (1 << 16) + posting.weights[i];
+                        }
+                    }
+                }
+            }
+
+            PriorityQueue<Hit> best = new PriorityQueue<>(limit + 1, Comparator.comparingDouble(Hit::score));
+            for (int i = 0; i < s.touchedCount; i++) {
+                int doc = s.touched[i];
+                int value = s.values[doc];
+                if ((value >>> 16) < minMatches || removed.get(doc)) {
+                    continue;
+                }
+                double coverage = (value & 0xFFFF) / (double) (LABEL_WEIGHT * grams.length);
+                int labelGrams = labelTrigramCounts[doc];
+                double lengthFit = Math.min(grams.length, labelGrams) / (double) Math.max(grams.length, labelGrams);
+                double score = 0.8 * coverage + 0.2 * lengthFit;
+                if (best.size() < limit) {
+                    best.add(new Hit(ids[doc], texts[doc][0], score));
+                } else if (score > best.peek().score()) {
+                    best.poll();
+                    best.add(new Hit(ids[doc], texts[doc][0], score));
+                }
+            }
+            return sortedDescending(best);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Documents with a label word starting with the last word of the prefix and containing
+     * the earlier words. Labels that start with the whole prefix come first, then shorter ones.
+     */
+    public List<Hit> suggest(String prefix, int limit) {
+        String normalized = normalize(prefix);
+        if (normalized.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        String[] tokens = normalized.split(" ");
+        String lastToken = tokens[tokens.length - 1];
+        // Matched against labels stored with a space on either side
+        String[] needles = new String[tokens.length];
+        for (int i = 0; i < tokens.length - 1; i++) {
+            needles[i] = " " + tokens[i] + " ";
+        }
+        needles[tokens.length - 1] = " " + lastToken;
+
+        lock.readLock().lock();
+        try {
+            Scratch s = scratch.get().reset(docCount);
+            List<Integer> candidates = new ArrayList<>();
+            int maxCandidates = limit * SUGGEST_CANDIDATES_PER_HIT;
+            if (tokens.length == 1) {
+                for (Posting posting : labelTokens.subMap(lastToken, lastToken + Character.MAX_VALUE).values()) {
+                    collect(posting, needles, maxCandidates, s, candidates);
+                    if (candidates.size() >= maxCandidates) {
+                        break;
+                    }
+                }
+            } else {
+                // Whole earlier words are exact lookups; scan the rarest one
+                Posting rarest = null;
+                for (int i = 0; i < tokens.length - 1; i++) {
+                    Posting posting = labelTokens.get(tokens[i]);
+                    if (posting == null) {
+                        return List.of();
+                    }
+                    if (rarest == null || posting.size < rarest.size) {
+                        rarest = posting;
+                    }
+                }
+                collect(rarest, needles, maxCandidates, s, candidates);
+            }
+
+            String labelStart = " " + normalized;
+            candidates.sort(Comparator
+                    .comparing((Integer doc) -> !paddedLabels[doc].startsWith(labelStart))
+                    .thenComparingInt(doc -> paddedLabels[doc].length())
+                    .thenComparing(doc -> paddedLabels[doc]));
+
+            List<Hit> hits = new ArrayList<>(Math.min(limit, candidates.size()));
+            for (int doc : candidates.subList(0, Math.min(limit, candidates.size()))) {
+                hits.add(new Hit(ids[doc], texts[doc][0],
+                        normalized.length() / (double) (paddedLabels[doc].length() - 2)));
+            }
+            return hits;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void collect(Posting posting, String[] needles, int maxCandidates, Scratch s, List<Integer> candidates) {
+        for (int i = 0; i < posting.size && candidates.size() < maxCandidates; i++) {
+            int doc = posting.docs[i];
+            if (!removed.get(doc) && s.values[doc] == 0 && containsAll(paddedLabels[doc], needles)) {
+                s.add(doc, 1);
+                candidates.add(doc);
+            }
+        }
+    }
+
+    private void append(long id, String label, String[] fields) {
+        int doc = docCount++;
+        if (doc == ids.length) {
+            int capacity = doc * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            texts = Arrays.copyOf(texts, capacity);
+            paddedLabels = Arrays.copyOf(paddedLabels, capacity);
+            labelTrigramCounts = Arrays.copyOf(labelTrigramCounts, capacity);
+        }
+        String[] docTexts = new String[fields.length + 1];
+        docTexts[0] = label;
+        System.arraycopy(fields, 0, docTexts, 1, fields.length);
+        ids[doc] = id;
+        texts[doc] = docTexts;
+        docById.put(id, doc);
+
+        // Each trigram is posted once, with the weight of the best field that contains it
+        Map<Long, Integer> weights = new HashMap<>();
+        String normalizedLabel = normalize(label);
+        long[] labelGrams = trigrams(normalizedLabel);
+        for (long gram : labelGrams) {
+            weights.put(gram, LABEL_WEIGHT);
+        }
+        for (String field : fields) {
+            for (long gram : trigrams(normalize(field))) {
+                weights.putIfAbsent(gram, FIELD_WEIGHT);
+            }
+        }
+        weights.forEach((gram, weight) -> postings.computeIfAbsent(gram, g -> new Posting()).add(doc, weight));
+
+        paddedLabels[doc] = " " + normalizedLabel + " ";
+        labelTrigramCounts[doc] = labelGrams.length;
+        for (String token : new HashSet<>(Arrays.asList(normalizedLabel.split(" ")))) {
+            if (!token.isEmpty()) {
+                labelTokens.computeIfAbsent(token, t -> new Posting()).add(doc, 0);
+            }
+        }
+    }
+
+    private void tombstone(long id) {
+        Integer doc = docById.remove(id);
+        if (doc != null) {
+            removed.set(doc);
+        }
+    }
+
+    private void compact() {
+        long[] liveIds = new long[docById.size()];
+        String[][] liveTexts = new String[docById.size()][];
+        int n = 0;
+        for (int doc = 0; doc < docCount; doc++) {
+            if (!removed.get(doc)) {
+                liveIds[n] = ids[doc];
+                liveTexts[n++] = texts[doc];
+            }
+        }
+        docById.clear();
+        postings.clear();
+        labelTokens.clear();
+        removed.clear();
+        docCount = 0;
+        for (int i = 0; i < n; i++) {
+            append(liveIds[i], liveTexts[i][0], Arrays.copyOfRange(liveTexts[i], 1, liveTexts[i].length));
+        }
+    }
+
+    private static boolean containsAll(String paddedLabel, String[] needles) {
+        for (String needle : needles) {
+            if (!paddedLabel.contains(needle)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static List<Hit> sortedDescending(PriorityQueue<Hit> best) {
+        Hit[] hits = new Hit[best.size()];
+        for (int i = hits.length - 1; i >= 0; i--) {
+            hits[i] = best.poll();
+        }
+        return List.of(hits);
+    }
+
+    /**
+     * Lower-cases letters and digits and turns every run of anything else into one space.
+     */
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        StringBuilder normalized = new StringBuilder(text.length());
+        boolean space = true;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                normalized.append(Character.toLowerCase(c));
+                space = false;
+            } else if (!space) {
+                normalized.append(' ');
+                space = true;
+            }
+        }
+        int end = normalized.length();
+        if (end > 0 && normalized.charAt(end - 1) == ' ') {
+            end--;
+        }
+        return normalized.substring(0, end);
+    }
+
+    /**
+     * Distinct trigrams of every word padded with two leading and one trailing space,
+     * as pg_trgm does, so short words and word starts still produce grams.
+     */
+    static long[] trigrams(String normalized) {
+        Set<Long> grams = new LinkedHashSet<>();
+        for (String token : normalized.split(" ")) {
+            if (token.isEmpty()) {
+                continue;
+            }
+            String padded = "  " + token + " ";
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                grams.add(((long) padded.charAt(i) << 32) | ((long) padded.charAt(i + 1) << 16) | padded.charAt(i + 2));
+            }
+        }
+        long[] result = new long[grams.size()];
+        int i = 0;
+        for (long gram : grams) {
+            result[i++] = gram;
+        }
+        return result;
+    }
+
+    private static final class Posting {
+        int[] docs = new int[4];
+        byte[] weights = new byte[4];
+        int size;
+
+        void add(int doc, int weight) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                weights = Arrays.copyOf(weights, size * 2);
+            }
+            docs[size] = doc;
+            weights[size++] = (byte) weight;
+        }
+    }
+
+    /**
+     * Per-thread accumulator reused across queries; only touched slots are cleared.
+     */
+    private static final class Scratch {
+        int[] values = new int[0];
+        int[] touched = new int[64];
+        int touchedCount;
+
+        Scratch reset(int docCount) {
+            for (int i = 0; i < touchedCount; i++) {
+                values[touched[i]] = 0;
+            }
+            touchedCount = 0;
+            if (values.length < docCount) {
+                values = new int[docCount + docCount / 2];
+            }
+            return this;
+        }
+
+        void add(int doc, int value) {
+            if (values[doc] == 0) {
+                if (touchedCount == touched.length) {
+                    touched = Arrays.copyOf(touched, touchedCount * 2);
+                }
+                touched[touchedCount++] = doc;
+            }
+            values[doc] += value;
+        }
+    }
+}
@@ -0,0 +1,267 @@
+package org.satvik.moviebookingsystembackend.service;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.satvik.moviebookingsystembackend.dto.WaitingRoomDTO;
+import org.satvik.moviebookingsystembackend.exception.AdmissionRequiredException;
+import org.satvik.moviebookingsystembackend.exception.BookingException;
+import org.satvik.moviebookingsystembackend.exception.InvalidTokenException;
+import org.satvik.moviebookingsystembackend.exception.ResourceNotFoundException;
+import org.satvik.moviebookingsystembackend.security.JwtService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Opt-in waiting rooms for high-demand shows. Joining a show's room hands out the next
+ * sequence number in a signed ticket, and every second the room admits up to
+ * {@code admitPerSecond} more sequence numbers. An admitted client gets a short-lived
+ * admission token that the seat layout and booking endpoints require while the room is
+ * open.
+ * <p>
+ * A waiter costs one map entry, from user id to sequence number. Positions are derived
+ * from the room's two counters, so nothing is kept per position. Rooms can be snapshotted
+ * to a file and restored on startup, so a restart does not reshuffle the queue.
+ */
+@Service
+@Slf4j
+public class WaitingRoomService {
+
+    static final String TICKET_GRANT = "queue-ticket";
+    static final String ADMISSION_GRANT = "admission";
+    private static final int SNAPSHOT_VERSION = 1;
+
+    static final class Room {
+        final Long showId;
+        volatile int admitPerSecond;
+        volatile long admissionMillis;
+        final AtomicLong issued = new AtomicLong();
+        volatile long admittedUpTo;
+        final Map<Long, Long> sequenceByUser = new ConcurrentHashMap<>();
+
+        Room(Long showId, int admitPerSecond, long admissionMillis) {
+            this.showId = showId;
+            this.admitPerSecond = admitPerSecond;
+            this.admissionMillis = admissionMillis;
+        }
+
+        WaitingRoomDTO.RoomStats stats() {
+            long issuedNow = issued.get();
+            long admitted = Math.min(admittedUpTo, issuedNow);
+            return new WaitingRoomDTO.RoomStats(showId, admitPerSecond, admissionMillis / 1000,
+                    issuedNow, admitted, issuedNow - admitted);
+        }
+    }
+
+    private final JwtService jwtService;
+    private final long ticketTtlMillis;
+    private final Path snapshotFile;
+    private final Map<Long, Room> rooms = new ConcurrentHashMap<>();
+
+    public WaitingRoomService(JwtService jwtService,
+                              @Value("${app.waiting-room.ticket-ttl-minutes:360}") long ticketTtlMinutes,
+                              @Value("${app.waiting-room.snapshot-file:}") String snapshotFile) {
+        this.jwtService = jwtService;
+        this.ticketTtlMillis = TimeUnit.MINUTES.toMillis(ticketTtlMinutes);
+        this.snapshotFile = snapshotFile.isBlank() ? null : Path.of(snapshotFile);
+    }
+
+    /**
+     * Opens the show's waiting room, or changes the rates of an open one.
+     */
+    public WaitingRoomDTO.RoomStats open(Long showId, int admitPerSecond, int admissionMinutes) {
+        if (admitPerSecond <= 0 || admissionMinutes <= 0) {
+            throw new BookingException("Admission rate and window must be positive");
+        }
+        long admissionMillis = TimeUnit.MINUTES.toMillis(admissionMinutes);
+        Room room = rooms.computeIfAbsent(showId, id -> new Room(id, admitPerSecond, admissionMillis));
+        room.admitPerSecond = admitPerSecond;
+        room.admissionMillis = admissionMillis;
+        log.info("Waiting room open for show {} admitting {}/s", showId, admitPerSecond);
+        return room.stats();
+    }
+
+    /**
+     * Closes the show's waiting room, opening the booking flow to everyone.
+     */
+    public void close(Long showId) {
+        if (rooms.remove(showId) == null) {
+            throw new ResourceNotFoundException("No waiting room for show: " + showId);
+        }
+        log.info("Waiting room closed for show {}", showId);
+    }
+
+    public List<WaitingRoomDTO.RoomStats> stats() {
+        return rooms.values().stream().map(Room::stats).toList();
+    }
+
+    /**
+     * Places the user in the show's queue. Joining again returns the same place.
+     */
+    public WaitingRoomDTO.TicketResponse join(Long showId, Long userId) {
+        Room room = rooms.get(showId);
+        if (room == null) {
+            return inactive(showId);
+        }
+        long sequence = room.sequenceByUser.computeIfAbsent(userId, id -> room.issued.incrementAndGet());
+        String ticket = jwtService.signGrant(TICKET_GRANT,
+                Map.of("show", showId, "uid", userId, "seq", sequence), ticketTtlMillis);
+        return status(room, userId, sequence, ticket);
+    }
+
+    /**
+     * Current position for a ticket, with an admission token once it has been admitted.
+     */
+    public WaitingRoomDTO.TicketResponse status(Long showId, Long userId, String ticket) {
+        Room room = rooms.get(showId);
+        if (room == null) {
+            return inactive(showId);
+        }
+        Claims claims = verify(TICKET_GRANT, ticket, "Invalid queue ticket");
+        if (!showId.equals(claims.get("show", Long.class)) || !userId.equals(claims.get("uid", Long.class))) {
+            throw new InvalidTokenException("Queue ticket belongs to another show or user");
+        }
+        return status(room, userId, claims.get("seq", Long.class), ticket);
+    }
+
+    /**
+     * Lets the request through unless the show's waiting room is open and the token is not
+     * a valid admission for this show and, when given, this user.
+     */
+    public void checkAdmission(Long showId, Long userId, String admissionToken) {
+        if (showId == null || !rooms.containsKey(showId)) {
+            return;
+        }
+        if (admissionToken == null) {
+            throw new AdmissionRequiredException("Bookings for this show go through the waiting room");
+        }
+        Claims claims;
+        try {
+            claims = jwtService.verifyGrant(ADMISSION_GRANT, admissionToken);
+        } catch (JwtException | IllegalArgumentException e) {
+            throw new AdmissionRequiredException("Admission token is invalid or has expired");
+        }
+        if (!showId.equals(claims.get("show", Long.class))
+                || (userId != null && !userId.equals(claims.get("uid", Long.class)))) {
+            throw new AdmissionRequiredException("Admission token belongs to another show or user");
+        }
+    }
+
+    /**
+     * Admits the next batch of every room. Admissions do not build up while a room has
+     * nobody waiting, so a quiet spell cannot release a burst later.
+     */
+    @Scheduled(fixedRate = 1000)
+    public void admit() {
+        for (Room room : rooms.values()) {
+            room.admittedUpTo = Math.min(room.issued.get(), room.admittedUpTo + room.admitPerSecond);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void restore() {
+        if (snapshotFile == null || !Files.exists(snapshotFile)) {
+            return;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshotFile)))) {
+            if (in.readInt() != SNAPSHOT_VERSION) {
+                log.warn("Ignoring waiting room snapshot {} of unknown version", snapshotFile);
+                return;
+            }
+            for (int rooms = in.readInt(); rooms > 0; rooms--) {
+                Room room = new Room(in.readLong(), in.readInt(), in.readLong());
+                room.issued.set(in.readLong());
+                room.admittedUpTo = in.readLong();
+                for (int waiters = in.readInt(); waiters > 0; waiters--) {
+                    room.sequenceByUser.put(in.readLong(), in.readLong());
+                }
+                this.rooms.put(room.showId, room);
+            }
+            log.info("Restored {} waiting rooms from {}", this.rooms.size(), snapshotFile);
+        } catch (IOException e) {
+            log.error("Could not restore waiting rooms from {}", snapshotFile, e);
+        }
+    }
+
+    @PreDestroy
+    @Scheduled(fixedDelayString = "${app.waiting-room.snapshot-ms:10000}")
+    public void snapshot() {
+        if (snapshotFile == null) {
+            return;
+        }
+        List<Room> open = new ArrayList<>(rooms.values());
+        try {
+            Path tmp = snapshotFile.resolveSibling(snapshotFile.getFileName() + ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                out.writeInt(SNAPSHOT_VERSION);
+                out.writeInt(open.size());
+                for (Room room : open) {
+                    out.writeLong(room.showId);
+                    out.writeInt(room.admitPerSecond);
+                    out.writeLong(room.admissionMillis);
+                    // Read admittedUpTo first so it never runs ahead of the issued count written
+                    long admittedUpTo = room.admittedUpTo;
+                    Map<Long, Long> waiters = Map.copyOf(room.sequenceByUser);
+                    out.writeLong(Math.max(room.issued.get(), admittedUpTo));
+                    out.writeLong(admittedUpTo);
+                    out.writeInt(waiters.size());
+                    for (Map.Entry<Long, Long> waiter : waiters.entrySet()) {
+                        out.writeLong(waiter.getKey());
+                        out.writeLong(waiter.getValue());
+                    }
+                }
+            }
+            Files.move(tmp, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.error("Could not snapshot waiting rooms to {}", snapshotFile, e);
+        }
+    }
+
+    private WaitingRoomDTO.TicketResponse status(Room room, Long userId, long sequence, String ticket) {
+        long admittedUpTo = room.admittedUpTo;
+        long position = Math.max(0, sequence - admittedUpTo);
+        WaitingRoomDTO.TicketResponse response = new WaitingRoomDTO.TicketResponse();
+        response.setShowId(room.showId);
+        response.setActive(true);
+        response.setTicket(ticket);
+        response.setPosition(position);
+        response.setQueueLength(Math.max(0, room.issued.get() - admittedUpTo));
+        response.setEstimatedWaitSeconds((position + room.admitPerSecond - 1) / room.admitPerSecond);
+        if (position == 0) {
+            response.setAdmitted(true);
+            response.setAdmissionToken(jwtService.signGrant(ADMISSION_GRANT,
+                    Map.of("show", room.showId, "uid", userId), room.admissionMillis));
+        }
+        return response;
+    }
+
+    private Claims verify(String type, String token, String message) {
+        try {
+            return jwtService.verifyGrant(type, token);
+        } catch (JwtException | IllegalArgumentException e) {
+            throw new InvalidTokenException(message);
+        }
+    }
+
+    private static WaitingRoomDTO.TicketResponse inactive(Long showId) {
+        WaitingRoomDTO.TicketResponse response = new WaitingRoomDTO.TicketResponse();
+        response.setShowId(showId);
+        response.setAdmitted(true);
+        return response;
+    }
+}
@@ -0,0 +1,148 @@
+package org.satvik.moviebookingsystembackend.controller;
+
+import jakarta.servlet.Filter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.satvik.moviebookingsystembackend.config.SecurityConfig;
+import org.satvik.moviebookingsystembackend.dto.BookingDTO;
+import org.satvik.moviebookingsystembackend.entity.User;
+import org.satvik.moviebookingsystembackend.repository.UserRepository;
+import org.satvik.moviebookingsystembackend.security.AccountStatusCache;
+import org.satvik.moviebookingsystembackend.security.JwtService;
+import org.satvik.moviebookingsystembackend.security.RateLimiter;
+import org.satvik.moviebookingsystembackend.security.TokenRevocationList;
+import org.satvik.moviebookingsystembackend.service.BookingHistoryService;
+import org.satvik.moviebookingsystembackend.service.CheckoutService;
+import org.satvik.moviebookingsystembackend.service.TicketService;
+import org.satvik.moviebookingsystembackend.service.WaitingRoomService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.junit.jupiter.web.SpringJUnitWebConfig;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+import org.springframework.web.servlet.config.annotation.EnableWebMvc;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * The checkout endpoints return futures, so their responses are written in an ASYNC
+ * re-dispatch that must get through the real security filter chain.
+ */
+@SpringJUnitWebConfig
+@TestPropertySource(properties = {
+        "app.jwt.secret=MovieBookingSecretKey2024VeryLongSecretKeyForJWTTokenGeneration",
+        "app.jwt.expiration=60000",
+        "app.cors.allowed-origins=*"
+})
+class AsyncCheckoutSecurityTest {
+
+    @Configuration
+    @EnableWebMvc
+    @Import({SecurityConfig.class, BookingController.class, JwtService.class, TokenRevocationList.class,
+            AccountStatusCache.class})
+    static class Config {
+    }
+
+    @MockitoBean private UserRepository userRepository;
+    @MockitoBean private RateLimiter rateLimiter;
+    @MockitoBean private CheckoutService checkoutService;
+    @MockitoBean private BookingHistoryService bookingHistoryService;
+    @MockitoBean private TicketService ticketService;
+    @MockitoBean private WaitingRoomService waitingRoomService;
+
+    @Autowired private WebApplicationContext context;
+    @Autowired private JwtService jwtService;
+    @Autowired private Filter springSecurityFilterChain;
+
+    private MockMvc mockMvc;
+    private String token;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(context).addFilters(springSecurityFilterChain).build();
+        User user = User.builder().id(7L).email("a@b.com").role(User.Role.USER).tokenVersion(0).build();
+        when(userRepository.findAccountStatus(7L)).thenReturn(List.<Object[]>of(new Object[]{true, User.Role.USER, 0}));
+        token = jwtService.generateToken(user);
+    }
+
+    @Test
+    void initiatedBookingIsReturnedAfterTheAsyncDispatch() throws Exception {
+        BookingDTO.BookingResponse response = new BookingDTO.BookingResponse();
+        response.setBookingReference("MBK-1");
+        when(checkoutService.initiateBooking(eq(7L), any())).thenReturn(CompletableFuture.completedFuture(response));
+
+        MvcResult started = mockMvc.perform(post("/api/bookings/initiate")
+                        .header("Authorization", "Bearer " + token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"showId\":1,\"seatIds\":[1,2]}"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.bookingReference").value("MBK-1"));
+    }
+
+    @Test
+    void cartConfirmationIsReturnedAfterTheAsyncDispatch() throws Exception {
+        BookingDTO.BookingResponse response = new BookingDTO.BookingResponse();
+        response.setBookingReference("MBK-2");
+        when(checkoutService.confirmCart(any())).thenReturn(CompletableFuture.completedFuture(List.of(response)));
+
+        MvcResult started = mockMvc.perform(post("/api/bookings/cart/confirm")
+                        .header("Authorization", "Bearer " + token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"bookingId\":1,\"stripePaymentIntentId\":\"pi_1\"}"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].bookingReference").value("MBK-2"));
+    }
+
+    @Test
+    void cartItemsAreAdmittedWithTheirOwnWaitingRoomTokens() throws Exception {
+        when(checkoutService.initiateCart(eq(7L), any()))
+                .thenReturn(CompletableFuture.completedFuture(new BookingDTO.CartResponse()));
+
+        MvcResult started = mockMvc.perform(post("/api/bookings/cart")
+                        .header("Authorization", "Bearer " + token)
+                        .header("X-Admission-Token", "header-token")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"items\":[{\"showId\":1,\"seatIds\":[1],\"admissionToken\":\"show-1\"},"
+                                + "{\"showId\":2,\"seatIds\":[2],\"admissionToken\":\"show-2\"},"
+                                + "{\"showId\":3,\"seatIds\":[3]}]}"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(started)).andExpect(status().isOk());
+
+        verify(waitingRoomService).checkAdmission(1L, 7L, "show-1");
+        verify(waitingRoomService).checkAdmission(2L, 7L, "show-2");
+        // An item without its own token falls back to the header
+        verify(waitingRoomService).checkAdmission(3L, 7L, "header-token");
+    }
+
+    @Test
+    void checkoutStillNeedsAToken() throws Exception {
+        mockMvc.perform(post("/api/bookings/initiate")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"showId\":1,\"seatIds\":[1,2]}"))
+                .andExpect(status().isForbidden());
+    }
+}
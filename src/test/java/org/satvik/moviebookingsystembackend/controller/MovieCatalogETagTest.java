@@ -0,0 +1,111 @@
+package org.satvik.moviebookingsystembackend.controller;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.satvik.moviebookingsystembackend.entity.Movie;
+import org.satvik.moviebookingsystembackend.event.MovieChangedEvent;
+import org.satvik.moviebookingsystembackend.repository.MovieRepository;
+import org.satvik.moviebookingsystembackend.service.MovieCatalog;
+import org.satvik.moviebookingsystembackend.service.MovieService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.junit.jupiter.web.SpringJUnitWebConfig;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+import org.springframework.web.servlet.config.annotation.EnableWebMvc;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.hamcrest.Matchers.matchesPattern;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Catalog reads are tagged by content, so a tag from one node or one process lifetime
+ * still matches on another as long as the movies are the same.
+ */
+@SpringJUnitWebConfig
+class MovieCatalogETagTest {
+
+    @Configuration
+    @EnableWebMvc
+    @Import(MovieController.class)
+    static class Config {
+    }
+
+    @MockitoBean private MovieService movieService;
+
+    @Autowired private WebApplicationContext context;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(context).build();
+    }
+
+    @Test
+    void firstReadIsServedWithATag() throws Exception {
+        serve(catalog(movie(1L, "Dune")));
+
+        mockMvc.perform(get("/api/movies"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, matchesPattern("\"catalog-[0-9a-f]{32}\"")))
+                .andExpect(jsonPath("$[0].title").value("Dune"));
+    }
+
+    @Test
+    void sameContentFromAnotherNodeIsNotModified() throws Exception {
+        serve(catalog(movie(1L, "Dune"), movie(2L, "Arrival")));
+        String etag = mockMvc.perform(get("/api/movies"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        // Another node that has rebuilt its catalog more often and lists the movies in another order
+        MovieRepository movieRepository = mock(MovieRepository.class);
+        when(movieRepository.findAll()).thenReturn(List.of(movie(2L, "Arrival"), movie(1L, "Dune")));
+        MovieCatalog otherNode = new MovieCatalog(movieRepository);
+        otherNode.onMovieChanged(new MovieChangedEvent(2L));
+        otherNode.onMovieChanged(new MovieChangedEvent(2L));
+        serve(otherNode.current());
+
+        mockMvc.perform(get("/api/movies").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void changedContentIsServedAgain() throws Exception {
+        serve(catalog(movie(1L, "Dune")));
+        String etag = mockMvc.perform(get("/api/movies"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        serve(catalog(movie(1L, "Dune: Part Two")));
+
+        mockMvc.perform(get("/api/movies").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].title").value("Dune: Part Two"));
+    }
+
+    private void serve(MovieCatalog.Snapshot catalog) {
+        when(movieService.catalog()).thenReturn(catalog);
+    }
+
+    private static MovieCatalog.Snapshot catalog(Movie... movies) {
+        MovieRepository movieRepository = mock(MovieRepository.class);
+        when(movieRepository.findAll()).thenReturn(List.of(movies));
+        return new MovieCatalog(movieRepository).current();
+    }
+
+    private static Movie movie(Long id, String title) {
+        return Movie.builder().id(id).title(title).genre("Sci-Fi").language("English")
+                .durationMinutes(150).releaseDate(LocalDate.of(2024, 3, 1)).build();
+    }
+}
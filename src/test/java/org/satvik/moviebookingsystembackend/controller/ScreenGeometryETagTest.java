@@ -0,0 +1,82 @@
+package org.satvik.moviebookingsystembackend.controller;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.satvik.moviebookingsystembackend.entity.Seat;
+import org.satvik.moviebookingsystembackend.repository.ScreenRepository;
+import org.satvik.moviebookingsystembackend.repository.SeatRepository;
+import org.satvik.moviebookingsystembackend.repository.TheatreRepository;
+import org.satvik.moviebookingsystembackend.service.CompactSeatLayoutService;
+import org.satvik.moviebookingsystembackend.service.SeatStateEngine;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.junit.jupiter.web.SpringJUnitWebConfig;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+import org.springframework.web.servlet.config.annotation.EnableWebMvc;
+
+import java.util.List;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.matchesPattern;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringJUnitWebConfig
+class ScreenGeometryETagTest {
+
+    private static final long SCREEN_ID = 3L;
+
+    @Configuration
+    @EnableWebMvc
+    @Import({TheatreController.class, CompactSeatLayoutService.class})
+    static class Config {
+    }
+
+    @MockitoBean private TheatreRepository theatreRepository;
+    @MockitoBean private ScreenRepository screenRepository;
+    @MockitoBean private SeatRepository seatRepository;
+    @MockitoBean private SeatStateEngine seatStateEngine;
+
+    @Autowired private WebApplicationContext context;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(context).build();
+        when(seatRepository.findByScreenId(SCREEN_ID)).thenReturn(List.of(
+                Seat.builder().id(1L).rowNumber("A").seatNumber("1").seatType(Seat.SeatType.SILVER).build(),
+                Seat.builder().id(2L).rowNumber("A").seatNumber("2").seatType(Seat.SeatType.SILVER).build()));
+    }
+
+    @Test
+    void geometryIsServedWithAQuotedContentTag() throws Exception {
+        mockMvc.perform(get("/api/theatres/screens/{id}/geometry", SCREEN_ID))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, matchesPattern("\"screen-3-[0-9a-f]{32}\"")))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, containsString("max-age=86400")))
+                .andExpect(jsonPath("$.seatCount").value(2))
+                .andExpect(jsonPath("$.contentHash").doesNotExist());
+    }
+
+    @Test
+    void matchingTagIsNotModified() throws Exception {
+        String etag = mockMvc.perform(get("/api/theatres/screens/{id}/geometry", SCREEN_ID))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/api/theatres/screens/{id}/geometry", SCREEN_ID).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(content().string(""));
+
+        mockMvc.perform(get("/api/theatres/screens/{id}/geometry", SCREEN_ID)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"screen-3-2\""))
+                .andExpect(status().isOk());
+    }
+}
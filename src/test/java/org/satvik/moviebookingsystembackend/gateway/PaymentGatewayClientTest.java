@@ -0,0 +1,112 @@
+package org.satvik.moviebookingsystembackend.gateway;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.satvik.moviebookingsystembackend.exception.PaymentGatewayUnavailableException;
+
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PaymentGatewayClientTest {
+
+    private static final IntentRequest REQUEST = new IntentRequest(10_000, "inr", "test", Map.of(), "intent-BK1");
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void slowGatewayTimesOutAndOpensTheCircuit() {
+        AtomicInteger calls = new AtomicInteger();
+        PaymentGatewayClient client = client(new StubGateway(() -> {
+            calls.incrementAndGet();
+            sleep(5_000);
+        }), 10, 100, 2);
+
+        for (int i = 0; i < 2; i++) {
+            assertThatThrownBy(() -> client.createIntent(REQUEST).join())
+                    .hasCauseInstanceOf(PaymentGatewayUnavailableException.class)
+                    .hasMessageContaining("timed out");
+        }
+        // Circuit is open: refused without reaching the gateway
+        assertThatThrownBy(() -> client.createIntent(REQUEST).join())
+                .hasMessageContaining("unavailable");
+        assertThat(calls).hasValue(2);
+
+        GatewayStats stats = client.stats();
+        assertThat(stats.circuitState()).isEqualTo("OPEN");
+        assertThat(stats.operations().get("CREATE_INTENT").timeouts()).isEqualTo(2);
+        assertThat(stats.rejected()).isEqualTo(1);
+    }
+
+    @Test
+    void callersStagesAfterATimeoutRunOnTheGatewayExecutor() {
+        PaymentGatewayClient client = client(new StubGateway(() -> sleep(5_000)), 10, 50, 100);
+
+        // Non-async stage, like CheckoutService's rollback on a failed intent
+        Thread thread = client.createIntent(REQUEST).handle((intent, error) -> Thread.currentThread()).join();
+
+        assertThat(thread.isVirtual()).isTrue();
+    }
+
+    @Test
+    void bulkheadBoundsConcurrentCalls() throws Exception {
+        AtomicInteger concurrent = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        PaymentGatewayClient client = client(new StubGateway(() -> {
+            peak.accumulateAndGet(concurrent.incrementAndGet(), Math::max);
+            sleep(20);
+            concurrent.decrementAndGet();
+        }), 4, 5_000, 100);
+
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[100];
+        for (int i = 0; i < futures.length; i++) {
+            futures[i] = client.createIntent(REQUEST);
+        }
+        CompletableFuture.allOf(futures).get(30, TimeUnit.SECONDS);
+
+        assertThat(peak.get()).isLessThanOrEqualTo(4);
+        assertThat(client.stats().operations().get("CREATE_INTENT").calls()).isEqualTo(100);
+        assertThat(client.stats().queueDepth()).isZero();
+    }
+
+    private PaymentGatewayClient client(PaymentGateway gateway, int maxConcurrent, long timeoutMillis, int failureThreshold) {
+        return new PaymentGatewayClient(gateway, executor, maxConcurrent, 1_000, 10_000,
+                timeoutMillis, timeoutMillis, timeoutMillis, failureThreshold, 60_000);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private record StubGateway(Runnable behaviour) implements PaymentGateway {
+        @Override
+        public GatewayIntent createIntent(IntentRequest request) {
+            behaviour.run();
+            return new GatewayIntent("pi_1", "pi_1_secret", "requires_payment_method", null);
+        }
+
+        @Override
+        public GatewayIntent retrieveIntent(String intentId) {
+            behaviour.run();
+            return new GatewayIntent(intentId, null, "succeeded", "ch_1");
+        }
+
+        @Override
+        public GatewayRefund refund(RefundRequest request) {
+            behaviour.run();
+            return new GatewayRefund("re_1", "succeeded");
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package org.satvik.moviebookingsystembackend.repository;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.satvik.moviebookingsystembackend.entity.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * A payment settling a cart while its seat hold expires: the cart lock taken by
+ * {@link BookingRepository#lockCartOf} makes the two take turns on the PENDING status.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(EmbeddedPostgresConfig.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class BookingSettleLockTest {
+
+    @Autowired private EntityManager entityManager;
+    @Autowired private BookingRepository bookingRepository;
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transaction;
+    private final List<Long> cart = new ArrayList<>();
+
+    @BeforeEach
+    void seed() {
+        transaction = new TransactionTemplate(transactionManager);
+        transaction.executeWithoutResult(status -> {
+            User user = persist(User.builder().name("Asha").email("asha" + System.nanoTime() + "@example.com")
+                    .password("x").phone("9999999999").build());
+            Movie movie = persist(Movie.builder().title("Dune").genre("Sci-Fi").language("English").durationMinutes(155).build());
+            Theatre theatre = persist(Theatre.builder().name("PVR").address("MG Road").city("Pune").build());
+            Screen screen = persist(Screen.builder().name("Audi 1").theatre(theatre).build());
+            Show show = persist(Show.builder().movie(movie).theatre(theatre).screen(screen)
+                    .showDate(LocalDate.now()).startTime(LocalTime.NOON).silverPrice(200.0)
+                    .status(Show.ShowStatus.UPCOMING).build());
+            String cartReference = "CART-" + System.nanoTime();
+            for (int b = 0; b < 2; b++) {
+                cart.add(persist(Booking.builder().bookingReference("BK" + System.nanoTime() + "-" + b)
+                        .user(user).show(show).totalAmount(200.0).finalAmount(204.0).cartReference(cartReference)
+                        .status(Booking.BookingStatus.PENDING).build()).getId());
+            }
+        });
+    }
+
+    @Test
+    void holdExpiringDuringSettlementWaitsAndFindsTheCartConfirmed() throws Exception {
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch proceed = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+
+        Future<Integer> settlement = pool.submit(() -> transaction.execute(status -> {
+            List<Booking> bookings = bookingRepository.lockCartOf(cart.get(0));
+            assertThat(bookings).extracting(Booking::getStatus).containsOnly(Booking.BookingStatus.PENDING);
+            locked.countDown();
+            await(proceed);
+            return bookingRepository.confirmPendingBookings(cart);
+        }));
+        await(locked);
+        Future<Integer> expiry = pool.submit(() -> transaction.execute(status ->
+                bookingRepository.failPendingBooking(cart.get(1), LocalDateTime.now(), "Seat hold expired")));
+
+        assertThatBlocked(expiry);
+        proceed.countDown();
+        assertThat(settlement.get(10, TimeUnit.SECONDS)).isEqualTo(2);
+        assertThat(expiry.get(10, TimeUnit.SECONDS)).isZero();
+        pool.shutdown();
+
+        assertThat(statuses()).containsOnly("CONFIRMED");
+    }
+
+    @Test
+    void settlementAfterTheHoldExpiredSeesTheExpiredMember() {
+        transaction.executeWithoutResult(status ->
+                bookingRepository.failPendingBooking(cart.get(1), LocalDateTime.now(), "Seat hold expired"));
+
+        List<Booking> bookings = transaction.execute(status -> bookingRepository.lockCartOf(cart.get(0)));
+
+        assertThat(bookings).extracting(Booking::getId).containsExactlyElementsOf(cart);
+        assertThat(bookings).extracting(Booking::getStatus)
+                .containsExactly(Booking.BookingStatus.PENDING, Booking.BookingStatus.FAILED);
+        Integer confirmed = transaction.execute(status -> bookingRepository.confirmPendingBookings(cart));
+        assertThat(confirmed).isEqualTo(1);
+    }
+
+    private List<String> statuses() {
+        return jdbcTemplate.queryForList("SELECT status FROM bookings WHERE id IN (?, ?)", String.class,
+                cart.get(0), cart.get(1));
+    }
+
+    private static void assertThatBlocked(Future<?> future) throws InterruptedException {
+        Thread.sleep(300);
+        assertThat(future).isNotDone();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertThat(latch.await(10, TimeUnit.SECONDS)).isTrue();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private <T> T persist(T entity) {
+        entityManager.persist(entity);
+        return entity;
+    }
+}
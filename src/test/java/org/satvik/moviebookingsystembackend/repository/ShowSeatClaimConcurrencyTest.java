@@ -0,0 +1,127 @@
+package org.satvik.moviebookingsystembackend.repository;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.satvik.moviebookingsystembackend.entity.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Many transactions racing the conditional show_seats claim for overlapping seats, as
+ * bookings on different nodes would: the database alone has to pick one winner per seat.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(EmbeddedPostgresConfig.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ShowSeatClaimConcurrencyTest {
+
+    private static final int SEATS = 100;
+    private static final int CLAIMS = 2_000;
+    private static final int THREADS = 16;
+
+    @Autowired private EntityManager entityManager;
+    @Autowired private ShowSeatRepository showSeatRepository;
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private PlatformTransactionManager transactionManager;
+
+    private Long showId;
+    private final List<Long> seatIds = new ArrayList<>();
+    private final List<Long> bookingIds = new ArrayList<>();
+
+    @BeforeEach
+    void seed() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            User user = persist(User.builder().name("Asha").email("asha" + System.nanoTime() + "@example.com")
+                    .password("x").phone("9999999999").build());
+            Movie movie = persist(Movie.builder().title("Dune").genre("Sci-Fi").language("English").durationMinutes(155).build());
+            Theatre theatre = persist(Theatre.builder().name("PVR").address("MG Road").city("Pune").build());
+            Screen screen = persist(Screen.builder().name("Audi 1").theatre(theatre).build());
+            Show show = persist(Show.builder().movie(movie).theatre(theatre).screen(screen)
+                    .showDate(LocalDate.now()).startTime(LocalTime.NOON).silverPrice(200.0)
+                    .status(Show.ShowStatus.UPCOMING).build());
+            showId = show.getId();
+            for (int s = 1; s <= SEATS; s++) {
+                seatIds.add(persist(Seat.builder().rowNumber("A").seatNumber(String.valueOf(s))
+                        .seatType(Seat.SeatType.SILVER).screen(screen).build()).getId());
+            }
+            for (int b = 0; b < CLAIMS; b++) {
+                bookingIds.add(persist(Booking.builder().bookingReference("BK" + System.nanoTime() + "-" + b)
+                        .user(user).show(show).totalAmount(200.0).finalAmount(204.0)
+                        .status(Booking.BookingStatus.PENDING).build()).getId());
+            }
+        });
+    }
+
+    @Test
+    void overlappingClaimsHaveOneWinnerPerSeatAndLosersLeaveNothing() throws Exception {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        Map<Long, List<Long>> winners = new ConcurrentHashMap<>();
+        AtomicInteger losers = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < CLAIMS; i++) {
+            Long bookingId = bookingIds.get(i);
+            // Overlapping windows of 1-4 seats, so nearly every claim conflicts with others
+            int first = ThreadLocalRandom.current().nextInt(SEATS);
+            List<Long> wanted = seatIds.subList(first, Math.min(first + 1 + ThreadLocalRandom.current().nextInt(4), SEATS));
+            futures.add(pool.submit(() -> {
+                start.await();
+                transaction.executeWithoutResult(status -> {
+                    int claimed = showSeatRepository.claimSeatsForBooking(showId, wanted, bookingId);
+                    if (claimed == wanted.size()) {
+                        winners.put(bookingId, wanted);
+                    } else {
+                        // As BookingService does on a short count: the partial claim is undone
+                        losers.incrementAndGet();
+                        status.setRollbackOnly();
+                    }
+                });
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        assertThat(winners.size() + losers.get()).isEqualTo(CLAIMS);
+        assertThat(winners).isNotEmpty();
+        assertThat(losers.get()).isPositive();
+
+        // Every committed row belongs to a winner, for exactly the seats it asked for
+        Map<Long, Long> bookingBySeat = new HashMap<>();
+        jdbcTemplate.query("SELECT seat_id, booking_id, status FROM show_seats WHERE show_id = ?", rs -> {
+            assertThat(rs.getString("status")).isEqualTo("LOCKED");
+            bookingBySeat.put(rs.getLong("seat_id"), rs.getLong("booking_id"));
+        }, showId);
+        Map<Long, Long> expected = new HashMap<>();
+        winners.forEach((bookingId, seats) -> seats.forEach(seatId ->
+                assertThat(expected.put(seatId, bookingId)).as("seat %d claimed twice", seatId).isNull()));
+        assertThat(bookingBySeat).isEqualTo(expected);
+    }
+
+    private <T> T persist(T entity) {
+        entityManager.persist(entity);
+        return entity;
+    }
+}
@@ -0,0 +1,85 @@
+package org.satvik.moviebookingsystembackend.repository;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.satvik.moviebookingsystembackend.entity.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.context.annotation.Import;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The conditional write that stops two nodes booking the same seat, run against a real
+ * Postgres: H2 cannot parse its ON CONFLICT ... DO UPDATE.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(EmbeddedPostgresConfig.class)
+class ShowSeatClaimTest {
+
+    @Autowired private EntityManager entityManager;
+    @Autowired private ShowSeatRepository showSeatRepository;
+
+    private Long showId;
+    private final List<Long> seatIds = new ArrayList<>();
+    private Long firstBookingId;
+    private Long secondBookingId;
+
+    @BeforeEach
+    void seed() {
+        User user = persist(User.builder().name("Asha").email("asha@example.com").password("x").phone("9999999999").build());
+        Movie movie = persist(Movie.builder().title("Dune").genre("Sci-Fi").language("English").durationMinutes(155).build());
+        Theatre theatre = persist(Theatre.builder().name("PVR").address("MG Road").city("Pune").build());
+        Screen screen = persist(Screen.builder().name("Audi 1").theatre(theatre).build());
+        Show show = persist(Show.builder().movie(movie).theatre(theatre).screen(screen)
+                .showDate(LocalDate.now()).startTime(LocalTime.NOON).silverPrice(200.0)
+                .status(Show.ShowStatus.UPCOMING).build());
+        showId = show.getId();
+        for (int s = 1; s <= 4; s++) {
+            seatIds.add(persist(Seat.builder().rowNumber("A").seatNumber(String.valueOf(s))
+                    .seatType(Seat.SeatType.SILVER).screen(screen).build()).getId());
+        }
+        firstBookingId = persist(booking("BK1", user, show)).getId();
+        secondBookingId = persist(booking("BK2", user, show)).getId();
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void secondClaimOnTheSameSeatsComesUpShort() {
+        int first = showSeatRepository.claimSeatsForBooking(showId, seatIds.subList(0, 2), firstBookingId);
+        // Overlaps the first claim on one seat
+        int second = showSeatRepository.claimSeatsForBooking(showId, seatIds.subList(1, 3), secondBookingId);
+
+        assertThat(first).isEqualTo(2);
+        assertThat(second).isEqualTo(1);
+        assertThat(showSeatRepository.findByBookingId(firstBookingId)).hasSize(2);
+    }
+
+    @Test
+    void releasedSeatsCanBeClaimedAgain() {
+        showSeatRepository.claimSeatsForBooking(showId, seatIds, firstBookingId);
+        showSeatRepository.releaseSeatsByBookingId(firstBookingId);
+
+        assertThat(showSeatRepository.claimSeatsForBooking(showId, seatIds, secondBookingId)).isEqualTo(4);
+        assertThat(showSeatRepository.claimSeatsForBooking(showId, seatIds, firstBookingId)).isZero();
+    }
+
+    private static Booking booking(String reference, User user, Show show) {
+        return Booking.builder().bookingReference(reference).user(user).show(show)
+                .totalAmount(400.0).finalAmount(408.0).status(Booking.BookingStatus.PENDING).build();
+    }
+
+    private <T> T persist(T entity) {
+        entityManager.persist(entity);
+        return entity;
+    }
+}
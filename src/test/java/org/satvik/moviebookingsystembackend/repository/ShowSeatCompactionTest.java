@@ -0,0 +1,102 @@
+package org.satvik.moviebookingsystembackend.repository;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.satvik.moviebookingsystembackend.entity.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The show_seats compaction against a booking that claims a legacy AVAILABLE row while
+ * the delete runs. Needs two live transactions, so nothing here runs in a test transaction.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({EmbeddedPostgresConfig.class, ShowBulkRepository.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ShowSeatCompactionTest {
+
+    @Autowired private EntityManager entityManager;
+    @Autowired private ShowSeatRepository showSeatRepository;
+    @Autowired private ShowBulkRepository showBulkRepository;
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transaction;
+    private Long showId;
+    private Long bookingId;
+    private final List<Long> seatIds = new ArrayList<>();
+
+    @BeforeEach
+    void seed() {
+        transaction = new TransactionTemplate(transactionManager);
+        transaction.executeWithoutResult(status -> {
+            User user = persist(User.builder().name("Asha").email("asha" + System.nanoTime() + "@example.com")
+                    .password("x").phone("9999999999").build());
+            Movie movie = persist(Movie.builder().title("Dune").genre("Sci-Fi").language("English").durationMinutes(155).build());
+            Theatre theatre = persist(Theatre.builder().name("PVR").address("MG Road").city("Pune").build());
+            Screen screen = persist(Screen.builder().name("Audi 1").theatre(theatre).build());
+            Show show = persist(Show.builder().movie(movie).theatre(theatre).screen(screen)
+                    .showDate(LocalDate.now()).startTime(LocalTime.NOON).silverPrice(200.0)
+                    .status(Show.ShowStatus.UPCOMING).build());
+            showId = show.getId();
+            for (int s = 1; s <= 4; s++) {
+                Seat seat = persist(Seat.builder().rowNumber("A").seatNumber(String.valueOf(s))
+                        .seatType(Seat.SeatType.SILVER).screen(screen).build());
+                seatIds.add(seat.getId());
+                // A row left behind by dense storage
+                persist(ShowSeat.builder().show(show).seat(seat).status(ShowSeat.SeatStatus.AVAILABLE).price(200.0).build());
+            }
+            bookingId = persist(Booking.builder().bookingReference("BK" + System.nanoTime()).user(user).show(show)
+                    .totalAmount(200.0).finalAmount(204.0).status(Booking.BookingStatus.PENDING).build()).getId();
+        });
+    }
+
+    @Test
+    void compactionSkipsARowABookingIsClaiming() throws Exception {
+        transaction.executeWithoutResult(status -> {
+            assertThat(showSeatRepository.claimSeatsForBooking(showId, seatIds.subList(0, 1), bookingId)).isEqualTo(1);
+            // Runs on its own connection while the claim is uncommitted
+            int deleted = CompletableFuture.supplyAsync(() -> showBulkRepository.deleteAvailableShowSeats(100))
+                    .completeOnTimeout(-1, 5, TimeUnit.SECONDS).join();
+            assertThat(deleted).isGreaterThanOrEqualTo(3);
+        });
+
+        assertThat(jdbcTemplate.queryForList(
+                "SELECT seat_id FROM show_seats WHERE show_id = ?", Long.class, showId)).containsExactly(seatIds.get(0));
+        assertThat(showSeatRepository.findByBookingId(bookingId)).hasSize(1);
+    }
+
+    @Test
+    void compactionLeavesBookedRowsAlone() {
+        showSeatRepository.claimSeatsForBooking(showId, seatIds.subList(0, 2), bookingId);
+
+        showBulkRepository.deleteAvailableShowSeats(100);
+
+        assertThat(jdbcTemplate.queryForList(
+                "SELECT seat_id FROM show_seats WHERE show_id = ? ORDER BY seat_id", Long.class, showId))
+                .containsExactlyElementsOf(seatIds.subList(0, 2));
+    }
+
+    private <T> T persist(T entity) {
+        entityManager.persist(entity);
+        return entity;
+    }
+}
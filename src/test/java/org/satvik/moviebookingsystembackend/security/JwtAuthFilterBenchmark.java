@@ -0,0 +1,117 @@
+package org.satvik.moviebookingsystembackend.security;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.satvik.moviebookingsystembackend.entity.User;
+import org.satvik.moviebookingsystembackend.repository.UserRepository;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Authenticated requests per second through the filter, against the previous path that
+ * rebuilt the parser and key and loaded the user by email on every request. Repository
+ * reads wait a simulated 200 us database round trip:
+ * <pre>mvn test -Dtest=JwtAuthFilterBenchmark -Dbenchmark=true</pre>
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class JwtAuthFilterBenchmark {
+
+    private static final String SECRET = "MovieBookingSecretKey2024VeryLongSecretKeyForJWTTokenGeneration";
+    private static final int USERS = 1_000;
+    private static final int REQUESTS = 20_000;
+    private static final long DB_ROUND_TRIP_NANOS = 200_000;
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final JwtService jwtService = new JwtService(SECRET, 3_600_000);
+    private final AtomicLong reads = new AtomicLong();
+
+    @Test
+    void claimsPathOutrunsPerRequestLookup() throws Exception {
+        when(userRepository.findByEmail(anyString())).thenAnswer(invocation -> {
+            roundTrip();
+            return Optional.of(user(1L));
+        });
+        when(userRepository.findAccountStatus(anyLong())).thenAnswer(invocation -> {
+            roundTrip();
+            return List.<Object[]>of(new Object[]{true, User.Role.USER, 0});
+        });
+        String[] tokens = new String[USERS];
+        for (int i = 0; i < USERS; i++) {
+            tokens[i] = jwtService.generateToken(user(i + 1L));
+        }
+        JwtAuthFilter filter = new JwtAuthFilter(jwtService, new TokenRevocationList(3_600_000),
+                new AccountStatusCache(userRepository, 30, 10_000));
+
+        FilterChain before = (request, response) -> legacyAuthenticate(request.getParameter("token"));
+        FilterChain noop = (request, response) -> {};
+        run("warm-up before", tokens, (token, request) -> before.doFilter(request, null));
+        run("warm-up after", tokens, (token, request) -> filter.doFilter(request, new MockHttpServletResponse(), noop));
+
+        double beforeRate = run("before", tokens, (token, request) -> before.doFilter(request, null));
+        long readsBefore = reads.get();
+        double afterRate = run("after", tokens,
+                (token, request) -> filter.doFilter(request, new MockHttpServletResponse(), noop));
+
+        // Every user's status is already cached from the warm-up
+        assertThat(reads.get()).isEqualTo(readsBefore);
+        assertThat(afterRate).isGreaterThan(beforeRate * 5);
+    }
+
+    private interface Step {
+        void apply(String token, MockHttpServletRequest request) throws Exception;
+    }
+
+    private double run(String label, String[] tokens, Step step) throws Exception {
+        long readsAtStart = reads.get();
+        long start = System.nanoTime();
+        for (int i = 0; i < REQUESTS; i++) {
+            String token = tokens[i % tokens.length];
+            MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/bookings");
+            request.addHeader("Authorization", "Bearer " + token);
+            request.setParameter("token", token);
+            SecurityContextHolder.clearContext();
+            step.apply(token, request);
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        double rate = REQUESTS / seconds;
+        System.out.printf("%s: %,.0f requests/s, %d database reads%n", label, rate, reads.get() - readsAtStart);
+        return rate;
+    }
+
+    /**
+     * The filter's work before claims-based principals: a fresh key and parser per parse,
+     * two parses, and a user load by email.
+     */
+    private void legacyAuthenticate(String token) {
+        String email = Jwts.parserBuilder().setSigningKey(Keys.hmacShaKeyFor(SECRET.getBytes())).build()
+                .parseClaimsJws(token).getBody().getSubject();
+        User user = userRepository.findByEmail(email).orElseThrow();
+        Jwts.parserBuilder().setSigningKey(Keys.hmacShaKeyFor(SECRET.getBytes())).build()
+                .parseClaimsJws(token).getBody().getExpiration();
+        assertThat(user).isNotNull();
+    }
+
+    private void roundTrip() {
+        reads.incrementAndGet();
+        LockSupport.parkNanos(DB_ROUND_TRIP_NANOS);
+    }
+
+    private static User user(Long id) {
+        return User.builder().id(id).email("user" + id + "@example.com").role(User.Role.USER).build();
+    }
+}
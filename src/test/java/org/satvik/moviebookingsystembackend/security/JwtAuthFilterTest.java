@@ -0,0 +1,97 @@
+package org.satvik.moviebookingsystembackend.security;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.satvik.moviebookingsystembackend.entity.User;
+import org.satvik.moviebookingsystembackend.repository.UserRepository;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class JwtAuthFilterTest {
+
+    private static final String SECRET = "MovieBookingSecretKey2024VeryLongSecretKeyForJWTTokenGeneration";
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final JwtService jwtService = new JwtService(SECRET, 60_000);
+    private final AccountStatusCache accountStatusCache = new AccountStatusCache(userRepository, 30, 100);
+    private final TokenRevocationList tokenRevocationList = new TokenRevocationList(60_000);
+    private final JwtAuthFilter filter = new JwtAuthFilter(jwtService, tokenRevocationList, accountStatusCache);
+
+    private final User user = User.builder().id(7L).email("a@b.com").role(User.Role.USER).tokenVersion(2).build();
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void authenticatesFromClaimsAndLoadsAccountStatusOnce() throws Exception {
+        accountStatus(true, User.Role.USER, 2);
+        String token = jwtService.generateToken(user);
+
+        for (int i = 0; i < 3; i++) {
+            SecurityContextHolder.clearContext();
+            Authentication authentication = authenticate(token);
+            assertThat(authentication.getPrincipal()).isInstanceOfSatisfying(AuthenticatedUser.class, principal -> {
+                assertThat(principal.id()).isEqualTo(7L);
+                assertThat(principal.email()).isEqualTo("a@b.com");
+                assertThat(principal.tokenVersion()).isEqualTo(2);
+            });
+            assertThat(authentication.getAuthorities()).extracting(Object::toString).containsExactly("ROLE_USER");
+        }
+        verify(userRepository, times(1)).findAccountStatus(7L);
+        verify(userRepository, never()).findByEmail(anyString());
+    }
+
+    @Test
+    void rejectsTokensIssuedBeforeARevocation() throws Exception {
+        String token = jwtService.generateToken(user);
+        accountStatus(true, User.Role.ADMIN, 3);
+
+        assertThat(authenticate(token)).isNull();
+    }
+
+    @Test
+    void rejectsDeactivatedAccountsOnceEvicted() throws Exception {
+        String token = jwtService.generateToken(user);
+        accountStatus(true, User.Role.USER, 2);
+        assertThat(authenticate(token)).isNotNull();
+
+        SecurityContextHolder.clearContext();
+        accountStatus(false, User.Role.USER, 3);
+        accountStatusCache.evict(7L);
+        assertThat(authenticate(token)).isNull();
+    }
+
+    @Test
+    void rejectsLoggedOutTokens() throws Exception {
+        accountStatus(true, User.Role.USER, 2);
+        String token = jwtService.generateToken(user);
+        AuthenticatedUser principal = (AuthenticatedUser) authenticate(token).getPrincipal();
+
+        SecurityContextHolder.clearContext();
+        tokenRevocationList.revokeToken(principal.tokenId(), principal.expiresAtMillis());
+        assertThat(authenticate(token)).isNull();
+        // Other tokens of the same user are unaffected
+        assertThat(authenticate(jwtService.generateToken(user))).isNotNull();
+    }
+
+    private void accountStatus(boolean active, User.Role role, int tokenVersion) {
+        when(userRepository.findAccountStatus(7L)).thenReturn(List.<Object[]>of(new Object[]{active, role, tokenVersion}));
+    }
+
+    private Authentication authenticate(String token) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/bookings");
+        request.addHeader("Authorization", "Bearer " + token);
+        filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> {});
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+}
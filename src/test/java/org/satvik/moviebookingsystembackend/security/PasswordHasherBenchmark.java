@@ -0,0 +1,79 @@
+package org.satvik.moviebookingsystembackend.security;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.satvik.moviebookingsystembackend.exception.ServiceBusyException;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Login throughput at several BCrypt costs, with four times as many concurrent callers
+ * as hashing threads, so admission control is exercised too:
+ * <pre>mvn test -Dtest=PasswordHasherBenchmark -Dbenchmark=true</pre>
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class PasswordHasherBenchmark {
+
+    private static final int[] COSTS = {8, 10, 12};
+    private static final long RUN_MILLIS = 5_000;
+    private static final int THREADS = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+    private static final int CALLERS = THREADS * 4;
+
+    @Test
+    void loginThroughputByCost() throws Exception {
+        for (int cost : COSTS) {
+            BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(cost);
+            PasswordHasher hasher = new PasswordHasher(encoder, THREADS, THREADS, 1_000);
+            String hash = encoder.encode("correct horse battery");
+
+            ExecutorService callers = Executors.newFixedThreadPool(CALLERS);
+            AtomicBoolean running = new AtomicBoolean(true);
+            LongAdder busy = new LongAdder();
+            List<Future<List<Long>>> results = new ArrayList<>();
+            for (int i = 0; i < CALLERS; i++) {
+                results.add(callers.submit(() -> {
+                    List<Long> latencies = new ArrayList<>();
+                    while (running.get()) {
+                        long start = System.nanoTime();
+                        try {
+                            assertThat(hasher.matches("correct horse battery", hash)).isTrue();
+                            latencies.add(System.nanoTime() - start);
+                        } catch (ServiceBusyException e) {
+                            busy.increment();
+                            Thread.sleep(10);
+                        }
+                    }
+                    return latencies;
+                }));
+            }
+            Thread.sleep(RUN_MILLIS);
+            running.set(false);
+            long[] latencies = results.stream()
+                    .flatMap(f -> {
+                        try {
+                            return f.get().stream();
+                        } catch (InterruptedException | ExecutionException e) {
+                            throw new IllegalStateException(e);
+                        }
+                    })
+                    .mapToLong(Long::longValue).toArray();
+            callers.shutdown();
+            hasher.shutdown();
+
+            Arrays.sort(latencies);
+            System.out.printf("cost %d: %.1f logins/s on %d threads, p50 %d ms, p99 %d ms, %d turned away%n",
+                    cost, latencies.length * 1000.0 / RUN_MILLIS, THREADS,
+                    latencies[latencies.length / 2] / 1_000_000,
+                    latencies[(int) (latencies.length * 0.99)] / 1_000_000, busy.sum());
+            assertThat(latencies).isNotEmpty();
+        }
+    }
+}
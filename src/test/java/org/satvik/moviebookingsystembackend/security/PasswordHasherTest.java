@@ -0,0 +1,90 @@
+package org.satvik.moviebookingsystembackend.security;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.satvik.moviebookingsystembackend.exception.ServiceBusyException;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PasswordHasherTest {
+
+    private final ExecutorService callers = Executors.newCachedThreadPool();
+
+    @AfterEach
+    void stopCallers() {
+        callers.shutdownNow();
+    }
+
+    @Test
+    void rejectsCallersBeyondTheQueue() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        PasswordEncoder blocking = mock(PasswordEncoder.class);
+        when(blocking.encode(anyString())).thenAnswer(invocation -> {
+            release.await();
+            return "hash";
+        });
+        PasswordHasher hasher = new PasswordHasher(blocking, 1, 1, 60_000);
+
+        // One hash running, one queued
+        callers.submit(() -> hasher.encode("a"));
+        callers.submit(() -> hasher.encode("b"));
+        while (hasher.stats().queueDepth() < 1) {
+            Thread.sleep(5);
+        }
+
+        assertThatThrownBy(() -> hasher.encode("c")).isInstanceOf(ServiceBusyException.class);
+        assertThat(hasher.stats().rejected()).isEqualTo(1);
+        release.countDown();
+        hasher.shutdown();
+    }
+
+    @Test
+    void flagsHashesMadeWithALowerCost() {
+        PasswordHasher hasher = new PasswordHasher(new BCryptPasswordEncoder(6), 1, 10, 60_000);
+        String weak = new BCryptPasswordEncoder(4).encode("secret123");
+
+        assertThat(hasher.matches("secret123", weak)).isTrue();
+        assertThat(hasher.upgradeEncoding(weak)).isTrue();
+        assertThat(hasher.upgradeEncoding(hasher.encode("secret123"))).isFalse();
+        assertThat(hasher.matches("secret123", null)).isFalse();
+        hasher.shutdown();
+    }
+
+    @Test
+    void dropsHashesThatWaitedTooLong() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        PasswordEncoder blocking = mock(PasswordEncoder.class);
+        when(blocking.encode(anyString())).thenAnswer(invocation -> {
+            started.countDown();
+            release.await();
+            return "hash";
+        });
+        PasswordHasher hasher = new PasswordHasher(blocking, 1, 10, 50);
+
+        callers.submit(() -> hasher.encode("a"));
+        // "b" must queue behind a hash that is already running, not race "a" for the thread
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        var queued = callers.submit(() -> hasher.encode("b"));
+        while (hasher.stats().queueDepth() < 1) {
+            Thread.sleep(5);
+        }
+        Thread.sleep(100);
+        release.countDown();
+
+        assertThatThrownBy(() -> queued.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(ServiceBusyException.class);
+        assertThat(hasher.stats().expired()).isEqualTo(1);
+        hasher.shutdown();
+    }
+}
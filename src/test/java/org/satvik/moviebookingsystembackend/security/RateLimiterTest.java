@@ -0,0 +1,77 @@
+package org.satvik.moviebookingsystembackend.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateLimiterTest {
+
+    private final RateLimiter limiter = new RateLimiter(true,
+            "POST /api/bookings/initiate user=3/1m ip=5/1m; POST /api/bookings/*/cancel user=1/1h");
+
+    @Test
+    void admitsABurstOfCapacityThenAsksToWait() {
+        for (int i = 0; i < 3; i++) {
+            assertThat(limiter.acquire("POST", "/api/bookings/initiate", 1L, "10.0.0.1")).isZero();
+        }
+
+        long wait = limiter.acquire("POST", "/api/bookings/initiate", 1L, "10.0.0.1");
+        // One token refills every 20 seconds
+        assertThat(wait).isBetween(TimeUnit.SECONDS.toNanos(19), TimeUnit.SECONDS.toNanos(20));
+    }
+
+    @Test
+    void limitsUsersAndAddressesIndependently() {
+        for (long user = 1; user <= 5; user++) {
+            assertThat(limiter.acquire("POST", "/api/bookings/initiate", user, "10.0.0.1")).isZero();
+        }
+        // The address is exhausted even for a fresh user, and turning it away costs the user nothing
+        for (int i = 0; i < 3; i++) {
+            assertThat(limiter.acquire("POST", "/api/bookings/initiate", 6L, "10.0.0.1")).isPositive();
+        }
+        for (int i = 0; i < 3; i++) {
+            assertThat(limiter.acquire("POST", "/api/bookings/initiate", 6L, "10.0.0.2")).isZero();
+        }
+        assertThat(limiter.acquire("POST", "/api/bookings/initiate", 6L, "10.0.0.2")).isPositive();
+    }
+
+    @Test
+    void userRejectionsLeaveTheAddressItsTokens() {
+        for (int i = 0; i < 5; i++) {
+            limiter.acquire("POST", "/api/bookings/initiate", 7L, "10.0.0.3");
+        }
+        // User 7 got three of the address's five; the two it was refused stay available
+        for (long user = 8; user <= 9; user++) {
+            assertThat(limiter.acquire("POST", "/api/bookings/initiate", user, "10.0.0.3")).isZero();
+        }
+        assertThat(limiter.acquire("POST", "/api/bookings/initiate", 10L, "10.0.0.3")).isPositive();
+    }
+
+    @Test
+    void onlyMatchingRulesApply() {
+        assertThat(limiter.acquire("POST", "/api/bookings/42/cancel", 1L, "10.0.0.1")).isZero();
+        assertThat(limiter.acquire("POST", "/api/bookings/43/cancel", 1L, "10.0.0.1")).isPositive();
+        assertThat(limiter.acquire("GET", "/api/bookings/my-bookings", 1L, "10.0.0.1")).isZero();
+        assertThat(limiter.acquire("GET", "/api/bookings/my-bookings", 1L, "10.0.0.1")).isZero();
+    }
+
+    @Test
+    void evictsOnlyFullBuckets() throws Exception {
+        // One token every 10 ms on the second rule, so its buckets are full again almost at once
+        RateLimiter limiter = new RateLimiter(true,
+                "POST /api/bookings/initiate user=3/1m ip=5/1m; GET /api/movies user=10/100ms ip=10/100ms");
+        limiter.acquire("POST", "/api/bookings/initiate", 1L, "10.0.0.1");
+        limiter.acquire("GET", "/api/movies", 1L, "10.0.0.1");
+        assertThat(limiter.bucketCount()).isEqualTo(4);
+
+        Thread.sleep(50);
+        limiter.evictIdle();
+        assertThat(limiter.bucketCount()).isEqualTo(2);
+        // A fresh bucket starts full, so the evicted ones lose nothing
+        for (int i = 0; i < 10; i++) {
+            assertThat(limiter.acquire("GET", "/api/movies", 1L, "10.0.0.1")).isZero();
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package org.satvik.moviebookingsystembackend.security;
+
+import org.junit.jupiter.api.Test;
+import org.satvik.moviebookingsystembackend.entity.User;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenRevocationListTest {
+
+    private final TokenRevocationList revocations = new TokenRevocationList(60_000);
+
+    @Test
+    void revokingAUserRevokesOnlyOlderTokenVersions() {
+        revocations.revokeUserTokens(1L, 3);
+
+        assertThat(revocations.isRevoked(principal(1L, 2, "a"))).isTrue();
+        assertThat(revocations.isRevoked(principal(1L, 3, "b"))).isFalse();
+        assertThat(revocations.isRevoked(principal(2L, 0, "c"))).isFalse();
+    }
+
+    @Test
+    void keepsEveryEntryWhenGrowingPastTheFilterCapacity() {
+        for (int i = 0; i < 5_000; i++) {
+            revocations.revokeToken("token-" + i, System.currentTimeMillis() + 60_000);
+        }
+
+        for (int i = 0; i < 5_000; i++) {
+            assertThat(revocations.isRevoked(principal(1L, 0, "token-" + i))).isTrue();
+        }
+        assertThat(revocations.isRevoked(principal(1L, 0, "token-5000"))).isFalse();
+    }
+
+    @Test
+    void sweepDropsExpiredTokens() {
+        revocations.revokeToken("expired", System.currentTimeMillis() - 1);
+        revocations.revokeToken("live", System.currentTimeMillis() + 60_000);
+
+        revocations.sweep();
+
+        assertThat(revocations.isRevoked(principal(1L, 0, "expired"))).isFalse();
+        assertThat(revocations.isRevoked(principal(1L, 0, "live"))).isTrue();
+    }
+
+    private static AuthenticatedUser principal(Long id, int tokenVersion, String tokenId) {
+        return new AuthenticatedUser(id, "user@example.com", User.Role.USER, tokenVersion, tokenId, 0);
+    }
+}
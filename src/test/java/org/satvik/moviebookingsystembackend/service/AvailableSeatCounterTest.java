@@ -0,0 +1,149 @@
+package org.satvik.moviebookingsystembackend.service;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.satvik.moviebookingsystembackend.entity.*;
+import org.satvik.moviebookingsystembackend.repository.EmbeddedPostgresConfig;
+import org.satvik.moviebookingsystembackend.repository.ShowBulkRepository;
+import org.satvik.moviebookingsystembackend.repository.ShowSeatCounterRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The counter's upserts are Postgres-only and a fold only matters against concurrent
+ * transactions, so this runs on a real Postgres with every call committing on its own.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({EmbeddedPostgresConfig.class, AvailableSeatCounter.class, SeatCounterScheduler.class, ShowBulkRepository.class})
+// The application's @EnableScheduling is picked up too; keep the scheduled fold out of the way
+@TestPropertySource(properties = {
+        "app.booking.seat-counter-shards=" + AvailableSeatCounterTest.SHARDS,
+        "app.booking.seat-counter-fold-ms=3600000",
+        "app.booking.seat-counter-reconcile-ms=3600000"})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class AvailableSeatCounterTest {
+
+    static final int SHARDS = 4;
+    private static final int SEATS = 100;
+
+    @Autowired private AvailableSeatCounter counter;
+    @Autowired private SeatCounterScheduler scheduler;
+    @Autowired private ShowSeatCounterRepository counterRepository;
+    @Autowired private EntityManager entityManager;
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transaction;
+    private Long showId;
+
+    @BeforeEach
+    void seed() {
+        transaction = new TransactionTemplate(transactionManager);
+        showId = transaction.execute(status -> {
+            Movie movie = persist(Movie.builder().title("Dune").genre("Sci-Fi").language("English").durationMinutes(155).build());
+            Theatre theatre = persist(Theatre.builder().name("PVR").address("MG Road").city("Pune").build());
+            Screen screen = persist(Screen.builder().name("Audi 1").theatre(theatre).build());
+            return persist(Show.builder().movie(movie).theatre(theatre).screen(screen)
+                    .showDate(LocalDate.now()).startTime(LocalTime.NOON).availableSeats(SEATS)
+                    .status(Show.ShowStatus.UPCOMING).build()).getId();
+        });
+        counter.createShards(showId);
+    }
+
+    @Test
+    void addsSpreadOverTheShardsWithoutTouchingTheShow() {
+        for (int i = 0; i < 40; i++) {
+            counter.add(showId, -1);
+        }
+
+        assertThat(countShards("")).isEqualTo(SHARDS);
+        assertThat(countShards("AND delta <> 0")).isGreaterThan(1);
+        assertThat(pendingDelta()).isEqualTo(-40);
+        assertThat(availableSeats()).isEqualTo(SEATS);
+    }
+
+    @Test
+    void foldMovesEveryShardIntoTheShow() {
+        counter.add(showId, -3);
+        counter.add(showId, -2);
+        counter.add(showId, 1);
+
+        counter.fold(showId);
+
+        assertThat(availableSeats()).isEqualTo(SEATS - 4);
+        assertThat(pendingDelta()).isZero();
+        assertThat(counterRepository.findShowIdsWithPendingDelta()).doesNotContain(showId);
+    }
+
+    @Test
+    void schedulerFoldsOnlyShowsWithPendingDeltas() {
+        counter.add(showId, -2);
+        assertThat(counterRepository.findShowIdsWithPendingDelta()).contains(showId);
+
+        scheduler.foldPendingDeltas();
+
+        assertThat(availableSeats()).isEqualTo(SEATS - 2);
+        assertThat(counterRepository.findShowIdsWithPendingDelta()).doesNotContain(showId);
+    }
+
+    @Test
+    void readsDuringAFoldSeeTheOldCountAndAddsWaitForIt() throws Exception {
+        counter.add(showId, -5);
+        AtomicReference<CompletableFuture<Void>> addDuringFold = new AtomicReference<>();
+
+        transaction.executeWithoutResult(status -> {
+            counter.fold(showId);
+            // Readers are not blocked and see the count from before the fold
+            assertThat(availableSeats()).isEqualTo(SEATS);
+            // Every shard is locked until the fold commits, so a booking's delta waits rather than being zeroed
+            CompletableFuture<Void> add = CompletableFuture.runAsync(() -> counter.add(showId, -1));
+            assertThat(add).failsWithin(300, TimeUnit.MILLISECONDS);
+            addDuringFold.set(add);
+        });
+        addDuringFold.get().get(5, TimeUnit.SECONDS);
+
+        assertThat(availableSeats()).isEqualTo(SEATS - 5);
+        assertThat(pendingDelta()).isEqualTo(-1);
+        counter.fold(showId);
+        assertThat(availableSeats()).isEqualTo(SEATS - 6);
+    }
+
+    private int availableSeats() {
+        // On another thread, hence another connection that only sees committed rows
+        return CompletableFuture.supplyAsync(() -> jdbcTemplate.queryForObject(
+                "SELECT available_seats FROM shows WHERE id = ?", Integer.class, showId)).join();
+    }
+
+    private int pendingDelta() {
+        return jdbcTemplate.queryForObject(
+                "SELECT COALESCE(SUM(delta), 0) FROM show_seat_counters WHERE show_id = ?", Integer.class, showId);
+    }
+
+    private int countShards(String condition) {
+        return jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM show_seat_counters WHERE show_id = ? " + condition, Integer.class, showId);
+    }
+
+    private <T> T persist(T entity) {
+        entityManager.persist(entity);
+        return entity;
+    }
+}
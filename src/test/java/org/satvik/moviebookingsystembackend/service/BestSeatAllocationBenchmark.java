@@ -0,0 +1,146 @@
+package org.satvik.moviebookingsystembackend.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.satvik.moviebookingsystembackend.dto.MovieDTO;
+import org.satvik.moviebookingsystembackend.entity.Seat;
+import org.satvik.moviebookingsystembackend.entity.ShowSeat;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Best-available allocation on 1,000-seat screens (40 rows of 25), filled at random to a
+ * given occupancy first. Compares it with the client-side search it replaces: read the
+ * layout, pick a block, try to claim it, and start over after a conflict.
+ * <pre>mvn test -Dtest=BestSeatAllocationBenchmark -Dbenchmark=true</pre>
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class BestSeatAllocationBenchmark {
+
+    private static final int ROWS = 40;
+    private static final int PER_ROW = 25;
+    private static final int SCREENS = 200;
+    private static final int THREADS = 8;
+
+    @Test
+    void allocationLatencyAtHighOccupancy() {
+        for (ShowSeatMap seatMap : screens(0.5, 1)) {
+            while (seatMap.claimBest(Seat.SeatType.SILVER, 3) != null) {
+                // warm-up
+            }
+        }
+        for (double occupancy : new double[]{0.5, 0.8, 0.9, 0.95}) {
+            for (int group : new int[]{2, 4, 6}) {
+                List<ShowSeatMap> screens = screens(occupancy, 42);
+                long found = 0;
+                long start = System.nanoTime();
+                for (ShowSeatMap seatMap : screens) {
+                    if (seatMap.claimBest(Seat.SeatType.SILVER, group) != null) {
+                        found++;
+                    }
+                }
+                double micros = (System.nanoTime() - start) / 1e3 / screens.size();
+                System.out.printf("occupancy %.0f%%, group of %d: %.1f us per allocation, %d/%d screens had a block%n",
+                        occupancy * 100, group, micros, found, screens.size());
+            }
+        }
+    }
+
+    @Test
+    void serverAllocationOutrunsClientSearchUnderContention() throws Exception {
+        sellOut("warm-up client search", seatMap -> clientSearchAndClaim(seatMap, 4));
+        sellOut("warm-up best available", seatMap -> seatMap.claimBest(Seat.SeatType.SILVER, 4) != null);
+        double before = sellOut("client search", seatMap -> clientSearchAndClaim(seatMap, 4));
+        double after = sellOut("best available", seatMap -> seatMap.claimBest(Seat.SeatType.SILVER, 4) != null);
+
+        assertThat(after).isGreaterThan(before * 5);
+    }
+
+    private interface Attempt {
+        boolean claim(ShowSeatMap seatMap);
+    }
+
+    private final AtomicLong retries = new AtomicLong();
+
+    /**
+     * Groups of four booked by several threads on 80%-full screens until no block is left.
+     */
+    private double sellOut(String label, Attempt attempt) throws Exception {
+        retries.set(0);
+        List<ShowSeatMap> screens = screens(0.8, 7);
+        AtomicLong groups = new AtomicLong();
+        long start = System.nanoTime();
+        try (ExecutorService pool = Executors.newFixedThreadPool(THREADS)) {
+            for (int t = 0; t < THREADS; t++) {
+                // Every thread works through the screens in the same order, so they collide
+                pool.submit(() -> {
+                    for (ShowSeatMap seatMap : screens) {
+                        while (attempt.claim(seatMap)) {
+                            groups.incrementAndGet();
+                        }
+                    }
+                });
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        double rate = groups.get() / seconds;
+        System.out.printf("%s: %,.0f groups seated/s, %d groups, %d retries after conflicts%n",
+                label, rate, groups.get(), retries.get());
+        return rate;
+    }
+
+    /**
+     * What a client did before: fetch the layout, take the first free run of four in the
+     * middle rows outwards, claim those ids, and re-read the layout after any conflict.
+     */
+    private boolean clientSearchAndClaim(ShowSeatMap seatMap, int group) {
+        while (true) {
+            List<MovieDTO.SeatLayoutResponse> layout = seatMap.toLayout();
+            Map<String, List<MovieDTO.SeatLayoutResponse>> rows = new TreeMap<>();
+            for (MovieDTO.SeatLayoutResponse seat : layout) {
+                rows.computeIfAbsent(seat.getRowNumber(), row -> new ArrayList<>()).add(seat);
+            }
+            List<Long> block = null;
+            for (List<MovieDTO.SeatLayoutResponse> row : rows.values()) {
+                row.sort(Comparator.comparingInt(seat -> Integer.parseInt(seat.getSeatNumber())));
+                for (int i = 0; i + group <= row.size() && block == null; i++) {
+                    List<MovieDTO.SeatLayoutResponse> run = row.subList(i, i + group);
+                    if (run.stream().allMatch(seat -> seat.getStatus().equals("AVAILABLE"))) {
+                        block = run.stream().map(MovieDTO.SeatLayoutResponse::getSeatId).toList();
+                    }
+                }
+                if (block != null) {
+                    break;
+                }
+            }
+            if (block == null) {
+                return false;
+            }
+            int[] indexes = seatMap.indexesOf(block);
+            if (seatMap.tryClaim(indexes)) {
+                return true;
+            }
+            retries.incrementAndGet();
+        }
+    }
+
+    private static List<ShowSeatMap> screens(double occupancy, long seed) {
+        Random random = new Random(seed);
+        List<ShowSeatMap> screens = new ArrayList<>();
+        for (int s = 0; s < SCREENS; s++) {
+            ShowSeatMap seatMap = new ShowSeatMap((long) s,
+                    BestSeatAllocationTest.seats(ROWS, PER_ROW, row -> Seat.SeatType.SILVER, Set.of()));
+            for (int i = 0; i < seatMap.size(); i++) {
+                if (random.nextDouble() < occupancy) {
+                    seatMap.set(i, ShowSeat.SeatStatus.BOOKED);
+                }
+            }
+            screens.add(seatMap);
+        }
+        return screens;
+    }
+}
@@ -0,0 +1,112 @@
+package org.satvik.moviebookingsystembackend.service;
+
+import org.junit.jupiter.api.Test;
+import org.satvik.moviebookingsystembackend.entity.Seat;
+import org.satvik.moviebookingsystembackend.entity.ShowSeat;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BestSeatAllocationTest {
+
+    @Test
+    void emptySectionGetsTheMiddleOfTheMiddleRow() {
+        // Rows A-E, 10 seats each, all GOLD
+        ShowSeatMap seatMap = new ShowSeatMap(1L, seats(5, 10, row -> Seat.SeatType.GOLD, Set.of()));
+
+        assertThat(labels(seatMap, seatMap.claimBest(Seat.SeatType.GOLD, 4))).containsExactly("C4", "C5", "C6", "C7");
+        // The middle of the next row beats the side of the middle row
+        assertThat(labels(seatMap, seatMap.claimBest(Seat.SeatType.GOLD, 2))).containsExactly("B5", "B6");
+    }
+
+    @Test
+    void blocksStayWithinTheTypeAndDoNotSpanAisles() {
+        // Rows A-B SILVER, C-D GOLD; seat 5 is missing in every row, so rows split 1-4 | 6-10
+        ShowSeatMap seatMap = new ShowSeatMap(1L, seats(4, 10,
+                row -> row < 2 ? Seat.SeatType.SILVER : Seat.SeatType.GOLD, Set.of(5)));
+
+        int[] block = seatMap.claimBest(Seat.SeatType.GOLD, 5);
+        assertThat(labels(seatMap, block)).containsExactly("C6", "C7", "C8", "C9", "C10");
+        // 6-9 is nearer the middle of the row than 1-4
+        assertThat(labels(seatMap, seatMap.claimBest(Seat.SeatType.SILVER, 4))).containsExactly("A6", "A7", "A8", "A9");
+        assertThat(seatMap.claimBest(Seat.SeatType.GOLD, 6)).isNull();
+        assertThat(seatMap.claimBest(Seat.SeatType.RECLINER, 1)).isNull();
+    }
+
+    @Test
+    void numericSeatOrderIsUsedRatherThanLayoutOrder() {
+        // Layout order is A1, A10, A11, A12, A2, ... as sorted by the seat query
+        ShowSeatMap seatMap = new ShowSeatMap(1L, seats(1, 12, row -> Seat.SeatType.SILVER, Set.of()));
+        for (String taken : List.of("A1", "A2", "A3", "A4", "A5", "A8", "A9", "A10", "A11", "A12")) {
+            seatMap.set(indexOf(seatMap, taken), ShowSeat.SeatStatus.BOOKED);
+        }
+
+        assertThat(labels(seatMap, seatMap.claimBest(Seat.SeatType.SILVER, 2))).containsExactly("A6", "A7");
+    }
+
+    @Test
+    void concurrentGroupsNeverShareASeat() throws Exception {
+        ShowSeatMap seatMap = new ShowSeatMap(1L, seats(40, 25, row -> Seat.SeatType.SILVER, Set.of()));
+        Set<Integer> claimed = ConcurrentHashMap.newKeySet();
+        List<Future<Boolean>> groups = new ArrayList<>();
+        try (ExecutorService pool = Executors.newFixedThreadPool(8)) {
+            for (int i = 0; i < 400; i++) {
+                int size = 1 + i % 6;
+                groups.add(pool.submit(() -> {
+                    int[] block = seatMap.claimBest(Seat.SeatType.SILVER, size);
+                    if (block == null) {
+                        return false;
+                    }
+                    for (int index : block) {
+                        assertThat(claimed.add(index)).isTrue();
+                    }
+                    return true;
+                }));
+            }
+            for (Future<Boolean> group : groups) {
+                group.get();
+            }
+        }
+        assertThat(seatMap.availableCount()).isEqualTo(1000 - claimed.size());
+    }
+
+    private static int indexOf(ShowSeatMap seatMap, String label) {
+        for (int i = 0; i < seatMap.size(); i++) {
+            if (seatMap.labelAt(i).equals(label)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException(label);
+    }
+
+    private static List<String> labels(ShowSeatMap seatMap, int[] indexes) {
+        return Arrays.stream(indexes).mapToObj(seatMap::labelAt).toList();
+    }
+
+    /**
+     * Seats in the order the seat query returns them: by row, then seat number as text.
+     */
+    static List<ShowSeat> seats(int rows, int perRow, java.util.function.IntFunction<Seat.SeatType> typeOfRow,
+                                Set<Integer> missingNumbers) {
+        List<ShowSeat> showSeats = new ArrayList<>();
+        long id = 1;
+        for (int r = 0; r < rows; r++) {
+            String row = rows <= 26 ? String.valueOf((char) ('A' + r)) : String.format("R%02d", r);
+            List<String> numbers = new ArrayList<>();
+            for (int n = 1; n <= perRow; n++) {
+                if (!missingNumbers.contains(n)) {
+                    numbers.add(String.valueOf(n));
+                }
+            }
+            Collections.sort(numbers);
+            for (String number : numbers) {
+                Seat seat = Seat.builder().id(id++).rowNumber(row).seatNumber(number)
+                        .seatType(typeOfRow.apply(r)).build();
+                showSeats.add(ShowSeat.builder().seat(seat).status(ShowSeat.SeatStatus.AVAILABLE).price(200.0).build());
+            }
+        }
+        return showSeats;
+    }
+}
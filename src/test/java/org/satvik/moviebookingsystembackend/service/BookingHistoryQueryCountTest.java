@@ -0,0 +1,132 @@
+package org.satvik.moviebookingsystembackend.service;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.satvik.moviebookingsystembackend.dto.BookingDTO;
+import org.satvik.moviebookingsystembackend.entity.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "stripe.publishable.key=pk_test"
+})
+@Import(BookingHistoryService.class)
+class BookingHistoryQueryCountTest {
+
+    private static final int BOOKINGS = 100;
+
+    @Autowired private EntityManager entityManager;
+    @Autowired private BookingHistoryService bookingHistoryService;
+
+    private Long userId;
+
+    @BeforeEach
+    void seed() {
+        User user = persist(User.builder().name("Asha").email("asha@example.com").password("x").phone("9999999999").build());
+        userId = user.getId();
+        Movie movie = persist(Movie.builder().title("Dune").genre("Sci-Fi").language("English").durationMinutes(155).build());
+        Theatre theatre = persist(Theatre.builder().name("PVR").address("MG Road").city("Pune").build());
+        Screen screen = persist(Screen.builder().name("Audi 1").theatre(theatre).build());
+
+        for (int i = 0; i < BOOKINGS; i++) {
+            // A different show per booking, so nothing is served from the persistence context
+            Show show = persist(Show.builder().movie(movie).theatre(theatre).screen(screen)
+                    .showDate(LocalDate.now().plusDays(i)).startTime(LocalTime.NOON)
+                    .status(Show.ShowStatus.UPCOMING).build());
+            Booking booking = persist(Booking.builder().bookingReference("BK" + i).user(user).show(show)
+                    .totalAmount(400.0).finalAmount(420.0).status(Booking.BookingStatus.CONFIRMED).build());
+            persist(Payment.builder().booking(booking).amount(420.0).currency("INR")
+                    .status(Payment.PaymentStatus.SUCCESS).stripePaymentIntentId("pi_" + i).build());
+            for (int s = 1; s <= 2; s++) {
+                Seat seat = persist(Seat.builder().rowNumber("A").seatNumber(i + "-" + s)
+                        .seatType(Seat.SeatType.SILVER).screen(screen).build());
+                persist(ShowSeat.builder().show(show).seat(seat).booking(booking)
+                        .status(ShowSeat.SeatStatus.BOOKED).price(200.0).build());
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void userHistoryIsLoadedInConstantNumberOfQueries() {
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        List<BookingDTO.BookingResponse> history = bookingHistoryService.getUserBookings(userId, null, null, BOOKINGS).getBookings();
+
+        assertThat(history).hasSize(BOOKINGS);
+        assertThat(history).allSatisfy(response -> {
+            assertThat(response.getMovieTitle()).isEqualTo("Dune");
+            assertThat(response.getTheatreName()).isEqualTo("PVR");
+            assertThat(response.getSeats()).hasSize(2);
+            assertThat(response.getStripePaymentIntentId()).startsWith("pi_");
+        });
+        // One query for the bookings with show, movie, theatre and payment, one for all seat labels
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    void cursorWalksHistoryNewestFirstWithoutGapsOrRepeats() {
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        List<BookingDTO.BookingResponse> seen = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            statistics.clear();
+            BookingDTO.BookingPage page = bookingHistoryService.getUserBookings(userId, null, cursor, 30);
+            // Deep pages cost the same as the first
+            assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+            seen.addAll(page.getBookings());
+            cursor = page.getNextCursor();
+            pages++;
+        } while (cursor != null);
+
+        assertThat(pages).isEqualTo(4);
+        assertThat(seen).extracting(BookingDTO.BookingResponse::getId).doesNotHaveDuplicates().hasSize(BOOKINGS);
+        assertThat(seen).extracting(BookingDTO.BookingResponse::getBookedAt).isSortedAccordingTo(Comparator.reverseOrder());
+    }
+
+    @Test
+    void statusFilterOnlyReturnsMatchingBookings() {
+        entityManager.createQuery("UPDATE Booking b SET b.status = 'CANCELLED' WHERE b.bookingReference IN ('BK3', 'BK42')")
+                .executeUpdate();
+
+        BookingDTO.BookingPage page = bookingHistoryService.getUserBookings(
+                userId, List.of(Booking.BookingStatus.CANCELLED), null, 20);
+
+        assertThat(page.getBookings()).extracting(BookingDTO.BookingResponse::getBookingReference)
+                .containsExactlyInAnyOrder("BK3", "BK42");
+        assertThat(page.getNextCursor()).isNull();
+    }
+
+    @Test
+    void bookingByReferenceIsLoadedInTwoQueries() {
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        BookingDTO.BookingResponse response = bookingHistoryService.getBookingByReference("BK7");
+
+        assertThat(response.getSeats()).containsExactly("A7-1", "A7-2");
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    private <T> T persist(T entity) {
+        entityManager.persist(entity);
+        return entity;
+    }
+}
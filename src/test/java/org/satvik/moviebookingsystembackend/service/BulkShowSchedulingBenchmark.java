@@ -0,0 +1,105 @@
+package org.satvik.moviebookingsystembackend.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.satvik.moviebookingsystembackend.dto.MovieDTO;
+import org.satvik.moviebookingsystembackend.entity.*;
+import org.satvik.moviebookingsystembackend.repository.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Schedules 10,000 shows on 400-seat screens (4 million seats) through the bulk path
+ * and, for comparison, a handful through {@link ShowService#createShow}.
+ * Needs a scratch Postgres database configured through the usual DATABASE_URL/DB_* variables:
+ * <pre>mvn test -Dtest=BulkShowSchedulingBenchmark -Dbenchmark=true</pre>
+ */
+@SpringBootTest
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class BulkShowSchedulingBenchmark {
+
+    private static final int SCREENS = 4;
+    private static final int SEATS_PER_SCREEN = 400;
+    private static final int DAYS = 500;
+    private static final List<LocalTime> START_TIMES = List.of(
+            LocalTime.of(9, 0), LocalTime.of(12, 0), LocalTime.of(15, 0), LocalTime.of(18, 0), LocalTime.of(21, 0));
+
+    @Autowired private ShowService showService;
+    @Autowired private MovieRepository movieRepository;
+    @Autowired private TheatreRepository theatreRepository;
+    @Autowired private ScreenRepository screenRepository;
+    @Autowired private SeatRepository seatRepository;
+
+    @Test
+    void scheduleTenThousandShows() {
+        Movie movie = movieRepository.save(Movie.builder()
+                .title("Benchmark").genre("Drama").language("English").durationMinutes(150).build());
+        Theatre theatre = theatreRepository.save(Theatre.builder()
+                .name("Benchmark Multiplex").address("1 Bench St").city("Benchville").build());
+        List<Long> screenIds = new ArrayList<>();
+        for (int i = 0; i < SCREENS; i++) {
+            screenIds.add(createScreen(theatre, "Screen " + (i + 1)).getId());
+        }
+
+        // Baseline: the per-show path
+        int baselineShows = 10;
+        long start = System.nanoTime();
+        for (int i = 0; i < baselineShows; i++) {
+            MovieDTO.ShowRequest request = new MovieDTO.ShowRequest();
+            request.setMovieId(movie.getId());
+            request.setTheatreId(theatre.getId());
+            request.setScreenId(screenIds.get(0));
+            request.setShowDate(LocalDate.now().plusYears(5).plusDays(i));
+            request.setStartTime(LocalTime.NOON);
+            request.setSilverPrice(200.0);
+            request.setGoldPrice(300.0);
+            showService.createShow(request);
+        }
+        double baselinePerSecond = baselineShows / ((System.nanoTime() - start) / 1e9);
+
+        MovieDTO.BulkShowRequest request = new MovieDTO.BulkShowRequest();
+        request.setMovieId(movie.getId());
+        request.setTheatreId(theatre.getId());
+        request.setScreenIds(screenIds);
+        List<LocalDate> dates = new ArrayList<>();
+        for (int day = 0; day < DAYS; day++) {
+            dates.add(LocalDate.now().plusDays(day));
+        }
+        request.setShowDates(dates);
+        request.setStartTimes(START_TIMES);
+        request.setSilverPrice(200.0);
+        request.setGoldPrice(300.0);
+
+        MovieDTO.BulkShowResponse response = showService.scheduleShows(request);
+
+        System.out.printf("createShow: %.1f shows/s%n", baselinePerSecond);
+        System.out.printf("scheduleShows: %d shows, %d seats in %d ms (%.0f shows/s, %.0f seats/s)%n",
+                response.getShowsCreated(), response.getSeatsScheduled(), response.getElapsedMillis(),
+                response.getShowsPerSecond(), response.getSeatsPerSecond());
+        assertThat(response.getShowsCreated()).isEqualTo(SCREENS * DAYS * START_TIMES.size());
+        assertThat(response.getSeatsScheduled()).isEqualTo((long) response.getShowsCreated() * SEATS_PER_SCREEN);
+    }
+
+    private Screen createScreen(Theatre theatre, String name) {
+        Screen screen = screenRepository.save(Screen.builder()
+                .name(name).totalSeats(SEATS_PER_SCREEN).type(Screen.ScreenType.STANDARD).theatre(theatre).build());
+        List<Seat> seats = new ArrayList<>();
+        for (int i = 0; i < SEATS_PER_SCREEN; i++) {
+            seats.add(Seat.builder()
+                    .rowNumber(String.valueOf((char) ('A' + i / 20)))
+                    .seatNumber(String.valueOf(i % 20 + 1))
+                    .seatType(i < 300 ? Seat.SeatType.SILVER : Seat.SeatType.GOLD)
+                    .screen(screen)
+                    .build());
+        }
+        seatRepository.saveAll(seats);
+        return screen;
+    }
+}
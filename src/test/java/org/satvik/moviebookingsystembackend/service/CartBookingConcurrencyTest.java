@@ -0,0 +1,232 @@
+package org.satvik.moviebookingsystembackend.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.satvik.moviebookingsystembackend.dto.BookingDTO;
+import org.satvik.moviebookingsystembackend.entity.*;
+import org.satvik.moviebookingsystembackend.exception.BookingException;
+import org.satvik.moviebookingsystembackend.repository.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CartBookingConcurrencyTest {
+
+    private static final int SHOWS = 4;
+    private static final int SEATS = 200;
+    private static final int CARTS = 5_000;
+
+    @Mock private BookingRepository bookingRepository;
+    @Mock private ShowRepository showRepository;
+    @Mock private ShowSeatRepository showSeatRepository;
+    @Mock private UserRepository userRepository;
+    @Mock private PaymentService paymentService;
+    @Mock private SeatStateEngine seatStateEngine;
+    @Mock private SeatHoldScheduler seatHoldScheduler;
+    @Mock private AvailableSeatCounter availableSeatCounter;
+    @Mock private BookingHistoryService bookingHistoryService;
+
+    @InjectMocks private BookingService bookingService;
+
+    @Test
+    void conflictingCartsEitherGetEverySeatOrNone() throws Exception {
+        SeatStateEngine engine = engine();
+        // "showId:seatId" of every seat held by a winning cart
+        Set<String> claimedSeats = ConcurrentHashMap.newKeySet();
+        AtomicInteger winners = new AtomicInteger();
+        AtomicInteger losers = new AtomicInteger();
+        AtomicInteger doubleClaims = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+
+        ExecutorService pool = Executors.newFixedThreadPool(32);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < CARTS; i++) {
+            List<SeatStateEngine.SeatRequest> cart = randomCart();
+            futures.add(pool.submit(() -> {
+                start.await();
+                try {
+                    List<List<Long>> seatIds = engine.lockAll(cart);
+                    winners.incrementAndGet();
+                    for (int item = 0; item < cart.size(); item++) {
+                        for (Long seatId : seatIds.get(item)) {
+                            if (!claimedSeats.add(cart.get(item).showId() + ":" + seatId)) {
+                                doubleClaims.incrementAndGet();
+                            }
+                        }
+                    }
+                } catch (BookingException e) {
+                    losers.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        assertThat(doubleClaims).hasValue(0);
+        assertThat(winners.get() + losers.get()).isEqualTo(CARTS);
+        assertThat(winners.get()).isPositive();
+        assertThat(losers.get()).isPositive();
+        // A rejected cart leaves nothing LOCKED behind on any show
+        for (long showId = 1; showId <= SHOWS; showId++) {
+            ShowSeatMap seatMap = engine.get(showId);
+            for (int i = 0; i < SEATS; i++) {
+                ShowSeat.SeatStatus expected = claimedSeats.contains(showId + ":" + seatMap.seatIdAt(i))
+                        ? ShowSeat.SeatStatus.LOCKED : ShowSeat.SeatStatus.AVAILABLE;
+                assertThat(seatMap.statusAt(i)).isEqualTo(expected);
+            }
+        }
+    }
+
+    @Test
+    void cartWithOneTakenShowHandsBackTheOthers() {
+        SeatStateEngine engine = engine();
+        engine.lockSeats(3L, List.of(5L));
+
+        assertThatThrownBy(() -> engine.lockAll(List.of(
+                new SeatStateEngine.SeatRequest(3L, List.of(4L, 5L), null, 0),
+                new SeatStateEngine.SeatRequest(1L, null, Seat.SeatType.SILVER, 4),
+                new SeatStateEngine.SeatRequest(2L, List.of(1L, 2L), null, 0))))
+                .isInstanceOf(BookingException.class);
+
+        assertThat(engine.get(1L).availableCount()).isEqualTo(SEATS);
+        assertThat(engine.get(2L).availableCount()).isEqualTo(SEATS);
+        assertThat(engine.get(3L).availableCount()).isEqualTo(SEATS - 1);
+    }
+
+    @Test
+    void cartIsRejectedWithoutPaymentWhenOneShowLosesItsRows() {
+        when(userRepository.findById(7L)).thenReturn(Optional.of(User.builder().id(7L).build()));
+        for (long showId = 1; showId <= 2; showId++) {
+            when(showRepository.findById(showId)).thenReturn(Optional.of(
+                    Show.builder().id(showId).status(Show.ShowStatus.UPCOMING).build()));
+            when(seatStateEngine.get(showId)).thenReturn(new ShowSeatMap(showId, showSeats(4)));
+        }
+        when(seatStateEngine.lockAll(anyList())).thenReturn(List.of(List.of(1L, 2L), List.of(3L, 4L)));
+        when(bookingRepository.save(any(Booking.class))).thenAnswer(inv -> inv.getArgument(0));
+        when(showSeatRepository.claimSeatsForBooking(eq(1L), anyList(), any())).thenReturn(2);
+        // Another node already locked one of the second show's rows
+        when(showSeatRepository.claimSeatsForBooking(eq(2L), anyList(), any())).thenReturn(1);
+
+        BookingDTO.CartRequest request = new BookingDTO.CartRequest();
+        request.setItems(List.of(item(2L, 3L, 4L), item(1L, 1L, 2L)));
+
+        assertThatThrownBy(() -> bookingService.reserveCart(7L, request))
+                .isInstanceOf(BookingException.class)
+                .hasMessageContaining("already booked");
+        verifyNoInteractions(paymentService);
+        // Shows are claimed in show id order whatever order the cart lists them in
+        verify(seatStateEngine).lockAll(argThat(requests ->
+                requests.get(0).showId() == 1L && requests.get(1).showId() == 2L));
+    }
+
+    @Test
+    void everyBookingOfACartIsHeldFromTheSameTime() {
+        when(userRepository.findById(7L)).thenReturn(Optional.of(User.builder().id(7L).build()));
+        for (long showId = 1; showId <= 3; showId++) {
+            when(showRepository.findById(showId)).thenReturn(Optional.of(
+                    Show.builder().id(showId).status(Show.ShowStatus.UPCOMING).build()));
+            when(seatStateEngine.get(showId)).thenReturn(new ShowSeatMap(showId, showSeats(4)));
+        }
+        when(seatStateEngine.lockAll(anyList())).thenReturn(List.of(List.of(1L), List.of(2L), List.of(3L)));
+        AtomicLong ids = new AtomicLong();
+        List<Booking> saved = new ArrayList<>();
+        when(bookingRepository.save(any(Booking.class))).thenAnswer(inv -> {
+            Booking booking = inv.getArgument(0);
+            booking.setId(ids.incrementAndGet());
+            saved.add(booking);
+            return booking;
+        });
+        when(showSeatRepository.claimSeatsForBooking(anyLong(), anyList(), any())).thenReturn(1);
+
+        BookingDTO.CartRequest request = new BookingDTO.CartRequest();
+        request.setItems(List.of(item(1L, 1L), item(2L, 2L), item(3L, 3L)));
+        bookingService.reserveCart(7L, request);
+
+        ArgumentCaptor<LocalDateTime> heldFrom = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(seatHoldScheduler, times(3)).hold(anyLong(), heldFrom.capture());
+        LocalDateTime bookedAt = saved.get(0).getBookedAt();
+        assertThat(heldFrom.getAllValues()).containsOnly(bookedAt);
+        assertThat(saved).extracting(Booking::getBookedAt).containsOnly(bookedAt);
+    }
+
+    private static BookingDTO.BookingRequest item(Long showId, Long... seatIds) {
+        BookingDTO.BookingRequest item = new BookingDTO.BookingRequest();
+        item.setShowId(showId);
+        item.setSeatIds(List.of(seatIds));
+        return item;
+    }
+
+    // 2-3 shows per cart, each with an overlapping window of 1-4 seats or a best-seat pick
+    private static List<SeatStateEngine.SeatRequest> randomCart() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        List<Long> showIds = new ArrayList<>(List.of(1L, 2L, 3L, 4L));
+        Collections.shuffle(showIds, random);
+        List<SeatStateEngine.SeatRequest> cart = new ArrayList<>();
+        for (Long showId : showIds.subList(0, 2 + random.nextInt(2))) {
+            int count = 1 + random.nextInt(4);
+            if (random.nextInt(4) == 0) {
+                cart.add(new SeatStateEngine.SeatRequest(showId, null, Seat.SeatType.SILVER, count));
+                continue;
+            }
+            int first = random.nextInt(SEATS);
+            List<Long> seatIds = new ArrayList<>();
+            for (int s = 0; s < count && first + s < SEATS; s++) {
+                seatIds.add((long) first + s + 1);
+            }
+            cart.add(new SeatStateEngine.SeatRequest(showId, seatIds, null, 0));
+        }
+        return cart;
+    }
+
+    // Every show on the same sparse screen, so the maps are the screen's seats
+    private static SeatStateEngine engine() {
+        ShowRepository shows = mock(ShowRepository.class);
+        for (long showId = 1; showId <= SHOWS; showId++) {
+            lenient().when(shows.findById(showId)).thenReturn(Optional.of(
+                    Show.builder().id(showId).screen(Screen.builder().id(1L).build()).silverPrice(200.0).build()));
+        }
+        SeatRepository seats = mock(SeatRepository.class);
+        when(seats.findByScreenId(1L)).thenReturn(showSeats(SEATS).stream().map(ShowSeat::getSeat).toList());
+        return new SeatStateEngine(shows, mock(ShowSeatRepository.class), seats);
+    }
+
+    private static List<ShowSeat> showSeats(int count) {
+        List<ShowSeat> showSeats = new ArrayList<>();
+        for (int i = 1; i <= count; i++) {
+            Seat seat = Seat.builder()
+                    .id((long) i)
+                    .rowNumber(String.valueOf((char) ('A' + (i - 1) / 20)))
+                    .seatNumber(String.valueOf((i - 1) % 20 + 1))
+                    .seatType(Seat.SeatType.SILVER)
+                    .build();
+            showSeats.add(ShowSeat.builder()
+                    .id((long) i)
+                    .seat(seat)
+                    .status(ShowSeat.SeatStatus.AVAILABLE)
+                    .price(200.0)
+                    .build());
+        }
+        return showSeats;
+    }
+}
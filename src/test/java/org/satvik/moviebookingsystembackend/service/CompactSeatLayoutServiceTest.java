@@ -0,0 +1,124 @@
+package org.satvik.moviebookingsystembackend.service;
+
+import org.junit.jupiter.api.Test;
+import org.satvik.moviebookingsystembackend.dto.MovieDTO;
+import org.satvik.moviebookingsystembackend.entity.Seat;
+import org.satvik.moviebookingsystembackend.entity.ShowSeat;
+import org.satvik.moviebookingsystembackend.repository.SeatRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class CompactSeatLayoutServiceTest {
+
+    private static final long SHOW_ID = 1L;
+    private static final long SCREEN_ID = 3L;
+
+    private final SeatRepository seatRepository = mock(SeatRepository.class);
+    private final SeatStateEngine seatStateEngine = mock(SeatStateEngine.class);
+    private final CompactSeatLayoutService service = new CompactSeatLayoutService(seatRepository, seatStateEngine, 10);
+    private final List<Seat> seats = seats(600);
+    private final ShowSeatMap seatMap = new ShowSeatMap(SHOW_ID, showSeats(seats));
+
+    CompactSeatLayoutServiceTest() {
+        when(seatRepository.findByScreenId(SCREEN_ID)).thenReturn(seats);
+        when(seatStateEngine.get(SHOW_ID)).thenReturn(seatMap);
+    }
+
+    @Test
+    void geometryIsGroupedIntoRowsAndReadOncePerScreen() {
+        MovieDTO.ScreenGeometry geometry = service.getGeometry(SCREEN_ID);
+        service.getGeometry(SCREEN_ID);
+
+        assertThat(geometry.getSeatCount()).isEqualTo(600);
+        // 20 seats a row; row G is split where the seat type changes
+        assertThat(geometry.getRuns()).hasSize(31);
+        assertThat(geometry.getRuns().get(0).getSeatIds()).hasSize(20).startsWith(1L, 2L);
+        verify(seatRepository, times(1)).findByScreenId(SCREEN_ID);
+    }
+
+    @Test
+    void fullLayoutPacksFourSeatsPerByteWithOnePricePerType() {
+        seatMap.tryClaim(new int[]{5});
+        seatMap.set(598, ShowSeat.SeatStatus.BOOKED);
+
+        MovieDTO.CompactSeatLayout layout = service.getLayout(SHOW_ID, null);
+
+        assertThat(layout.isFull()).isTrue();
+        assertThat(layout.getStates()).hasSize(150);
+        assertThat(layout.getStates()[1]).isEqualTo((byte) (ShowSeat.SeatStatus.LOCKED.ordinal() << 2));
+        assertThat(layout.getStates()[149]).isEqualTo((byte) (ShowSeat.SeatStatus.BOOKED.ordinal() << 4));
+        assertThat(layout.getPrices()).containsEntry("SILVER", 200.0).containsEntry("GOLD", 350.0);
+        assertThat(layout.getPriceOverrides()).isEmpty();
+    }
+
+    @Test
+    void recentVersionGetsOnlyTheChangedSeats() {
+        long version = service.getLayout(SHOW_ID, null).getVersion();
+        seatMap.tryClaim(new int[]{10, 11});
+        seatMap.compareAndSet(11, ShowSeat.SeatStatus.LOCKED, ShowSeat.SeatStatus.AVAILABLE);
+
+        MovieDTO.CompactSeatLayout delta = service.getLayout(SHOW_ID, version);
+
+        assertThat(delta.isFull()).isFalse();
+        assertThat(delta.getStates()).isNull();
+        assertThat(delta.getChanges()).containsExactly(
+                10, ShowSeat.SeatStatus.LOCKED.ordinal(), 11, ShowSeat.SeatStatus.AVAILABLE.ordinal());
+        assertThat(service.getLayout(SHOW_ID, delta.getVersion()).getChanges()).isEmpty();
+    }
+
+    @Test
+    void versionsTooOldOrFromAnotherMapGetTheFullLayout() {
+        long version = service.getLayout(SHOW_ID, null).getVersion();
+        for (int i = 0; i < 300; i++) {
+            seatMap.tryClaim(new int[]{i});
+            seatMap.compareAndSet(i, ShowSeat.SeatStatus.LOCKED, ShowSeat.SeatStatus.AVAILABLE);
+        }
+        long reloaded = new ShowSeatMap(SHOW_ID, showSeats(seats)).version();
+
+        assertThat(service.getLayout(SHOW_ID, version).isFull()).isTrue();
+        assertThat(service.getLayout(SHOW_ID, reloaded).isFull()).isTrue();
+    }
+
+    @Test
+    void geometryHashFollowsTheSeatsNotTheProcess() {
+        SeatRepository otherRepository = mock(SeatRepository.class);
+        List<Seat> renumbered = seats(600);
+        renumbered.get(42).setSeatNumber("3A");
+        when(otherRepository.findByScreenId(SCREEN_ID)).thenReturn(seats(600));
+        when(otherRepository.findByScreenId(SCREEN_ID + 1)).thenReturn(renumbered);
+        // As if on another node
+        CompactSeatLayoutService other = new CompactSeatLayoutService(otherRepository, seatStateEngine, 10);
+
+        String hash = service.getGeometry(SCREEN_ID).getContentHash();
+        assertThat(hash).hasSize(32);
+        assertThat(other.getGeometry(SCREEN_ID).getContentHash()).isEqualTo(hash);
+        assertThat(other.getGeometry(SCREEN_ID + 1).getContentHash()).isNotEqualTo(hash);
+    }
+
+    private static List<Seat> seats(int count) {
+        List<Seat> seats = new ArrayList<>();
+        for (int i = 1; i <= count; i++) {
+            seats.add(Seat.builder()
+                    .id((long) i)
+                    .rowNumber(String.valueOf((char) ('A' + (i - 1) / 20)))
+                    .seatNumber(String.valueOf((i - 1) % 20 + 1))
+                    .seatType(i <= 130 ? Seat.SeatType.SILVER : Seat.SeatType.GOLD)
+                    .build());
+        }
+        return seats;
+    }
+
+    private static List<ShowSeat> showSeats(List<Seat> seats) {
+        return seats.stream()
+                .map(seat -> ShowSeat.builder()
+                        .seat(seat)
+                        .status(ShowSeat.SeatStatus.AVAILABLE)
+                        .price(seat.getSeatType() == Seat.SeatType.SILVER ? 200.0 : 350.0)
+                        .build())
+                .toList();
+    }
+}
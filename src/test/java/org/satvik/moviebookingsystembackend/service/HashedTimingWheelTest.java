@@ -0,0 +1,74 @@
+package org.satvik.moviebookingsystembackend.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class HashedTimingWheelTest {
+
+    private static final long TICK = 100;
+
+    private final HashedTimingWheel<String> wheel = new HashedTimingWheel<>(TICK, 8, 0);
+
+    @Test
+    void deadlinesAreRoundedUpSoTimersNeverFireEarly() {
+        wheel.schedule("a", 250);
+        wheel.schedule("b", 300);
+
+        assertThat(wheel.advance(200)).isEmpty();
+        assertThat(wheel.advance(299)).isEmpty();
+        assertThat(wheel.advance(300)).containsExactlyInAnyOrder("a", "b");
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void timersMoreThanOneRoundAheadWaitForTheirRound() {
+        // Tick 17 shares bucket 1 with ticks 1 and 9
+        wheel.schedule("late", 1_650);
+
+        for (long now = 0; now < 1_700; now += TICK) {
+            assertThat(wheel.advance(now)).isEmpty();
+        }
+        assertThat(wheel.advance(1_700)).containsExactly("late");
+    }
+
+    @Test
+    void longPauseReleasesEverythingDueInOneSweep() {
+        wheel.schedule("a", 100);
+        wheel.schedule("b", 700);
+        wheel.schedule("c", 5_000);
+
+        assertThat(wheel.advance(3_000)).containsExactlyInAnyOrder("a", "b");
+        assertThat(wheel.advance(5_000)).containsExactly("c");
+    }
+
+    @Test
+    void pastDeadlinesFireOnTheNextTick() {
+        wheel.advance(1_000);
+        wheel.schedule("overdue", 200);
+
+        assertThat(wheel.advance(1_050)).isEmpty();
+        assertThat(wheel.advance(1_100)).containsExactly("overdue");
+    }
+
+    @Test
+    void cancelledTimersNeverFire() {
+        HashedTimingWheel.Timeout kept = wheel.schedule("kept", 200);
+        HashedTimingWheel.Timeout dropped = wheel.schedule("dropped", 200);
+        wheel.advance(100);
+
+        assertThat(dropped.cancel()).isTrue();
+        assertThat(dropped.cancel()).isFalse();
+        assertThat(wheel.size()).isEqualTo(1);
+        assertThat(wheel.advance(200)).containsExactly("kept");
+        assertThat(kept.cancel()).isFalse();
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void wheelSizeMustBeAPowerOfTwo() {
+        assertThatThrownBy(() -> new HashedTimingWheel<>(TICK, 10, 0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
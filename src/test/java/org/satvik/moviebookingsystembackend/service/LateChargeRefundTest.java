@@ -0,0 +1,132 @@
+package org.satvik.moviebookingsystembackend.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.satvik.moviebookingsystembackend.entity.Booking;
+import org.satvik.moviebookingsystembackend.entity.Payment;
+import org.satvik.moviebookingsystembackend.entity.Seat;
+import org.satvik.moviebookingsystembackend.entity.Show;
+import org.satvik.moviebookingsystembackend.entity.ShowSeat;
+import org.satvik.moviebookingsystembackend.exception.BookingException;
+import org.satvik.moviebookingsystembackend.gateway.GatewayIntent;
+import org.satvik.moviebookingsystembackend.gateway.RefundRequest;
+import org.satvik.moviebookingsystembackend.repository.*;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LateChargeRefundTest {
+
+    @Mock private BookingRepository bookingRepository;
+    @Mock private ShowRepository showRepository;
+    @Mock private ShowSeatRepository showSeatRepository;
+    @Mock private UserRepository userRepository;
+    @Mock private PaymentService paymentService;
+    @Mock private SeatStateEngine seatStateEngine;
+    @Mock private SeatHoldScheduler seatHoldScheduler;
+    @Mock private AvailableSeatCounter availableSeatCounter;
+    @Mock private BookingHistoryService bookingHistoryService;
+
+    @InjectMocks private BookingService bookingService;
+
+    @Test
+    void chargeCapturedAfterTheHoldExpiredIsRefunded() {
+        Payment payment = expiredBookingWithPayment();
+        RefundRequest refund = new RefundRequest("pi_1", 40_800, "refund-pi_1");
+        when(paymentService.refundLateCharge(eq(payment), any())).thenReturn(refund);
+
+        BookingService.Settlement settlement = bookingService.settlePayment(1L, intent("succeeded"));
+
+        assertThat(settlement.paid()).isFalse();
+        assertThat(settlement.lateRefund()).isEqualTo(refund);
+        verify(paymentService, never()).settle(any(), any());
+        verifyNoInteractions(showSeatRepository, seatStateEngine);
+    }
+
+    @Test
+    void unpaidIntentOfAnExpiredBookingIsJustRejected() {
+        expiredBookingWithPayment();
+
+        assertThatThrownBy(() -> bookingService.settlePayment(1L, intent("requires_payment_method")))
+                .isInstanceOf(BookingException.class)
+                .hasMessageContaining("no longer awaiting payment");
+        verify(paymentService, never()).refundLateCharge(any(), any());
+    }
+
+    private Payment expiredBookingWithPayment() {
+        Booking booking = Booking.builder().id(1L).bookingReference("MBK-1").finalAmount(408.0)
+                .status(Booking.BookingStatus.FAILED).build();
+        Payment payment = Payment.builder().booking(booking).amount(408.0).stripePaymentIntentId("pi_1")
+                .status(Payment.PaymentStatus.FAILED).gatewayStage(Payment.GatewayStage.CLOSED).build();
+        booking.setPayment(payment);
+        when(bookingRepository.lockCartOf(1L)).thenReturn(List.of(booking));
+        return payment;
+    }
+
+    @Test
+    void confirmationThatFindsTheBookingNoLongerPendingRollsBack() {
+        Payment payment = pendingBookingWithPayment();
+        when(paymentService.settle(eq(payment), any())).thenReturn(true);
+        when(bookingRepository.confirmPendingBookings(List.of(1L))).thenReturn(0);
+
+        assertThatThrownBy(() -> bookingService.settlePayment(1L, intent("succeeded")))
+                .isInstanceOf(BookingException.class)
+                .hasMessageContaining("no longer awaiting payment");
+        verifyNoInteractions(showSeatRepository, seatStateEngine);
+    }
+
+    @Test
+    void confirmationThatFindsASeatHoldGoneRollsBack() {
+        Payment payment = pendingBookingWithPayment();
+        when(paymentService.settle(eq(payment), any())).thenReturn(true);
+        when(bookingRepository.confirmPendingBookings(List.of(1L))).thenReturn(1);
+        when(showSeatRepository.bookLockedSeats(1L)).thenReturn(1);
+
+        assertThatThrownBy(() -> bookingService.settlePayment(1L, intent("succeeded")))
+                .isInstanceOf(BookingException.class)
+                .hasMessageContaining("was lost");
+        verifyNoInteractions(seatStateEngine);
+    }
+
+    @Test
+    void failedPaymentOnlyFailsBookingsStillPending() {
+        Payment payment = pendingBookingWithPayment();
+        when(paymentService.settle(eq(payment), any())).thenReturn(false);
+        when(bookingRepository.failPendingBooking(eq(1L), any(), any())).thenReturn(0);
+
+        assertThatThrownBy(() -> bookingService.settlePayment(1L, intent("requires_payment_method")))
+                .isInstanceOf(BookingException.class)
+                .hasMessageContaining("no longer awaiting payment");
+        verify(showSeatRepository, never()).releaseSeatsByBookingId(anyLong());
+        verifyNoInteractions(seatStateEngine, availableSeatCounter);
+    }
+
+    private Payment pendingBookingWithPayment() {
+        Show show = Show.builder().id(7L).build();
+        Booking booking = Booking.builder().id(1L).bookingReference("MBK-1").finalAmount(408.0).show(show)
+                .status(Booking.BookingStatus.PENDING).build();
+        booking.setShowSeats(List.of(seat(11L), seat(12L)));
+        Payment payment = Payment.builder().booking(booking).amount(408.0).stripePaymentIntentId("pi_1")
+                .status(Payment.PaymentStatus.PENDING).gatewayStage(Payment.GatewayStage.AWAITING_PAYMENT).build();
+        booking.setPayment(payment);
+        when(bookingRepository.lockCartOf(1L)).thenReturn(List.of(booking));
+        return payment;
+    }
+
+    private static ShowSeat seat(Long seatId) {
+        return ShowSeat.builder().seat(Seat.builder().id(seatId).build()).build();
+    }
+
+    private static GatewayIntent intent(String status) {
+        return new GatewayIntent("pi_1", "secret", status, "ch_1");
+    }
+}
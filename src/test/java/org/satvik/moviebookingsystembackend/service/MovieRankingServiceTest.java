@@ -0,0 +1,47 @@
+package org.satvik.moviebookingsystembackend.service;
+
+import org.junit.jupiter.api.Test;
+import org.satvik.moviebookingsystembackend.repository.BookingRepository;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class MovieRankingServiceTest {
+
+    private final MovieRankingService ranking = new MovieRankingService(mock(BookingRepository.class), 24, 2);
+
+    @Test
+    void recentBookingsOutrankOlderOnesOfTheSameSize() {
+        LocalDateTime now = LocalDateTime.now();
+        ranking.record(1L, 10, now.minusDays(2));
+        ranking.record(2L, 4, now);
+        // Two half-lives ago, 10 seats are worth 2.5 seats today
+        assertThat(ranking.trending()).containsExactly(2L, 1L);
+
+        ranking.record(1L, 2, now);
+        assertThat(ranking.trending()).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void keepsOnlyTheConfiguredNumberOfMovies() {
+        LocalDateTime now = LocalDateTime.now();
+        ranking.record(1L, 1, now);
+        ranking.record(2L, 3, now);
+        ranking.record(3L, 2, now);
+
+        assertThat(ranking.trending()).containsExactly(2L, 3L);
+    }
+
+    @Test
+    void rescalingAfterManyHalfLivesKeepsTheOrder() {
+        LocalDateTime now = LocalDateTime.now();
+        ranking.record(1L, 5, now);
+        ranking.record(2L, 1, now.plusDays(600));
+        ranking.record(3L, 3, now.plusDays(600));
+
+        // Movie 1 decayed to nothing and was dropped by the rescale
+        assertThat(ranking.trending()).containsExactly(3L, 2L);
+    }
+}
@@ -0,0 +1,68 @@
+package org.satvik.moviebookingsystembackend.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.satvik.moviebookingsystembackend.entity.Booking;
+import org.satvik.moviebookingsystembackend.entity.Payment;
+import org.satvik.moviebookingsystembackend.exception.PaymentException;
+import org.satvik.moviebookingsystembackend.gateway.GatewayIntent;
+import org.satvik.moviebookingsystembackend.gateway.PaymentGatewayClient;
+import org.satvik.moviebookingsystembackend.repository.PaymentRepository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PaymentServiceTest {
+
+    @Mock private PaymentRepository paymentRepository;
+    @Mock private PaymentGatewayClient gatewayClient;
+
+    @InjectMocks private PaymentService paymentService;
+
+    @Test
+    void succeededIntentSettlesAnAwaitingPayment() {
+        Payment payment = awaitingPayment();
+        when(paymentRepository.settleAwaitingPayment(5L, "ch_1")).thenReturn(1);
+
+        assertThat(paymentService.settle(payment, intent("succeeded"))).isTrue();
+        assertThat(payment.getGatewayStage()).isEqualTo(Payment.GatewayStage.SETTLED);
+        assertThat(payment.getStripeChargeId()).isEqualTo("ch_1");
+    }
+
+    @Test
+    void paymentClosedMeanwhileIsNotSettled() {
+        Payment payment = awaitingPayment();
+        when(paymentRepository.settleAwaitingPayment(5L, "ch_1")).thenReturn(0);
+
+        assertThatThrownBy(() -> paymentService.settle(payment, intent("succeeded")))
+                .isInstanceOf(PaymentException.class)
+                .hasMessageContaining("no longer awaiting");
+        assertThat(payment.getGatewayStage()).isEqualTo(Payment.GatewayStage.AWAITING_PAYMENT);
+    }
+
+    @Test
+    void failedIntentClosesTheOpenPayment() {
+        Payment payment = awaitingPayment();
+        when(paymentRepository.closeOpenPayment(1L)).thenReturn(1);
+
+        assertThat(paymentService.settle(payment, intent("requires_payment_method"))).isFalse();
+        assertThat(payment.getGatewayStage()).isEqualTo(Payment.GatewayStage.CLOSED);
+        verify(paymentRepository, never()).settleAwaitingPayment(any(), any());
+    }
+
+    private static Payment awaitingPayment() {
+        Booking booking = Booking.builder().id(1L).bookingReference("MBK-1").build();
+        return Payment.builder().id(5L).booking(booking).amount(408.0).stripePaymentIntentId("pi_1")
+                .status(Payment.PaymentStatus.PENDING).gatewayStage(Payment.GatewayStage.AWAITING_PAYMENT).build();
+    }
+
+    private static GatewayIntent intent(String status) {
+        return new GatewayIntent("pi_1", "secret", status, "ch_1");
+    }
+}
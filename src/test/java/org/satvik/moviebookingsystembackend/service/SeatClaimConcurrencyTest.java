@@ -0,0 +1,145 @@
+package org.satvik.moviebookingsystembackend.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.satvik.moviebookingsystembackend.dto.BookingDTO;
+import org.satvik.moviebookingsystembackend.entity.*;
+import org.satvik.moviebookingsystembackend.exception.BookingException;
+import org.satvik.moviebookingsystembackend.repository.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SeatClaimConcurrencyTest {
+
+    private static final long SHOW_ID = 1L;
+    private static final int SEATS = 200;
+    private static final int CLAIMS = 5_000;
+
+    @Mock private BookingRepository bookingRepository;
+    @Mock private ShowRepository showRepository;
+    @Mock private ShowSeatRepository showSeatRepository;
+    @Mock private UserRepository userRepository;
+    @Mock private PaymentService paymentService;
+    @Mock private SeatStateEngine seatStateEngine;
+    @Mock private SeatHoldScheduler seatHoldScheduler;
+    @Mock private AvailableSeatCounter availableSeatCounter;
+    @Mock private BookingHistoryService bookingHistoryService;
+
+    @InjectMocks private BookingService bookingService;
+
+    @Test
+    void conflictingClaimsOnOneShowHaveExactlyOneWinnerPerSeat() throws Exception {
+        // Sparse storage: the map is the screen's seats, with no show_seats rows yet
+        Show show = Show.builder().id(SHOW_ID).screen(Screen.builder().id(1L).build()).silverPrice(200.0).build();
+        ShowRepository shows = mock(ShowRepository.class);
+        when(shows.findById(SHOW_ID)).thenReturn(Optional.of(show));
+        SeatRepository seats = mock(SeatRepository.class);
+        when(seats.findByScreenId(1L)).thenReturn(showSeats(SEATS).stream().map(ShowSeat::getSeat).toList());
+        ShowSeatRepository repository = mock(ShowSeatRepository.class);
+        SeatStateEngine engine = new SeatStateEngine(shows, repository, seats);
+
+        Set<Long> claimedSeats = ConcurrentHashMap.newKeySet();
+        AtomicInteger winners = new AtomicInteger();
+        AtomicInteger losers = new AtomicInteger();
+        AtomicInteger doubleClaims = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+
+        ExecutorService pool = Executors.newFixedThreadPool(32);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < CLAIMS; i++) {
+            // Overlapping windows of 1-4 seats so nearly every claim conflicts with others
+            int first = ThreadLocalRandom.current().nextInt(SEATS);
+            int count = 1 + ThreadLocalRandom.current().nextInt(4);
+            List<Long> seatIds = new ArrayList<>();
+            for (int s = 0; s < count && first + s < SEATS; s++) {
+                seatIds.add((long) first + s + 1);
+            }
+            futures.add(pool.submit(() -> {
+                start.await();
+                try {
+                    engine.lockSeats(SHOW_ID, seatIds);
+                    winners.incrementAndGet();
+                    for (Long seatId : seatIds) {
+                        if (!claimedSeats.add(seatId)) {
+                            doubleClaims.incrementAndGet();
+                        }
+                    }
+                } catch (BookingException e) {
+                    losers.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        ShowSeatMap seatMap = engine.get(SHOW_ID);
+        assertThat(doubleClaims).hasValue(0);
+        assertThat(winners.get() + losers.get()).isEqualTo(CLAIMS);
+        assertThat(seatMap.availableCount()).isEqualTo(SEATS - claimedSeats.size());
+        for (int i = 0; i < SEATS; i++) {
+            ShowSeat.SeatStatus expected = claimedSeats.contains(seatMap.seatIdAt(i))
+                    ? ShowSeat.SeatStatus.LOCKED : ShowSeat.SeatStatus.AVAILABLE;
+            assertThat(seatMap.statusAt(i)).isEqualTo(expected);
+        }
+        // Loaded once, never re-read per claim
+        verify(repository, times(1)).findByShowIdWithSeat(SHOW_ID);
+    }
+
+    @Test
+    void bookingIsRejectedWhenConditionalUpdateClaimsFewerRows() {
+        Show show = Show.builder().id(SHOW_ID).status(Show.ShowStatus.UPCOMING).build();
+        when(userRepository.findById(7L)).thenReturn(Optional.of(User.builder().id(7L).build()));
+        when(showRepository.findById(SHOW_ID)).thenReturn(Optional.of(show));
+        when(seatStateEngine.lockSeats(eq(SHOW_ID), anyList()))
+                .thenReturn(new ShowSeatMap(SHOW_ID, showSeats(4)));
+        when(bookingRepository.save(any(Booking.class))).thenAnswer(inv -> inv.getArgument(0));
+        // Another node already locked one of the rows
+        when(showSeatRepository.claimSeatsForBooking(eq(SHOW_ID), anyList(), any())).thenReturn(2);
+
+        BookingDTO.BookingRequest request = new BookingDTO.BookingRequest();
+        request.setShowId(SHOW_ID);
+        request.setSeatIds(List.of(1L, 2L, 3L));
+
+        assertThatThrownBy(() -> bookingService.reserveSeats(7L, request))
+                .isInstanceOf(BookingException.class)
+                .hasMessageContaining("already booked");
+        verifyNoInteractions(paymentService);
+    }
+
+    private static List<ShowSeat> showSeats(int count) {
+        List<ShowSeat> showSeats = new ArrayList<>();
+        for (int i = 1; i <= count; i++) {
+            Seat seat = Seat.builder()
+                    .id((long) i)
+                    .rowNumber(String.valueOf((char) ('A' + (i - 1) / 20)))
+                    .seatNumber(String.valueOf((i - 1) % 20 + 1))
+                    .seatType(Seat.SeatType.SILVER)
+                    .build();
+            showSeats.add(ShowSeat.builder()
+                    .id((long) i)
+                    .seat(seat)
+                    .status(ShowSeat.SeatStatus.AVAILABLE)
+                    .price(200.0)
+                    .build());
+        }
+        return showSeats;
+    }
+}
@@ -0,0 +1,61 @@
+package org.satvik.moviebookingsystembackend.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.satvik.moviebookingsystembackend.repository.BookingRepository;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class SeatHoldSchedulerTest {
+
+    private final BookingRepository bookingRepository = mock(BookingRepository.class);
+    private final SeatHoldService seatHoldService = mock(SeatHoldService.class);
+    private final SeatHoldScheduler scheduler = new SeatHoldScheduler(bookingRepository, seatHoldService);
+
+    @BeforeEach
+    void start() {
+        ReflectionTestUtils.setField(scheduler, "holdMinutes", 10L);
+        // Far longer than a test, so only the explicit tick() calls below move the wheel
+        ReflectionTestUtils.setField(scheduler, "tickMillis", 60_000L);
+        ReflectionTestUtils.setField(scheduler, "batchSize", 100);
+        scheduler.start();
+    }
+
+    @AfterEach
+    void stop() {
+        scheduler.stop();
+    }
+
+    @Test
+    void holdsOfPendingBookingsAreRestoredOnStartup() {
+        LocalDateTime now = LocalDateTime.now();
+        when(bookingRepository.findPendingBookingHolds()).thenReturn(List.of(
+                new Object[]{1L, now.minusMinutes(30)},   // expired while the node was down
+                new Object[]{2L, now.minusMinutes(1)}));
+
+        scheduler.restorePendingHolds();
+        scheduler.tick();
+
+        verify(seatHoldService).releaseExpiredHolds(List.of(1L));
+        assertThat(scheduler.pendingHolds()).isEqualTo(1);
+    }
+
+    @Test
+    void releasedHoldsDoNotExpire() {
+        LocalDateTime expired = LocalDateTime.now().minusMinutes(30);
+        scheduler.hold(1L, expired);
+        scheduler.release(1L);
+        scheduler.hold(2L, expired);
+        scheduler.tick();
+
+        verify(seatHoldService).releaseExpiredHolds(List.of(2L));
+        verifyNoMoreInteractions(seatHoldService);
+        assertThat(scheduler.pendingHolds()).isZero();
+    }
+}
@@ -0,0 +1,148 @@
+package org.satvik.moviebookingsystembackend.service;
+
+import org.junit.jupiter.api.Test;
+import org.satvik.moviebookingsystembackend.entity.Seat;
+import org.satvik.moviebookingsystembackend.entity.ShowSeat;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SeatMapBroadcasterTest {
+
+    private static final long SHOW_ID = 1L;
+
+    private final SeatStateEngine seatStateEngine = mock(SeatStateEngine.class);
+    private final SeatMapBroadcaster broadcaster = new SeatMapBroadcaster(seatStateEngine, 30, 250, 2000, 15);
+    private final ShowSeatMap seatMap = new ShowSeatMap(SHOW_ID, showSeats(100));
+
+    SeatMapBroadcasterTest() {
+        when(seatStateEngine.get(SHOW_ID)).thenReturn(seatMap);
+        when(seatStateEngine.resident(SHOW_ID)).thenReturn(seatMap);
+    }
+
+    @Test
+    void viewerGetsTheLayoutOnceThenOnlyChangedSeats() throws Exception {
+        RecordingEmitter viewer = new RecordingEmitter();
+        broadcaster.subscribe(SHOW_ID, viewer);
+
+        broadcaster.tick();
+        seatMap.tryClaim(new int[]{3, 4});
+        broadcaster.tick();
+        // Locked and released within one tick: nothing to send
+        seatMap.tryClaim(new int[]{9});
+        seatMap.compareAndSet(9, ShowSeat.SeatStatus.LOCKED, ShowSeat.SeatStatus.AVAILABLE);
+        broadcaster.tick();
+
+        assertThat(viewer.events).hasSize(2);
+        assertThat(viewer.events.get(0)).startsWith("event:layout");
+        assertThat(viewer.events.get(1)).isEqualTo("event:seats\ndata:"
+                + "[{\"seatId\":4,\"status\":\"LOCKED\"},{\"seatId\":5,\"status\":\"LOCKED\"}]\n\n");
+    }
+
+    @Test
+    void everyViewerGetsTheDeltaAndBrokenConnectionsAreDropped() throws Exception {
+        List<RecordingEmitter> viewers = new ArrayList<>();
+        for (int i = 0; i < 50_000; i++) {
+            RecordingEmitter viewer = new RecordingEmitter();
+            broadcaster.subscribe(SHOW_ID, viewer);
+            viewers.add(viewer);
+        }
+        viewers.get(7).broken = true;
+
+        seatMap.tryClaim(new int[]{0});
+        broadcaster.tick();
+
+        assertThat(viewers).filteredOn(viewer -> !viewer.broken)
+                .allSatisfy(viewer -> assertThat(viewer.events).hasSize(2));
+        assertThat(broadcaster.viewerCount()).isEqualTo(49_999);
+    }
+
+    @Test
+    void viewersOfAnEvictedShowAreDisconnected() throws Exception {
+        broadcaster.subscribe(SHOW_ID, new RecordingEmitter());
+        broadcaster.tick();
+        assertThat(broadcaster.viewerCount()).isEqualTo(1);
+
+        // Completed or cancelled: the engine no longer keeps the show
+        when(seatStateEngine.resident(SHOW_ID)).thenReturn(null);
+        broadcaster.tick();
+
+        assertThat(broadcaster.viewerCount()).isZero();
+    }
+
+    @Test
+    void ticksOnItsOwnThreadOnceStarted() throws Exception {
+        SeatMapBroadcaster started = new SeatMapBroadcaster(seatStateEngine, 30, 20, 2000, 15);
+        Set<String> tickThreads = ConcurrentHashMap.newKeySet();
+        when(seatStateEngine.resident(SHOW_ID)).thenAnswer(invocation -> {
+            tickThreads.add(Thread.currentThread().getName());
+            return seatMap;
+        });
+        RecordingEmitter viewer = new RecordingEmitter();
+        started.subscribe(SHOW_ID, viewer);
+
+        started.start();
+        try {
+            seatMap.tryClaim(new int[]{0});
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (viewer.events.size() < 2 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+        } finally {
+            started.shutdown();
+        }
+
+        assertThat(viewer.events).hasSizeGreaterThanOrEqualTo(2);
+        // Never the shared scheduler thread, which a slow client would otherwise hold up
+        assertThat(tickThreads).containsOnly("seat-map-ticker");
+    }
+
+    private static class RecordingEmitter extends SseEmitter {
+        final List<String> events = new CopyOnWriteArrayList<>();
+        volatile boolean broken;
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            send(builder.build());
+        }
+
+        @Override
+        public void send(Set<ResponseBodyEmitter.DataWithMediaType> items) throws IOException {
+            if (broken) {
+                throw new IOException("Broken pipe");
+            }
+            events.add(items.stream().map(item -> String.valueOf(item.getData())).collect(Collectors.joining()));
+        }
+    }
+
+    private static List<ShowSeat> showSeats(int count) {
+        List<ShowSeat> showSeats = new ArrayList<>();
+        for (int i = 1; i <= count; i++) {
+            Seat seat = Seat.builder()
+                    .id((long) i)
+                    .rowNumber(String.valueOf((char) ('A' + (i - 1) / 20)))
+                    .seatNumber(String.valueOf((i - 1) % 20 + 1))
+                    .seatType(Seat.SeatType.SILVER)
+                    .build();
+            showSeats.add(ShowSeat.builder()
+                    .id((long) i)
+                    .seat(seat)
+                    .status(ShowSeat.SeatStatus.AVAILABLE)
+                    .price(200.0)
+                    .build());
+        }
+        return showSeats;
+    }
+}
@@ -0,0 +1,80 @@
+package org.satvik.moviebookingsystembackend.service;
+
+import org.junit.jupiter.api.Test;
+import org.satvik.moviebookingsystembackend.entity.Screen;
+import org.satvik.moviebookingsystembackend.entity.Seat;
+import org.satvik.moviebookingsystembackend.entity.Show;
+import org.satvik.moviebookingsystembackend.repository.SeatRepository;
+import org.satvik.moviebookingsystembackend.repository.ShowRepository;
+import org.satvik.moviebookingsystembackend.repository.ShowSeatRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SeatStateEngineTest {
+
+    private final ShowRepository showRepository = mock(ShowRepository.class);
+    private final SeatRepository seatRepository = mock(SeatRepository.class);
+    private final SeatStateEngine engine = new SeatStateEngine(showRepository, mock(ShowSeatRepository.class), seatRepository);
+
+    SeatStateEngineTest() {
+        when(seatRepository.findByScreenId(1L)).thenReturn(List.of(
+                Seat.builder().id(1L).rowNumber("A").seatNumber("1").seatType(Seat.SeatType.SILVER).build(),
+                Seat.builder().id(2L).rowNumber("A").seatNumber("2").seatType(Seat.SeatType.SILVER).build()));
+    }
+
+    @Test
+    void bookableShowsStayResidentUntilEvicted() {
+        show(1L, Show.ShowStatus.UPCOMING);
+
+        ShowSeatMap seatMap = engine.get(1L);
+        assertThat(engine.resident(1L)).isSameAs(seatMap);
+        assertThat(engine.get(1L)).isSameAs(seatMap);
+
+        engine.evict(1L);
+        assertThat(engine.resident(1L)).isNull();
+    }
+
+    @Test
+    void finishedShowsAreServedButNotKept() {
+        show(2L, Show.ShowStatus.COMPLETED);
+        show(3L, Show.ShowStatus.CANCELLED);
+
+        assertThat(engine.get(2L).size()).isEqualTo(2);
+        assertThat(engine.get(3L).size()).isEqualTo(2);
+        assertThat(engine.resident(2L)).isNull();
+        assertThat(engine.resident(3L)).isNull();
+    }
+
+    @Test
+    void concurrentFirstReadsShareOneMap() throws Exception {
+        show(4L, Show.ShowStatus.UPCOMING);
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<Future<ShowSeatMap>> reads = new ArrayList<>();
+        for (int i = 0; i < 32; i++) {
+            reads.add(pool.submit(() -> {
+                start.await();
+                return engine.get(4L);
+            }));
+        }
+        start.countDown();
+        ShowSeatMap resident = reads.get(0).get(5, TimeUnit.SECONDS);
+        for (Future<ShowSeatMap> read : reads) {
+            assertThat(read.get(5, TimeUnit.SECONDS)).isSameAs(engine.resident(4L));
+        }
+        assertThat(resident).isSameAs(engine.resident(4L));
+        pool.shutdown();
+    }
+
+    private void show(Long id, Show.ShowStatus status) {
+        when(showRepository.findById(id)).thenReturn(Optional.of(Show.builder().id(id).status(status)
+                .screen(Screen.builder().id(1L).build()).silverPrice(200.0).build()));
+    }
+}
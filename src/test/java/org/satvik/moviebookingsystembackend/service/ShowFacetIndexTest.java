@@ -0,0 +1,108 @@
+package org.satvik.moviebookingsystembackend.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.satvik.moviebookingsystembackend.entity.*;
+import org.satvik.moviebookingsystembackend.event.ShowsChangedEvent;
+import org.satvik.moviebookingsystembackend.repository.ShowRepository;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ShowFacetIndexTest {
+
+    private static final LocalDate TOMORROW = LocalDate.now().plusDays(1);
+
+    private final ShowRepository showRepository = mock(ShowRepository.class);
+    private final ShowFacetIndex index = new ShowFacetIndex(showRepository);
+
+    private final Movie hindiDrama = movie(1L, "Hindi", "Drama", Movie.Certificate.U);
+    private final Movie englishAction = movie(2L, "English", "Action", Movie.Certificate.UA);
+    private final Theatre mumbai = Theatre.builder().id(1L).city("Mumbai").build();
+    private final Theatre pune = Theatre.builder().id(2L).city("Pune").build();
+
+    @BeforeEach
+    void buildIndex() {
+        when(showRepository.findBookableWithDetails(any())).thenReturn(List.of(
+                show(10L, hindiDrama, mumbai, Screen.ScreenType.IMAX, LocalTime.of(10, 0), 150.0),
+                show(11L, hindiDrama, pune, Screen.ScreenType.STANDARD, LocalTime.of(19, 0), 250.0),
+                show(12L, englishAction, mumbai, Screen.ScreenType.IMAX, LocalTime.of(22, 0), 500.0),
+                show(13L, englishAction, pune, Screen.ScreenType.STANDARD, LocalTime.of(13, 0), 180.0)));
+        index.build();
+    }
+
+    @Test
+    void orsValuesWithinAFacetAndAndsFacets() {
+        ShowFacetIndex.Result result = index.find(Map.of(
+                ShowFacetIndex.Facet.CITY, List.of("Mumbai", "Pune"),
+                ShowFacetIndex.Facet.SCREEN_TYPE, List.of("IMAX")), 0, 10);
+
+        assertThat(result.showIds()).containsExactly(10L, 12L);
+        assertThat(result.total()).isEqualTo(2);
+    }
+
+    @Test
+    void countsIgnoreTheFacetsOwnSelection() {
+        ShowFacetIndex.Result result = index.find(Map.of(
+                ShowFacetIndex.Facet.CITY, List.of("Mumbai"),
+                ShowFacetIndex.Facet.LANGUAGE, List.of("English")), 0, 10);
+
+        assertThat(result.showIds()).containsExactly(12L);
+        // Other cities stay visible for the selected language, and vice versa
+        assertThat(result.counts().get(ShowFacetIndex.Facet.CITY)).containsExactlyInAnyOrderEntriesOf(
+                Map.of("Mumbai", 1, "Pune", 1));
+        assertThat(result.counts().get(ShowFacetIndex.Facet.LANGUAGE)).containsExactlyInAnyOrderEntriesOf(
+                Map.of("English", 1, "Hindi", 1));
+        assertThat(result.counts().get(ShowFacetIndex.Facet.PRICE_BAND)).containsExactly(Map.entry("PREMIUM", 1));
+        assertThat(result.counts().get(ShowFacetIndex.Facet.TIME_OF_DAY)).containsExactly(Map.entry("NIGHT", 1));
+    }
+
+    @Test
+    void cancelledShowsLeaveTheIndex() {
+        Show cancelled = show(12L, englishAction, mumbai, Screen.ScreenType.IMAX, LocalTime.of(22, 0), 500.0);
+        cancelled.setStatus(Show.ShowStatus.CANCELLED);
+        when(showRepository.findWithDetailsByIds(anyList())).thenReturn(List.of(cancelled));
+
+        index.onShowsChanged(new ShowsChangedEvent(List.of(12L), 2L, 1L, "Mumbai", Set.of(TOMORROW)));
+
+        ShowFacetIndex.Result result = index.find(Map.of(ShowFacetIndex.Facet.SCREEN_TYPE, List.of("IMAX")), 0, 10);
+        assertThat(result.showIds()).containsExactly(10L);
+        assertThat(index.find(Map.of(), 0, 10).total()).isEqualTo(3);
+    }
+
+    @Test
+    void pagesPastTheEndAreEmpty() {
+        assertThat(index.find(Map.of(), 2, 10).showIds()).containsExactly(11L, 12L);
+        assertThat(index.find(Map.of(), 4, 10).showIds()).isEmpty();
+        ShowFacetIndex.Result farPastTheEnd = index.find(Map.of(), Integer.MAX_VALUE - 5, 100);
+        assertThat(farPastTheEnd.showIds()).isEmpty();
+        assertThat(farPastTheEnd.total()).isEqualTo(4);
+    }
+
+    private static Movie movie(Long id, String language, String genre, Movie.Certificate certificate) {
+        return Movie.builder().id(id).language(language).genre(genre).certificate(certificate).build();
+    }
+
+    private static Show show(Long id, Movie movie, Theatre theatre, Screen.ScreenType screenType,
+                             LocalTime startTime, Double silverPrice) {
+        return Show.builder()
+                .id(id)
+                .movie(movie)
+                .theatre(theatre)
+                .screen(Screen.builder().id(id).type(screenType).build())
+                .showDate(TOMORROW)
+                .startTime(startTime)
+                .silverPrice(silverPrice)
+                .status(Show.ShowStatus.UPCOMING)
+                .build();
+    }
+}
@@ -0,0 +1,98 @@
+package org.satvik.moviebookingsystembackend.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.satvik.moviebookingsystembackend.entity.*;
+import org.satvik.moviebookingsystembackend.repository.*;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 1,000 identical {@link ShowService#getShowById} calls released at once, against the
+ * previous path that ran its own query per call. Show reads wait a simulated 2 ms
+ * database round trip:
+ * <pre>mvn test -Dtest=ShowReadCoalescingBenchmark -Dbenchmark=true</pre>
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class ShowReadCoalescingBenchmark {
+
+    private static final int REQUESTS = 1_000;
+    private static final long DB_ROUND_TRIP_NANOS = 2_000_000;
+
+    private final ShowRepository showRepository = mock(ShowRepository.class);
+    private final AtomicLong reads = new AtomicLong();
+
+    @Test
+    void identicalReadsShareOneQuery() throws Exception {
+        when(showRepository.findById(anyLong())).thenAnswer(invocation -> {
+            reads.incrementAndGet();
+            LockSupport.parkNanos(DB_ROUND_TRIP_NANOS);
+            return Optional.of(show(invocation.getArgument(0)));
+        });
+        // No TTL, so only overlapping calls are merged
+        ShowService showService = new ShowService(showRepository, mock(MovieRepository.class),
+                mock(TheatreRepository.class), mock(ScreenRepository.class), mock(SeatRepository.class),
+                mock(ShowBulkRepository.class), mock(SeatStateEngine.class), mock(AvailableSeatCounter.class),
+                new ShowListingCache(10), new ShowReadCoalescer(0, 0), mock(ShowFacetIndex.class),
+                mock(ApplicationEventPublisher.class));
+
+        run("warm-up", showId -> showRepository.findById(showId).orElseThrow());
+        long before = run("before", showId -> showRepository.findById(showId).orElseThrow());
+        long after = run("after", showService::getShowById);
+
+        assertThat(before).isEqualTo(REQUESTS);
+        assertThat(after).isLessThan(REQUESTS / 20);
+    }
+
+    private long run(String label, Consumer<Long> read) throws Exception {
+        long readsAtStart = reads.get();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> calls = new ArrayList<>();
+        long elapsed;
+        try (ExecutorService pool = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < REQUESTS; i++) {
+                calls.add(pool.submit(() -> {
+                    start.await();
+                    read.accept(1L);
+                    return null;
+                }));
+            }
+            long begin = System.nanoTime();
+            start.countDown();
+            for (Future<?> call : calls) {
+                call.get();
+            }
+            elapsed = System.nanoTime() - begin;
+        }
+        long queries = reads.get() - readsAtStart;
+        System.out.printf("%s: %d requests, %d database reads, %.1f ms%n", label, REQUESTS, queries, elapsed / 1e6);
+        return queries;
+    }
+
+    private static Show show(Long id) {
+        return Show.builder()
+                .id(id)
+                .movie(Movie.builder().id(1L).title("Benchmark").build())
+                .theatre(Theatre.builder().id(1L).name("Benchmark Multiplex").city("Benchville").build())
+                .screen(Screen.builder().id(1L).name("Screen 1").build())
+                .showDate(LocalDate.now().plusDays(1))
+                .startTime(LocalTime.of(18, 0))
+                .silverPrice(200.0)
+                .status(Show.ShowStatus.UPCOMING)
+                .build();
+    }
+}
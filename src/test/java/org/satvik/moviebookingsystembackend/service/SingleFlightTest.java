@@ -0,0 +1,113 @@
+package org.satvik.moviebookingsystembackend.service;
+
+import org.junit.jupiter.api.Test;
+import org.satvik.moviebookingsystembackend.exception.ResourceNotFoundException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SingleFlightTest {
+
+    @Test
+    void concurrentCallsShareOneLoad() throws Exception {
+        SingleFlight<Long, String> flight = new SingleFlight<>("show", 0);
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        try (ExecutorService pool = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<String> first = pool.submit(() -> flight.get(1L, () -> {
+                loads.incrementAndGet();
+                loading.countDown();
+                await(release);
+                return "show 1";
+            }));
+            loading.await();
+            List<Future<String>> joiners = new ArrayList<>();
+            for (int i = 0; i < 50; i++) {
+                joiners.add(pool.submit(() -> flight.get(1L, () -> "loaded again " + loads.incrementAndGet())));
+            }
+            while (flight.stats().coalesced() < 50) {
+                Thread.sleep(1);
+            }
+            release.countDown();
+
+            assertThat(first.get()).isEqualTo("show 1");
+            for (Future<String> joiner : joiners) {
+                assertThat(joiner.get()).isEqualTo("show 1");
+            }
+        }
+        assertThat(loads).hasValue(1);
+        // No TTL: the next call loads again
+        assertThat(flight.get(1L, () -> "fresh")).isEqualTo("fresh");
+        assertThat(flight.stats().misses()).isEqualTo(2);
+    }
+
+    @Test
+    void resultsAreReusedWithinTheTtlUntilForgotten() {
+        SingleFlight<Long, String> flight = new SingleFlight<>("show", 60_000);
+
+        assertThat(flight.get(1L, () -> "first")).isEqualTo("first");
+        assertThat(flight.get(1L, () -> "second")).isEqualTo("first");
+        flight.forget(1L);
+        assertThat(flight.get(1L, () -> "third")).isEqualTo("third");
+        assertThat(flight.stats()).extracting(SingleFlight.Stats::hits, SingleFlight.Stats::misses)
+                .containsExactly(1L, 2L);
+    }
+
+    @Test
+    void loadInFlightWhenForgottenAnswersItsWaitersButIsNotKept() throws Exception {
+        SingleFlight<Long, String> flight = new SingleFlight<>("show", 60_000);
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        try (ExecutorService pool = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<String> first = pool.submit(() -> flight.get(1L, () -> {
+                loading.countDown();
+                await(release);
+                return "before the change";
+            }));
+            loading.await();
+            Future<String> joiner = pool.submit(() -> flight.get(1L, () -> "not loaded"));
+            while (flight.stats().coalesced() < 1) {
+                Thread.sleep(1);
+            }
+
+            flight.forget(1L);
+            // Callers after the forget do not join the stale load
+            Future<String> next = pool.submit(() -> flight.get(1L, () -> "after the change"));
+            try {
+                assertThat(next.get(5, TimeUnit.SECONDS)).isEqualTo("after the change");
+            } finally {
+                release.countDown();
+            }
+
+            assertThat(first.get()).isEqualTo("before the change");
+            assertThat(joiner.get()).isEqualTo("before the change");
+        }
+        assertThat(flight.get(1L, () -> "not loaded")).isEqualTo("after the change");
+    }
+
+    @Test
+    void failuresAreNotReused() {
+        SingleFlight<Long, String> flight = new SingleFlight<>("show", 60_000);
+
+        assertThatThrownBy(() -> flight.get(1L, () -> {
+            throw new ResourceNotFoundException("Show not found with id: 1");
+        })).isInstanceOf(ResourceNotFoundException.class);
+        assertThat(flight.get(1L, () -> "created since")).isEqualTo("created since");
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
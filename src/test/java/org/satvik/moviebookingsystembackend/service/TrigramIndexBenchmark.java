@@ -0,0 +1,114 @@
+package org.satvik.moviebookingsystembackend.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Search and autocomplete latency over a synthetic 100,000-title corpus. Titles are two
+ * to four words from a 20,000-word vocabulary of English-frequency letters, skewed so
+ * common words dominate:
+ * <pre>mvn test -Dtest=TrigramIndexBenchmark -Dbenchmark=true</pre>
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class TrigramIndexBenchmark {
+
+    private static final int TITLES = 100_000;
+    private static final int QUERIES = 10_000;
+    private static final int ROUNDS = 3;
+    private static final int VOCABULARY = 20_000;
+    // Letters repeated roughly in proportion to their frequency in English text
+    private static final String LETTERS =
+            "eeeeeeeeeeeettttttttaaaaaaaaoooooooiiiiiiinnnnnnnsssssshhhhhhrrrrrrddddllllcccuuummwwffggyyppbbvkjxqz";
+    private static final List<String> PEOPLE = List.of(
+            "Nolan", "Kapoor", "Khan", "Spielberg", "Scorsese", "Bigelow", "Gerwig", "Ratnam", "Bhansali", "Villeneuve");
+    private static final List<String> GENRES = List.of("Action", "Drama", "Comedy", "Thriller", "Romance", "Horror");
+
+    @Test
+    void searchAndSuggestOnOneHundredThousandTitles() {
+        Random random = new Random(42);
+        TrigramIndex index = new TrigramIndex();
+        String[] vocabulary = new String[VOCABULARY];
+        for (int i = 0; i < VOCABULARY; i++) {
+            StringBuilder word = new StringBuilder();
+            for (int letters = 3 + random.nextInt(7); letters > 0; letters--) {
+                word.append(LETTERS.charAt(random.nextInt(LETTERS.length())));
+            }
+            vocabulary[i] = word.toString();
+        }
+        String[] titles = new String[TITLES];
+        long start = System.nanoTime();
+        for (int i = 0; i < TITLES; i++) {
+            StringBuilder title = new StringBuilder(word(random, vocabulary));
+            for (int words = 1 + random.nextInt(3); words > 0; words--) {
+                title.append(' ').append(word(random, vocabulary));
+            }
+            titles[i] = title.toString();
+            index.put(i, titles[i], pick(random, PEOPLE), pick(random, PEOPLE) + ", " + pick(random, PEOPLE),
+                    pick(random, GENRES));
+        }
+        System.out.printf("indexed %,d titles in %d ms%n", TITLES, (System.nanoTime() - start) / 1_000_000);
+
+        // Warm up, then time queries with a typo in one word and word prefixes
+        for (int i = 0; i < QUERIES; i++) {
+            index.search(query(random, titles), 10);
+        }
+        // Best of a few rounds, so a noisy neighbour on a shared host does not decide the result
+        long searchP99 = Long.MAX_VALUE;
+        long suggestP99 = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            long[] searchNanos = new long[QUERIES];
+            long[] suggestNanos = new long[QUERIES];
+            for (int i = 0; i < QUERIES; i++) {
+                String query = query(random, titles);
+                long t0 = System.nanoTime();
+                index.search(query, 10);
+                long t1 = System.nanoTime();
+                index.suggest(query.substring(0, 1 + random.nextInt(Math.min(6, query.length()))), 8);
+                searchNanos[i] = t1 - t0;
+                suggestNanos[i] = System.nanoTime() - t1;
+            }
+            System.out.printf("round %d: search p50 %d us, p99 %d us; suggest p50 %d us, p99 %d us%n", round,
+                    percentile(searchNanos, 0.5) / 1_000, percentile(searchNanos, 0.99) / 1_000,
+                    percentile(suggestNanos, 0.5) / 1_000, percentile(suggestNanos, 0.99) / 1_000);
+            searchP99 = Math.min(searchP99, percentile(searchNanos, 0.99));
+            suggestP99 = Math.min(suggestP99, percentile(suggestNanos, 0.99));
+        }
+        assertThat(searchP99).isLessThan(1_000_000);
+        assertThat(suggestP99).isLessThan(1_000_000);
+    }
+
+    private static String query(Random random, String[] titles) {
+        String[] words = titles[random.nextInt(titles.length)].split(" ");
+        String first = words[0];
+        // Swap two letters of the first word
+        if (first.length() > 3) {
+            char[] chars = first.toCharArray();
+            char c = chars[1];
+            chars[1] = chars[2];
+            chars[2] = c;
+            first = new String(chars);
+        }
+        return first + " " + words[1];
+    }
+
+    private static String word(Random random, String[] vocabulary) {
+        double skew = random.nextDouble();
+        return vocabulary[(int) (skew * skew * vocabulary.length)];
+    }
+
+    private static String pick(Random random, List<String> values) {
+        return values.get(random.nextInt(values.size()));
+    }
+
+    private static long percentile(long[] nanos, double percentile) {
+        long[] sorted = nanos.clone();
+        Arrays.sort(sorted);
+        return sorted[(int) Math.min(sorted.length - 1, Math.round(percentile * sorted.length))];
+    }
+}
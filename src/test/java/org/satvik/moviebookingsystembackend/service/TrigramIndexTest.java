@@ -0,0 +1,59 @@
+package org.satvik.moviebookingsystembackend.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TrigramIndexTest {
+
+    private final TrigramIndex index = new TrigramIndex();
+
+    @Test
+    void ranksTitleMatchesAboveOtherFieldsAndToleratesTypos() {
+        index.put(1, "The Dark Knight", "Christopher Nolan", "Christian Bale, Heath Ledger", "Action");
+        index.put(2, "Knight and Day", "James Mangold", "Tom Cruise", "Action");
+        index.put(3, "Batman Begins", "Christopher Nolan", "Christian Bale", "Action");
+        index.put(4, "Dunkirk", "Christopher Nolan", "Fionn Whitehead", "War");
+
+        assertThat(index.search("dark knight", 10)).first().extracting(TrigramIndex.Hit::id).isEqualTo(1L);
+        assertThat(index.search("drak knigth", 10)).first().extracting(TrigramIndex.Hit::id).isEqualTo(1L);
+        assertThat(index.search("nolan", 10)).extracting(TrigramIndex.Hit::id).containsExactlyInAnyOrder(1L, 3L, 4L);
+        assertThat(index.search("zzzz", 10)).isEmpty();
+    }
+
+    @Test
+    void suggestsLabelsByWordPrefix() {
+        index.put(1, "Interstellar");
+        index.put(2, "Inception");
+        index.put(3, "The Incredibles");
+        index.put(4, "Oppenheimer");
+
+        assertThat(index.suggest("inc", 10)).extracting(TrigramIndex.Hit::id).containsExactly(2L, 3L);
+        assertThat(index.suggest("the inc", 10)).extracting(TrigramIndex.Hit::id).containsExactly(3L);
+        assertThat(index.suggest("in", 1)).extracting(TrigramIndex.Hit::id).containsExactly(2L);
+    }
+
+    @Test
+    void updatesAndRemovalsReplaceEarlierVersions() {
+        index.put(1, "Avatar");
+        index.put(1, "Avatar The Way of Water");
+        index.put(2, "Titanic");
+        index.remove(2);
+
+        assertThat(index.size()).isEqualTo(1);
+        assertThat(index.search("avatar", 10)).extracting(TrigramIndex.Hit::label).containsExactly("Avatar The Way of Water");
+        assertThat(index.search("titanic", 10)).isEmpty();
+        assertThat(index.suggest("tit", 10)).isEmpty();
+    }
+
+    @Test
+    void compactionKeepsLiveDocuments() {
+        for (int round = 0; round < 3; round++) {
+            for (int id = 0; id < 1_000; id++) {
+                index.put(id, "Movie " + id + " round " + round);
+            }
+        }
+        assertThat(index.size()).isEqualTo(1_000);
+        assertThat(index.search("movie 42 round 2", 1)).extracting(TrigramIndex.Hit::id).containsExactly(42L);
+    }
+}
@@ -0,0 +1,94 @@
+package org.satvik.moviebookingsystembackend.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.satvik.moviebookingsystembackend.dto.WaitingRoomDTO;
+import org.satvik.moviebookingsystembackend.exception.AdmissionRequiredException;
+import org.satvik.moviebookingsystembackend.security.JwtService;
+
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class WaitingRoomServiceTest {
+
+    private static final String SECRET = "MovieBookingSecretKey2024VeryLongSecretKeyForJWTTokenGeneration";
+
+    private final JwtService jwtService = new JwtService(SECRET, 60_000);
+    private final WaitingRoomService waitingRoom = new WaitingRoomService(jwtService, 60, "");
+
+    @Test
+    void admitsInJoinOrderAtTheConfiguredRate() {
+        waitingRoom.open(1L, 2, 10);
+        for (long user = 1; user <= 5; user++) {
+            assertThat(waitingRoom.join(1L, user).getPosition()).isEqualTo(user);
+        }
+
+        waitingRoom.admit();
+        WaitingRoomDTO.TicketResponse second = waitingRoom.join(1L, 2L);
+        WaitingRoomDTO.TicketResponse third = waitingRoom.join(1L, 3L);
+
+        assertThat(second.isAdmitted()).isTrue();
+        assertThat(second.getAdmissionToken()).isNotNull();
+        assertThat(third.isAdmitted()).isFalse();
+        assertThat(third.getPosition()).isEqualTo(1);
+        assertThat(waitingRoom.status(1L, 3L, third.getTicket()).getEstimatedWaitSeconds()).isEqualTo(1);
+    }
+
+    @Test
+    void bookingNeedsAnAdmissionForThisShowAndUser() {
+        waitingRoom.open(1L, 10, 10);
+        String admission = waitingRoomAdmission(1L, 7L);
+
+        waitingRoom.checkAdmission(1L, 7L, admission);
+        waitingRoom.checkAdmission(1L, null, admission);
+        waitingRoom.checkAdmission(2L, 8L, null);
+        assertThatThrownBy(() -> waitingRoom.checkAdmission(1L, 8L, admission))
+                .isInstanceOf(AdmissionRequiredException.class);
+        assertThatThrownBy(() -> waitingRoom.checkAdmission(1L, 7L, null))
+                .isInstanceOf(AdmissionRequiredException.class);
+        // A queue ticket is not an admission
+        assertThatThrownBy(() -> waitingRoom.checkAdmission(1L, 7L, waitingRoom.join(1L, 9L).getTicket()))
+                .isInstanceOf(AdmissionRequiredException.class);
+    }
+
+    @Test
+    void quietRoomsDoNotBankAdmissions() {
+        waitingRoom.open(1L, 2, 10);
+        for (int i = 0; i < 10; i++) {
+            waitingRoom.admit();
+        }
+        for (long user = 1; user <= 5; user++) {
+            waitingRoom.join(1L, user);
+        }
+
+        assertThat(waitingRoom.stats()).singleElement()
+                .satisfies(stats -> assertThat(stats.waiting()).isEqualTo(5));
+    }
+
+    @Test
+    void restoresQueuesFromASnapshot(@TempDir Path dir) {
+        String file = dir.resolve("waiting-rooms.bin").toString();
+        WaitingRoomService before = new WaitingRoomService(jwtService, 60, file);
+        before.open(1L, 100, 10);
+        for (long user = 1; user <= 20_000; user++) {
+            before.join(1L, user);
+        }
+        before.admit();
+        before.snapshot();
+
+        WaitingRoomService after = new WaitingRoomService(jwtService, 60, file);
+        after.restore();
+
+        assertThat(after.stats()).containsExactlyElementsOf(before.stats());
+        assertThat(after.join(1L, 15_000L).getPosition()).isEqualTo(14_900);
+        assertThat(after.join(1L, 20_001L).getPosition()).isEqualTo(19_901);
+    }
+
+    private String waitingRoomAdmission(Long showId, Long userId) {
+        WaitingRoomDTO.TicketResponse ticket = waitingRoom.join(showId, userId);
+        waitingRoom.admit();
+        return waitingRoom.status(showId, userId, ticket.getTicket()).getAdmissionToken();
+    }
+}